@@ -0,0 +1,215 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import xyz.mahmoudahmed.model.Annotation;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.Sequence;
+import xyz.mahmoudahmed.model.SequenceData;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates reproducible synthetic inputs for the benchmarks.
+ * Contigs are random ACGT with 60 residues per line. Each gene spans 1000 bases and
+ * carries a CDS, so annotation files of a given feature count have realistic line shapes.
+ */
+public class BenchmarkData {
+    public static final int LINE_WIDTH = 60;
+    public static final int GENE_LENGTH = 1000;
+    public static final int CONTIG_LENGTH = 100_000;
+
+    private static final long SEED = 42;
+
+    private BenchmarkData() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Create random residues.
+     */
+    public static String residues(Random random, int length) {
+        char[] residues = new char[length];
+        for (int i = 0; i < length; i++) {
+            residues[i] = "ACGT".charAt(random.nextInt(4));
+        }
+        return new String(residues);
+    }
+
+    /**
+     * Get the number of contigs needed to hold a number of genes.
+     */
+    public static int contigsFor(int genes) {
+        int genesPerContig = CONTIG_LENGTH / GENE_LENGTH;
+        return Math.max(1, (genes + genesPerContig - 1) / genesPerContig);
+    }
+
+    /**
+     * Write a FASTA file of about the given size, cut into contigs of CONTIG_LENGTH residues.
+     */
+    public static File writeFasta(Path directory, String name, long sizeBytes) throws IOException {
+        Random random = new Random(SEED);
+        long residues = sizeBytes * LINE_WIDTH / (LINE_WIDTH + 1);
+        Path path = directory.resolve(name);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            for (int contig = 0; residues > 0; contig++) {
+                int length = (int) Math.min(CONTIG_LENGTH, residues);
+                writer.write(">contig" + contig + " synthetic contig " + contig);
+                writer.newLine();
+                String sequence = residues(random, length);
+                for (int i = 0; i < length; i += LINE_WIDTH) {
+                    writer.write(sequence, i, Math.min(LINE_WIDTH, length - i));
+                    writer.newLine();
+                }
+                residues -= length;
+            }
+        }
+        return path.toFile();
+    }
+
+    /**
+     * Write an annotation file with the given number of genes in GFF, GTF or BED format.
+     */
+    public static File writeAnnotations(Path directory, String format, int genes) throws IOException {
+        Path path = directory.resolve("annotations." + format.toLowerCase());
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            if ("GFF".equals(format)) {
+                writer.write("##gff-version 3");
+                writer.newLine();
+            }
+            for (int gene = 0; gene < genes; gene++) {
+                String contig = "contig" + gene / (CONTIG_LENGTH / GENE_LENGTH);
+                int start = (gene % (CONTIG_LENGTH / GENE_LENGTH)) * GENE_LENGTH + 1;
+                int end = start + GENE_LENGTH - 100;
+                char strand = gene % 2 == 0 ? '+' : '-';
+                switch (format) {
+                    case "GFF" -> {
+                        writer.write(contig + "\tbench\tgene\t" + start + "\t" + end + "\t.\t" + strand
+                                + "\t.\tID=gene" + gene + ";Name=gene" + gene);
+                        writer.newLine();
+                        writer.write(contig + "\tbench\tCDS\t" + start + "\t" + end + "\t.\t" + strand
+                                + "\t0\tID=cds" + gene + ";Parent=gene" + gene + ";product=protein " + gene);
+                    }
+                    case "GTF" -> {
+                        writer.write(contig + "\tbench\tgene\t" + start + "\t" + end + "\t.\t" + strand
+                                + "\t.\tgene_id \"gene" + gene + "\"; gene_name \"gene" + gene + "\";");
+                        writer.newLine();
+                        writer.write(contig + "\tbench\tCDS\t" + start + "\t" + end + "\t.\t" + strand
+                                + "\t0\tgene_id \"gene" + gene + "\"; transcript_id \"tx" + gene + "\";");
+                    }
+                    case "BED" -> writer.write(contig + "\t" + (start - 1) + "\t" + end + "\tgene" + gene
+                            + "\t0\t" + strand);
+                    default -> throw new IllegalArgumentException("Unsupported format: " + format);
+                }
+                writer.newLine();
+            }
+        }
+        return path.toFile();
+    }
+
+    /**
+     * Write a FASTA annotation file with one CDS record per gene.
+     */
+    public static File writeFastaAnnotations(Path directory, int genes) throws IOException {
+        Random random = new Random(SEED);
+        Path path = directory.resolve("annotations.fa");
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            for (int gene = 0; gene < genes; gene++) {
+                String contig = "contig" + gene / (CONTIG_LENGTH / GENE_LENGTH);
+                int start = (gene % (CONTIG_LENGTH / GENE_LENGTH)) * GENE_LENGTH + 1;
+                int end = start + 899;
+                writer.write(">" + contig + "; " + start + "-" + end + "; " + (gene % 2 == 0 ? '+' : '-')
+                        + "; COX" + (gene % 3 + 1));
+                writer.newLine();
+                writer.write(residues(random, 900));
+                writer.newLine();
+            }
+        }
+        return path.toFile();
+    }
+
+    /**
+     * Create in-memory sequences for the given number of genes.
+     */
+    public static SequenceData sequences(int genes) {
+        Random random = new Random(SEED);
+        SequenceData.Builder builder = SequenceData.builder();
+        for (int contig = 0; contig < contigsFor(genes); contig++) {
+            builder.addSequence(Sequence.builder()
+                    .id("contig" + contig)
+                    .name("contig" + contig)
+                    .description("synthetic contig " + contig)
+                    .sequence(residues(random, CONTIG_LENGTH))
+                    .moleculeType("DNA")
+                    .topology("linear")
+                    .organism("Synthetic organism")
+                    .build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create in-memory gene and CDS annotations.
+     */
+    public static AnnotationData annotations(int genes) {
+        List<Annotation> annotations = new ArrayList<>(genes * 2);
+        for (int gene = 0; gene < genes; gene++) {
+            String contig = "contig" + gene / (CONTIG_LENGTH / GENE_LENGTH);
+            int start = (gene % (CONTIG_LENGTH / GENE_LENGTH)) * GENE_LENGTH;
+            int strand = gene % 2 == 0 ? 1 : -1;
+            annotations.add(Annotation.builder()
+                    .sequenceId(contig)
+                    .type("gene")
+                    .start(start)
+                    .end(start + 900)
+                    .strand(strand)
+                    .featureId("gene" + gene)
+                    .qualifiers(Map.of("gene", List.of("gene" + gene)))
+                    .build());
+            annotations.add(Annotation.builder()
+                    .sequenceId(contig)
+                    .type("CDS")
+                    .start(start)
+                    .end(start + 900)
+                    .strand(strand)
+                    .phase(0)
+                    .featureId("cds" + gene)
+                    .qualifiers(Map.of("gene", List.of("gene" + gene), "product", List.of("protein " + gene)))
+                    .build());
+        }
+
+        AnnotationData.Builder builder = AnnotationData.builder();
+        annotations.forEach(builder::addAnnotation);
+        return builder.build();
+    }
+
+    /**
+     * Create a temporary directory for generated files.
+     */
+    public static Path createTempDirectory() throws IOException {
+        return Files.createTempDirectory("genbankinator-bench");
+    }
+
+    /**
+     * Delete a temporary directory and its files.
+     */
+    public static void delete(Path directory) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so every result includes the
+ * allocation rate per operation (gc.alloc.rate.norm). Accepts the standard JMH
+ * command line, e.g. a benchmark name filter or -p sizeMb=64.
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,49 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.parsers.FastaAnnotationParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of FASTA annotation files with one record per feature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FastaAnnotationParserBenchmark {
+
+    @Param({"1000", "10000"})
+    public int genes;
+
+    private Path directory;
+    private File annotations;
+    private FastaAnnotationParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkData.createTempDirectory();
+        annotations = BenchmarkData.writeFastaAnnotations(directory, genes);
+        parser = new FastaAnnotationParser();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public AnnotationData parse(ThroughputCounters counters) throws IOException {
+        AnnotationData data = parser.parse(annotations);
+        counters.addBytes(annotations.length());
+        counters.features += data.getTotalCount();
+        return data;
+    }
+}
@@ -0,0 +1,57 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import xyz.mahmoudahmed.config.FormatConfiguration;
+import xyz.mahmoudahmed.factory.FormatDetectorFactory;
+import xyz.mahmoudahmed.service.FormatDetectionService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Format detection over FASTA, GFF, GTF and BED files, with and without the result cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatDetectionBenchmark {
+
+    @Param({"0", "128"})
+    public int cacheSize;
+
+    private Path directory;
+    private List<File> files;
+    private FormatDetectionService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkData.createTempDirectory();
+        files = List.of(
+                BenchmarkData.writeFasta(directory, "genome.fa", 1024 * 1024),
+                BenchmarkData.writeAnnotations(directory, "GFF", 1000),
+                BenchmarkData.writeAnnotations(directory, "GTF", 1000),
+                BenchmarkData.writeAnnotations(directory, "BED", 1000));
+        service = new FormatDetectionService(
+                new FormatDetectorFactory(new FormatConfiguration()).createDetectors(), cacheSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public void detectFormat(Blackhole blackhole) {
+        for (File file : files) {
+            blackhole.consume(service.detectFormat(file));
+        }
+    }
+}
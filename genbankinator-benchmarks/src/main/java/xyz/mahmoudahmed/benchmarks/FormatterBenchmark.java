@@ -0,0 +1,74 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.formatters.StreamingGenbankFormatter;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.util.InMemorySequenceStreamProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of in-memory records with gene and CDS features to GenBank output.
+ * Output goes to a counting sink, so the result measures formatting without disk I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatterBenchmark {
+
+    @Param({"default", "streaming"})
+    public String formatter;
+
+    @Param({"1000", "10000"})
+    public int genes;
+
+    private SequenceData sequences;
+    private AnnotationData annotations;
+    private ConversionOptions options;
+    private GenbankFormatter genbankFormatter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sequences = BenchmarkData.sequences(genes);
+        annotations = BenchmarkData.annotations(genes);
+        options = ConversionOptions.builder().organism("Synthetic organism").build();
+        genbankFormatter = "streaming".equals(formatter)
+                ? new StreamingGenbankFormatter(new InMemorySequenceStreamProvider(sequences))
+                : new DefaultGenbankFormatter();
+    }
+
+    @Benchmark
+    public long format(ThroughputCounters counters) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        genbankFormatter.formatToStream(sequences, annotations, out, options);
+        counters.addBytes(out.count);
+        counters.features += annotations.getTotalCount();
+        return out.count;
+    }
+
+    /**
+     * Discards output, counting the bytes written.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
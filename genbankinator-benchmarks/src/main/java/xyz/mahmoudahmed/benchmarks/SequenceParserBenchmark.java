@@ -0,0 +1,56 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.parsers.DefaultSequenceParser;
+import xyz.mahmoudahmed.util.FastaIndexCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full and metadata-only parsing of FASTA files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SequenceParserBenchmark {
+
+    @Param({"1", "16", "64"})
+    public int sizeMb;
+
+    private Path directory;
+    private File fasta;
+    private DefaultSequenceParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkData.createTempDirectory();
+        fasta = BenchmarkData.writeFasta(directory, "genome.fa", sizeMb * 1024L * 1024L);
+        parser = new DefaultSequenceParser();
+        // Index every time, so the metadata benchmark measures the scan rather than the cache
+        parser.setFastaIndexCache(new FastaIndexCache(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public SequenceData parse(ThroughputCounters counters) throws IOException {
+        counters.addBytes(fasta.length());
+        return parser.parse(fasta);
+    }
+
+    @Benchmark
+    public SequenceData parseMetadataOnly(ThroughputCounters counters) throws IOException {
+        counters.addBytes(fasta.length());
+        return parser.parseMetadataOnly(fasta);
+    }
+}
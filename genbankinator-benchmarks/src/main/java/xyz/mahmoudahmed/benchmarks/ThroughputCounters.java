@@ -0,0 +1,37 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary throughput results reported next to the operation rate.
+ * In throughput mode JMH divides the counters by the measured time, so they
+ * are reported as megabytes per second and features per second.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ThroughputCounters {
+    /** Megabytes of input read or output written. */
+    public double megabytes;
+
+    /** Features parsed or formatted. */
+    public long features;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        features = 0;
+    }
+
+    /**
+     * Record one operation over a number of bytes.
+     *
+     * @param bytes The bytes processed
+     */
+    public void addBytes(long bytes) {
+        megabytes += bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,47 @@
+package xyz.mahmoudahmed.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.mahmoudahmed.translator.Translator;
+import xyz.mahmoudahmed.translator.TranslatorFactory;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translation of coding sequences with the standard genetic code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranslatorBenchmark {
+
+    @Param({"300", "3000", "30000"})
+    public int cdsLength;
+
+    private Translator translator;
+    private String cds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        translator = TranslatorFactory.createTranslator(1);
+        // Random codons without stops, starting with ATG, as in a real open reading frame
+        Random random = new Random(42);
+        StringBuilder codons = new StringBuilder("ATG");
+        while (codons.length() < cdsLength) {
+            String codon = BenchmarkData.residues(random, 3);
+            if (!codon.equals("TAA") && !codon.equals("TAG") && !codon.equals("TGA")) {
+                codons.append(codon);
+            }
+        }
+        cds = codons.toString();
+    }
+
+    @Benchmark
+    public String translate(ThroughputCounters counters) {
+        counters.addBytes(cds.length());
+        return translator.translate(cds, false);
+    }
+}
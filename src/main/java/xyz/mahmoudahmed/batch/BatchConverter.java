@@ -0,0 +1,33 @@
+package xyz.mahmoudahmed.batch;
+
+import java.util.List;
+
+/**
+ * Converts many sequence and annotation pairs concurrently.
+ * A failed job is recorded in the report and does not stop the others.
+ *
+ * <pre>{@code
+ * BatchConverter batch = BatchConverter.builder()
+ *         .order(BatchOrder.LARGEST_FIRST)
+ *         .build();
+ * BatchReport report = batch.run(BatchManifest.read(manifest, outputDirectory, options));
+ * }</pre>
+ */
+public interface BatchConverter {
+    /**
+     * Run the jobs of a batch and wait for all of them to finish.
+     *
+     * @param jobs The jobs to run
+     * @return The report of the batch, with results in the order the jobs were given
+     */
+    BatchReport run(List<BatchJob> jobs);
+
+    /**
+     * Create a builder for BatchConverter.
+     *
+     * @return A new builder
+     */
+    static DefaultBatchConverter.Builder builder() {
+        return new DefaultBatchConverter.Builder();
+    }
+}
@@ -0,0 +1,38 @@
+package xyz.mahmoudahmed.batch;
+
+import xyz.mahmoudahmed.model.ConversionOptions;
+
+import java.io.File;
+
+/**
+ * One conversion of a batch: a sequence file and its annotations, converted to a GenBank file.
+ *
+ * @param id The identifier of the job, used in the report
+ * @param sequenceFile The sequence file
+ * @param annotationFile The annotation file
+ * @param outputFile The GenBank file to write
+ * @param options The conversion options
+ */
+public record BatchJob(String id, File sequenceFile, File annotationFile, File outputFile, ConversionOptions options) {
+
+    public BatchJob {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Job ID cannot be empty");
+        }
+        if (sequenceFile == null || annotationFile == null || outputFile == null) {
+            throw new IllegalArgumentException("Job files cannot be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("Conversion options cannot be null");
+        }
+    }
+
+    /**
+     * Get the size of the input of the job, used to order jobs.
+     *
+     * @return The combined length of the sequence and annotation files in bytes
+     */
+    public long inputSize() {
+        return sequenceFile.length() + annotationFile.length();
+    }
+}
@@ -0,0 +1,31 @@
+package xyz.mahmoudahmed.batch;
+
+/**
+ * Outcome of one job of a batch.
+ *
+ * @param job The job
+ * @param sequenceCount The number of sequences converted, or 0 if the job failed
+ * @param featureCount The number of features converted, or 0 if the job failed
+ * @param diagnosticCount The number of problems reported during the conversion
+ * @param outputBytes The size of the GenBank file written, or 0 if the job failed
+ * @param wallNanos The elapsed time of the job in nanoseconds
+ * @param failure The exception that ended the job, or null if it succeeded
+ */
+public record BatchJobResult(
+        BatchJob job,
+        int sequenceCount,
+        int featureCount,
+        long diagnosticCount,
+        long outputBytes,
+        long wallNanos,
+        Throwable failure) {
+
+    /**
+     * Check whether the job succeeded.
+     *
+     * @return true if the GenBank file was written
+     */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,210 @@
+package xyz.mahmoudahmed.batch;
+
+import xyz.mahmoudahmed.exception.FileProcessingException;
+import xyz.mahmoudahmed.exception.ParsingException;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.TranslationOptions;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Reads the jobs of a batch from a manifest file or a directory of inputs.
+ * <p>
+ * A manifest is a tab-separated file with one job per line:
+ * <pre>
+ * # id      sequence        annotation          output          options
+ * sample1   sample1.fasta   sample1_ann.fasta
+ * sample2   fasta/s2.fa     gff/s2.gff3         out/s2.gb       organism=Bos taurus;geneticCode=2
+ * </pre>
+ * Relative paths are resolved against the directory of the manifest. The output column is
+ * optional and defaults to {@code <id>.gb} in the output directory. The options column holds
+ * {@code key=value} pairs separated by semicolons, applied over the default options; the keys are
+ * organism, moleculeType, topology, division, annotationFormat, mergeSequences and geneticCode.
+ * Blank lines and lines starting with # are ignored.
+ * <p>
+ * In a directory, each sequence file {@code <name>.fasta}, {@code .fa} or {@code .fna}, optionally
+ * gzipped, is paired with the annotation file {@code <name>_ann.fasta}, {@code <name>.gff3},
+ * {@code <name>.gff}, {@code <name>.gtf} or {@code <name>.bed} beside it.
+ */
+public class BatchManifest {
+    private static final Logger logger = Logger.getLogger(BatchManifest.class.getName());
+    private static final String FORMAT = "batch manifest";
+    private static final List<String> SEQUENCE_EXTENSIONS = List.of(".fasta", ".fa", ".fna");
+    private static final List<String> ANNOTATION_SUFFIXES = List.of("_ann.fasta", ".gff3", ".gff", ".gtf", ".bed");
+    private static final String OUTPUT_EXTENSION = ".gb";
+
+    private BatchManifest() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Read the jobs of a manifest file.
+     *
+     * @param manifest The manifest file
+     * @param outputDirectory The directory for outputs not given in the manifest
+     * @param defaults The conversion options of every job, before the options of its line
+     * @return The jobs, in manifest order
+     * @throws IOException If the manifest cannot be read
+     * @throws ParsingException If a line of the manifest is invalid
+     */
+    public static List<BatchJob> read(File manifest, File outputDirectory, ConversionOptions defaults) throws IOException {
+        File baseDirectory = manifest.getAbsoluteFile().getParentFile();
+        try (Reader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+            return read(reader, manifest.getPath(), baseDirectory, outputDirectory, defaults);
+        }
+    }
+
+    /**
+     * Read the jobs of a manifest.
+     *
+     * @param reader The manifest content
+     * @param name The name of the manifest, used in errors
+     * @param baseDirectory The directory relative paths are resolved against
+     * @param outputDirectory The directory for outputs not given in the manifest
+     * @param defaults The conversion options of every job, before the options of its line
+     * @return The jobs, in manifest order
+     * @throws IOException If the manifest cannot be read
+     * @throws ParsingException If a line of the manifest is invalid
+     */
+    public static List<BatchJob> read(Reader reader, String name, File baseDirectory, File outputDirectory,
+                                      ConversionOptions defaults) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<BatchJob> jobs = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 3) {
+                throw new ParsingException("Expected id, sequence and annotation columns", FORMAT, name, lineNumber);
+            }
+            String id = fields[0].trim();
+            if (id.isEmpty() || !ids.add(id)) {
+                throw new ParsingException("Missing or duplicate job ID '" + id + "'", FORMAT, name, lineNumber);
+            }
+
+            File output = fields.length > 3 && !fields[3].isBlank()
+                    ? resolve(baseDirectory, fields[3].trim())
+                    : new File(outputDirectory, id + OUTPUT_EXTENSION);
+            ConversionOptions options = fields.length > 4 && !fields[4].isBlank()
+                    ? applyOptions(defaults, fields[4], name, lineNumber)
+                    : defaults;
+
+            jobs.add(new BatchJob(id, resolve(baseDirectory, fields[1].trim()),
+                    resolve(baseDirectory, fields[2].trim()), output, options));
+        }
+        return jobs;
+    }
+
+    /**
+     * Find the jobs of a directory by pairing sequence files with the annotation files beside them.
+     * Sequence files without an annotation file are skipped with a warning.
+     *
+     * @param directory The directory of inputs
+     * @param outputDirectory The directory the outputs are written to, as {@code <name>.gb}
+     * @param defaults The conversion options of every job
+     * @return The jobs, ordered by name
+     */
+    public static List<BatchJob> scan(File directory, File outputDirectory, ConversionOptions defaults) {
+        File[] files = directory.listFiles(File::isFile);
+        if (files == null) {
+            throw new FileProcessingException("Cannot list batch directory: " + directory);
+        }
+        Arrays.sort(files);
+
+        List<BatchJob> jobs = new ArrayList<>();
+        for (File file : files) {
+            String baseName = sequenceBaseName(file.getName());
+            if (baseName == null || baseName.endsWith("_ann")) {
+                continue;
+            }
+            File annotation = findAnnotation(directory, baseName);
+            if (annotation == null) {
+                logger.warning("No annotation file for " + file + ", skipping");
+                continue;
+            }
+            jobs.add(new BatchJob(baseName, file, annotation, new File(outputDirectory, baseName + OUTPUT_EXTENSION), defaults));
+        }
+        return jobs;
+    }
+
+    private static String sequenceBaseName(String fileName) {
+        String name = fileName.endsWith(".gz") ? fileName.substring(0, fileName.length() - 3) : fileName;
+        for (String extension : SEQUENCE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return name.substring(0, name.length() - extension.length());
+            }
+        }
+        return null;
+    }
+
+    private static File findAnnotation(File directory, String baseName) {
+        for (String suffix : ANNOTATION_SUFFIXES) {
+            for (String compression : List.of("", ".gz")) {
+                File candidate = new File(directory, baseName + suffix + compression);
+                if (candidate.isFile()) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static File resolve(File baseDirectory, String path) {
+        File file = new File(path);
+        return file.isAbsolute() || baseDirectory == null ? file : new File(baseDirectory, path);
+    }
+
+    private static ConversionOptions applyOptions(ConversionOptions defaults, String column, String name, int lineNumber) {
+        ConversionOptions.Builder builder = ConversionOptions.builder().from(defaults);
+        for (String pair : column.split(";")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            if (separator <= 0) {
+                throw new ParsingException("Expected key=value option but found '" + pair.trim() + "'", FORMAT, name, lineNumber);
+            }
+            String key = pair.substring(0, separator).trim();
+            String value = pair.substring(separator + 1).trim();
+            switch (key) {
+                case "organism" -> builder.organism(value);
+                case "moleculeType" -> builder.moleculeType(value);
+                case "topology" -> builder.topology(value);
+                case "division" -> builder.division(value);
+                case "annotationFormat" -> builder.annotationFormat(value);
+                case "mergeSequences" -> builder.mergeSequences(Boolean.parseBoolean(value));
+                case "geneticCode" -> builder.translationOptions(withGeneticCode(defaults.getTranslationOptions(), value));
+                default -> throw new ParsingException("Unknown option '" + key + "'", FORMAT, name, lineNumber);
+            }
+        }
+        return builder.build();
+    }
+
+    private static TranslationOptions withGeneticCode(TranslationOptions defaults, String geneticCode) {
+        TranslationOptions.Builder builder = TranslationOptions.builder().geneticCode(geneticCode);
+        if (defaults != null) {
+            builder.includeStopCodon(defaults.isIncludeStopCodon())
+                    .translateCDS(defaults.isTranslateCDS())
+                    .allowInternalStopCodons(defaults.isAllowInternalStopCodons());
+        }
+        return builder.build();
+    }
+}
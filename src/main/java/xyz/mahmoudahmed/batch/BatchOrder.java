@@ -0,0 +1,22 @@
+package xyz.mahmoudahmed.batch;
+
+/**
+ * Order in which the jobs of a batch are started.
+ */
+public enum BatchOrder {
+    /**
+     * Start jobs in the order they were given.
+     */
+    MANIFEST,
+
+    /**
+     * Start the smallest inputs first, so completed outputs appear as early as possible.
+     */
+    SHORTEST_FIRST,
+
+    /**
+     * Start the largest inputs first, so a large job started last does not leave the other
+     * workers idle at the end of the batch.
+     */
+    LARGEST_FIRST
+}
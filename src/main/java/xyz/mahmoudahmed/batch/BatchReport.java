@@ -0,0 +1,144 @@
+package xyz.mahmoudahmed.batch;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Consolidated report of a batch, with the outcome and timing of every job.
+ */
+public class BatchReport {
+    private final List<BatchJobResult> results;
+    private final long wallNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param results The results of the jobs, in the order the jobs were given
+     * @param wallNanos The elapsed time of the whole batch in nanoseconds
+     */
+    public BatchReport(List<BatchJobResult> results, long wallNanos) {
+        this.results = List.copyOf(results);
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Get the results of the jobs.
+     *
+     * @return The results, in the order the jobs were given
+     */
+    public List<BatchJobResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Get the results of the jobs that failed.
+     *
+     * @return The failed results
+     */
+    public List<BatchJobResult> getFailures() {
+        return results.stream().filter(result -> !result.isSuccessful()).toList();
+    }
+
+    /**
+     * Get the number of jobs that succeeded.
+     *
+     * @return The number of successful jobs
+     */
+    public int getSuccessCount() {
+        return results.size() - getFailureCount();
+    }
+
+    /**
+     * Get the number of jobs that failed.
+     *
+     * @return The number of failed jobs
+     */
+    public int getFailureCount() {
+        int failures = 0;
+        for (BatchJobResult result : results) {
+            if (!result.isSuccessful()) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Get the elapsed time of the whole batch.
+     *
+     * @return The elapsed time in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Get the number of jobs completed per second of elapsed time.
+     *
+     * @return The job throughput, or 0 if no time was measured
+     */
+    public double getJobsPerSecond() {
+        return wallNanos > 0 ? results.size() * 1e9 / wallNanos : 0;
+    }
+
+    /**
+     * Write the report as tab-separated values, one line per job after a header line.
+     *
+     * @param writer The writer to write to
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeTsv(Writer writer) throws IOException {
+        writer.write("id\tstatus\tsequences\tfeatures\tdiagnostics\toutput_bytes\twall_ms\toutput\terror\n");
+        for (BatchJobResult result : results) {
+            writer.write(result.job().id());
+            writer.write('\t');
+            writer.write(result.isSuccessful() ? "OK" : "FAILED");
+            writer.write('\t');
+            writer.write(Integer.toString(result.sequenceCount()));
+            writer.write('\t');
+            writer.write(Integer.toString(result.featureCount()));
+            writer.write('\t');
+            writer.write(Long.toString(result.diagnosticCount()));
+            writer.write('\t');
+            writer.write(Long.toString(result.outputBytes()));
+            writer.write('\t');
+            writer.write(String.format(Locale.ROOT, "%.3f", result.wallNanos() / 1e6));
+            writer.write('\t');
+            writer.write(result.job().outputFile().getPath());
+            writer.write('\t');
+            writer.write(result.isSuccessful() ? "" : describe(result.failure()));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Get a one-line summary of the batch.
+     *
+     * @return The summary
+     */
+    public String getSummary() {
+        return String.format(Locale.ROOT, "%d jobs, %d succeeded, %d failed in %.3f s (%.1f jobs/s)",
+                results.size(), getSuccessCount(), getFailureCount(), wallNanos / 1e9, getJobsPerSecond());
+    }
+
+    @Override
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeTsv(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return getSummary() + "\n" + writer;
+    }
+
+    private static String describe(Throwable failure) {
+        String message = failure.getMessage() != null ? failure.getMessage() : "";
+        // Keep one job per line
+        return (failure.getClass().getSimpleName() + ": " + message).replaceAll("[\\t\\r\\n]+", " ");
+    }
+}
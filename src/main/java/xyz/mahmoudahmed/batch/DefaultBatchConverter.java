@@ -0,0 +1,161 @@
+package xyz.mahmoudahmed.batch;
+
+import xyz.mahmoudahmed.converter.GenbankConverter;
+import xyz.mahmoudahmed.model.GenbankResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Default implementation of BatchConverter.
+ * Jobs run on a work-stealing pool of a fixed number of workers, all sharing one converter, so
+ * the caches behind it (FASTA indexes, detected formats and rendered header blocks) and the
+ * genetic code tables are built once for the batch rather than once per job. Jobs given the
+ * same ConversionOptions instance, as those read from one manifest with the same options are,
+ * share the header blocks rendered from its HeaderInfo.
+ */
+public class DefaultBatchConverter implements BatchConverter {
+    private static final Logger logger = Logger.getLogger(DefaultBatchConverter.class.getName());
+
+    private final GenbankConverter converter;
+    private final int parallelism;
+    private final BatchOrder order;
+
+    private DefaultBatchConverter(Builder builder) {
+        this.converter = builder.converter != null ? builder.converter : GenbankConverter.standard();
+        this.parallelism = builder.parallelism;
+        this.order = builder.order;
+    }
+
+    @Override
+    public BatchReport run(List<BatchJob> jobs) {
+        long start = System.nanoTime();
+        BatchJobResult[] results = new BatchJobResult[jobs.size()];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        try {
+            // Submitted in the chosen order; async mode keeps the workers taking them first in, first out
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(jobs.size());
+            for (int index : startOrder(jobs)) {
+                BatchJob job = jobs.get(index);
+                tasks.add(pool.submit(() -> {
+                    results[index] = runJob(job);
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return new BatchReport(Arrays.asList(results), System.nanoTime() - start);
+    }
+
+    /**
+     * Get the indexes of the jobs in the order they are started.
+     */
+    private int[] startOrder(List<BatchJob> jobs) {
+        Integer[] indexes = new Integer[jobs.size()];
+        long[] sizes = new long[jobs.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+            sizes[i] = order == BatchOrder.MANIFEST ? 0 : jobs.get(i).inputSize();
+        }
+
+        Comparator<Integer> bySize = Comparator.comparingLong(i -> sizes[i]);
+        if (order == BatchOrder.SHORTEST_FIRST) {
+            Arrays.sort(indexes, bySize);
+        } else if (order == BatchOrder.LARGEST_FIRST) {
+            Arrays.sort(indexes, bySize.reversed());
+        }
+        return Arrays.stream(indexes).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Run one job, recording rather than throwing its failure. The output is written as it is
+     * converted and moved into place once complete, so a failed job leaves no partial file behind.
+     */
+    private BatchJobResult runJob(BatchJob job) {
+        long start = System.nanoTime();
+        try {
+            GenbankResult result = converter.convertToFile(job.sequenceFile(), job.annotationFile(),
+                    job.outputFile(), job.options());
+
+            return new BatchJobResult(job, result.getSequenceCount(), result.getFeatureCount(),
+                    result.getDiagnostics().getTotalCount(), job.outputFile().length(),
+                    System.nanoTime() - start, null);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Batch job " + job.id() + " failed", e);
+            return new BatchJobResult(job, 0, 0, 0, 0, System.nanoTime() - start, e);
+        }
+    }
+
+    /**
+     * Builder for DefaultBatchConverter.
+     */
+    public static class Builder {
+        private GenbankConverter converter;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private BatchOrder order = BatchOrder.MANIFEST;
+
+        /**
+         * Set the converter shared by all jobs. It is called from several threads at once,
+         * so it must be safe for concurrent use, as converters built with the default
+         * components are. Defaults to the standard converter.
+         *
+         * @param converter The converter
+         * @return This builder
+         */
+        public Builder converter(GenbankConverter converter) {
+            if (converter == null) {
+                throw new IllegalArgumentException("Converter cannot be null");
+            }
+            this.converter = converter;
+            return this;
+        }
+
+        /**
+         * Set the number of jobs run at once. Defaults to the number of available processors.
+         *
+         * @param parallelism The number of workers
+         * @return This builder
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Set the order in which jobs are started. Defaults to manifest order.
+         *
+         * @param order The order
+         * @return This builder
+         */
+        public Builder order(BatchOrder order) {
+            if (order == null) {
+                throw new IllegalArgumentException("Order cannot be null");
+            }
+            this.order = order;
+            return this;
+        }
+
+        /**
+         * Build the batch converter.
+         *
+         * @return The batch converter
+         */
+        public BatchConverter build() {
+            return new DefaultBatchConverter(this);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package xyz.mahmoudahmed.converter;
+
+import xyz.mahmoudahmed.util.Cancellation;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default executor for asynchronous conversions.
+ * Conversions block on file I/O, so on runtimes with virtual threads each conversion gets its
+ * own virtual thread. Older runtimes fall back to a cached pool of daemon threads, which keeps
+ * a blocked conversion from holding up others without holding threads once they are idle.
+ */
+class AsyncExecutors {
+    private AsyncExecutors() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Get the default executor, created on first use.
+     *
+     * @return The default executor
+     */
+    static Executor defaultExecutor() {
+        return Holder.EXECUTOR;
+    }
+
+    /**
+     * Run a task on an executor, with the completion of its future as the cancellation check.
+     * Any completion counts, so a cancelled or timed-out future stops the task at its next checkpoint.
+     *
+     * @param executor The executor to run the task on
+     * @param task The task to run
+     * @return A future completed with the result of the task
+     */
+    static <T> CompletableFuture<T> supply(Executor executor, Task<T> task) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return; // Cancelled before it started
+                }
+                Cancellation.Scope cancellation = Cancellation.enter(future::isDone);
+                try {
+                    future.complete(task.run());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    cancellation.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * A task that may fail with an I/O error.
+     */
+    @FunctionalInterface
+    interface Task<T> {
+        T run() throws IOException;
+    }
+
+    private static final class Holder {
+        private static final Executor EXECUTOR = create();
+
+        private static Executor create() {
+            try {
+                // Looked up reflectively so the library still runs on Java 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                AtomicInteger threads = new AtomicInteger();
+                return Executors.newCachedThreadPool(task -> {
+                    Thread thread = new Thread(task, "genbank-convert-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package xyz.mahmoudahmed.converter;
+
+import xyz.mahmoudahmed.model.Compression;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankResult;
+import xyz.mahmoudahmed.util.BgzfOutputStream;
+import xyz.mahmoudahmed.util.Cancellation;
+import xyz.mahmoudahmed.util.NonClosingOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Conversions built on {@link GenbankConverter#convert(File, File, ConversionOptions)}, which serve as
+ * the defaults for converters that only implement the buffered file conversion.
+ * They buffer the GenBank output in memory, so they lack the bounded memory of the default converter,
+ * but write files the same way it does.
+ */
+final class BufferedConversions {
+    private BufferedConversions() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Copy the input streams to temporary files, convert the files and write the GenBank data to the
+     * output stream, compressed when the output formatting options request it.
+     *
+     * @param converter The converter to run
+     * @param sequenceInput Stream of FASTA sequence data
+     * @param annotationInput Stream of annotation data
+     * @param outputStream The output stream to write to, which is flushed but not closed
+     * @param options Conversion options
+     * @return The conversion result
+     * @throws IOException If an I/O error occurs
+     */
+    static GenbankResult convertStreams(GenbankConverter converter, InputStream sequenceInput,
+                                        InputStream annotationInput, OutputStream outputStream,
+                                        ConversionOptions options) throws IOException {
+        Path sequenceFile = Files.createTempFile("genbank_sequence_", ".tmp");
+        Path annotationFile = null;
+        try {
+            annotationFile = Files.createTempFile("genbank_annotation_", ".tmp");
+            Files.copy(sequenceInput, sequenceFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(annotationInput, annotationFile, StandardCopyOption.REPLACE_EXISTING);
+
+            GenbankResult result = converter.convert(sequenceFile.toFile(), annotationFile.toFile(), options);
+            try (OutputStream output = compressed(new NonClosingOutputStream(outputStream), options)) {
+                result.writeToStream(output);
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(sequenceFile);
+            if (annotationFile != null) {
+                Files.deleteIfExists(annotationFile);
+            }
+        }
+    }
+
+    /**
+     * Convert the files and write the GenBank data to the output file.
+     *
+     * @param converter The converter to run
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param outputFile The GenBank file to write
+     * @param options Conversion options
+     * @return The conversion result
+     * @throws IOException If an I/O error occurs
+     * @see #writeAtomically(File, ConversionOptions, OutputWriter)
+     */
+    static GenbankResult convertToFile(GenbankConverter converter, File sequenceFile, File annotationFile,
+                                       File outputFile, ConversionOptions options) throws IOException {
+        return writeAtomically(outputFile, options, output -> {
+            GenbankResult result = converter.convert(sequenceFile, annotationFile, options);
+            result.writeToStream(output);
+            return result;
+        });
+    }
+
+    /**
+     * Write a file through a temporary file beside it, which is moved into place once complete and
+     * deleted if the writer fails or the surrounding conversion is cancelled. The writer's output is
+     * compressed when the output formatting options request it.
+     *
+     * @param outputFile The file to write
+     * @param options Conversion options
+     * @param writer Writes the content of the file
+     * @return The result of the writer
+     * @throws IOException If an I/O error occurs
+     */
+    static <T> T writeAtomically(File outputFile, ConversionOptions options, OutputWriter<T> writer)
+            throws IOException {
+        Path target = outputFile.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".part");
+        try {
+            T result;
+            // Closing the compressed output finishes it once the writer has written everything
+            try (OutputStream output = compressed(new BufferedOutputStream(Files.newOutputStream(temp)), options)) {
+                result = writer.write(output);
+            }
+            Cancellation.checkpoint();
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes the content of a file to its output stream, which it must not close.
+     */
+    @FunctionalInterface
+    interface OutputWriter<T> {
+        T write(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Wrap an output stream in parallel block compression when the options request it.
+     * Shared by the converters of this package, so that every output is compressed alike.
+     *
+     * @param outputStream The stream to write the compressed output to
+     * @param options Conversion options
+     * @return The stream to write the uncompressed output to
+     */
+    static OutputStream compressed(OutputStream outputStream, ConversionOptions options) {
+        Compression compression = options.getOutputFormattingOptions().getOutputCompression();
+        if (compression == Compression.NONE) {
+            return outputStream;
+        }
+        return new BgzfOutputStream(outputStream, compression);
+    }
+}
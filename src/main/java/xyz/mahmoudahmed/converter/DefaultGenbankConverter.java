@@ -1,26 +1,46 @@
 package xyz.mahmoudahmed.converter;
 
 import xyz.mahmoudahmed.config.FormatConfiguration;
+import xyz.mahmoudahmed.diagnostics.DiagnosticsCollector;
 import xyz.mahmoudahmed.formatters.StreamingGenbankFormatter;
+import xyz.mahmoudahmed.exception.ConversionException;
+import xyz.mahmoudahmed.exception.InvalidFileFormatException;
 import xyz.mahmoudahmed.exception.ValidationException;
 import xyz.mahmoudahmed.factory.FormatDetectorFactory;
 import xyz.mahmoudahmed.format.FormatDetector;
+import xyz.mahmoudahmed.format.FormatSample;
 import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
 import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.jfr.ConversionEvent;
+import xyz.mahmoudahmed.metrics.ConversionListener;
+import xyz.mahmoudahmed.metrics.ConversionRecorder;
+import xyz.mahmoudahmed.metrics.ConversionStage;
 import xyz.mahmoudahmed.model.*;
 import xyz.mahmoudahmed.parsers.*;
 import xyz.mahmoudahmed.service.FormatDetectionService;
+import xyz.mahmoudahmed.util.CompressedInput;
+import xyz.mahmoudahmed.util.FastaIndexCache;
 import xyz.mahmoudahmed.util.FileSequenceStreamProvider;
+import xyz.mahmoudahmed.util.InMemorySequenceStreamProvider;
+import xyz.mahmoudahmed.util.NonClosingOutputStream;
+import xyz.mahmoudahmed.util.SequenceRope;
 import xyz.mahmoudahmed.util.SequenceStreamProvider;
 import xyz.mahmoudahmed.validators.DefaultGenbankValidator;
 import xyz.mahmoudahmed.validators.GenbankValidator;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 
 /**
  * Default implementation of GenbankConverter.
+ * When conversion listeners are registered, each conversion is measured stage by stage and
+ * reported to them once it finishes; without listeners no measurements are taken.
  */
 public class DefaultGenbankConverter implements GenbankConverter {
     private final SequenceParser sequenceParser;
@@ -28,6 +48,9 @@ public class DefaultGenbankConverter implements GenbankConverter {
     private final GenbankValidator validator;
     private final GenbankFormatter formatter;
     private final GenbankOptions options;
+    private final FormatDetectionService formatDetectionService;
+    private final FastaIndexCache fastaIndexCache;
+    private final List<ConversionListener> listeners;
 
     private DefaultGenbankConverter(Builder builder) {
         this.sequenceParser = builder.sequenceParser;
@@ -35,38 +58,117 @@ public class DefaultGenbankConverter implements GenbankConverter {
         this.validator = builder.validator;
         this.formatter = builder.formatter;
         this.options = builder.options;
+        this.formatDetectionService = builder.formatDetectionService;
+        this.fastaIndexCache = builder.fastaIndexCache;
+        this.listeners = List.copyOf(builder.listeners);
+    }
+
+    /**
+     * A conversion whose measurements are reported to the listeners.
+     */
+    @FunctionalInterface
+    private interface Conversion<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Run a conversion with a recorder current on this thread, reporting it to the listeners
+     * whether it completes or fails, and to Flight Recorder if a recording enables conversion events.
+     * Problems reported during the conversion are collected for its result.
+     */
+    private <T, E extends Exception> T recorded(String operation, Conversion<T, E> conversion) throws E {
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        ConversionRecorder recorder = ConversionRecorder.start(listeners);
+        DiagnosticsCollector diagnostics = DiagnosticsCollector.start();
+        T result;
+        try {
+            result = conversion.run();
+        } catch (Throwable e) {
+            diagnostics.finish();
+            recorder.failed(e);
+            commitConversion(event, operation, null, true);
+            throw e;
+        }
+        diagnostics.finish();
+        recorder.completed();
+        commitConversion(event, operation, result, false);
+        return result;
+    }
+
+    private static void commitConversion(ConversionEvent event, String operation, Object result, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.failed = failed;
+            if (result instanceof GenbankResult genbankResult) {
+                event.sequences = genbankResult.getSequenceCount();
+                event.features = genbankResult.getFeatureCount();
+            }
+            event.commit();
+        }
     }
 
     @Override
     public GenbankResult convert(File sequenceFile, File annotationFile, ConversionOptions options) throws IOException {
-        // Validate the files
-        ValidationResult validationResult = validator.validateCompatibility(sequenceFile, annotationFile);
-        if (!validationResult.isValid()) {
-            throw new ValidationException("Validation failed: " + validationResult.getSummary());
+        return recorded("files", () -> convertFiles(sequenceFile, annotationFile, options));
+    }
+
+    private GenbankResult convertFiles(File sequenceFile, File annotationFile, ConversionOptions options) throws IOException {
+        return convertFiles(sequenceFile, annotationFile, options, null);
+    }
+
+    /**
+     * Convert sequence and annotation files, buffering the GenBank data in the result or, when an
+     * output stream is given, writing it to the stream instead. The output stream is not closed.
+     */
+    private GenbankResult convertFiles(File sequenceFile, File annotationFile, ConversionOptions options,
+                                       OutputStream outputStream) throws IOException {
+        ConversionRecorder recorder = ConversionRecorder.current();
+        if (recorder.isEnabled()) {
+            // Detect the formats in their own stage; the service caches them for the parsers
+            ConversionRecorder.Scope detection = recorder.stage(ConversionStage.DETECT);
+            try {
+                formatDetectionService.detectFormat(sequenceFile);
+                formatDetectionService.detectFormat(annotationFile);
+            } finally {
+                detection.close();
+            }
         }
 
-        // Pass the conversion options to the annotation parser if it supports it
-        if (annotationParser instanceof FastaAnnotationParser) {
-            ((FastaAnnotationParser) annotationParser).setConversionOptions(options);
+        // Validate the files up front unless validation runs on the data parsed for conversion
+        if (!this.options.isSinglePassValidation()) {
+            ValidationResult validationResult;
+            try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.VALIDATE)) {
+                validationResult = validator.validateCompatibility(sequenceFile, annotationFile);
+                scope.bytesIn(sequenceFile.length() + annotationFile.length());
+            }
+            if (!validationResult.isValid()) {
+                throw new ValidationException("Validation failed: " + validationResult.getSummary());
+            }
         }
 
         // Rest of the method remains the same...
         if (this.options.isMemoryEfficient() || sequenceFile.length() > this.options.getMemoryThreshold()) {
-            return convertLargeFiles(sequenceFile, annotationFile, options);
+            return convertLargeFiles(sequenceFile, annotationFile, options, outputStream);
         } else {
-            return convertStandard(sequenceFile, annotationFile, options);
+            return convertStandard(sequenceFile, annotationFile, options, outputStream);
         }
     }
 
     @Override
     public GenbankResult convert(SequenceData sequenceData, AnnotationData annotationData, ConversionOptions options) {
+        return recorded("data", () -> convertData(sequenceData, annotationData, options));
+    }
+
+    private GenbankResult convertData(SequenceData sequenceData, AnnotationData annotationData, ConversionOptions options) {
         // Handle sequence merging if needed
         if (options.isMergeSequences() && sequenceData.getCount() > 1) {
-            sequenceData = mergeSequences(sequenceData, options);
+            return convertMerged(sequenceData, annotationData, options, null);
         }
 
         // Format the data
-        byte[] genbankData = formatter.format(sequenceData, annotationData, options);
+        byte[] genbankData = format(sequenceData, annotationData, options);
 
         // Build the result
         return GenbankResult.builder()
@@ -74,18 +176,361 @@ public class DefaultGenbankConverter implements GenbankConverter {
                 .sequenceCount(sequenceData.getCount())
                 .featureCount(annotationData.getTotalCount())
                 .timestamp(LocalDateTime.now())
+                .diagnostics(DiagnosticsCollector.current().getSummary())
                 .build();
     }
 
     @Override
     public void convertToStream(SequenceData sequenceData, AnnotationData annotationData,
                                 OutputStream outputStream, ConversionOptions options) throws IOException {
-        // Handle sequence merging if needed
-        if (options.isMergeSequences() && sequenceData.getCount() > 1) {
-            sequenceData = mergeSequences(sequenceData, options);
+        recorded("stream", () -> {
+            // The formatters close the stream, which finishes any compressed output
+            ConversionRecorder recorder = ConversionRecorder.current();
+            OutputStream output = BufferedConversions.compressed(recorder.meterOutput(outputStream), options);
+
+            try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+                // Handle sequence merging if needed
+                if (options.isMergeSequences() && sequenceData.getCount() > 1) {
+                    scope.records(1).features(formatMerged(sequenceData, annotationData, output, options));
+                } else {
+                    formatter.formatToStream(sequenceData, annotationData, output, options);
+                    scope.records(sequenceData.getCount()).features(annotationData.getTotalCount());
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public GenbankResult convert(InputStream sequenceInput, InputStream annotationInput,
+                                 OutputStream outputStream, ConversionOptions options) throws IOException {
+        return recorded("streams", () -> convertStreams(sequenceInput, annotationInput, outputStream, options));
+    }
+
+    private GenbankResult convertStreams(InputStream sequenceInput, InputStream annotationInput,
+                                         OutputStream outputStream, ConversionOptions options) throws IOException {
+        ConversionRecorder recorder = ConversionRecorder.current();
+        InputStream sequenceStream = markable(recorder.countInput(sequenceInput, ConversionStage.PARSE_SEQUENCE));
+        InputStream annotationStream = markable(recorder.countInput(annotationInput, ConversionStage.PARSE_ANNOTATION));
+        AnnotationData annotationData = parseStreamAnnotations(sequenceStream, annotationStream, options);
+
+        int sequenceCount = 0;
+        int featureCount = 0;
+        OutputStream compressedOutput = BufferedConversions.compressed(
+                new NonClosingOutputStream(recorder.meterOutput(outputStream)), options);
+        OutputStream recordOutput = new NonClosingOutputStream(compressedOutput);
+        FastaRecordReader recordReader = new FastaRecordReader(sequenceStream);
+
+        if (options.isMergeSequences()) {
+            // Merging needs every record, so this case buffers the sequences
+            SequenceData.Builder allSequences = SequenceData.builder();
+            long bufferedResidues = 0;
+            Sequence sequence;
+            while ((sequence = nextRecord(recordReader, recorder)) != null) {
+                allSequences.addSequence(sequence);
+                bufferedResidues += sequence.getLength();
+            }
+            try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.PARSE_SEQUENCE)) {
+                scope.buffered(bufferedResidues);
+            }
+            SequenceData sequenceData = allSequences.build();
+            validateStreamedRecords(sequenceData, annotationData);
+            try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+                if (sequenceData.getCount() > 1) {
+                    featureCount = formatMerged(sequenceData, annotationData, recordOutput, options);
+                    sequenceCount = 1;
+                } else {
+                    formatter.formatToStream(sequenceData, annotationData, recordOutput, options);
+                    sequenceCount = sequenceData.getCount();
+                    featureCount = annotationData.getTotalCount();
+                }
+                scope.records(sequenceCount).features(featureCount);
+            }
+        } else if (this.options.getPipelineWorkers() > 0) {
+            RecordPipeline pipeline = new RecordPipeline(formatter, options, this.options.getPipelineWorkers(),
+                    AsyncExecutors.defaultExecutor());
+            StreamedRecords records = new StreamedRecords(recordReader, annotationData, recorder);
+            RecordPipeline.Totals totals = pipeline.run(records::next, recordOutput);
+            sequenceCount = totals.records();
+            featureCount = totals.features();
+        } else {
+            StreamedRecords records = new StreamedRecords(recordReader, annotationData, recorder);
+            RecordPipeline.Input input;
+            while ((input = records.next()) != null) {
+                SequenceData record = SequenceData.builder().addSequence(input.sequence()).build();
+                AnnotationData recordAnnotations = input.annotations();
+
+                try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+                    if (sequenceCount > 0) {
+                        // Blank line between records, as the formatter writes between records of one call
+                        recordOutput.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+                    }
+                    formatter.formatToStream(record, recordAnnotations, recordOutput, options);
+                    scope.records(1).features(recordAnnotations.getTotalCount());
+                }
+                sequenceCount++;
+                featureCount += recordAnnotations.getTotalCount();
+            }
+        }
+        // Finishes compressed output and flushes, leaving the caller's stream open
+        ConversionRecorder.Scope finishing = recorder.stage(ConversionStage.FORMAT);
+        try {
+            compressedOutput.close();
+        } finally {
+            finishing.close();
+        }
+
+        return GenbankResult.builder()
+                .genbankData(new byte[0])
+                .sequenceCount(sequenceCount)
+                .featureCount(featureCount)
+                .timestamp(LocalDateTime.now())
+                .diagnostics(DiagnosticsCollector.current().getSummary())
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<GenbankResult> convertAsync(File sequenceFile, File annotationFile,
+                                                         ConversionOptions options, Executor executor) {
+        return AsyncExecutors.supply(executor, () -> convert(sequenceFile, annotationFile, options));
+    }
+
+    /**
+     * Convert files into a temporary file beside the output file and move it into place once
+     * complete. The conversion takes the same path as a buffered file conversion, including the
+     * up-front validation and the indexed streaming of large files, but writes the GenBank data
+     * to the temporary file. The temporary file is deleted if the conversion fails or is cancelled.
+     */
+    @Override
+    public GenbankResult convertToFile(File sequenceFile, File annotationFile, File outputFile,
+                                       ConversionOptions options) throws IOException {
+        return BufferedConversions.writeAtomically(outputFile, options,
+                output -> recorded("files", () -> convertFiles(sequenceFile, annotationFile, options, output)));
+    }
+
+    @Override
+    public Flow.Publisher<GenbankRecord> publish(File sequenceFile, File annotationFile, ConversionOptions options,
+                                                 Executor executor) {
+        return new RecordPublisher(executor,
+                emitter -> recorded("publish", () -> publishRecords(sequenceFile, annotationFile, options, emitter)));
+    }
+
+    /**
+     * Read the sequence file one record at a time, formatting each record into its own buffer and
+     * handing it to the emitter, which waits for the subscriber to request it.
+     */
+    private GenbankResult publishRecords(File sequenceFile, File annotationFile, ConversionOptions options,
+                                         RecordPublisher.Emitter emitter) throws IOException {
+        try (InputStream sequenceInput = CompressedInput.openInputStream(sequenceFile);
+             InputStream annotationInput = CompressedInput.openInputStream(annotationFile)) {
+            ConversionRecorder recorder = ConversionRecorder.current();
+            InputStream sequenceStream = markable(recorder.countInput(sequenceInput, ConversionStage.PARSE_SEQUENCE));
+            InputStream annotationStream = markable(recorder.countInput(annotationInput, ConversionStage.PARSE_ANNOTATION));
+            AnnotationData annotationData = parseStreamAnnotations(sequenceStream, annotationStream, options);
+            FastaRecordReader recordReader = new FastaRecordReader(sequenceStream);
+
+            int sequenceCount = 0;
+            int featureCount = 0;
+            if (options.isMergeSequences()) {
+                SequenceData.Builder allSequences = SequenceData.builder();
+                Sequence sequence;
+                while ((sequence = nextRecord(recordReader, recorder)) != null) {
+                    allSequences.addSequence(sequence);
+                }
+                SequenceData sequenceData = allSequences.build();
+                validateStreamedRecords(sequenceData, annotationData);
+                if (sequenceData.getCount() > 1) {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+                        featureCount = formatMerged(sequenceData, annotationData, buffer, options);
+                        scope.records(1).features(featureCount).bytesOut(buffer.size()).buffered(buffer.size());
+                    }
+                    long length = sequenceData.getSequences().stream().mapToLong(Sequence::getLength).sum();
+                    emitter.emit(new GenbankRecord("merged_" + sequenceData.getSequences().get(0).getId(), 0,
+                            length, featureCount, ByteBuffer.wrap(buffer.toByteArray())));
+                    sequenceCount = 1;
+                } else if (sequenceData.getCount() == 1) {
+                    Sequence only = sequenceData.getSequences().get(0);
+                    featureCount = emitRecord(only, annotationData, 0, options, recorder, emitter);
+                    sequenceCount = 1;
+                }
+            } else {
+                StreamedRecords records = new StreamedRecords(recordReader, annotationData, recorder);
+                RecordPipeline.Input input;
+                while ((input = records.next()) != null) {
+                    featureCount += emitRecord(input.sequence(), input.annotations(), sequenceCount, options,
+                            recorder, emitter);
+                    sequenceCount++;
+                }
+            }
+
+            return GenbankResult.builder()
+                    .genbankData(new byte[0])
+                    .sequenceCount(sequenceCount)
+                    .featureCount(featureCount)
+                    .timestamp(LocalDateTime.now())
+                    .diagnostics(DiagnosticsCollector.current().getSummary())
+                    .build();
         }
+    }
 
-        formatter.formatToStream(sequenceData, annotationData, outputStream, options);
+    /**
+     * Format one record into its own buffer and emit it.
+     *
+     * @return The number of features in the record
+     */
+    private int emitRecord(Sequence sequence, AnnotationData annotations, long index, ConversionOptions options,
+                           ConversionRecorder recorder, RecordPublisher.Emitter emitter) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+            formatter.formatToStream(SequenceData.builder().addSequence(sequence).build(), annotations, buffer, options);
+            scope.records(1).features(annotations.getTotalCount()).bytesOut(buffer.size()).buffered(buffer.size());
+        }
+        emitter.emit(new GenbankRecord(sequence.getId(), index, sequence.getLength(), annotations.getTotalCount(),
+                ByteBuffer.wrap(buffer.toByteArray())));
+        return annotations.getTotalCount();
+    }
+
+    /**
+     * Detect the formats of sequence and annotation streams and read the annotations, which are
+     * needed for every record and so are read before the sequences.
+     */
+    private AnnotationData parseStreamAnnotations(InputStream sequenceStream, InputStream annotationStream,
+                                                  ConversionOptions options) throws IOException {
+        ConversionRecorder recorder = ConversionRecorder.current();
+        String sequenceFormat;
+        String annotationFormat;
+        ConversionRecorder.Scope detection = recorder.stage(ConversionStage.DETECT);
+        try {
+            sequenceFormat = formatDetectionService.detectStreamFormat(sequenceStream);
+            annotationFormat = formatDetectionService.detectStreamFormat(annotationStream);
+        } finally {
+            detection.close();
+        }
+        if (!"FASTA".equals(sequenceFormat)) {
+            throw new InvalidFileFormatException("Unsupported sequence stream format: " + sequenceFormat, sequenceFormat);
+        }
+        if (!annotationParser.supportsFormat(annotationFormat)) {
+            throw new InvalidFileFormatException("Unsupported annotation stream format: " + annotationFormat, annotationFormat);
+        }
+
+        try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.PARSE_ANNOTATION)) {
+            // The parser is shared between conversions, so the options are passed with each call
+            AnnotationData annotationData = annotationParser instanceof FastaAnnotationParser fastaParser
+                    ? fastaParser.parse(annotationStream, options)
+                    : annotationParser.parse(annotationStream);
+            scope.features(annotationData.getTotalCount());
+            return annotationData;
+        }
+    }
+
+    /**
+     * Reads the records of a sequence stream one at a time, each with its annotations, validating
+     * each record as it is read. The IDs and lengths of the records read are kept, so that a record
+     * reusing an earlier ID fails validation, and at the end of the stream the annotations on
+     * sequences that never appeared are validated too, failing the conversion as the up-front
+     * validation of a file conversion does.
+     */
+    private final class StreamedRecords {
+        private final FastaRecordReader recordReader;
+        private final AnnotationData annotationData;
+        private final ConversionRecorder recorder;
+        private final Map<String, Long> seenLengths = new LinkedHashMap<>();
+        private boolean finished;
+
+        private StreamedRecords(FastaRecordReader recordReader, AnnotationData annotationData,
+                                ConversionRecorder recorder) {
+            this.recordReader = recordReader;
+            this.annotationData = annotationData;
+            this.recorder = recorder;
+        }
+
+        /**
+         * Read and validate the next record.
+         *
+         * @return The record with its annotations, or null at the end of the stream
+         * @throws IOException If the stream cannot be read
+         * @throws ValidationException If the record, or at the end of the stream an annotation
+         *         on a sequence that was not in the stream, fails validation
+         */
+        private RecordPipeline.Input next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            Sequence sequence = nextRecord(recordReader, recorder);
+            if (sequence == null) {
+                finished = true;
+                validateUnmatchedAnnotations();
+                return null;
+            }
+            Long previousLength = seenLengths.put(sequence.getId(), sequence.getLength());
+
+            AnnotationData recordAnnotations = AnnotationData.builder()
+                    .addAnnotations(sequence.getId(), annotationData.getAnnotationsForSequence(sequence.getId()))
+                    .build();
+            SequenceData.Builder records = SequenceData.builder();
+            if (previousLength != null) {
+                // Validated along with the earlier record of the same ID, which fails as a duplicate
+                records.addSequence(Sequence.builder().id(sequence.getId()).length(previousLength).build());
+            }
+            validateStreamedRecords(records.addSequence(sequence).build(), recordAnnotations);
+            return new RecordPipeline.Input(sequence, recordAnnotations);
+        }
+
+        private void validateUnmatchedAnnotations() {
+            AnnotationData.Builder unmatched = AnnotationData.builder();
+            boolean anyUnmatched = false;
+            for (Map.Entry<String, List<Annotation>> entry : annotationData.getAnnotationsBySequence().entrySet()) {
+                if (!seenLengths.containsKey(entry.getKey()) && !entry.getValue().isEmpty()) {
+                    unmatched.addAnnotations(entry.getKey(), entry.getValue());
+                    anyUnmatched = true;
+                }
+            }
+            if (!anyUnmatched) {
+                return;
+            }
+            // The sequences read are described by their metadata, for near-miss suggestions
+            SequenceData.Builder seen = SequenceData.builder();
+            seenLengths.forEach((id, length) -> seen.addSequence(Sequence.builder().id(id).length(length).build()));
+            validateStreamedRecords(seen.build(), unmatched.build());
+        }
+    }
+
+    /**
+     * Read the next record of a sequence stream as part of the sequence parsing stage.
+     * Records are held in memory one at a time, so the largest is recorded as buffered.
+     */
+    private static Sequence nextRecord(FastaRecordReader recordReader, ConversionRecorder recorder) throws IOException {
+        try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.PARSE_SEQUENCE)) {
+            Sequence sequence = recordReader.next();
+            if (sequence != null) {
+                scope.records(1).buffered(sequence.getLength());
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Wrap a stream so that its start can be peeked at for format detection.
+     */
+    private static InputStream markable(InputStream inputStream) {
+        return inputStream.markSupported()
+                ? inputStream
+                : new BufferedInputStream(inputStream, FormatSample.DEFAULT_MAX_BYTES + 1);
+    }
+
+    /**
+     * Validate records read from a stream, which cannot be validated up front.
+     */
+    private void validateStreamedRecords(SequenceData sequenceData, AnnotationData annotationData) {
+        ValidationResult validationResult;
+        try (ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.VALIDATE)) {
+            validationResult = validator.validateCompatibility(sequenceData, annotationData);
+            scope.records(sequenceData.getCount()).features(annotationData.getTotalCount());
+        }
+        if (!validationResult.isValid()) {
+            throw new ValidationException("Validation failed: " + validationResult.getSummary());
+        }
     }
 
     @Override
@@ -93,21 +538,44 @@ public class DefaultGenbankConverter implements GenbankConverter {
         return validator.validateCompatibility(sequenceFile, annotationFile);
     }
 
+    @Override
+    public ValidationResult validate(File sequenceFile, File annotationFile, ValidationOptions options) throws IOException {
+        return validator.validateCompatibility(sequenceFile, annotationFile, options);
+    }
+
     /**
      * Standard conversion for regular-sized files.
      */
-    private GenbankResult convertStandard(File sequenceFile, File annotationFile, ConversionOptions options) throws IOException {
+    private GenbankResult convertStandard(File sequenceFile, File annotationFile, ConversionOptions options,
+                                          OutputStream outputStream) throws IOException {
         // Parse the files
-        SequenceData sequenceData = sequenceParser.parse(sequenceFile);
-        AnnotationData annotationData = annotationParser.parse(annotationFile);
+        SequenceData sequenceData = parseSequences(sequenceFile, false);
+        AnnotationData annotationData = parseAnnotations(annotationFile, options);
+        ValidationResult validationResult = validateParsedData(sequenceData, annotationData);
+
+        if (outputStream != null) {
+            boolean merge = options.isMergeSequences() && sequenceData.getCount() > 1;
+            int featureCount = annotationData.getTotalCount();
+            ConversionRecorder recorder = ConversionRecorder.current();
+            try (OutputStream output = recorder.meterOutput(new NonClosingOutputStream(outputStream));
+                 ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+                if (merge) {
+                    featureCount = formatMerged(sequenceData, annotationData, output, options);
+                } else {
+                    formatter.formatToStream(sequenceData, annotationData, output, options);
+                }
+                scope.records(merge ? 1 : sequenceData.getCount()).features(featureCount);
+            }
+            return writtenResult(merge ? 1 : sequenceData.getCount(), featureCount, validationResult);
+        }
 
         // Handle sequence merging if needed
         if (options.isMergeSequences() && sequenceData.getCount() > 1) {
-            sequenceData = mergeSequences(sequenceData, options);
+            return convertMerged(sequenceData, annotationData, options, validationResult);
         }
 
         // Format the data
-        byte[] genbankData = formatter.format(sequenceData, annotationData, options);
+        byte[] genbankData = format(sequenceData, annotationData, options);
 
         // Build the result
         return GenbankResult.builder()
@@ -115,38 +583,42 @@ public class DefaultGenbankConverter implements GenbankConverter {
                 .sequenceCount(sequenceData.getCount())
                 .featureCount(annotationData.getTotalCount())
                 .timestamp(LocalDateTime.now())
+                .validationResult(validationResult)
+                .diagnostics(DiagnosticsCollector.current().getSummary())
                 .build();
     }
 
     /**
      * Memory-efficient conversion for large files.
      */
-    private GenbankResult convertLargeFiles(File sequenceFile, File annotationFile, ConversionOptions options) throws IOException {
-        // Parse only metadata from sequence file to save memory
-        SequenceData metadataOnly = sequenceParser.parseMetadataOnly(sequenceFile);
-        AnnotationData annotationData = annotationParser.parse(annotationFile);
-
-        // Handle sequence merging if needed
-        if (options.isMergeSequences() && metadataOnly.getCount() > 1) {
-            metadataOnly = mergeSequences(metadataOnly, options);
+    private GenbankResult convertLargeFiles(File sequenceFile, File annotationFile, ConversionOptions options,
+                                            OutputStream outputStream) throws IOException {
+        // Parse only metadata from sequence file to save memory; the default parser
+        // indexes the file while doing so, and the stream provider reuses that index
+        SequenceData metadataOnly = parseSequences(sequenceFile, true);
+        AnnotationData annotationData = parseAnnotations(annotationFile, options);
+        ValidationResult validationResult = validateParsedData(metadataOnly, annotationData);
+        boolean merge = options.isMergeSequences() && metadataOnly.getCount() > 1;
+
+        if (outputStream != null) {
+            int featureCount = formatLargeFiles(sequenceFile, metadataOnly, annotationData,
+                    new NonClosingOutputStream(outputStream), options);
+            return writtenResult(merge ? 1 : metadataOnly.getCount(), featureCount, validationResult);
         }
 
         // Create a temporary file for the output
         File outputFile = File.createTempFile("genbank_", ".gb");
         outputFile.deleteOnExit();
 
-        try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
-            // Stream the conversion
-            SequenceStreamProvider streamProvider = new FileSequenceStreamProvider(sequenceFile);
-
-            // Use the formatter to write the data directly to the stream
-            StreamingGenbankFormatter streamingFormatter = new StreamingGenbankFormatter(streamProvider);
-            streamingFormatter.formatToStream(metadataOnly, annotationData, outputStream, options);
-        }
+        ConversionRecorder recorder = ConversionRecorder.current();
+        int featureCount = formatLargeFiles(sequenceFile, metadataOnly, annotationData,
+                new FileOutputStream(outputFile), options);
 
         // Read the generated file
         byte[] genbankData = new byte[(int) outputFile.length()];
-        try (FileInputStream fis = new FileInputStream(outputFile)) {
+        try (FileInputStream fis = new FileInputStream(outputFile);
+             ConversionRecorder.Scope scope = recorder.stage(ConversionStage.WRITE)) {
+            scope.buffered(genbankData.length);
             if (fis.read(genbankData) != outputFile.length()) {
                 throw new IOException("Failed to read the entire GenBank file");
             }
@@ -157,51 +629,236 @@ public class DefaultGenbankConverter implements GenbankConverter {
         // Build the result
         return GenbankResult.builder()
                 .genbankData(genbankData)
-                .sequenceCount(metadataOnly.getCount())
-                .featureCount(annotationData.getTotalCount())
+                .sequenceCount(merge ? 1 : metadataOnly.getCount())
+                .featureCount(featureCount)
                 .timestamp(LocalDateTime.now())
+                .validationResult(validationResult)
+                .diagnostics(DiagnosticsCollector.current().getSummary())
                 .build();
     }
 
     /**
-     * Merges multiple sequences into a single sequence.
+     * Stream the sequences of a large file from its index into an output stream, which is closed afterwards.
      *
-     * @param sequenceData The original sequence data
-     * @param options Conversion options
-     * @return A new SequenceData with the merged sequence
+     * @return The number of features written
      */
-    private SequenceData mergeSequences(SequenceData sequenceData, ConversionOptions options) {
-        List<Sequence> originalSequences = sequenceData.getSequences();
-        if (originalSequences.isEmpty()) {
+    private int formatLargeFiles(File sequenceFile, SequenceData metadataOnly, AnnotationData annotationData,
+                                 OutputStream outputStream, ConversionOptions options) throws IOException {
+        boolean merge = options.isMergeSequences() && metadataOnly.getCount() > 1;
+        int featureCount = annotationData.getTotalCount();
+
+        ConversionRecorder recorder = ConversionRecorder.current();
+        try (OutputStream output = recorder.meterOutput(outputStream);
+             FileSequenceStreamProvider streamProvider = new FileSequenceStreamProvider(sequenceFile,
+                     fastaIndexCache.get(sequenceFile), this.options.getReadAheadBuffers());
+             ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+            // Stream the conversion
+
+            if (merge) {
+                // Merged residues are streamed from the original file through a rope
+                featureCount = formatMergedStream(metadataOnly, annotationData, streamProvider, output, options);
+            } else {
+                // Use the formatter to write the data directly to the stream
+                StreamingGenbankFormatter streamingFormatter = new StreamingGenbankFormatter(streamProvider);
+                streamingFormatter.formatToStream(metadataOnly, annotationData, output, options);
+            }
+            scope.records(merge ? 1 : metadataOnly.getCount()).features(featureCount);
+        }
+        return featureCount;
+    }
+
+    /**
+     * Build the result of a conversion that wrote its GenBank data to an output stream.
+     */
+    private static GenbankResult writtenResult(int sequenceCount, int featureCount, ValidationResult validationResult) {
+        return GenbankResult.builder()
+                .genbankData(new byte[0])
+                .sequenceCount(sequenceCount)
+                .featureCount(featureCount)
+                .timestamp(LocalDateTime.now())
+                .validationResult(validationResult)
+                .diagnostics(DiagnosticsCollector.current().getSummary())
+                .build();
+    }
+
+    /**
+     * Validate data that was parsed for conversion when single-pass validation is enabled.
+     * Metadata-only sequence data is validated against the recorded sequence lengths.
+     *
+     * @return The validation result, or null if the files were validated up front
+     */
+    private ValidationResult validateParsedData(SequenceData sequenceData, AnnotationData annotationData) {
+        if (!this.options.isSinglePassValidation()) {
+            return null;
+        }
+
+        ValidationResult validationResult;
+        try (ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.VALIDATE)) {
+            validationResult = validator.validateCompatibility(sequenceData, annotationData);
+            scope.records(sequenceData.getCount()).features(annotationData.getTotalCount());
+        }
+        if (!validationResult.isValid()) {
+            throw new ValidationException("Validation failed: " + validationResult.getSummary());
+        }
+        return validationResult;
+    }
+
+    /**
+     * Parse a sequence file, fully or metadata only, as the sequence parsing stage.
+     */
+    private SequenceData parseSequences(File sequenceFile, boolean metadataOnly) throws IOException {
+        try (ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.PARSE_SEQUENCE)) {
+            SequenceData sequenceData = metadataOnly
+                    ? sequenceParser.parseMetadataOnly(sequenceFile)
+                    : sequenceParser.parse(sequenceFile);
+            scope.bytesIn(sequenceFile.length()).records(sequenceData.getCount());
+            if (!metadataOnly) {
+                long residues = 0;
+                for (Sequence sequence : sequenceData.getSequences()) {
+                    residues += sequence.getLength();
+                }
+                scope.buffered(residues);
+            }
             return sequenceData;
         }
+    }
+
+    /**
+     * Parse an annotation file as the annotation parsing stage.
+     */
+    private AnnotationData parseAnnotations(File annotationFile, ConversionOptions options) throws IOException {
+        try (ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.PARSE_ANNOTATION)) {
+            // The parser is shared between conversions, so the options are passed with each call
+            AnnotationData annotationData = annotationParser instanceof FastaAnnotationParser fastaParser
+                    ? fastaParser.parse(annotationFile, options)
+                    : annotationParser.parse(annotationFile);
+            scope.bytesIn(annotationFile.length()).features(annotationData.getTotalCount());
+            return annotationData;
+        }
+    }
+
+    /**
+     * Format sequences into a buffer as the formatting stage.
+     */
+    private byte[] format(SequenceData sequenceData, AnnotationData annotationData, ConversionOptions options) {
+        try (ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.FORMAT)) {
+            byte[] genbankData = formatter.format(sequenceData, annotationData, options);
+            scope.records(sequenceData.getCount()).features(annotationData.getTotalCount())
+                    .bytesOut(genbankData.length).buffered(genbankData.length);
+            return genbankData;
+        }
+    }
+
+    /**
+     * Convert sequences merged into a single record and buffer the GenBank output.
+     */
+    private GenbankResult convertMerged(SequenceData sequenceData, AnnotationData annotationData,
+                                       ConversionOptions options, ValidationResult validationResult) {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+             ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.FORMAT)) {
+            int featureCount = formatMerged(sequenceData, annotationData, outputStream, options);
+            scope.records(1).features(featureCount).bytesOut(outputStream.size()).buffered(outputStream.size());
+
+            return GenbankResult.builder()
+                    .genbankData(outputStream.toByteArray())
+                    .sequenceCount(1)
+                    .featureCount(featureCount)
+                    .timestamp(LocalDateTime.now())
+                    .validationResult(validationResult)
+                    .diagnostics(DiagnosticsCollector.current().getSummary())
+                    .build();
+        } catch (IOException e) {
+            throw new ConversionException("Error formatting merged GenBank data: " + e.getMessage(), e);
+        }
+    }
 
+    /**
+     * Format sequences held in memory as one merged record with the configured formatter.
+     * The residues are joined through a rope, and annotations are remapped onto merged coordinates.
+     *
+     * @param sequenceData The original sequences, loaded
+     * @param annotationData The annotations on the original sequences
+     * @param outputStream The output stream to write to
+     * @param options Conversion options
+     * @return The number of features on the merged record
+     */
+    private int formatMerged(SequenceData sequenceData, AnnotationData annotationData,
+                             OutputStream outputStream, ConversionOptions options) throws IOException {
+        List<Sequence> originalSequences = sequenceData.getSequences();
+        SequenceRope rope = mergedRope(originalSequences, new InMemorySequenceStreamProvider(sequenceData));
+        AnnotationData mergedAnnotations = rope.remap(annotationData);
+
+        StringBuilder residues = new StringBuilder((int) Math.min(rope.getLength(), Integer.MAX_VALUE - 8));
+        rope.streamSequence(rope.getMergedId(), residues::append);
+        SequenceData mergedData = SequenceData.builder()
+                .addSequence(createMergedSequence(originalSequences, rope, residues.toString(), options))
+                .build();
+
+        formatter.formatToStream(mergedData, mergedAnnotations, outputStream, options);
+        return mergedAnnotations.getTotalCount();
+    }
+
+    /**
+     * Format sequences streamed from a file as one merged record.
+     * The residues are served lazily from the source through a rope, so the merged sequence
+     * is never built in memory, and annotations are remapped onto merged coordinates.
+     *
+     * @param sequenceData The original sequences, metadata-only
+     * @param annotationData The annotations on the original sequences
+     * @param source The provider that streams the original sequences
+     * @param outputStream The output stream to write to
+     * @param options Conversion options
+     * @return The number of features on the merged record
+     */
+    private int formatMergedStream(SequenceData sequenceData, AnnotationData annotationData,
+                                   SequenceStreamProvider source, OutputStream outputStream,
+                                   ConversionOptions options) throws IOException {
+        List<Sequence> originalSequences = sequenceData.getSequences();
+        SequenceRope rope = mergedRope(originalSequences, source);
+        AnnotationData mergedAnnotations = rope.remap(annotationData);
+
+        SequenceData mergedData = SequenceData.builder()
+                .addSequence(createMergedSequence(originalSequences, rope, null, options))
+                .build();
+
+        new StreamingGenbankFormatter(rope).formatToStream(mergedData, mergedAnnotations, outputStream, options);
+        return mergedAnnotations.getTotalCount();
+    }
+
+    private static SequenceRope mergedRope(List<Sequence> originalSequences, SequenceStreamProvider source) {
+        return SequenceRope.of("merged_" + originalSequences.get(0).getId(), originalSequences, source);
+    }
+
+    /**
+     * Create a merged sequence. Without residues, the rope serves them when formatting.
+     *
+     * @param originalSequences The sequences being merged
+     * @param rope The rope over the original sequences
+     * @param residues The merged residues, or null to leave them to the rope
+     * @param options Conversion options
+     * @return The merged sequence
+     */
+    private Sequence createMergedSequence(List<Sequence> originalSequences, SequenceRope rope,
+                                          String residues, ConversionOptions options) {
         // Get the merged sequence properties
-        String mergedId = "merged_" + originalSequences.get(0).getId();
         String mergedName = "Merged";
         String mergedDescription = "Merged sequence containing " + originalSequences.size() + " original sequences";
 
-        // Build the merged sequence content
-        StringBuilder mergedSequenceBuilder = new StringBuilder();
-        for (Sequence seq : originalSequences) {
-            String sequenceContent = seq.getSequence();
-            if (sequenceContent != null) {
-                mergedSequenceBuilder.append(sequenceContent);
-            }
-        }
-
         // Get HeaderInfo from options or first sequence
         HeaderInfo headerInfo = options.getHeaderInfo();
-        if (headerInfo == null && !originalSequences.isEmpty()) {
+        if (headerInfo == null) {
             headerInfo = originalSequences.get(0).getHeaderInfo();
         }
 
         // Create the merged sequence with options-provided properties if available
         Sequence.Builder builder = Sequence.builder()
-                .id(mergedId)
+                .id(rope.getMergedId())
                 .name(mergedName)
                 .description(mergedDescription)
-                .sequence(mergedSequenceBuilder.toString());
+                .length(rope.getLength());
+        if (residues != null) {
+            builder.sequence(residues);
+        }
 
         if (options.getMoleculeType() != null && !options.getMoleculeType().isEmpty()) {
             builder.moleculeType(options.getMoleculeType());
@@ -217,7 +874,7 @@ public class DefaultGenbankConverter implements GenbankConverter {
 
         if (options.getOrganism() != null && !options.getOrganism().isEmpty()) {
             builder.organism(options.getOrganism());
-        } else if (!originalSequences.isEmpty() && originalSequences.get(0).getOrganism() != null) {
+        } else if (originalSequences.get(0).getOrganism() != null) {
             builder.organism(originalSequences.get(0).getOrganism());
         } else {
             builder.organism("Merged organism");
@@ -227,12 +884,7 @@ public class DefaultGenbankConverter implements GenbankConverter {
             builder.headerInfo(headerInfo);
         }
 
-        Sequence mergedSequence = builder.build();
-
-        // Create new SequenceData with the merged sequence
-        return SequenceData.builder()
-                .addSequence(mergedSequence)
-                .build();
+        return builder.build();
     }
 
     /**
@@ -245,6 +897,8 @@ public class DefaultGenbankConverter implements GenbankConverter {
         private GenbankFormatter formatter;
         private GenbankOptions options;
         private FormatDetectionService formatDetectionService;
+        private FastaIndexCache fastaIndexCache;
+        private final List<ConversionListener> listeners = new ArrayList<>();
 
         @Override
         public GenbankConverterBuilder withSequenceParser(SequenceParser parser) {
@@ -276,6 +930,15 @@ public class DefaultGenbankConverter implements GenbankConverter {
             return this;
         }
 
+        @Override
+        public GenbankConverterBuilder withListener(ConversionListener listener) {
+            if (listener == null) {
+                throw new IllegalArgumentException("Listener cannot be null");
+            }
+            this.listeners.add(listener);
+            return this;
+        }
+
         /**
          * Set the format detection service for the converter.
          *
@@ -287,17 +950,19 @@ public class DefaultGenbankConverter implements GenbankConverter {
             return this;
         }
 
+        /**
+         * Set the FASTA index cache shared by the default parser, validator and sequence streaming.
+         *
+         * @param fastaIndexCache The FASTA index cache to use
+         * @return This builder
+         */
+        public GenbankConverterBuilder withFastaIndexCache(FastaIndexCache fastaIndexCache) {
+            this.fastaIndexCache = fastaIndexCache;
+            return this;
+        }
+
         @Override
         public GenbankConverter build() {
-            // Use defaults if not specified
-            if (sequenceParser == null) {
-                sequenceParser = new DefaultSequenceParser();
-            }
-
-            if (annotationParser == null) {
-                annotationParser = new DefaultAnnotationParser();
-            }
-
             // Create a default format detection service if not provided
             if (formatDetectionService == null) {
                 FormatConfiguration config = new FormatConfiguration();
@@ -306,13 +971,31 @@ public class DefaultGenbankConverter implements GenbankConverter {
                 formatDetectionService = new FormatDetectionService(detectors);
             }
 
+            // Sequence files are indexed once and the index shared by every component
+            if (fastaIndexCache == null) {
+                fastaIndexCache = new FastaIndexCache();
+            }
+
+            // Use defaults if not specified, sharing the detection service so each file is sniffed once
+            if (sequenceParser == null) {
+                DefaultSequenceParser defaultSequenceParser = new DefaultSequenceParser(formatDetectionService);
+                defaultSequenceParser.setFastaIndexCache(fastaIndexCache);
+                sequenceParser = defaultSequenceParser;
+            }
+
+            if (annotationParser == null) {
+                annotationParser = new DefaultAnnotationParser(formatDetectionService);
+            }
+
             if (validator == null) {
                 // Use new constructor that takes FormatDetectionService
-                validator = new DefaultGenbankValidator(
+                DefaultGenbankValidator defaultValidator = new DefaultGenbankValidator(
                         List.of(sequenceParser),
                         List.of(annotationParser),
                         formatDetectionService
                 );
+                defaultValidator.setFastaIndexCache(fastaIndexCache);
+                validator = defaultValidator;
             }
 
             if (formatter == null) {
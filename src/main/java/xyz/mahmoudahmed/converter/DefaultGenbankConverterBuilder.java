@@ -2,11 +2,15 @@ package xyz.mahmoudahmed.converter;
 
 
 import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.metrics.ConversionListener;
 import xyz.mahmoudahmed.model.GenbankOptions;
 import xyz.mahmoudahmed.parsers.AnnotationParser;
 import xyz.mahmoudahmed.parsers.SequenceParser;
 import xyz.mahmoudahmed.validators.GenbankValidator;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Default implementation of GenbankConverterBuilder.
  */
@@ -16,6 +20,7 @@ public class DefaultGenbankConverterBuilder implements GenbankConverterBuilder {
     GenbankValidator validator;
     GenbankFormatter formatter;
     GenbankOptions options;
+    final List<ConversionListener> listeners = new ArrayList<>();
 
     @Override
     public GenbankConverterBuilder withSequenceParser(SequenceParser parser) {
@@ -47,6 +52,15 @@ public class DefaultGenbankConverterBuilder implements GenbankConverterBuilder {
         return this;
     }
 
+    @Override
+    public GenbankConverterBuilder withListener(ConversionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        this.listeners.add(listener);
+        return this;
+    }
+
     @Override
     public GenbankConverter build() {
         // Create a DefaultGenbankConverter.Builder and delegate to it
@@ -72,6 +86,10 @@ public class DefaultGenbankConverterBuilder implements GenbankConverterBuilder {
             builder.withOptions(options);
         }
 
+        for (ConversionListener listener : listeners) {
+            builder.withListener(listener);
+        }
+
         return builder.build();
     }
 }
\ No newline at end of file
@@ -3,8 +3,15 @@ package xyz.mahmoudahmed.converter;
 import xyz.mahmoudahmed.model.*;
 
 import java.io.File;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 
 /**
  * Main interface for GenBank conversion operations.
@@ -21,6 +28,29 @@ public interface GenbankConverter {
      */
     GenbankResult convert(File sequenceFile, File annotationFile, ConversionOptions options) throws IOException;
 
+    /**
+     * Convert sequence and annotation files to a GenBank file.
+     * The conversion validates the files and takes the standard or memory-efficient path as
+     * {@link #convert(File, File, ConversionOptions)} does, but writes the GenBank data instead of
+     * buffering it. The output is written to a temporary file beside the output file and moved
+     * into place once complete, so a failed conversion leaves no partial output behind.
+     * The output is gzip or BGZF compressed when the output formatting options request it.
+     * <p>
+     * Converters that do not implement this method buffer the conversion with
+     * {@link #convert(File, File, ConversionOptions)} before writing the output.
+     *
+     * @param sequenceFile File containing the sequence data
+     * @param annotationFile File containing the annotation data
+     * @param outputFile The GenBank file to write
+     * @param options Conversion options
+     * @return The conversion result, without buffered GenBank data
+     * @throws IOException If an I/O error occurs
+     */
+    default GenbankResult convertToFile(File sequenceFile, File annotationFile, File outputFile,
+                                        ConversionOptions options) throws IOException {
+        return BufferedConversions.convertToFile(this, sequenceFile, annotationFile, outputFile, options);
+    }
+
     /**
      * Convert sequence and annotation data to GenBank format.
      *
@@ -33,6 +63,7 @@ public interface GenbankConverter {
 
     /**
      * Write GenBank data directly to an output stream.
+     * The output is gzip or BGZF compressed when the output formatting options request it.
      *
      * @param sequenceData The sequence data
      * @param annotationData The annotation data
@@ -43,6 +74,150 @@ public interface GenbankConverter {
     void convertToStream(SequenceData sequenceData, AnnotationData annotationData,
                          OutputStream outputStream, ConversionOptions options) throws IOException;
 
+    /**
+     * Convert non-seekable sequence and annotation streams to GenBank format in a single pass.
+     * Formats are detected by peeking into a buffer at the start of each stream, the annotations
+     * are read first, and FASTA records are then converted and written one at a time as they arrive.
+     * Records are validated against their annotations as they are read, so a validation failure
+     * stops the conversion after the records already written.
+     * The input streams are read to the end; the output stream is flushed but not closed.
+     * Compressed output, when requested by the output formatting options, is finished before returning.
+     * With {@link GenbankOptions#getPipelineWorkers() pipeline workers}, records are formatted by the
+     * workers and written in order by a writer thread while the calling thread reads the next ones.
+     * <p>
+     * Converters that do not implement this method copy the streams to temporary files, convert
+     * them with {@link #convert(File, File, ConversionOptions)} and write the buffered GenBank data.
+     *
+     * @param sequenceInput Stream of FASTA sequence data
+     * @param annotationInput Stream of annotation data
+     * @param outputStream The output stream to write to
+     * @param options Conversion options
+     * @return The conversion result, without buffered GenBank data
+     * @throws IOException If an I/O error occurs
+     */
+    default GenbankResult convert(InputStream sequenceInput, InputStream annotationInput,
+                                  OutputStream outputStream, ConversionOptions options) throws IOException {
+        return BufferedConversions.convertStreams(this, sequenceInput, annotationInput, outputStream, options);
+    }
+
+    /**
+     * Convert non-seekable sequence and annotation channels to GenBank format in a single pass.
+     *
+     * @param sequenceChannel Channel of FASTA sequence data
+     * @param annotationChannel Channel of annotation data
+     * @param outputChannel The channel to write to
+     * @param options Conversion options
+     * @return The conversion result, without buffered GenBank data
+     * @throws IOException If an I/O error occurs
+     * @see #convert(InputStream, InputStream, OutputStream, ConversionOptions)
+     */
+    default GenbankResult convert(ReadableByteChannel sequenceChannel, ReadableByteChannel annotationChannel,
+                                  WritableByteChannel outputChannel, ConversionOptions options) throws IOException {
+        return convert(Channels.newInputStream(sequenceChannel), Channels.newInputStream(annotationChannel),
+                Channels.newOutputStream(outputChannel), options);
+    }
+
+    /**
+     * Convert sequence and annotation files asynchronously on the default executor, which
+     * uses virtual threads where the runtime supports them.
+     *
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param options Conversion options
+     * @return A future completed with the conversion result
+     * @see #convertAsync(File, File, ConversionOptions, Executor)
+     */
+    default CompletableFuture<GenbankResult> convertAsync(File sequenceFile, File annotationFile,
+                                                          ConversionOptions options) {
+        return convertAsync(sequenceFile, annotationFile, options, AsyncExecutors.defaultExecutor());
+    }
+
+    /**
+     * Convert sequence and annotation files asynchronously.
+     * Cancellation is cooperative: once the future is cancelled or otherwise completed, for
+     * example by {@link CompletableFuture#orTimeout}, the conversion stops at the next record
+     * or stream chunk and releases its thread and buffers.
+     *
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param options Conversion options
+     * @param executor The executor to run the conversion on
+     * @return A future completed with the conversion result
+     */
+    default CompletableFuture<GenbankResult> convertAsync(File sequenceFile, File annotationFile,
+                                                          ConversionOptions options, Executor executor) {
+        return AsyncExecutors.supply(executor, () -> convert(sequenceFile, annotationFile, options));
+    }
+
+    /**
+     * Convert sequence and annotation files to a GenBank file asynchronously on the default executor.
+     *
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param outputFile The GenBank file to write
+     * @param options Conversion options
+     * @return A future completed with the conversion result, without buffered GenBank data
+     * @see #convertAsync(File, File, File, ConversionOptions, Executor)
+     */
+    default CompletableFuture<GenbankResult> convertAsync(File sequenceFile, File annotationFile, File outputFile,
+                                                          ConversionOptions options) {
+        return convertAsync(sequenceFile, annotationFile, outputFile, options, AsyncExecutors.defaultExecutor());
+    }
+
+    /**
+     * Convert sequence and annotation files to a GenBank file asynchronously, as
+     * {@link #convertToFile(File, File, File, ConversionOptions)} does. A cancelled conversion
+     * leaves no partial output behind either.
+     *
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param outputFile The GenBank file to write
+     * @param options Conversion options
+     * @param executor The executor to run the conversion on
+     * @return A future completed with the conversion result, without buffered GenBank data
+     * @see #convertAsync(File, File, ConversionOptions, Executor)
+     */
+    default CompletableFuture<GenbankResult> convertAsync(File sequenceFile, File annotationFile, File outputFile,
+                                                          ConversionOptions options, Executor executor) {
+        return AsyncExecutors.supply(executor,
+                () -> convertToFile(sequenceFile, annotationFile, outputFile, options));
+    }
+
+    /**
+     * Publish the GenBank records of sequence and annotation files on the default executor.
+     *
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param options Conversion options
+     * @return A publisher running one conversion per subscriber
+     * @see #publish(File, File, ConversionOptions, Executor)
+     */
+    default Flow.Publisher<GenbankRecord> publish(File sequenceFile, File annotationFile, ConversionOptions options) {
+        return publish(sequenceFile, annotationFile, options, AsyncExecutors.defaultExecutor());
+    }
+
+    /**
+     * Publish the GenBank records of sequence and annotation files as they are formatted.
+     * Each subscriber gets its own conversion, which formats a record only once the subscriber
+     * has requested it, so memory is bounded by the demand of the subscriber rather than the
+     * size of the output. Cancelling the subscription stops the conversion. Records are not
+     * compressed, whatever the output compression of the options.
+     * <p>
+     * Publishing needs a converter that formats records one at a time, so converters that do not
+     * implement this method reject it rather than split the output of a buffered conversion.
+     *
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param options Conversion options
+     * @param executor The executor to run the conversions on
+     * @return A publisher running one conversion per subscriber
+     * @throws UnsupportedOperationException If this converter does not publish records
+     */
+    default Flow.Publisher<GenbankRecord> publish(File sequenceFile, File annotationFile, ConversionOptions options,
+                                                  Executor executor) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not publish records one at a time");
+    }
+
     /**
      * Validate a sequence file.
      *
@@ -72,6 +247,21 @@ public interface GenbankConverter {
      */
     ValidationResult validate(File sequenceFile, File annotationFile) throws IOException;
 
+    /**
+     * Validate compatibility between sequence and annotation files at the given validation level.
+     * Converters that do not support validation levels validate the whole files.
+     *
+     * @param sequenceFile File containing the sequence data
+     * @param annotationFile File containing the annotation data
+     * @param options Validation options
+     * @return Validation result
+     * @throws IOException If an I/O error occurs
+     */
+    default ValidationResult validate(File sequenceFile, File annotationFile, ValidationOptions options)
+            throws IOException {
+        return validate(sequenceFile, annotationFile);
+    }
+
     /**
      * Create a new GenbankConverter builder.
      *
@@ -1,6 +1,7 @@
 package xyz.mahmoudahmed.converter;
 
 import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.metrics.ConversionListener;
 import xyz.mahmoudahmed.parsers.SequenceParser;
 import xyz.mahmoudahmed.model.GenbankOptions;
 import xyz.mahmoudahmed.parsers.AnnotationParser;
@@ -50,6 +51,19 @@ public interface GenbankConverterBuilder {
      */
     GenbankConverterBuilder withOptions(GenbankOptions options);
 
+    /**
+     * Add a listener that receives per-stage measurements of every conversion.
+     * Listeners are called in the order they were added.
+     * Builders whose converters do not record measurements ignore listeners, so the
+     * listener is never called; the default does nothing.
+     *
+     * @param listener The listener to add
+     * @return This builder
+     */
+    default GenbankConverterBuilder withListener(ConversionListener listener) {
+        return this;
+    }
+
     /**
      * Build a new GenbankConverter.
      *
@@ -0,0 +1,353 @@
+package xyz.mahmoudahmed.converter;
+
+import xyz.mahmoudahmed.diagnostics.DiagnosticsCollector;
+import xyz.mahmoudahmed.exception.ConversionCancelledException;
+import xyz.mahmoudahmed.exception.ConversionException;
+import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.metrics.ConversionRecorder;
+import xyz.mahmoudahmed.metrics.ConversionStage;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.Sequence;
+import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.util.Cancellation;
+import xyz.mahmoudahmed.util.RingBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Converts streamed records in three stages running at their own pace: the calling thread reads
+ * and validates records, a number of workers format them, and a single writer writes them in order.
+ * <p>
+ * The stages pass a fixed set of slots around, each with a byte buffer reused from record to record.
+ * The reader takes a free slot from a ring buffer, fills it with a record and hands it to the workers
+ * through a second ring buffer; a worker formats the record into the slot's buffer and parks the slot
+ * at the record's position in the ordering ring, where the writer picks the slots up in order and
+ * frees them once written. Since a record only enters the pipeline with a free slot, the records in
+ * flight, and their formatted output, are bounded by the number of slots. The stages never lock:
+ * a stage with nothing to do spins briefly, then parks for a time that doubles up to a millisecond,
+ * so stages waiting on a slow reader or writer stay cheap.
+ * <p>
+ * The workers and the writer run under the cancellation check of the calling thread.
+ * A failed worker or writer stops the pipeline. A record the reader fails to read or validate
+ * stops the pipeline after the records before it are written, as in the serial conversion.
+ */
+class RecordPipeline {
+    private static final byte[] RECORD_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final int SLOTS_PER_WORKER = 4;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long MIN_PARK_NANOS = 20_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    /**
+     * Reads the next record of the input.
+     */
+    @FunctionalInterface
+    interface RecordSource {
+        /**
+         * Read and validate the next record.
+         *
+         * @return The record, or null at the end of the input
+         * @throws IOException If the input cannot be read
+         */
+        Input next() throws IOException;
+    }
+
+    /**
+     * The loop of a worker or the writer.
+     */
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws IOException;
+    }
+
+    /**
+     * A record read from the input, with its annotations.
+     *
+     * @param sequence The sequence of the record
+     * @param annotations The annotations of the sequence
+     */
+    record Input(Sequence sequence, AnnotationData annotations) {
+    }
+
+    /**
+     * The records and features written by the pipeline.
+     *
+     * @param records The number of records written
+     * @param features The number of features written
+     */
+    record Totals(int records, int features) {
+    }
+
+    private final GenbankFormatter formatter;
+    private final ConversionOptions options;
+    private final int workers;
+    private final Executor executor;
+    private final RingBuffer<Slot> free;
+    private final RingBuffer<Slot> formatting;
+    private final AtomicReferenceArray<Slot> ordered;
+    private final int mask;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile long total = -1;
+    private int recordsWritten;
+    private int featuresWritten;
+
+    /**
+     * Constructor.
+     *
+     * @param formatter The formatter run by the workers
+     * @param options Conversion options
+     * @param workers The number of formatting workers
+     * @param executor The executor running the workers and the writer
+     */
+    RecordPipeline(GenbankFormatter formatter, ConversionOptions options, int workers, Executor executor) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Pipeline workers must be positive");
+        }
+        this.formatter = formatter;
+        this.options = options;
+        this.workers = workers;
+        this.executor = executor;
+        this.free = new RingBuffer<>(workers * SLOTS_PER_WORKER);
+        this.mask = free.getCapacity() - 1;
+        this.formatting = new RingBuffer<>(free.getCapacity());
+        this.ordered = new AtomicReferenceArray<>(free.getCapacity());
+        for (int i = 0; i < free.getCapacity(); i++) {
+            free.offer(new Slot());
+        }
+    }
+
+    /**
+     * Convert the records of a source, returning once every stage has finished.
+     *
+     * @param source The source of the records, read on the calling thread
+     * @param output The stream to write the records to, separated by blank lines
+     * @return The records and features written
+     * @throws IOException If reading or writing fails
+     */
+    Totals run(RecordSource source, OutputStream output) throws IOException {
+        ConversionRecorder recorder = ConversionRecorder.current();
+        DiagnosticsCollector diagnostics = DiagnosticsCollector.current();
+        BooleanSupplier cancelled = Cancellation.current();
+        CountDownLatch finished = new CountDownLatch(workers + 1);
+        start(() -> write(output), diagnostics, cancelled, finished);
+        for (int i = 0; i < workers; i++) {
+            start(() -> format(recorder), diagnostics, cancelled, finished);
+        }
+
+        Throwable readFailure = null;
+        long records = 0;
+        try {
+            Input input;
+            while ((input = source.next()) != null) {
+                Slot slot = takeFree();
+                if (slot == null) {
+                    break;
+                }
+                slot.index = records++;
+                slot.sequence = input.sequence();
+                slot.annotations = input.annotations();
+                formatting.offer(slot);
+            }
+        } catch (ConversionCancelledException e) {
+            fail(e);
+        } catch (Throwable e) {
+            readFailure = e;
+        } finally {
+            total = records;
+        }
+
+        awaitStages(finished);
+        Throwable error = failure.get() != null ? failure.get() : readFailure;
+        if (error != null) {
+            throw rethrow(error);
+        }
+        return new Totals(recordsWritten, featuresWritten);
+    }
+
+    /**
+     * Start a stage on the executor, reporting its problems to the collector of the conversion
+     * and stopping when the conversion is cancelled.
+     */
+    private void start(Stage stage, DiagnosticsCollector diagnostics, BooleanSupplier cancelled,
+                       CountDownLatch finished) {
+        Supplier<Throwable> task = diagnostics.bind(() -> {
+            try (Cancellation.Scope cancellation = Cancellation.enter(cancelled)) {
+                stage.run();
+                return null;
+            } catch (Throwable e) {
+                return e;
+            }
+        });
+        try {
+            executor.execute(() -> {
+                try {
+                    Throwable e = task.get();
+                    if (e != null) {
+                        fail(e);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fail(e);
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Take a free slot, waiting for the writer to free one.
+     *
+     * @return The slot, or null if the pipeline has failed
+     */
+    private Slot takeFree() {
+        int idle = 0;
+        Slot slot;
+        while ((slot = free.poll()) == null) {
+            if (failure.get() != null) {
+                return null;
+            }
+            Cancellation.checkpoint();
+            idle = idle(idle);
+        }
+        return slot;
+    }
+
+    private void format(ConversionRecorder recorder) throws IOException {
+        int idle = 0;
+        while (failure.get() == null) {
+            Slot slot = formatting.poll();
+            if (slot == null) {
+                // The reader hands its last record over before publishing the total
+                if (total >= 0 && formatting.size() == 0) {
+                    return;
+                }
+                Cancellation.checkpoint();
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+
+            try (ConversionRecorder.Scope scope = recorder.stage(ConversionStage.FORMAT)) {
+                slot.buffer.reset();
+                formatter.formatToStream(SequenceData.builder().addSequence(slot.sequence).build(),
+                        slot.annotations, slot.buffer, options);
+                slot.features = slot.annotations.getTotalCount();
+                scope.records(1).features(slot.features).bytesOut(slot.buffer.size()).buffered(slot.buffer.size());
+            }
+            slot.sequence = null;
+            slot.annotations = null;
+            ordered.set((int) slot.index & mask, slot);
+        }
+    }
+
+    private void write(OutputStream output) throws IOException {
+        int idle = 0;
+        long next = 0;
+        while (failure.get() == null) {
+            long records = total;
+            if (records >= 0 && next >= records) {
+                return;
+            }
+            int position = (int) next & mask;
+            Slot slot = ordered.get(position);
+            if (slot == null) {
+                Cancellation.checkpoint();
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            ordered.set(position, null);
+
+            if (next > 0) {
+                output.write(RECORD_SEPARATOR);
+            }
+            slot.buffer.writeTo(output);
+            recordsWritten++;
+            featuresWritten += slot.features;
+            if (slot.buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+                // Let the buffer of an unusually large record go rather than keep it for every record
+                slot.buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+            }
+            next++;
+            free.offer(slot);
+        }
+    }
+
+    private void fail(Throwable e) {
+        failure.compareAndSet(null, e);
+    }
+
+    /**
+     * Wait for the workers and the writer, whatever happens to this thread, since they
+     * still use the output stream and the slots.
+     */
+    private void awaitStages(CountDownLatch finished) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+                fail(new ConversionCancelledException("Conversion interrupted"));
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait a little after finding nothing to do, spinning first and then parking for
+     * twice as long on every further idle round, up to a millisecond.
+     */
+    private static int idle(int idle) {
+        if (idle < SPINS_BEFORE_PARKING) {
+            Thread.onSpinWait();
+        } else {
+            int doublings = Math.min(idle - SPINS_BEFORE_PARKING, 6);
+            LockSupport.parkNanos(Math.min(MIN_PARK_NANOS << doublings, MAX_PARK_NANOS));
+        }
+        return idle + 1;
+    }
+
+    private static IOException rethrow(Throwable error) {
+        if (error instanceof IOException ioException) {
+            return ioException;
+        }
+        if (error instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (error instanceof Error fatal) {
+            throw fatal;
+        }
+        throw new ConversionException("Pipelined conversion failed: " + error.getMessage(), error);
+    }
+
+    /**
+     * A record travelling through the pipeline, with the buffer it is formatted into.
+     * Its fields are handed between stages through the ring buffers, which order the accesses.
+     */
+    private static final class Slot {
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        private long index;
+        private Sequence sequence;
+        private AnnotationData annotations;
+        private int features;
+    }
+}
@@ -0,0 +1,187 @@
+package xyz.mahmoudahmed.converter;
+
+import xyz.mahmoudahmed.exception.ConversionCancelledException;
+import xyz.mahmoudahmed.model.GenbankRecord;
+import xyz.mahmoudahmed.util.Cancellation;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes the records of a conversion, running one conversion per subscriber.
+ * The conversion runs on an executor and produces a record only once the subscriber has
+ * requested it, waiting for demand otherwise, so the records held in memory are bounded by
+ * the demand of the subscriber rather than the size of the output. Cancelling the
+ * subscription stops the conversion at its next cancellation checkpoint.
+ */
+class RecordPublisher implements Flow.Publisher<GenbankRecord> {
+    private static final Logger logger = Logger.getLogger(RecordPublisher.class.getName());
+
+    /**
+     * Produces the records of a conversion.
+     */
+    @FunctionalInterface
+    interface Producer {
+        /**
+         * Run the conversion, handing each record to the emitter as it is formatted.
+         *
+         * @param emitter The emitter, which waits for demand before returning
+         * @throws Exception If the conversion fails
+         */
+        void produce(Emitter emitter) throws Exception;
+    }
+
+    /**
+     * Hands records to the subscriber.
+     */
+    @FunctionalInterface
+    interface Emitter {
+        /**
+         * Wait until the subscriber requests a record, then hand it over.
+         *
+         * @param record The record
+         * @throws ConversionCancelledException If the subscription is cancelled or the thread interrupted
+         */
+        void emit(GenbankRecord record);
+    }
+
+    private final Executor executor;
+    private final Producer producer;
+
+    /**
+     * Constructor.
+     *
+     * @param executor The executor to run the conversions on
+     * @param producer The conversion run for each subscriber
+     */
+    RecordPublisher(Executor executor, Producer producer) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.executor = executor;
+        this.producer = producer;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super GenbankRecord> subscriber) {
+        Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+        RecordSubscription subscription = new RecordSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        try {
+            executor.execute(subscription::run);
+        } catch (RejectedExecutionException e) {
+            subscription.finish(e);
+        }
+    }
+
+    /**
+     * The demand of one subscriber and the conversion serving it.
+     * Every signal after onSubscribe is sent from the conversion thread, so signals are serial.
+     */
+    private final class RecordSubscription implements Flow.Subscription, Emitter {
+        private final Flow.Subscriber<? super GenbankRecord> subscriber;
+        private long demand;
+        private boolean cancelled;
+        private IllegalArgumentException invalidRequest;
+        private Throwable subscriberFailure;
+        // Read by every cancellation checkpoint, so kept apart from the lock
+        private volatile boolean stopped;
+
+        private RecordSubscription(Flow.Subscriber<? super GenbankRecord> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (stopped) {
+                return;
+            }
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " records, expected a positive number");
+                stop();
+                return;
+            }
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            stop();
+        }
+
+        private void stop() {
+            stopped = true;
+            notifyAll();
+        }
+
+        @Override
+        public void emit(GenbankRecord record) {
+            synchronized (this) {
+                while (demand == 0 && !stopped) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ConversionCancelledException("Conversion interrupted");
+                    }
+                }
+                if (stopped) {
+                    throw new ConversionCancelledException("Conversion cancelled");
+                }
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+            }
+            try {
+                subscriber.onNext(record);
+            } catch (Throwable e) {
+                synchronized (this) {
+                    subscriberFailure = e;
+                    cancel();
+                }
+                throw new ConversionCancelledException("Subscriber failed");
+            }
+        }
+
+        private void run() {
+            Throwable failure = null;
+            if (!stopped) {
+                Cancellation.Scope cancellation = Cancellation.enter(() -> stopped);
+                try {
+                    producer.produce(this);
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    cancellation.close();
+                }
+            }
+            finish(failure);
+        }
+
+        private void finish(Throwable failure) {
+            Throwable error;
+            synchronized (this) {
+                if (subscriberFailure != null) {
+                    logger.log(Level.WARNING, "Subscriber failed, conversion stopped", subscriberFailure);
+                    return;
+                }
+                if (invalidRequest == null && cancelled) {
+                    return;
+                }
+                error = invalidRequest != null ? invalidRequest : failure;
+                stopped = true;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package xyz.mahmoudahmed.diagnostics;
+
+/**
+ * One reported problem, kept as an example of its category.
+ *
+ * @param category The kind of problem
+ * @param line The 1-based line of the input it was found on, or -1 if not tied to a line
+ * @param detail Further detail, such as the feature affected, or null
+ */
+public record Diagnostic(DiagnosticCategory category, long line, String detail) {
+
+    /**
+     * Get a readable message describing the problem.
+     *
+     * @return The message
+     */
+    public String getMessage() {
+        StringBuilder message = new StringBuilder(category.getDescription());
+        if (line >= 0) {
+            message.append(" at line ").append(line);
+        }
+        if (detail != null) {
+            message.append(": ").append(detail);
+        }
+        return message.toString();
+    }
+}
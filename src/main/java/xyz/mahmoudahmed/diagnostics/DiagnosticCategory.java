@@ -0,0 +1,53 @@
+package xyz.mahmoudahmed.diagnostics;
+
+/**
+ * Kinds of problem reported while converting. Problems of the same kind are counted together,
+ * so a file with many bad lines produces one entry per category rather than one per line.
+ */
+public enum DiagnosticCategory {
+    /**
+     * An annotation line with fewer fields than its format requires, skipped.
+     */
+    MISSING_FIELDS("Line with too few fields skipped"),
+
+    /**
+     * An annotation with start or end positions that are not numbers or out of order, skipped.
+     */
+    INVALID_COORDINATES("Annotation with invalid positions skipped"),
+
+    /**
+     * A GFF or GTF phase that is not 0, 1 or 2, replaced by no phase.
+     */
+    INVALID_PHASE("Invalid phase ignored"),
+
+    /**
+     * A FASTA annotation header that does not match the expected layout, skipped.
+     */
+    INVALID_HEADER("Invalid FASTA annotation header skipped"),
+
+    /**
+     * An annotation line that failed to parse for another reason, skipped.
+     */
+    MALFORMED_LINE("Malformed line skipped"),
+
+    /**
+     * A coding feature translated from the sequence in its annotation because the genomic
+     * region was not available.
+     */
+    ANNOTATION_SEQUENCE_FALLBACK("Annotation sequence translated instead of genomic region");
+
+    private final String description;
+
+    DiagnosticCategory(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Get a short description of the problem.
+     *
+     * @return The description
+     */
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,239 @@
+package xyz.mahmoudahmed.diagnostics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the problems reported during a conversion, such as skipped annotation lines.
+ * Problems are counted by category and the first few of each are kept as examples, so a
+ * bad input with millions of lines costs a counter increment per line rather than a log record.
+ * Logging is rate limited per category: a number of problems are logged each minute and the
+ * rest are counted and logged as one line.
+ * <p>
+ * A collector is started by the converter for each conversion and is current on the converting
+ * thread until it finishes, so parsers and feature handlers report through
+ * {@link #report(DiagnosticCategory, long, String)} without being passed the collector.
+ * Outside a conversion, problems go to a collector shared by the process, which only logs them.
+ */
+public class DiagnosticsCollector {
+    private static final Logger logger = Logger.getLogger(DiagnosticsCollector.class.getName());
+    private static final ThreadLocal<DiagnosticsCollector> CURRENT = new ThreadLocal<>();
+    private static final long LOG_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * The default number of examples kept per category.
+     */
+    public static final int DEFAULT_MAX_EXAMPLES = 10;
+
+    /**
+     * The default number of problems logged per category each minute.
+     */
+    public static final int DEFAULT_LOG_LIMIT = 10;
+
+    private static final DiagnosticsCollector SHARED = new DiagnosticsCollector();
+
+    private final int maxExamples;
+    private final int logLimit;
+    private final Map<DiagnosticCategory, CategoryState> categories = new EnumMap<>(DiagnosticCategory.class);
+    private DiagnosticsCollector previous;
+
+    /**
+     * Create a collector with the default limits.
+     */
+    public DiagnosticsCollector() {
+        this(DEFAULT_MAX_EXAMPLES, DEFAULT_LOG_LIMIT);
+    }
+
+    /**
+     * Create a collector.
+     *
+     * @param maxExamples The number of examples kept per category
+     * @param logLimit The number of problems logged per category each minute, or 0 to log none
+     */
+    public DiagnosticsCollector(int maxExamples, int logLimit) {
+        if (maxExamples < 0) {
+            throw new IllegalArgumentException("Maximum examples cannot be negative");
+        }
+        if (logLimit < 0) {
+            throw new IllegalArgumentException("Log limit cannot be negative");
+        }
+        this.maxExamples = maxExamples;
+        this.logLimit = logLimit;
+        long now = System.nanoTime();
+        for (DiagnosticCategory category : DiagnosticCategory.values()) {
+            categories.put(category, new CategoryState(now, maxExamples == 0));
+        }
+    }
+
+    /**
+     * Start collecting the problems of a conversion on the current thread.
+     *
+     * @return The collector, which must be finished with {@link #finish()}
+     */
+    public static DiagnosticsCollector start() {
+        DiagnosticsCollector collector = new DiagnosticsCollector();
+        collector.previous = CURRENT.get();
+        CURRENT.set(collector);
+        return collector;
+    }
+
+    /**
+     * Get the collector of the conversion running on the current thread.
+     *
+     * @return The current collector, or the shared collector if no conversion is running
+     */
+    public static DiagnosticsCollector current() {
+        DiagnosticsCollector collector = CURRENT.get();
+        return collector != null ? collector : SHARED;
+    }
+
+    /**
+     * Report a problem to the collector current on this thread.
+     *
+     * @param category The kind of problem
+     * @param line The 1-based line of the input, or -1 if not tied to a line
+     * @param detail Further detail, or null
+     */
+    public static void report(DiagnosticCategory category, long line, String detail) {
+        current().add(category, line, detail);
+    }
+
+    /**
+     * Add a problem. The message is only built if the problem is kept as an example or logged.
+     *
+     * @param category The kind of problem
+     * @param line The 1-based line of the input, or -1 if not tied to a line
+     * @param detail Further detail, or null
+     */
+    public void add(DiagnosticCategory category, long line, String detail) {
+        CategoryState state = categories.get(category);
+        state.count.increment();
+
+        boolean loggable = logLimit > 0 && logger.isLoggable(Level.WARNING);
+        if (state.examplesFull && (!loggable || state.quietUntil - System.nanoTime() > 0)) {
+            state.suppressed.increment();
+            return;
+        }
+
+        synchronized (state) {
+            Diagnostic diagnostic = new Diagnostic(category, line, detail);
+            if (state.examples.size() < maxExamples) {
+                state.examples.add(diagnostic);
+                state.examplesFull = state.examples.size() >= maxExamples;
+            }
+            if (!loggable) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            if (now - state.windowStart >= LOG_WINDOW_NANOS) {
+                logSuppressed(category, state.suppressed.sumThenReset());
+                state.windowStart = now;
+                state.logged = 0;
+            }
+            if (state.logged < logLimit) {
+                logger.warning(diagnostic.getMessage());
+                if (++state.logged == logLimit) {
+                    state.quietUntil = state.windowStart + LOG_WINDOW_NANOS;
+                }
+            } else {
+                state.suppressed.increment();
+            }
+        }
+    }
+
+    /**
+     * Wrap a task so that problems it reports on another thread go to this collector.
+     *
+     * @param task The task
+     * @param <T> The type of the result of the task
+     * @return The wrapped task
+     */
+    public <T> Supplier<T> bind(Supplier<T> task) {
+        return () -> {
+            DiagnosticsCollector outer = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return task.get();
+            } finally {
+                if (outer != null) {
+                    CURRENT.set(outer);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Get the problems collected so far.
+     *
+     * @return The summary of the problems
+     */
+    public DiagnosticsSummary getSummary() {
+        Map<DiagnosticCategory, Long> counts = new EnumMap<>(DiagnosticCategory.class);
+        List<Diagnostic> examples = new ArrayList<>();
+        for (Map.Entry<DiagnosticCategory, CategoryState> entry : categories.entrySet()) {
+            CategoryState state = entry.getValue();
+            long count = state.count.sum();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+                synchronized (state) {
+                    examples.addAll(state.examples);
+                }
+            }
+        }
+        return counts.isEmpty() ? DiagnosticsSummary.EMPTY : new DiagnosticsSummary(counts, examples);
+    }
+
+    /**
+     * Finish collecting, logging the problems that were not logged individually.
+     *
+     * @return The summary of the problems
+     */
+    public DiagnosticsSummary finish() {
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        for (Map.Entry<DiagnosticCategory, CategoryState> entry : categories.entrySet()) {
+            logSuppressed(entry.getKey(), entry.getValue().suppressed.sumThenReset());
+        }
+        return getSummary();
+    }
+
+    private void logSuppressed(DiagnosticCategory category, long suppressed) {
+        if (suppressed > 0 && logLimit > 0 && logger.isLoggable(Level.WARNING)) {
+            logger.warning(category.getDescription() + ": " + suppressed + " more not logged individually");
+        }
+    }
+
+    /**
+     * Counts, examples and log window of one category.
+     */
+    private static final class CategoryState {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder suppressed = new LongAdder();
+        private final List<Diagnostic> examples = new ArrayList<>();
+        private volatile boolean examplesFull;
+        private volatile long quietUntil;
+        private long windowStart;
+        private int logged;
+
+        private CategoryState(long now, boolean examplesFull) {
+            this.examplesFull = examplesFull;
+            this.quietUntil = now;
+            this.windowStart = now - LOG_WINDOW_NANOS;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package xyz.mahmoudahmed.diagnostics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Problems reported during a conversion, counted by category with the first few of each
+ * kept as examples.
+ *
+ * @param counts The number of problems of each category reported, omitting categories with none
+ * @param examples The first problems of each category, grouped by category in the order reported
+ */
+public record DiagnosticsSummary(Map<DiagnosticCategory, Long> counts, List<Diagnostic> examples) {
+    /**
+     * A summary with no problems.
+     */
+    public static final DiagnosticsSummary EMPTY = new DiagnosticsSummary(Map.of(), List.of());
+
+    public DiagnosticsSummary {
+        counts = counts.isEmpty()
+                ? Map.of()
+                : Collections.unmodifiableMap(new EnumMap<>(counts));
+        examples = List.copyOf(examples);
+    }
+
+    /**
+     * Check whether no problems were reported.
+     *
+     * @return true if there were no problems
+     */
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * Get the number of problems of a category.
+     *
+     * @param category The category
+     * @return The number of problems reported
+     */
+    public long getCount(DiagnosticCategory category) {
+        return counts.getOrDefault(category, 0L);
+    }
+
+    /**
+     * Get the number of problems of all categories.
+     *
+     * @return The total number of problems reported
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Get the examples kept of a category.
+     *
+     * @param category The category
+     * @return The first problems of the category reported
+     */
+    public List<Diagnostic> getExamples(DiagnosticCategory category) {
+        return examples.stream()
+                .filter(example -> example.category() == category)
+                .toList();
+    }
+}
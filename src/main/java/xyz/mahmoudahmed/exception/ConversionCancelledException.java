@@ -0,0 +1,15 @@
+package xyz.mahmoudahmed.exception;
+
+/**
+ * Exception thrown when a conversion stops because it was cancelled or its thread interrupted.
+ */
+public class ConversionCancelledException extends ConversionException {
+    /**
+     * Create a new exception with a message.
+     *
+     * @param message The exception message
+     */
+    public ConversionCancelledException(String message) {
+        super(message);
+    }
+}
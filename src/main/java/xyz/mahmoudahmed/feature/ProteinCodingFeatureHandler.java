@@ -1,5 +1,9 @@
 package xyz.mahmoudahmed.feature;
 
+import xyz.mahmoudahmed.diagnostics.DiagnosticCategory;
+import xyz.mahmoudahmed.diagnostics.DiagnosticsCollector;
+import xyz.mahmoudahmed.metrics.ConversionRecorder;
+import xyz.mahmoudahmed.metrics.ConversionStage;
 import xyz.mahmoudahmed.parsers.FastaHeaderInfo;
 import xyz.mahmoudahmed.parsers.SequenceProvider;
 import xyz.mahmoudahmed.translator.Translator;
@@ -161,17 +165,17 @@ public class ProteinCodingFeatureHandler extends AbstractFeatureHandler {
             // Fall back to annotation sequence if region not found
             if (sequenceToTranslate == null || sequenceToTranslate.isEmpty()) {
                 sequenceToTranslate = sequence; // Use the sequence from annotation
-
-                // Debug info - useful for troubleshooting
-                System.out.println("WARNING: Using annotation sequence for " +
-                        header.featureType() + " at " +
-                        header.start() + "-" + header.end() +
-                        " instead of full genomic sequence");
+                DiagnosticsCollector.report(DiagnosticCategory.ANNOTATION_SEQUENCE_FALLBACK, -1,
+                        header.featureType() + " at " + header.start() + "-" + header.end());
             }
 
             // Only translate if we have a sequence
             if (sequenceToTranslate != null && !sequenceToTranslate.isEmpty()) {
-                String translation = translator.translate(sequenceToTranslate, false);
+                String translation;
+                try (ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.TRANSLATE)) {
+                    translation = translator.translate(sequenceToTranslate, false);
+                    scope.bytesIn(sequenceToTranslate.length()).features(1);
+                }
                 String formattedTranslation = formatTranslation(translation);
                 qualifiers.put("translation", Collections.singletonList(formattedTranslation));
             }
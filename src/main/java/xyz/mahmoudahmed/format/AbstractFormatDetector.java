@@ -2,8 +2,8 @@ package xyz.mahmoudahmed.format;
 
 import xyz.mahmoudahmed.config.FormatConfiguration;
 import xyz.mahmoudahmed.exception.FileProcessingException;
-import java.io.*;
-import java.nio.charset.StandardCharsets;
+import xyz.mahmoudahmed.util.CompressedInput;
+import java.io.File;
 import java.util.Set;
 
 /**
@@ -30,7 +30,7 @@ public abstract class AbstractFormatDetector implements FormatDetector {
             return false;
         }
 
-        String extension = getFileExtension(file.getName()).toLowerCase();
+        String extension = getFileExtension(CompressedInput.stripCompressionExtension(file.getName())).toLowerCase();
         return supportedExtensions.contains(extension);
     }
 
@@ -61,25 +61,6 @@ public abstract class AbstractFormatDetector implements FormatDetector {
      * @throws FileProcessingException If an error occurs reading the file
      */
     protected String[] readFileLines(File file, int maxLines) throws FileProcessingException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            String[] lines = new String[maxLines];
-            int lineCount = 0;
-            String line;
-
-            while ((line = reader.readLine()) != null && lineCount < maxLines) {
-                lines[lineCount++] = line.trim();
-            }
-
-            // If we read fewer lines than maxLines, create a new array with the actual size
-            if (lineCount < maxLines) {
-                String[] actualLines = new String[lineCount];
-                System.arraycopy(lines, 0, actualLines, 0, lineCount);
-                return actualLines;
-            }
-
-            return lines;
-        } catch (IOException e) {
-            throw new FileProcessingException("Error reading file: " + file.getName(), e);
-        }
+        return FormatSample.read(file).getLines(maxLines);
     }
-}
\ No newline at end of file
+}
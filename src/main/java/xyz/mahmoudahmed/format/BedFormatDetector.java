@@ -2,14 +2,13 @@ package xyz.mahmoudahmed.format;
 
 import xyz.mahmoudahmed.config.FormatConfiguration;
 import xyz.mahmoudahmed.exception.FileProcessingException;
-import java.io.File;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
  * Detector for BED format files.
  */
-public class BedFormatDetector extends AbstractFormatDetector {
+public class BedFormatDetector extends AbstractFormatDetector implements SampleFormatDetector {
     private static final String FORMAT_NAME = "BED";
     private static final Pattern BED_LINE_PATTERN = Pattern.compile("^\\S+\\t\\d+\\t\\d+.*");
 
@@ -23,8 +22,8 @@ public class BedFormatDetector extends AbstractFormatDetector {
     }
 
     @Override
-    public String detectFormat(File file) throws FileProcessingException {
-        String[] lines = readFileLines(file, 20);
+    public String detectFormat(FormatSample sample) throws FileProcessingException {
+        String[] lines = sample.getLines(20);
         int bedLineCount = 0;
 
         for (String line : lines) {
@@ -8,7 +8,7 @@ import java.util.Set;
 /**
  * Detector for FASTA format files.
  */
-public class FastaFormatDetector extends AbstractFormatDetector {
+public class FastaFormatDetector extends AbstractFormatDetector implements SampleFormatDetector {
     private static final String FORMAT_NAME = "FASTA";
 
     /**
@@ -21,8 +21,8 @@ public class FastaFormatDetector extends AbstractFormatDetector {
     }
 
     @Override
-    public String detectFormat(File file) throws FileProcessingException {
-        String[] lines = readFileLines(file, 50);
+    public String detectFormat(FormatSample sample) throws FileProcessingException {
+        String[] lines = sample.getLines(50);
 
         if (lines.length == 0) {
             return "UNKNOWN";
@@ -55,11 +55,22 @@ public class FastaFormatDetector extends AbstractFormatDetector {
      * @throws FileProcessingException If an error occurs checking the file
      */
     public boolean isFastaAnnotationFile(File file) throws FileProcessingException {
-        if (!FORMAT_NAME.equals(detectFormat(file))) {
+        return isFastaAnnotationFile(FormatSample.read(file));
+    }
+
+    /**
+     * Checks if a sampled FASTA file contains annotation information.
+     *
+     * @param sample The file prefix to check
+     * @return true if the file appears to be a FASTA annotation file
+     * @throws FileProcessingException If an error occurs checking the file
+     */
+    public boolean isFastaAnnotationFile(FormatSample sample) throws FileProcessingException {
+        if (!FORMAT_NAME.equals(detectFormat(sample))) {
             return false;
         }
 
-        String[] lines = readFileLines(file, 20);
+        String[] lines = sample.getLines(20);
         int checkedHeaders = 0;
         int annotationHeadersFound = 0;
 
@@ -0,0 +1,179 @@
+package xyz.mahmoudahmed.format;
+
+import xyz.mahmoudahmed.exception.FileProcessingException;
+import xyz.mahmoudahmed.util.CompressedInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A bounded prefix of a file, read once and shared by all format detectors.
+ * Compressed files are sampled from their decompressed content.
+ */
+public class FormatSample {
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024; // 64KB prefix
+
+    private final File file;
+    private final byte[] data;
+    private final boolean truncated;
+    private volatile String[] lines;
+
+    private FormatSample(File file, byte[] data, boolean truncated) {
+        this.file = file;
+        this.data = data;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Read the default-sized prefix of a file.
+     *
+     * @param file The file to sample
+     * @return The sample
+     * @throws FileProcessingException If an error occurs reading the file
+     */
+    public static FormatSample read(File file) throws FileProcessingException {
+        return read(file, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Read a prefix of a file.
+     *
+     * @param file The file to sample
+     * @param maxBytes The maximum number of bytes to read
+     * @return The sample
+     * @throws FileProcessingException If an error occurs reading the file
+     */
+    public static FormatSample read(File file, int maxBytes) throws FileProcessingException {
+        try (InputStream in = CompressedInput.openInputStream(file)) {
+            byte[] buffer = new byte[maxBytes + 1];
+            int length = in.readNBytes(buffer, 0, buffer.length);
+            boolean truncated = length > maxBytes;
+            return new FormatSample(file, Arrays.copyOf(buffer, Math.min(length, maxBytes)), truncated);
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading file: " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Peek at the default-sized prefix of a stream without consuming it.
+     *
+     * @param inputStream A stream that supports mark and reset
+     * @return The sample
+     * @throws IOException If an I/O error occurs
+     */
+    public static FormatSample peek(InputStream inputStream) throws IOException {
+        return peek(inputStream, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Peek at a prefix of a stream without consuming it.
+     * The stream is marked, read up to the limit and reset to the mark.
+     *
+     * @param inputStream A stream that supports mark and reset
+     * @param maxBytes The maximum number of bytes to read
+     * @return The sample
+     * @throws IOException If an I/O error occurs
+     * @throws IllegalArgumentException If the stream does not support mark and reset
+     */
+    public static FormatSample peek(InputStream inputStream, int maxBytes) throws IOException {
+        if (!inputStream.markSupported()) {
+            throw new IllegalArgumentException("Stream must support mark and reset");
+        }
+
+        inputStream.mark(maxBytes + 1);
+        try {
+            byte[] buffer = new byte[maxBytes + 1];
+            int length = inputStream.readNBytes(buffer, 0, buffer.length);
+            return new FormatSample(null, Arrays.copyOf(buffer, Math.min(length, maxBytes)), length > maxBytes);
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    /**
+     * Create a sample from bytes that were already read.
+     *
+     * @param file The file the bytes came from, or null for stream input
+     * @param data The prefix bytes
+     * @param truncated Whether the source has more data than the prefix
+     * @return The sample
+     */
+    public static FormatSample of(File file, byte[] data, boolean truncated) {
+        return new FormatSample(file, data, truncated);
+    }
+
+    /**
+     * Get the sampled file.
+     *
+     * @return The file, or null if the sample was not read from a file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the raw prefix bytes.
+     *
+     * @return A copy of the prefix
+     */
+    public byte[] getData() {
+        return data.clone();
+    }
+
+    /**
+     * Check if the file is longer than the sample.
+     *
+     * @return true if the prefix does not cover the whole file
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Get the first lines of the sample, trimmed.
+     * If the sample is truncated, the last line may be incomplete.
+     *
+     * @param maxLines The maximum number of lines to return
+     * @return The lines
+     */
+    public String[] getLines(int maxLines) {
+        String[] allLines = getAllLines();
+        return allLines.length <= maxLines ? allLines.clone() : Arrays.copyOf(allLines, maxLines);
+    }
+
+    private String[] getAllLines() {
+        String[] result = lines;
+        if (result == null) {
+            result = splitLines(new String(data, StandardCharsets.UTF_8));
+            lines = result;
+        }
+        return result;
+    }
+
+    private static String[] splitLines(String text) {
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                result.add(text.substring(start, i).trim());
+                if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            result.add(text.substring(start).trim());
+        }
+
+        return result.toArray(new String[0]);
+    }
+}
@@ -2,14 +2,13 @@ package xyz.mahmoudahmed.format;
 
 import xyz.mahmoudahmed.config.FormatConfiguration;
 import xyz.mahmoudahmed.exception.FileProcessingException;
-import java.io.File;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
  * Detector for GENBANK format files.
  */
-public class GenbankFormatDetector extends AbstractFormatDetector {
+public class GenbankFormatDetector extends AbstractFormatDetector implements SampleFormatDetector {
     private static final String FORMAT_NAME = "GENBANK";
     private static final Pattern GENBANK_LOCUS_PATTERN = Pattern.compile("^LOCUS\\s+.*");
 
@@ -23,8 +22,8 @@ public class GenbankFormatDetector extends AbstractFormatDetector {
     }
 
     @Override
-    public String detectFormat(File file) throws FileProcessingException {
-        String[] lines = readFileLines(file, 20);
+    public String detectFormat(FormatSample sample) throws FileProcessingException {
+        String[] lines = sample.getLines(20);
         boolean hasLocusLine = false;
         boolean hasFeaturesLine = false;
 
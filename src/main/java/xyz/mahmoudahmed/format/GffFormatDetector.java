@@ -9,7 +9,7 @@ import java.util.regex.Pattern;
 /**
  * Detector for GFF format files.
  */
-public class GffFormatDetector extends AbstractFormatDetector {
+public class GffFormatDetector extends AbstractFormatDetector implements SampleFormatDetector {
     private static final String FORMAT_NAME = "GFF";
     private static final Pattern GFF_HEADER_PATTERN = Pattern.compile("^##gff-version");
 
@@ -58,8 +58,8 @@ public class GffFormatDetector extends AbstractFormatDetector {
     }
 
     @Override
-    public String detectFormat(File file) throws FileProcessingException {
-        String[] lines = readFileLines(file, 30);
+    public String detectFormat(FormatSample sample) throws FileProcessingException {
+        String[] lines = sample.getLines(30);
 
         boolean hasGffHeader = false;
         boolean isGtfFormat = false;
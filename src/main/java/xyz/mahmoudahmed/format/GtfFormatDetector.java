@@ -5,7 +5,7 @@ import xyz.mahmoudahmed.exception.FileProcessingException;
 import java.io.File;
 import java.util.Set;
 
-public class GtfFormatDetector extends AbstractFormatDetector {
+public class GtfFormatDetector extends AbstractFormatDetector implements SampleFormatDetector {
     private static final String FORMAT_NAME = "GTF";
 
     public GtfFormatDetector(FormatConfiguration config) {
@@ -22,8 +22,8 @@ public class GtfFormatDetector extends AbstractFormatDetector {
     }
 
     @Override
-    public String detectFormat(File file) throws FileProcessingException {
-        String[] lines = readFileLines(file, 20);
+    public String detectFormat(FormatSample sample) throws FileProcessingException {
+        String[] lines = sample.getLines(20);
         int gtfLineCount = 0;
 
         for (String line : lines) {
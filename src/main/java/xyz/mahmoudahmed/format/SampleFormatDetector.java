@@ -0,0 +1,32 @@
+package xyz.mahmoudahmed.format;
+
+import xyz.mahmoudahmed.exception.FileProcessingException;
+import java.io.File;
+
+/**
+ * Format detector that works on a prefix already read, rather than opening the file itself.
+ * The detection service reads each file once and passes the same sample to every such detector,
+ * and only these detectors can detect the format of a stream.
+ */
+public interface SampleFormatDetector extends FormatDetector {
+    /**
+     * Detects the format from a prefix that has already been read.
+     *
+     * @param sample The file or stream prefix
+     * @return The detected format, or "UNKNOWN"
+     * @throws FileProcessingException If an error occurs during detection
+     */
+    String detectFormat(FormatSample sample) throws FileProcessingException;
+
+    /**
+     * Detects the format of the given file from a sample of its prefix.
+     *
+     * @param file The file to detect the format of
+     * @return The detected format
+     * @throws FileProcessingException If an error occurs reading the file
+     */
+    @Override
+    default String detectFormat(File file) throws FileProcessingException {
+        return detectFormat(FormatSample.read(file));
+    }
+}
@@ -6,7 +6,7 @@ import java.io.File;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-public class VcfFormatDetector extends AbstractFormatDetector {
+public class VcfFormatDetector extends AbstractFormatDetector implements SampleFormatDetector {
     private static final String FORMAT_NAME = "VCF";
     private static final Pattern VCF_HEADER_PATTERN = Pattern.compile("^##fileformat=VCF.*");
 
@@ -24,8 +24,8 @@ public class VcfFormatDetector extends AbstractFormatDetector {
     }
 
     @Override
-    public String detectFormat(File file) throws FileProcessingException {
-        String[] lines = readFileLines(file, 20);
+    public String detectFormat(FormatSample sample) throws FileProcessingException {
+        String[] lines = sample.getLines(20);
 
         boolean hasFileFormatHeader = false;
         boolean hasColumnHeader = false;
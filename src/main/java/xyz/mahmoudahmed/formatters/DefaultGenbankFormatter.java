@@ -1,13 +1,18 @@
 package xyz.mahmoudahmed.formatters;
 
+import xyz.mahmoudahmed.diagnostics.DiagnosticsCollector;
+import xyz.mahmoudahmed.jfr.RecordFormatEvent;
 import xyz.mahmoudahmed.exception.ConversionException;
 import xyz.mahmoudahmed.model.*;
+import xyz.mahmoudahmed.util.Cancellation;
 import xyz.mahmoudahmed.util.StringUtil;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Default implementation of GenbankFormatter.
@@ -16,7 +21,10 @@ import java.util.*;
 public class DefaultGenbankFormatter implements GenbankFormatter {
     private static final int DEFAULT_LINE_WIDTH = 80;
     private static final int DEFAULT_SEQUENCE_LINE_WIDTH = 60;
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd-MMM-yyyy");
+    private static final int FEATURE_SLICE_SIZE = 1024; // Features per slice when rendering in parallel
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MMM-yyyy"); // Thread-safe, unlike SimpleDateFormat
+
+    private final HeaderBlockCache headerBlocks = new HeaderBlockCache();
 
     // Standard feature type mapping
     private static final Map<String, String> STANDARD_FEATURE_TYPES = new HashMap<>();
@@ -122,15 +130,18 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
             List<Sequence> sequences = sequenceData.getSequences();
 
             for (int i = 0; i < sequences.size(); i++) {
+                Cancellation.checkpoint();
                 Sequence sequence = sequences.get(i);
+                RecordFormatEvent event = new RecordFormatEvent();
+                event.begin();
+                List<Annotation> annotations = annotationData != null
+                        ? annotationData.getAnnotationsForSequence(sequence.getId()) : null;
 
                 // Write the GenBank header
                 writeHeader(writer, sequence, options);
 
                 // Write the features
-                writeFeatures(writer, sequence,
-                        annotationData != null ? annotationData.getAnnotationsForSequence(sequence.getId()) : null,
-                        options);
+                writeFeatures(writer, sequence, annotations, options);
 
                 // Write the sequence data
                 writeSequence(writer, sequence, options);
@@ -143,6 +154,15 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
                 if (i < sequences.size() - 1) {
                     writer.newLine();
                 }
+
+                event.end();
+                if (event.shouldCommit()) {
+                    event.sequenceId = sequence.getId();
+                    event.formatter = getClass().getSimpleName();
+                    event.residues = sequence.getLength();
+                    event.features = annotations != null ? annotations.size() : 0;
+                    event.commit();
+                }
             }
         }
     }
@@ -192,28 +212,13 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
         writer.write("VERSION     " + version);
         writer.newLine();
 
-        // Write DBLINK lines if present
-        if (headerInfo != null && headerInfo.getDbLinks() != null && !headerInfo.getDbLinks().isEmpty()) {
-            boolean first = true;
-            for (Map.Entry<String, String> link : headerInfo.getDbLinks().entrySet()) {
-                if (first) {
-                    writer.write("DBLINK      " + link.getKey() + ": " + link.getValue());
-                    first = false;
-                } else {
-                    writer.write("            " + link.getKey() + ": " + link.getValue()); // 12 spaces
-                }
-                writer.newLine();
-            }
-        }
-
-
-        // Write KEYWORDS line
-        String keywords = ".";
-        if (headerInfo != null && headerInfo.getKeywords() != null && !headerInfo.getKeywords().isEmpty()) {
-            keywords = headerInfo.getKeywords();
+        // Write DBLINK and KEYWORDS lines, rendered once per shared HeaderInfo
+        if (headerInfo != null) {
+            headerBlocks.write(writer, headerInfo, HeaderBlockCache.Block.LINKS_AND_KEYWORDS,
+                    this::writeLinksAndKeywords);
+        } else {
+            writeLinksAndKeywords(writer, null);
         }
-        writer.write("KEYWORDS    " + keywords);
-        writer.newLine();
 
         // Write SOURCE line
         String organism = sequence.getOrganism();
@@ -230,30 +235,72 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
         writer.newLine();
 
         // Write taxonomy if available
-        List<String> taxonomy = null;
         if (sequence.getTaxonomy() != null && !sequence.getTaxonomy().isEmpty()) {
-            taxonomy = sequence.getTaxonomy();
+            writeTaxonomy(writer, sequence.getTaxonomy());
         } else if (headerInfo != null && headerInfo.getTaxonomy() != null && !headerInfo.getTaxonomy().isEmpty()) {
-            taxonomy = headerInfo.getTaxonomy();
-        }
-
-        if (taxonomy != null) {
-            String taxonomyStr = String.join("; ", taxonomy) + ".";
-            writeMultiline(writer, "            ", taxonomyStr, 12);
+            headerBlocks.write(writer, headerInfo, HeaderBlockCache.Block.TAXONOMY,
+                    (blockWriter, info) -> writeTaxonomy(blockWriter, info.getTaxonomy()));
         } else {
             writer.write("            Unclassified.");
             writer.newLine();
         }
 
+        // Write REFERENCES and COMMENT sections, rendered once per shared HeaderInfo
+        if (headerInfo != null) {
+            headerBlocks.write(writer, headerInfo, HeaderBlockCache.Block.REFERENCES_AND_COMMENT,
+                    this::writeReferencesAndComment);
+        }
+    }
+
+    /**
+     * Write the DBLINK and KEYWORDS lines.
+     */
+    private void writeLinksAndKeywords(BufferedWriter writer, HeaderInfo headerInfo) throws IOException {
+        // Write DBLINK lines if present
+        if (headerInfo != null && headerInfo.getDbLinks() != null && !headerInfo.getDbLinks().isEmpty()) {
+            boolean first = true;
+            for (Map.Entry<String, String> link : headerInfo.getDbLinks().entrySet()) {
+                if (first) {
+                    writer.write("DBLINK      " + link.getKey() + ": " + link.getValue());
+                    first = false;
+                } else {
+                    writer.write("            " + link.getKey() + ": " + link.getValue()); // 12 spaces
+                }
+                writer.newLine();
+            }
+        }
+
+
+        // Write KEYWORDS line
+        String keywords = ".";
+        if (headerInfo != null && headerInfo.getKeywords() != null && !headerInfo.getKeywords().isEmpty()) {
+            keywords = headerInfo.getKeywords();
+        }
+        writer.write("KEYWORDS    " + keywords);
+        writer.newLine();
+    }
+
+    /**
+     * Write the taxonomy lines.
+     */
+    private void writeTaxonomy(BufferedWriter writer, List<String> taxonomy) throws IOException {
+        String taxonomyStr = String.join("; ", taxonomy) + ".";
+        writeMultiline(writer, "            ", taxonomyStr, 12);
+    }
+
+    /**
+     * Write the REFERENCE and COMMENT sections.
+     */
+    private void writeReferencesAndComment(BufferedWriter writer, HeaderInfo headerInfo) throws IOException {
         // Write REFERENCES section if available
-        if (headerInfo != null && headerInfo.getReferences() != null &&
+        if (headerInfo.getReferences() != null &&
                 !headerInfo.getReferences().isEmpty()) {
             writeReferences(writer, headerInfo.getReferences());
         }
 
         // Write a single COMMENT section if either comment or assembly data exists
-        if (headerInfo != null && (StringUtil.isNotBlank(headerInfo.getComment()) ||
-                (headerInfo.getAssemblyData() != null && !headerInfo.getAssemblyData().isEmpty()))) {
+        if (StringUtil.isNotBlank(headerInfo.getComment()) ||
+                (headerInfo.getAssemblyData() != null && !headerInfo.getAssemblyData().isEmpty())) {
 
             // If there's a general comment, write it first
             if (StringUtil.isNotBlank(headerInfo.getComment())) {
@@ -318,6 +365,21 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
         // Apply filtering if requested
         List<Annotation> filteredAnnotations = filterAnnotations(sortedAnnotations, options.getFilterOptions());
 
+        // Large feature tables are rendered in slices concurrently and written in order
+        int parallelism = formattingOptions.getRenderingParallelism();
+        if (parallelism > 1 && filteredAnnotations.size() > FEATURE_SLICE_SIZE) {
+            OrderedSegmentWriter slices = new OrderedSegmentWriter(writer, parallelism, ForkJoinPool.commonPool());
+            DiagnosticsCollector diagnostics = DiagnosticsCollector.current();
+            for (int from = 0; from < filteredAnnotations.size(); from += FEATURE_SLICE_SIZE) {
+                List<Annotation> slice = filteredAnnotations.subList(from,
+                        Math.min(from + FEATURE_SLICE_SIZE, filteredAnnotations.size()));
+                boolean emptyLines = formattingOptions.isIncludeEmptyLinesBetweenFeatures();
+                slices.submit(diagnostics.bind(() -> renderFeatures(slice, options, emptyLines)));
+            }
+            slices.finish();
+            return;
+        }
+
         // Write features
         for (Annotation annotation : filteredAnnotations) {
             writeFeature(writer, annotation, options);
@@ -329,6 +391,24 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
         }
     }
 
+    /**
+     * Render a slice of features to text.
+     */
+    private String renderFeatures(List<Annotation> annotations, ConversionOptions options, boolean emptyLines) {
+        StringWriter text = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(text)) {
+            for (Annotation annotation : annotations) {
+                writeFeature(writer, annotation, options);
+                if (emptyLines) {
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
     /**
      * Filter annotations based on the filter options.
      */
@@ -413,8 +493,7 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
      */
     private void writeSourceFeature(BufferedWriter writer, Sequence sequence, ConversionOptions options) throws IOException {
         // Get sequence length
-        String sequenceString = sequence.getSequence();
-        int length = sequenceString != null ? sequenceString.length() : 0;
+        long length = sequenceLength(sequence);
 
         writer.write("     source          1.." + length);
         writer.newLine();
@@ -597,49 +676,39 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
             return;
         }
 
-        // Get the sequence string
-        String sequenceString = sequence.getSequence();
-        if (sequenceString == null || sequenceString.isEmpty()) {
-            return;
-        }
-
-
-        // Apply case formatting
-        if (formattingOptions.isLowercaseSequence()) {
-            sequenceString = sequenceString.toLowerCase();
-        } else {
-            sequenceString = sequenceString.toUpperCase();
-        }
-
         // Get line width from options
         int lineWidth = formattingOptions.getSequenceLineWidth();
         if (lineWidth <= 0) {
             lineWidth = DEFAULT_SEQUENCE_LINE_WIDTH;
         }
 
-        // Write sequence in formatted lines
-        for (int i = 0; i < sequenceString.length(); i += lineWidth) {
-            // Format line number
-            String lineNumber = StringUtil.leftPad(String.valueOf(i + 1), 9);
-            writer.write(lineNumber + " ");
-
-            // Get sequence chunk for this line
-            int end = Math.min(i + lineWidth, sequenceString.length());
-            String lineSeq = sequenceString.substring(i, end);
+        // Lazy sequences are read a segment at a time instead of loading them whole
+        if (!sequence.isLoaded()) {
+            OriginRenderer.write(writer, sequence, lineWidth, formattingOptions.isLowercaseSequence(),
+                    formattingOptions.getRenderingParallelism());
+            return;
+        }
 
-            // Write in groups of 10 bases
-            for (int j = 0; j < lineSeq.length(); j += 10) {
-                int groupEnd = Math.min(j + 10, lineSeq.length());
-                writer.write(lineSeq.substring(j, groupEnd));
+        // Get the sequence string
+        String sequenceString = sequence.getSequence();
+        if (sequenceString == null || sequenceString.isEmpty()) {
+            return;
+        }
 
-                // Only add space if not the last group
-                if (groupEnd < lineSeq.length()) {
-                    writer.write(" ");
-                }
-            }
+        // Write sequence in formatted lines, segments rendered in parallel when enabled
+        OriginRenderer.write(writer, sequenceString, lineWidth, formattingOptions.isLowercaseSequence(),
+                formattingOptions.getRenderingParallelism());
+    }
 
-            writer.newLine();
+    /**
+     * Get the length of a sequence, without loading the residues of a lazy sequence.
+     */
+    private long sequenceLength(Sequence sequence) {
+        if (!sequence.isLoaded()) {
+            return sequence.getLength();
         }
+        String sequenceString = sequence.getSequence();
+        return sequenceString != null ? sequenceString.length() : 0;
     }
 
     /**
@@ -650,8 +719,7 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
         name = StringUtil.rightPad(name, 16);
 
         // Calculate length from sequence
-        String sequenceString = sequence.getSequence();
-        long length = sequenceString != null ? sequenceString.length() : 0;
+        long length = sequenceLength(sequence);
         String lengthStr = StringUtil.leftPad(String.valueOf(length), 11);
 
         // Get molecule type with preference for options
@@ -704,7 +772,7 @@ public class DefaultGenbankFormatter implements GenbankFormatter {
         if (date == null) {
             date = new Date();
         }
-        return " " + DATE_FORMAT.format(date);
+        return " " + DATE_FORMAT.format(date.toInstant().atZone(ZoneId.systemDefault()));
     }
 
     /**
@@ -0,0 +1,107 @@
+package xyz.mahmoudahmed.formatters;
+
+import xyz.mahmoudahmed.model.HeaderInfo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches rendered header blocks per HeaderInfo instance.
+ * A HeaderInfo taken from the conversion options is shared by every record of a conversion,
+ * so blocks that only depend on it (DBLINK and KEYWORDS, taxonomy, REFERENCE and COMMENT)
+ * are rendered once and written as a single string for each following record.
+ * HeaderInfo is immutable, so entries are keyed by identity and never go stale.
+ */
+class HeaderBlockCache {
+    static final int DEFAULT_CACHE_SIZE = 16;
+
+    /**
+     * Header blocks that only depend on the HeaderInfo.
+     */
+    enum Block {
+        LINKS_AND_KEYWORDS,
+        TAXONOMY,
+        REFERENCES_AND_COMMENT
+    }
+
+    /**
+     * Renders a header block.
+     */
+    @FunctionalInterface
+    interface BlockRenderer {
+        void render(BufferedWriter writer, HeaderInfo headerInfo) throws IOException;
+    }
+
+    private record IdentityKey(HeaderInfo headerInfo) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey other && other.headerInfo == headerInfo;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(headerInfo);
+        }
+    }
+
+    private final Map<IdentityKey, Map<Block, String>> cache;
+
+    /**
+     * Constructor.
+     */
+    HeaderBlockCache() {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IdentityKey, Map<Block, String>> eldest) {
+                return size() > DEFAULT_CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * Write a header block, rendering it on first use for the HeaderInfo.
+     *
+     * @param writer The writer
+     * @param headerInfo The header information the block is rendered from
+     * @param block The block
+     * @param renderer Renders the block if it is not cached
+     * @throws IOException If an I/O error occurs
+     */
+    void write(BufferedWriter writer, HeaderInfo headerInfo, Block block, BlockRenderer renderer) throws IOException {
+        IdentityKey key = new IdentityKey(headerInfo);
+        String text;
+        synchronized (cache) {
+            Map<Block, String> blocks = cache.get(key);
+            text = blocks != null ? blocks.get(block) : null;
+        }
+
+        if (text == null) {
+            StringWriter rendered = new StringWriter();
+            try (BufferedWriter blockWriter = new BufferedWriter(rendered)) {
+                renderer.render(blockWriter, headerInfo);
+            }
+            text = rendered.toString();
+
+            synchronized (cache) {
+                cache.computeIfAbsent(key, k -> new EnumMap<>(Block.class)).put(block, text);
+            }
+        }
+
+        writer.write(text);
+    }
+
+    /**
+     * Get the number of HeaderInfo instances with cached blocks.
+     *
+     * @return The cache size
+     */
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+}
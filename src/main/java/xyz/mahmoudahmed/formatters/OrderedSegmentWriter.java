@@ -0,0 +1,75 @@
+package xyz.mahmoudahmed.formatters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Renders segments of a record concurrently and writes them in submission order.
+ * At most a fixed number of segments are in flight, which bounds the memory held
+ * by rendered text waiting for earlier segments.
+ */
+class OrderedSegmentWriter {
+    private final Writer writer;
+    private final int maxInFlight;
+    private final Executor executor;
+    private final Deque<CompletableFuture<String>> pending = new ArrayDeque<>();
+
+    /**
+     * Constructor.
+     *
+     * @param writer The writer receiving the segments in order
+     * @param maxInFlight The maximum number of segments rendered at once
+     * @param executor The executor rendering segments
+     */
+    OrderedSegmentWriter(Writer writer, int maxInFlight, Executor executor) {
+        this.writer = writer;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.executor = executor;
+    }
+
+    /**
+     * Submit a segment for rendering, writing earlier segments as they complete.
+     *
+     * @param renderer The task rendering the segment text
+     * @throws IOException If writing an earlier segment fails
+     */
+    void submit(Supplier<String> renderer) throws IOException {
+        pending.add(CompletableFuture.supplyAsync(renderer, executor));
+        while (pending.size() > maxInFlight || (!pending.isEmpty() && pending.peek().isDone())) {
+            writer.write(join(pending.poll()));
+        }
+    }
+
+    /**
+     * Wait for all submitted segments and write them.
+     *
+     * @throws IOException If rendering or writing fails
+     */
+    void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            writer.write(join(pending.poll()));
+        }
+    }
+
+    private static String join(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error rendering record segment", cause);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package xyz.mahmoudahmed.formatters;
+
+import xyz.mahmoudahmed.exception.FileProcessingException;
+import xyz.mahmoudahmed.model.Sequence;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Renders ORIGIN lines of a GenBank record.
+ * Every line starts with its 1-based position, which only depends on the line's offset,
+ * so any run of whole lines can be rendered independently of the lines before it.
+ */
+public class OriginRenderer {
+    /** Number of sequence lines rendered per segment when a record is split up. */
+    public static final int SEGMENT_LINES = 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int POSITION_WIDTH = 9;
+    private static final int GROUP_SIZE = 10;
+
+    private OriginRenderer() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Get the number of residues in a segment, which is always a whole number of lines.
+     *
+     * @param lineWidth The number of residues per line
+     * @return The segment size in residues
+     */
+    public static int segmentResidues(int lineWidth) {
+        return lineWidth * SEGMENT_LINES;
+    }
+
+    /**
+     * Write residues as ORIGIN lines, rendering segments of whole lines concurrently
+     * on the common pool when parallelism is greater than 1.
+     *
+     * @param writer The writer
+     * @param residues The residues
+     * @param lineWidth The number of residues per line
+     * @param lowercase true to render lowercase residues, otherwise uppercase
+     * @param parallelism The maximum number of segments rendered at once
+     * @throws IOException If an I/O error occurs
+     */
+    public static void write(Writer writer, CharSequence residues, int lineWidth, boolean lowercase,
+                             int parallelism) throws IOException {
+        int segmentSize = segmentResidues(lineWidth);
+        int length = residues.length();
+
+        if (parallelism <= 1 || length <= segmentSize) {
+            for (int start = 0; start < length; start += segmentSize) {
+                writer.write(render(residues, start, Math.min(start + segmentSize, length), start + 1L,
+                        lineWidth, lowercase));
+            }
+            return;
+        }
+
+        OrderedSegmentWriter segments = new OrderedSegmentWriter(writer, parallelism, ForkJoinPool.commonPool());
+        for (int start = 0; start < length; start += segmentSize) {
+            int segmentStart = start;
+            int segmentEnd = Math.min(start + segmentSize, length);
+            segments.submit(() -> render(residues, segmentStart, segmentEnd, segmentStart + 1L, lineWidth, lowercase));
+        }
+        segments.finish();
+    }
+
+    /**
+     * Write the residues of a lazily loaded sequence as ORIGIN lines, reading one segment
+     * at a time through {@link Sequence#getRegion(long, long)} so the whole sequence is never
+     * held in memory. With a parallelism above 1, segments are read and rendered concurrently.
+     *
+     * @param writer The writer
+     * @param sequence The sequence
+     * @param lineWidth The number of residues per line
+     * @param lowercase true to render lowercase residues, otherwise uppercase
+     * @param parallelism The maximum number of segments read and rendered at once
+     * @throws IOException If an I/O error occurs
+     */
+    public static void write(Writer writer, Sequence sequence, int lineWidth, boolean lowercase,
+                             int parallelism) throws IOException {
+        int segmentSize = segmentResidues(lineWidth);
+        long length = sequence.getLength();
+        OrderedSegmentWriter segments = parallelism > 1
+                ? new OrderedSegmentWriter(writer, parallelism, ForkJoinPool.commonPool())
+                : null;
+
+        try {
+            for (long start = 0; start < length; start += segmentSize) {
+                long segmentStart = start;
+                long segmentEnd = Math.min(start + segmentSize, length);
+                if (segments == null) {
+                    String residues = sequence.getRegion(segmentStart, segmentEnd);
+                    writer.write(render(residues, 0, residues.length(), segmentStart + 1, lineWidth, lowercase));
+                } else {
+                    segments.submit(() -> {
+                        String residues = sequence.getRegion(segmentStart, segmentEnd);
+                        return render(residues, 0, residues.length(), segmentStart + 1, lineWidth, lowercase);
+                    });
+                }
+            }
+            if (segments != null) {
+                segments.finish();
+            }
+        } catch (FileProcessingException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        }
+    }
+
+    /**
+     * Render residues as ORIGIN lines.
+     *
+     * @param residues The residues
+     * @param start The index of the first residue to render
+     * @param end The index after the last residue to render
+     * @param firstPosition The 1-based sequence position of the first residue, which must start a line
+     * @param lineWidth The number of residues per line
+     * @param lowercase true to render lowercase residues, otherwise uppercase
+     * @return The rendered lines, each followed by a line separator
+     */
+    public static String render(CharSequence residues, int start, int end, long firstPosition,
+                                int lineWidth, boolean lowercase) {
+        int length = end - start;
+        int lines = (length + lineWidth - 1) / lineWidth;
+        int groupsPerLine = (lineWidth + GROUP_SIZE - 1) / GROUP_SIZE;
+        StringBuilder out = new StringBuilder(length + lines * (POSITION_WIDTH + 1 + groupsPerLine + LINE_SEPARATOR.length()));
+
+        long position = firstPosition;
+        for (int lineStart = start; lineStart < end; lineStart += lineWidth) {
+            int lineEnd = Math.min(lineStart + lineWidth, end);
+
+            String number = Long.toString(position);
+            for (int pad = number.length(); pad < POSITION_WIDTH; pad++) {
+                out.append(' ');
+            }
+            out.append(number).append(' ');
+
+            // Groups of 10 bases separated by single spaces
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (i > lineStart && (i - lineStart) % GROUP_SIZE == 0) {
+                    out.append(' ');
+                }
+                char c = residues.charAt(i);
+                out.append(lowercase ? Character.toLowerCase(c) : Character.toUpperCase(c));
+            }
+
+            out.append(LINE_SEPARATOR);
+            position += lineWidth;
+        }
+
+        return out.toString();
+    }
+}
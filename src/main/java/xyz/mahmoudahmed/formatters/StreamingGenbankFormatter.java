@@ -1,7 +1,10 @@
 package xyz.mahmoudahmed.formatters;
 
+import xyz.mahmoudahmed.diagnostics.DiagnosticsCollector;
+import xyz.mahmoudahmed.jfr.RecordFormatEvent;
 import xyz.mahmoudahmed.exception.ConversionException;
 import xyz.mahmoudahmed.model.*;
+import xyz.mahmoudahmed.util.Cancellation;
 import xyz.mahmoudahmed.util.SequenceStreamProvider;
 import xyz.mahmoudahmed.util.StringUtil;
 
@@ -9,10 +12,14 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -22,9 +29,11 @@ import java.util.stream.Collectors;
 public class StreamingGenbankFormatter implements GenbankFormatter {
     private static final int DEFAULT_LINE_WIDTH = 80;
     private static final int DEFAULT_SEQUENCE_LINE_WIDTH = 60;
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd-MMM-yyyy");
+    private static final int FEATURE_SLICE_SIZE = 1024; // Features per slice when rendering in parallel
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MMM-yyyy"); // Thread-safe, unlike SimpleDateFormat
 
     private final SequenceStreamProvider streamProvider;
+    private final HeaderBlockCache headerBlocks = new HeaderBlockCache();
 
     // Standard feature type mapping
     private static final Map<String, String> STANDARD_FEATURE_TYPES = new HashMap<>();
@@ -136,15 +145,18 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
             List<Sequence> sequences = sequenceData.getSequences();
 
             for (int i = 0; i < sequences.size(); i++) {
+                Cancellation.checkpoint();
                 Sequence sequence = sequences.get(i);
+                RecordFormatEvent event = new RecordFormatEvent();
+                event.begin();
+                List<Annotation> annotations = annotationData != null
+                        ? annotationData.getAnnotationsForSequence(sequence.getId()) : null;
 
                 // Write the GenBank header
                 writeHeader(writer, sequence, options);
 
                 // Write the features
-                writeFeatures(writer, sequence,
-                        annotationData != null ? annotationData.getAnnotationsForSequence(sequence.getId()) : null,
-                        options);
+                writeFeatures(writer, sequence, annotations, options);
 
                 // Write the sequence data
                 writeSequence(writer, sequence, options);
@@ -157,6 +169,15 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
                 if (i < sequences.size() - 1) {
                     writer.newLine();
                 }
+
+                event.end();
+                if (event.shouldCommit()) {
+                    event.sequenceId = sequence.getId();
+                    event.formatter = getClass().getSimpleName();
+                    event.residues = sequence.getLength();
+                    event.features = annotations != null ? annotations.size() : 0;
+                    event.commit();
+                }
             }
         }
     }
@@ -205,27 +226,13 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
         writer.write("VERSION     " + version);
         writer.newLine();
 
-        // Write DBLINK lines if present
-        if (headerInfo != null && headerInfo.getDbLinks() != null && !headerInfo.getDbLinks().isEmpty()) {
-            boolean first = true;
-            for (Map.Entry<String, String> link : headerInfo.getDbLinks().entrySet()) {
-                if (first) {
-                    writer.write("DBLINK      " + link.getKey() + ": " + link.getValue());
-                    first = false;
-                } else {
-                    writer.write("            " + link.getKey() + ": " + link.getValue()); // 12 spaces
-                }
-                writer.newLine();
-            }
-        }
-
-        // Write KEYWORDS line
-        String keywords = ".";
-        if (headerInfo != null && headerInfo.getKeywords() != null && !headerInfo.getKeywords().isEmpty()) {
-            keywords = headerInfo.getKeywords();
+        // Write DBLINK and KEYWORDS lines, rendered once per shared HeaderInfo
+        if (headerInfo != null) {
+            headerBlocks.write(writer, headerInfo, HeaderBlockCache.Block.LINKS_AND_KEYWORDS,
+                    this::writeLinksAndKeywords);
+        } else {
+            writeLinksAndKeywords(writer, null);
         }
-        writer.write("KEYWORDS    " + keywords);
-        writer.newLine();
 
         // Write SOURCE line
         String organism = sequence.getOrganism();
@@ -242,30 +249,71 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
         writer.newLine();
 
         // Write taxonomy if available
-        List<String> taxonomy = null;
         if (sequence.getTaxonomy() != null && !sequence.getTaxonomy().isEmpty()) {
-            taxonomy = sequence.getTaxonomy();
+            writeTaxonomy(writer, sequence.getTaxonomy());
         } else if (headerInfo != null && headerInfo.getTaxonomy() != null && !headerInfo.getTaxonomy().isEmpty()) {
-            taxonomy = headerInfo.getTaxonomy();
-        }
-
-        if (taxonomy != null) {
-            String taxonomyStr = String.join("; ", taxonomy) + ".";
-            writeMultiline(writer, "            ", taxonomyStr, 12);
+            headerBlocks.write(writer, headerInfo, HeaderBlockCache.Block.TAXONOMY,
+                    (blockWriter, info) -> writeTaxonomy(blockWriter, info.getTaxonomy()));
         } else {
             writer.write("            Unclassified.");
             writer.newLine();
         }
 
+        // Write REFERENCES and COMMENT sections, rendered once per shared HeaderInfo
+        if (headerInfo != null) {
+            headerBlocks.write(writer, headerInfo, HeaderBlockCache.Block.REFERENCES_AND_COMMENT,
+                    this::writeReferencesAndComment);
+        }
+    }
+
+    /**
+     * Write the DBLINK and KEYWORDS lines.
+     */
+    private void writeLinksAndKeywords(BufferedWriter writer, HeaderInfo headerInfo) throws IOException {
+        // Write DBLINK lines if present
+        if (headerInfo != null && headerInfo.getDbLinks() != null && !headerInfo.getDbLinks().isEmpty()) {
+            boolean first = true;
+            for (Map.Entry<String, String> link : headerInfo.getDbLinks().entrySet()) {
+                if (first) {
+                    writer.write("DBLINK      " + link.getKey() + ": " + link.getValue());
+                    first = false;
+                } else {
+                    writer.write("            " + link.getKey() + ": " + link.getValue()); // 12 spaces
+                }
+                writer.newLine();
+            }
+        }
+
+        // Write KEYWORDS line
+        String keywords = ".";
+        if (headerInfo != null && headerInfo.getKeywords() != null && !headerInfo.getKeywords().isEmpty()) {
+            keywords = headerInfo.getKeywords();
+        }
+        writer.write("KEYWORDS    " + keywords);
+        writer.newLine();
+    }
+
+    /**
+     * Write the taxonomy lines.
+     */
+    private void writeTaxonomy(BufferedWriter writer, List<String> taxonomy) throws IOException {
+        String taxonomyStr = String.join("; ", taxonomy) + ".";
+        writeMultiline(writer, "            ", taxonomyStr, 12);
+    }
+
+    /**
+     * Write the REFERENCE and COMMENT sections.
+     */
+    private void writeReferencesAndComment(BufferedWriter writer, HeaderInfo headerInfo) throws IOException {
         // Write REFERENCES section if available
-        if (headerInfo != null && headerInfo.getReferences() != null &&
+        if (headerInfo.getReferences() != null &&
                 !headerInfo.getReferences().isEmpty()) {
             writeReferences(writer, headerInfo.getReferences());
         }
 
         // Write a single COMMENT section if either comment or assembly data exists
-        if (headerInfo != null && (StringUtil.isNotBlank(headerInfo.getComment()) ||
-                (headerInfo.getAssemblyData() != null && !headerInfo.getAssemblyData().isEmpty()))) {
+        if (StringUtil.isNotBlank(headerInfo.getComment()) ||
+                (headerInfo.getAssemblyData() != null && !headerInfo.getAssemblyData().isEmpty())) {
 
             // If there's a general comment, write it first
             if (StringUtil.isNotBlank(headerInfo.getComment())) {
@@ -330,6 +378,21 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
         // Apply filtering if requested
         List<Annotation> filteredAnnotations = filterAnnotations(sortedAnnotations, options.getFilterOptions());
 
+        // Large feature tables are rendered in slices concurrently and written in order
+        int parallelism = formattingOptions.getRenderingParallelism();
+        if (parallelism > 1 && filteredAnnotations.size() > FEATURE_SLICE_SIZE) {
+            OrderedSegmentWriter slices = new OrderedSegmentWriter(writer, parallelism, ForkJoinPool.commonPool());
+            DiagnosticsCollector diagnostics = DiagnosticsCollector.current();
+            for (int from = 0; from < filteredAnnotations.size(); from += FEATURE_SLICE_SIZE) {
+                List<Annotation> slice = filteredAnnotations.subList(from,
+                        Math.min(from + FEATURE_SLICE_SIZE, filteredAnnotations.size()));
+                boolean emptyLines = formattingOptions.isIncludeEmptyLinesBetweenFeatures();
+                slices.submit(diagnostics.bind(() -> renderFeatures(slice, options, emptyLines)));
+            }
+            slices.finish();
+            return;
+        }
+
         // Write features
         for (Annotation annotation : filteredAnnotations) {
             writeFeature(writer, annotation, options);
@@ -341,6 +404,24 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
         }
     }
 
+    /**
+     * Render a slice of features to text.
+     */
+    private String renderFeatures(List<Annotation> annotations, ConversionOptions options, boolean emptyLines) {
+        StringWriter text = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(text)) {
+            for (Annotation annotation : annotations) {
+                writeFeature(writer, annotation, options);
+                if (emptyLines) {
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
     /**
      * Filter annotations based on the filter options.
      */
@@ -425,7 +506,7 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
      */
     private void writeSourceFeature(BufferedWriter writer, Sequence sequence, ConversionOptions options) throws IOException {
         // Get sequence length
-        String sequenceString = sequence.getSequence();
+        String sequenceString = sequence.isLoaded() ? sequence.getSequence() : null;
         long length = sequenceString != null ? sequenceString.length() : sequence.getLength();
 
         writer.write("     source          1.." + length);
@@ -607,6 +688,15 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
             return;
         }
 
+        // Lazy sequences are read a segment at a time instead of loading them whole
+        if (!sequence.isLoaded()) {
+            int lineWidth = formattingOptions.getSequenceLineWidth() > 0 ?
+                    formattingOptions.getSequenceLineWidth() : DEFAULT_SEQUENCE_LINE_WIDTH;
+            OriginRenderer.write(writer, sequence, lineWidth, formattingOptions.isLowercaseSequence(),
+                    formattingOptions.getRenderingParallelism());
+            return;
+        }
+
         // Get the sequence string if available in memory
         String sequenceString = sequence.getSequence();
 
@@ -624,42 +714,15 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
      */
     private void writeSequenceFromString(BufferedWriter writer, String sequenceString,
                                          OutputFormattingOptions formattingOptions) throws IOException {
-        // Apply case formatting
-        if (formattingOptions.isLowercaseSequence()) {
-            sequenceString = sequenceString.toLowerCase();
-        } else {
-            sequenceString = sequenceString.toUpperCase();
-        }
-
         // Get line width from options
         int lineWidth = formattingOptions.getSequenceLineWidth();
         if (lineWidth <= 0) {
             lineWidth = DEFAULT_SEQUENCE_LINE_WIDTH;
         }
 
-        // Write sequence in formatted lines
-        for (int i = 0; i < sequenceString.length(); i += lineWidth) {
-            // Format line number
-            String lineNumber = StringUtil.leftPad(String.valueOf(i + 1), 9);
-            writer.write(lineNumber + " ");
-
-            // Get sequence chunk for this line
-            int end = Math.min(i + lineWidth, sequenceString.length());
-            String lineSeq = sequenceString.substring(i, end);
-
-            // Write in groups of 10 bases
-            for (int j = 0; j < lineSeq.length(); j += 10) {
-                int groupEnd = Math.min(j + 10, lineSeq.length());
-                writer.write(lineSeq.substring(j, groupEnd));
-
-                // Only add space if not the last group
-                if (groupEnd < lineSeq.length()) {
-                    writer.write(" ");
-                }
-            }
-
-            writer.newLine();
-        }
+        // Write sequence in formatted lines, segments rendered in parallel when enabled
+        OriginRenderer.write(writer, sequenceString, lineWidth, formattingOptions.isLowercaseSequence(),
+                formattingOptions.getRenderingParallelism());
     }
 
     /**
@@ -668,19 +731,16 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
     private void writeSequenceStreaming(BufferedWriter writer, Sequence sequence,
                                         OutputFormattingOptions formattingOptions) throws IOException {
         // Set up for sequence streaming
-        final long[] position = {1}; // 1-based for GenBank
         final int sequenceLineWidth = formattingOptions.getSequenceLineWidth() > 0 ?
                 formattingOptions.getSequenceLineWidth() : DEFAULT_SEQUENCE_LINE_WIDTH;
         final boolean lowercase = formattingOptions.isLowercaseSequence();
 
         // Create a streamer to process the sequence in chunks
-        SequenceStreamer streamer = new SequenceStreamer(writer, position[0], sequenceLineWidth, lowercase);
+        SequenceStreamer streamer = new SequenceStreamer(writer, sequenceLineWidth, lowercase,
+                formattingOptions.getRenderingParallelism());
 
         // Stream the sequence data
-        streamProvider.streamSequence(sequence.getId(), chunk -> {
-            streamer.processChunk(chunk);
-            position[0] += chunk.length();
-        });
+        streamProvider.streamSequence(sequence.getId(), streamer::processChunk);
 
         streamer.flush();
     }
@@ -693,7 +753,7 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
         name = StringUtil.rightPad(name, 16);
 
         // Calculate length from sequence
-        String sequenceString = sequence.getSequence();
+        String sequenceString = sequence.isLoaded() ? sequence.getSequence() : null;
         long length = sequenceString != null ? sequenceString.length() : sequence.getLength();
         String lengthStr = StringUtil.leftPad(String.valueOf(length), 11);
 
@@ -747,7 +807,7 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
         if (date == null) {
             date = new Date();
         }
-        return " " + DATE_FORMAT.format(date);
+        return " " + DATE_FORMAT.format(date.toInstant().atZone(ZoneId.systemDefault()));
     }
 
     /**
@@ -869,54 +929,43 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
 
     /**
      * Helper class for sequence streaming.
+     * Chunks are collected into segments of whole lines, which are rendered in order or,
+     * with a rendering parallelism above 1, concurrently while the next chunks are read.
      */
     private static class SequenceStreamer {
         private final BufferedWriter writer;
         private final StringBuilder buffer;
         private final int lineWidth;
+        private final int segmentSize;
         private final boolean lowercase;
-        private long currentPosition;
+        private final OrderedSegmentWriter segments;
+        private long currentPosition = 1; // 1-based for GenBank
 
-        public SequenceStreamer(BufferedWriter writer, long startPosition, int lineWidth, boolean lowercase) {
+        public SequenceStreamer(BufferedWriter writer, int lineWidth, boolean lowercase, int parallelism) {
             this.writer = writer;
-            this.buffer = new StringBuilder(lineWidth * 2); // Buffer size twice the line width
             this.lineWidth = lineWidth;
+            this.segmentSize = OriginRenderer.segmentResidues(lineWidth);
+            this.buffer = new StringBuilder(segmentSize + lineWidth);
             this.lowercase = lowercase;
-            this.currentPosition = startPosition;
+            this.segments = parallelism > 1
+                    ? new OrderedSegmentWriter(writer, parallelism, ForkJoinPool.commonPool())
+                    : null;
         }
 
         /**
          * Process a chunk of sequence data.
          */
         public void processChunk(String chunk) throws IOException {
-            // Apply case formatting
-            if (lowercase) {
-                chunk = chunk.toLowerCase();
-            } else {
-                chunk = chunk.toUpperCase();
-            }
-
-            // Add the chunk to our buffer
-            buffer.append(chunk);
-
-            // Process complete lines from the buffer
-            processCompleteLines();
-        }
-
-        /**
-         * Process as many complete lines as possible from the buffer.
-         */
-        private void processCompleteLines() throws IOException {
-            while (buffer.length() >= lineWidth) {
-                // Extract a complete line
-                String line = buffer.substring(0, lineWidth);
-                buffer.delete(0, lineWidth);
-
-                // Write the line in GenBank format
-                writeFormattedLine(line);
-
-                // Update position for next line
-                currentPosition += lineWidth;
+            int offset = 0;
+            while (offset < chunk.length()) {
+                int copy = Math.min(chunk.length() - offset, segmentSize - buffer.length());
+                buffer.append(chunk, offset, offset + copy);
+                offset += copy;
+
+                // A full buffer is always a whole number of lines
+                if (buffer.length() == segmentSize) {
+                    writeSegment();
+                }
             }
         }
 
@@ -925,31 +974,29 @@ public class StreamingGenbankFormatter implements GenbankFormatter {
          */
         public void flush() throws IOException {
             if (buffer.length() > 0) {
-                writeFormattedLine(buffer.toString());
+                writeSegment();
+            }
+            if (segments != null) {
+                segments.finish();
             }
         }
 
         /**
-         * Write a single formatted line of sequence data.
+         * Render the buffered residues and start a new segment.
          */
-        private void writeFormattedLine(String line) throws IOException {
-            // Line number
-            String lineNumber = StringUtil.leftPad(String.valueOf(currentPosition), 9);
-            writer.write(lineNumber + " ");
-
-            // Write in groups of 10 bases
-            for (int j = 0; j < line.length(); j += 10) {
-                int groupEnd = Math.min(j + 10, line.length());
-                writer.write(line.substring(j, groupEnd));
-
-                // Only add space if not the last group
-                if (groupEnd < line.length()) {
-                    writer.write(" ");
-                }
+        private void writeSegment() throws IOException {
+            String residues = buffer.toString();
+            long position = currentPosition;
+            buffer.setLength(0);
+            currentPosition += residues.length();
+
+            if (segments == null) {
+                writer.write(OriginRenderer.render(residues, 0, residues.length(), position, lineWidth, lowercase));
+            } else {
+                segments.submit(() -> OriginRenderer.render(residues, 0, residues.length(), position,
+                        lineWidth, lowercase));
             }
-
-            writer.newLine();
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package xyz.mahmoudahmed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one conversion by the converter.
+ * Parse, format, chunk read and translation events of the conversion are nested in it on the
+ * converting thread. Disabled unless a recording enables it.
+ */
+@Name("xyz.mahmoudahmed.Conversion")
+@Label("GenBank Conversion")
+@Category({"GenBankinator", "Conversion"})
+@Description("A conversion to GenBank format")
+@Enabled(false)
+public class ConversionEvent extends Event {
+    @Label("Operation")
+    @Description("The kind of input converted: files, data, stream or streams")
+    public String operation;
+
+    @Label("Sequences")
+    public int sequences;
+
+    @Label("Features")
+    public int features;
+
+    @Label("Failed")
+    public boolean failed;
+}
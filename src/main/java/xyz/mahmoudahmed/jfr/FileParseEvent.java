@@ -0,0 +1,60 @@
+package xyz.mahmoudahmed.jfr;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for parsing one sequence or annotation file.
+ * Disabled unless a recording enables it.
+ */
+@Name("xyz.mahmoudahmed.FileParse")
+@Label("File Parse")
+@Category({"GenBankinator", "Parsing"})
+@Description("Parsing of a sequence or annotation file")
+@Enabled(false)
+public class FileParseEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Parser")
+    public String parser;
+
+    @Label("Metadata Only")
+    @Description("Whether only sequence metadata was read")
+    public boolean metadataOnly;
+
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Records")
+    @Description("The number of sequences or annotations parsed")
+    public int records;
+
+    /**
+     * End the event and commit it with the details of the parse if the recording wants it.
+     *
+     * @param file The file parsed
+     * @param parser The class of the parser
+     * @param metadataOnly Whether only sequence metadata was read
+     * @param records The number of sequences or annotations parsed
+     */
+    public void finish(File file, Class<?> parser, boolean metadataOnly, int records) {
+        end();
+        if (shouldCommit()) {
+            this.file = file.getPath();
+            this.parser = parser.getSimpleName();
+            this.metadataOnly = metadataOnly;
+            this.bytes = file.length();
+            this.records = records;
+            commit();
+        }
+    }
+}
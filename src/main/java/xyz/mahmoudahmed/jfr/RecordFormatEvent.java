@@ -0,0 +1,31 @@
+package xyz.mahmoudahmed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for formatting one GenBank record, including writing it.
+ * Disabled unless a recording enables it.
+ */
+@Name("xyz.mahmoudahmed.RecordFormat")
+@Label("Record Format")
+@Category({"GenBankinator", "Formatting"})
+@Description("Formatting of one GenBank record")
+@Enabled(false)
+public class RecordFormatEvent extends Event {
+    @Label("Sequence ID")
+    public String sequenceId;
+
+    @Label("Formatter")
+    public String formatter;
+
+    @Label("Residues")
+    public long residues;
+
+    @Label("Features")
+    public int features;
+}
@@ -0,0 +1,36 @@
+package xyz.mahmoudahmed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one read of sequence data while streaming from a file.
+ * Reads are frequent, so stack traces are not recorded. Disabled unless a recording enables it.
+ */
+@Name("xyz.mahmoudahmed.SequenceChunkRead")
+@Label("Sequence Chunk Read")
+@Category({"GenBankinator", "Streaming"})
+@Description("A read of sequence data from a file")
+@StackTrace(false)
+@Enabled(false)
+public class SequenceChunkReadEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Sequence ID")
+    public String sequenceId;
+
+    @Label("Position")
+    @Description("The offset read from, in the uncompressed content for compressed files")
+    public long position;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,31 @@
+package xyz.mahmoudahmed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for translating one coding sequence.
+ * Translations are frequent, so stack traces are not recorded; the enclosing parse event
+ * identifies the file. Disabled unless a recording enables it.
+ */
+@Name("xyz.mahmoudahmed.Translation")
+@Label("Translation")
+@Category({"GenBankinator", "Translation"})
+@Description("Translation of a coding sequence to protein")
+@StackTrace(false)
+@Enabled(false)
+public class TranslationEvent extends Event {
+    @Label("Genetic Code")
+    public String geneticCode;
+
+    @Label("Residues")
+    public int residues;
+
+    @Label("Amino Acids")
+    public int aminoAcids;
+}
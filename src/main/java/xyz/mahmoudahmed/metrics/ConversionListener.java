@@ -0,0 +1,28 @@
+package xyz.mahmoudahmed.metrics;
+
+/**
+ * Receives the measurements of conversions, for monitoring and capacity planning.
+ * Listeners are registered with {@link xyz.mahmoudahmed.converter.GenbankConverterBuilder#withListener}
+ * and called on the converting thread once each conversion has finished, so they should
+ * return quickly. Exceptions thrown by a listener are logged and do not affect the conversion.
+ *
+ * @see PrometheusMetricsListener
+ */
+public interface ConversionListener {
+
+    /**
+     * Called when a conversion completes.
+     *
+     * @param metrics The measurements of the conversion
+     */
+    void conversionCompleted(ConversionMetrics metrics);
+
+    /**
+     * Called when a conversion fails. By default failures are not reported.
+     *
+     * @param metrics The measurements of the stages that ran before the failure
+     * @param failure The exception that ended the conversion
+     */
+    default void conversionFailed(ConversionMetrics metrics, Throwable failure) {
+    }
+}
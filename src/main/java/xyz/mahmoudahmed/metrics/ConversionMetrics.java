@@ -0,0 +1,32 @@
+package xyz.mahmoudahmed.metrics;
+
+import java.util.List;
+
+/**
+ * Measurements of one conversion, broken down by stage.
+ *
+ * @param wallNanos The elapsed time of the whole conversion in nanoseconds
+ * @param cpuNanos The CPU time of the converting thread in nanoseconds, or 0 if not supported
+ * @param stages The stages that ran, in stage order
+ */
+public record ConversionMetrics(long wallNanos, long cpuNanos, List<StageMetrics> stages) {
+
+    public ConversionMetrics {
+        stages = List.copyOf(stages);
+    }
+
+    /**
+     * Get the measurements of a stage.
+     *
+     * @param stage The stage
+     * @return The measurements, or null if the stage did not run
+     */
+    public StageMetrics getStage(ConversionStage stage) {
+        for (StageMetrics metrics : stages) {
+            if (metrics.stage() == stage) {
+                return metrics;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,365 @@
+package xyz.mahmoudahmed.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the stage measurements of one conversion and reports them to the listeners.
+ * A recorder is started by the converter for each conversion and is current on the converting
+ * thread until it finishes, so code deeper in the call, such as feature translation, can time
+ * its own stage through {@link #enter(ConversionStage)} without being passed the recorder.
+ * Stages opened inside another stage on the same thread are subtracted from the enclosing one.
+ * Counters are striped, so stages may also be entered from worker threads. Without listeners
+ * a disabled recorder is used, whose scopes do nothing.
+ */
+public class ConversionRecorder {
+    private static final Logger logger = Logger.getLogger(ConversionRecorder.class.getName());
+    private static final ConversionRecorder DISABLED = new ConversionRecorder(List.of());
+    private static final Scope NOOP_SCOPE = new Scope(null, null, null);
+    private static final ThreadLocal<ConversionRecorder> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Scope> CURRENT_SCOPE = new ThreadLocal<>();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final List<ConversionListener> listeners;
+    private final Map<ConversionStage, StageCounters> stages = new EnumMap<>(ConversionStage.class);
+    private ConversionRecorder previous;
+    private long startWall;
+    private long startCpu;
+
+    private ConversionRecorder(List<ConversionListener> listeners) {
+        this.listeners = listeners;
+        if (!listeners.isEmpty()) {
+            for (ConversionStage stage : ConversionStage.values()) {
+                stages.put(stage, new StageCounters());
+            }
+        }
+    }
+
+    /**
+     * Start recording a conversion on the current thread.
+     *
+     * @param listeners The listeners to report to; when empty nothing is recorded
+     * @return The recorder, which must be finished with {@link #completed()} or {@link #failed(Throwable)}
+     */
+    public static ConversionRecorder start(List<ConversionListener> listeners) {
+        if (listeners.isEmpty()) {
+            return DISABLED;
+        }
+        ConversionRecorder recorder = new ConversionRecorder(listeners);
+        recorder.previous = CURRENT.get();
+        recorder.startWall = System.nanoTime();
+        recorder.startCpu = cpuTime();
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Get the recorder of the conversion running on the current thread.
+     *
+     * @return The current recorder, or a disabled recorder if none is running
+     */
+    public static ConversionRecorder current() {
+        ConversionRecorder recorder = CURRENT.get();
+        return recorder != null ? recorder : DISABLED;
+    }
+
+    /**
+     * Enter a stage of the conversion running on the current thread, if any.
+     *
+     * @param stage The stage
+     * @return The scope of the stage, to be closed when the stage ends
+     */
+    public static Scope enter(ConversionStage stage) {
+        return current().stage(stage);
+    }
+
+    /**
+     * Check whether this recorder reports to any listener.
+     *
+     * @return true if measurements are recorded
+     */
+    public boolean isEnabled() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Enter a stage of this conversion.
+     *
+     * @param stage The stage
+     * @return The scope of the stage, to be closed when the stage ends
+     */
+    public Scope stage(ConversionStage stage) {
+        if (!isEnabled()) {
+            return NOOP_SCOPE;
+        }
+        return new Scope(this, stages.get(stage), CURRENT_SCOPE.get());
+    }
+
+    /**
+     * Count the bytes read from a stream as input of a stage.
+     *
+     * @param inputStream The stream to count
+     * @param stage The stage the bytes are attributed to
+     * @return The counting stream, or the stream itself if recording is disabled
+     */
+    public InputStream countInput(InputStream inputStream, ConversionStage stage) {
+        if (!isEnabled()) {
+            return inputStream;
+        }
+        LongAdder bytesIn = stages.get(stage).bytesIn;
+        return new FilterInputStream(inputStream) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    bytesIn.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    bytesIn.add(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Time and count the writes to a stream as the write stage.
+     *
+     * @param outputStream The stream to measure
+     * @return The measuring stream, or the stream itself if recording is disabled
+     */
+    public OutputStream meterOutput(OutputStream outputStream) {
+        if (!isEnabled()) {
+            return outputStream;
+        }
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int b) throws IOException {
+                try (Scope scope = stage(ConversionStage.WRITE)) {
+                    out.write(b);
+                    scope.bytesOut(1);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try (Scope scope = stage(ConversionStage.WRITE)) {
+                    out.write(b, off, len);
+                    scope.bytesOut(len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                Scope scope = stage(ConversionStage.WRITE);
+                try {
+                    out.flush();
+                } finally {
+                    scope.close();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                Scope scope = stage(ConversionStage.WRITE);
+                try {
+                    out.close();
+                } finally {
+                    scope.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Finish a successful conversion and report it to the listeners.
+     */
+    public void completed() {
+        if (!isEnabled()) {
+            return;
+        }
+        ConversionMetrics metrics = finish();
+        for (ConversionListener listener : listeners) {
+            try {
+                listener.conversionCompleted(metrics);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Conversion listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Finish a failed conversion and report it to the listeners.
+     *
+     * @param failure The exception that ended the conversion
+     */
+    public void failed(Throwable failure) {
+        if (!isEnabled()) {
+            return;
+        }
+        ConversionMetrics metrics = finish();
+        for (ConversionListener listener : listeners) {
+            try {
+                listener.conversionFailed(metrics, failure);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Conversion listener failed", e);
+            }
+        }
+    }
+
+    private ConversionMetrics finish() {
+        long wall = System.nanoTime() - startWall;
+        long cpu = cpuTime() - startCpu;
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+
+        List<StageMetrics> stageMetrics = new ArrayList<>();
+        for (Map.Entry<ConversionStage, StageCounters> entry : stages.entrySet()) {
+            StageCounters totals = entry.getValue();
+            if (totals.invocations.sum() > 0) {
+                stageMetrics.add(totals.toMetrics(entry.getKey()));
+            }
+        }
+        return new ConversionMetrics(wall, cpu, stageMetrics);
+    }
+
+    private static long cpuTime() {
+        return CPU_TIME_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * One run of a stage. Counts added to the scope are attributed to its stage, and the time
+     * between opening and closing the scope, less that of stages nested in it, is added on close.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final ConversionRecorder recorder;
+        private final StageCounters totals;
+        private final Scope parent;
+        private final long startWall;
+        private final long startCpu;
+        private long nestedWall;
+        private long nestedCpu;
+
+        private Scope(ConversionRecorder recorder, StageCounters totals, Scope parent) {
+            this.recorder = recorder;
+            this.totals = totals;
+            this.parent = parent;
+            if (totals != null) {
+                CURRENT_SCOPE.set(this);
+                this.startWall = System.nanoTime();
+                this.startCpu = cpuTime();
+            } else {
+                this.startWall = 0;
+                this.startCpu = 0;
+            }
+        }
+
+        /**
+         * Add bytes read by the stage.
+         *
+         * @param bytes The number of bytes
+         * @return This scope
+         */
+        public Scope bytesIn(long bytes) {
+            if (totals != null) {
+                totals.bytesIn.add(bytes);
+            }
+            return this;
+        }
+
+        /**
+         * Add bytes produced by the stage.
+         *
+         * @param bytes The number of bytes
+         * @return This scope
+         */
+        public Scope bytesOut(long bytes) {
+            if (totals != null) {
+                totals.bytesOut.add(bytes);
+            }
+            return this;
+        }
+
+        /**
+         * Add sequence records handled by the stage.
+         *
+         * @param records The number of records
+         * @return This scope
+         */
+        public Scope records(long records) {
+            if (totals != null) {
+                totals.records.add(records);
+            }
+            return this;
+        }
+
+        /**
+         * Add features handled by the stage.
+         *
+         * @param features The number of features
+         * @return This scope
+         */
+        public Scope features(long features) {
+            if (totals != null) {
+                totals.features.add(features);
+            }
+            return this;
+        }
+
+        /**
+         * Record a number of bytes held in memory by the stage, keeping the largest.
+         *
+         * @param bytes The number of bytes buffered
+         * @return This scope
+         */
+        public Scope buffered(long bytes) {
+            if (totals != null) {
+                totals.peakBufferedBytes.accumulate(bytes);
+            }
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (totals == null) {
+                return;
+            }
+            long wall = System.nanoTime() - startWall;
+            long cpu = cpuTime() - startCpu;
+            totals.invocations.increment();
+            totals.wallNanos.add(wall - nestedWall);
+            totals.cpuNanos.add(cpu - nestedCpu);
+            if (parent == null) {
+                CURRENT_SCOPE.remove();
+                return;
+            }
+            if (parent.recorder == recorder) {
+                parent.nestedWall += wall;
+                parent.nestedCpu += cpu;
+            }
+            CURRENT_SCOPE.set(parent);
+        }
+    }
+}
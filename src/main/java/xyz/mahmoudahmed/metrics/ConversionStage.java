@@ -0,0 +1,30 @@
+package xyz.mahmoudahmed.metrics;
+
+/**
+ * Stages of a conversion reported to conversion listeners.
+ */
+public enum ConversionStage {
+    /** Detecting the formats of the input files or streams. */
+    DETECT,
+    /** Validating sequences against annotations. */
+    VALIDATE,
+    /** Parsing or indexing the sequence input. */
+    PARSE_SEQUENCE,
+    /** Parsing the annotation input. */
+    PARSE_ANNOTATION,
+    /** Translating coding features, nested in annotation parsing. */
+    TRANSLATE,
+    /** Rendering GenBank records, excluding the time spent writing them. */
+    FORMAT,
+    /** Writing rendered output to the destination. */
+    WRITE;
+
+    /**
+     * Get the stage name used in exported metrics.
+     *
+     * @return The lowercase stage name
+     */
+    public String metricName() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,168 @@
+package xyz.mahmoudahmed.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Conversion listener that aggregates the measurements of every conversion in the process
+ * and exports them in the Prometheus text exposition format.
+ * Totals are kept in striped counters, so concurrent conversions do not contend on recording.
+ * Throughput is left to the monitoring system: the per-second rate of
+ * {@code genbankinator_stage_records_total} over the rate of
+ * {@code genbankinator_stage_wall_seconds_total} gives records per second of a stage, and
+ * likewise for features and bytes.
+ *
+ * <pre>{@code
+ * PrometheusMetricsListener metrics = new PrometheusMetricsListener();
+ * GenbankConverter converter = GenbankConverter.builder().withListener(metrics).build();
+ * ...
+ * String exposition = metrics.scrape();
+ * }</pre>
+ */
+public class PrometheusMetricsListener implements ConversionListener {
+    private static final String PREFIX = "genbankinator_";
+
+    private final LongAdder conversions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder conversionWallNanos = new LongAdder();
+    private final LongAdder conversionCpuNanos = new LongAdder();
+    private final Map<ConversionStage, StageCounters> stages = new EnumMap<>(ConversionStage.class);
+
+    /**
+     * Constructor.
+     */
+    public PrometheusMetricsListener() {
+        for (ConversionStage stage : ConversionStage.values()) {
+            stages.put(stage, new StageCounters());
+        }
+    }
+
+    @Override
+    public void conversionCompleted(ConversionMetrics metrics) {
+        record(metrics);
+    }
+
+    @Override
+    public void conversionFailed(ConversionMetrics metrics, Throwable failure) {
+        failures.increment();
+        record(metrics);
+    }
+
+    private void record(ConversionMetrics metrics) {
+        conversions.increment();
+        conversionWallNanos.add(metrics.wallNanos());
+        conversionCpuNanos.add(metrics.cpuNanos());
+        for (StageMetrics stage : metrics.stages()) {
+            stages.get(stage.stage()).add(stage);
+        }
+    }
+
+    /**
+     * Get the number of conversions recorded, including failed ones.
+     *
+     * @return The number of conversions
+     */
+    public long getConversionCount() {
+        return conversions.sum();
+    }
+
+    /**
+     * Get the number of failed conversions recorded.
+     *
+     * @return The number of failed conversions
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Get the totals of a stage over all recorded conversions.
+     *
+     * @param stage The stage
+     * @return The summed measurements, with the largest peak buffer seen
+     */
+    public StageMetrics getTotals(ConversionStage stage) {
+        return stages.get(stage).toMetrics(stage);
+    }
+
+    /**
+     * Write all metrics in the Prometheus text exposition format.
+     *
+     * @param writer The writer to write to
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeTo(Writer writer) throws IOException {
+        writeMetric(writer, "conversions_total", "counter", "Conversions recorded, including failed ones",
+                conversions.sum());
+        writeMetric(writer, "conversion_failures_total", "counter", "Conversions that failed",
+                failures.sum());
+        writeMetric(writer, "conversion_wall_seconds_total", "counter", "Elapsed time of conversions",
+                seconds(conversionWallNanos.sum()));
+        writeMetric(writer, "conversion_cpu_seconds_total", "counter", "CPU time of converting threads",
+                seconds(conversionCpuNanos.sum()));
+
+        writeStageMetric(writer, "stage_invocations_total", "counter", "Times a stage ran",
+                StageMetrics::invocations, false);
+        writeStageMetric(writer, "stage_wall_seconds_total", "counter", "Elapsed time of a stage, excluding nested stages",
+                StageMetrics::wallNanos, true);
+        writeStageMetric(writer, "stage_cpu_seconds_total", "counter", "CPU time of a stage, excluding nested stages",
+                StageMetrics::cpuNanos, true);
+        writeStageMetric(writer, "stage_bytes_in_total", "counter", "Bytes read by a stage",
+                StageMetrics::bytesIn, false);
+        writeStageMetric(writer, "stage_bytes_out_total", "counter", "Bytes produced by a stage",
+                StageMetrics::bytesOut, false);
+        writeStageMetric(writer, "stage_records_total", "counter", "Sequence records handled by a stage",
+                StageMetrics::records, false);
+        writeStageMetric(writer, "stage_features_total", "counter", "Features handled by a stage",
+                StageMetrics::features, false);
+        writeStageMetric(writer, "stage_peak_buffered_bytes", "gauge", "Largest number of bytes a stage held in memory",
+                StageMetrics::peakBufferedBytes, false);
+    }
+
+    /**
+     * Get all metrics in the Prometheus text exposition format.
+     *
+     * @return The exposition text
+     */
+    public String scrape() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeTo(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private void writeStageMetric(Writer writer, String name, String type, String help,
+                                  ToLongFunction<StageMetrics> value, boolean nanos) throws IOException {
+        writeHeader(writer, name, type, help);
+        for (ConversionStage stage : ConversionStage.values()) {
+            long raw = value.applyAsLong(getTotals(stage));
+            String formatted = nanos ? seconds(raw) : Long.toString(raw);
+            writer.write(PREFIX + name + "{stage=\"" + stage.metricName() + "\"} " + formatted + "\n");
+        }
+    }
+
+    private static void writeMetric(Writer writer, String name, String type, String help, Object value)
+            throws IOException {
+        writeHeader(writer, name, type, help);
+        writer.write(PREFIX + name + " " + value + "\n");
+    }
+
+    private static void writeHeader(Writer writer, String name, String type, String help) throws IOException {
+        writer.write("# HELP " + PREFIX + name + " " + help + "\n");
+        writer.write("# TYPE " + PREFIX + name + " " + type + "\n");
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,37 @@
+package xyz.mahmoudahmed.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped running totals of one stage, safe to update from several threads at once.
+ */
+class StageCounters {
+    final LongAdder invocations = new LongAdder();
+    final LongAdder wallNanos = new LongAdder();
+    final LongAdder cpuNanos = new LongAdder();
+    final LongAdder bytesIn = new LongAdder();
+    final LongAdder bytesOut = new LongAdder();
+    final LongAdder records = new LongAdder();
+    final LongAdder features = new LongAdder();
+    final LongAccumulator peakBufferedBytes = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Add the measurements of a stage to the totals, keeping the largest peak buffer.
+     */
+    void add(StageMetrics metrics) {
+        invocations.add(metrics.invocations());
+        wallNanos.add(metrics.wallNanos());
+        cpuNanos.add(metrics.cpuNanos());
+        bytesIn.add(metrics.bytesIn());
+        bytesOut.add(metrics.bytesOut());
+        records.add(metrics.records());
+        features.add(metrics.features());
+        peakBufferedBytes.accumulate(metrics.peakBufferedBytes());
+    }
+
+    StageMetrics toMetrics(ConversionStage stage) {
+        return new StageMetrics(stage, invocations.sum(), wallNanos.sum(), cpuNanos.sum(), bytesIn.sum(),
+                bytesOut.sum(), records.sum(), features.sum(), peakBufferedBytes.get());
+    }
+}
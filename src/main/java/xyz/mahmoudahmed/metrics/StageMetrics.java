@@ -0,0 +1,69 @@
+package xyz.mahmoudahmed.metrics;
+
+/**
+ * Measurements of one stage of a conversion.
+ * Times are summed over every time the stage ran and exclude nested stages, so the stages
+ * of a conversion add up to its total. CPU time is that of the threads running the stage
+ * where the JVM supports measuring it, and 0 otherwise.
+ *
+ * @param stage The stage measured
+ * @param invocations The number of times the stage ran
+ * @param wallNanos The elapsed time in nanoseconds
+ * @param cpuNanos The CPU time in nanoseconds
+ * @param bytesIn The number of bytes read
+ * @param bytesOut The number of bytes produced
+ * @param records The number of sequence records handled
+ * @param features The number of features handled
+ * @param peakBufferedBytes The largest number of bytes held in memory at once
+ */
+public record StageMetrics(
+        ConversionStage stage,
+        long invocations,
+        long wallNanos,
+        long cpuNanos,
+        long bytesIn,
+        long bytesOut,
+        long records,
+        long features,
+        long peakBufferedBytes) {
+
+    /**
+     * Get the number of records handled per second of elapsed time.
+     *
+     * @return The record throughput, or 0 if no time was measured
+     */
+    public double recordsPerSecond() {
+        return perSecond(records);
+    }
+
+    /**
+     * Get the number of features handled per second of elapsed time.
+     *
+     * @return The feature throughput, or 0 if no time was measured
+     */
+    public double featuresPerSecond() {
+        return perSecond(features);
+    }
+
+    /**
+     * Get the number of bytes read per second of elapsed time.
+     *
+     * @return The input throughput, or 0 if no time was measured
+     */
+    public double bytesInPerSecond() {
+        return perSecond(bytesIn);
+    }
+
+    /**
+     * Get the number of bytes produced per second of elapsed time.
+     *
+     * @return The output throughput, or 0 if no time was measured
+     */
+    public double bytesOutPerSecond() {
+        return perSecond(bytesOut);
+    }
+
+    private double perSecond(long count) {
+        return wallNanos > 0 ? count * 1e9 / wallNanos : 0;
+    }
+}
@@ -0,0 +1,21 @@
+package xyz.mahmoudahmed.model;
+
+/**
+ * Compression of an input or output file.
+ */
+public enum Compression {
+    /**
+     * Plain, uncompressed content.
+     */
+    NONE,
+
+    /**
+     * A single gzip stream, which can only be read from the start.
+     */
+    GZIP,
+
+    /**
+     * Blocked gzip as written by bgzip, which supports parallel inflation and random access.
+     */
+    BGZF
+}
@@ -11,6 +11,9 @@ public class DefaultGenbankOptions implements GenbankOptions {
     private final boolean memoryEfficient;
     private final long memoryThreshold;
     private final String tempDirectory;
+    private final boolean singlePassValidation;
+    private final int readAheadBuffers;
+    private final int pipelineWorkers;
 
     private DefaultGenbankOptions(Builder builder) {
         this.defaultOrganism = builder.defaultOrganism;
@@ -20,6 +23,9 @@ public class DefaultGenbankOptions implements GenbankOptions {
         this.memoryEfficient = builder.memoryEfficient;
         this.memoryThreshold = builder.memoryThreshold;
         this.tempDirectory = builder.tempDirectory;
+        this.singlePassValidation = builder.singlePassValidation;
+        this.readAheadBuffers = builder.readAheadBuffers;
+        this.pipelineWorkers = builder.pipelineWorkers;
     }
 
     @Override
@@ -57,6 +63,21 @@ public class DefaultGenbankOptions implements GenbankOptions {
         return tempDirectory;
     }
 
+    @Override
+    public boolean isSinglePassValidation() {
+        return singlePassValidation;
+    }
+
+    @Override
+    public int getReadAheadBuffers() {
+        return readAheadBuffers;
+    }
+
+    @Override
+    public int getPipelineWorkers() {
+        return pipelineWorkers;
+    }
+
     /**
      * Builder implementation for DefaultGenbankOptions.
      */
@@ -68,6 +89,9 @@ public class DefaultGenbankOptions implements GenbankOptions {
         private boolean memoryEfficient = false;
         private long memoryThreshold = 10 * 1024 * 1024; // 10MB
         private String tempDirectory = System.getProperty("java.io.tmpdir");
+        private boolean singlePassValidation = false;
+        private int readAheadBuffers = 0;
+        private int pipelineWorkers = 0;
 
         @Override
         public Builder defaultOrganism(String defaultOrganism) {
@@ -111,6 +135,30 @@ public class DefaultGenbankOptions implements GenbankOptions {
             return this;
         }
 
+        @Override
+        public Builder singlePassValidation(boolean singlePassValidation) {
+            this.singlePassValidation = singlePassValidation;
+            return this;
+        }
+
+        @Override
+        public Builder readAheadBuffers(int readAheadBuffers) {
+            if (readAheadBuffers < 0) {
+                throw new IllegalArgumentException("Read-ahead buffer count cannot be negative");
+            }
+            this.readAheadBuffers = readAheadBuffers;
+            return this;
+        }
+
+        @Override
+        public Builder pipelineWorkers(int pipelineWorkers) {
+            if (pipelineWorkers < 0) {
+                throw new IllegalArgumentException("Pipeline worker count cannot be negative");
+            }
+            this.pipelineWorkers = pipelineWorkers;
+            return this;
+        }
+
         @Override
         public GenbankOptions build() {
             return new DefaultGenbankOptions(this);
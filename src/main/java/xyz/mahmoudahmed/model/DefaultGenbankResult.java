@@ -1,5 +1,7 @@
 package xyz.mahmoudahmed.model;
 
+import xyz.mahmoudahmed.diagnostics.DiagnosticsSummary;
+
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -14,12 +16,16 @@ class DefaultGenbankResult implements GenbankResult {
     private final int sequenceCount;
     private final int featureCount;
     private final LocalDateTime timestamp;
+    private final ValidationResult validationResult;
+    private final DiagnosticsSummary diagnostics;
 
     private DefaultGenbankResult(Builder builder) {
         this.genbankData = builder.genbankData;
         this.sequenceCount = builder.sequenceCount;
         this.featureCount = builder.featureCount;
         this.timestamp = builder.timestamp != null ? builder.timestamp : LocalDateTime.now();
+        this.validationResult = builder.validationResult;
+        this.diagnostics = builder.diagnostics != null ? builder.diagnostics : DiagnosticsSummary.EMPTY;
     }
 
     @Override
@@ -54,11 +60,23 @@ class DefaultGenbankResult implements GenbankResult {
         return timestamp;
     }
 
+    @Override
+    public ValidationResult getValidationResult() {
+        return validationResult;
+    }
+
+    @Override
+    public DiagnosticsSummary getDiagnostics() {
+        return diagnostics;
+    }
+
     static class Builder implements GenbankResult.Builder {
         private byte[] genbankData;
         private int sequenceCount;
         private int featureCount;
         private LocalDateTime timestamp;
+        private ValidationResult validationResult;
+        private DiagnosticsSummary diagnostics;
 
         @Override
         public Builder genbankData(byte[] genbankData) {
@@ -84,6 +102,18 @@ class DefaultGenbankResult implements GenbankResult {
             return this;
         }
 
+        @Override
+        public Builder validationResult(ValidationResult validationResult) {
+            this.validationResult = validationResult;
+            return this;
+        }
+
+        @Override
+        public Builder diagnostics(DiagnosticsSummary diagnostics) {
+            this.diagnostics = diagnostics;
+            return this;
+        }
+
         @Override
         public GenbankResult build() {
             return new DefaultGenbankResult(this);
@@ -1,5 +1,7 @@
 package xyz.mahmoudahmed.model;
 
+import java.util.Objects;
+
 /**
  * Default implementation of OutputFormattingOptions.
  */
@@ -9,6 +11,8 @@ public class DefaultOutputFormattingOptions implements OutputFormattingOptions {
     private final boolean includeSequence;
     private final boolean includeEmptyLinesBetweenFeatures;
     private final boolean sortFeaturesByPosition;
+    private final Compression outputCompression;
+    private final int renderingParallelism;
 
     private DefaultOutputFormattingOptions(Builder builder) {
         this.sequenceLineWidth = builder.sequenceLineWidth;
@@ -16,6 +20,8 @@ public class DefaultOutputFormattingOptions implements OutputFormattingOptions {
         this.includeSequence = builder.includeSequence;
         this.includeEmptyLinesBetweenFeatures = builder.includeEmptyLinesBetweenFeatures;
         this.sortFeaturesByPosition = builder.sortFeaturesByPosition;
+        this.outputCompression = builder.outputCompression;
+        this.renderingParallelism = builder.renderingParallelism;
     }
 
     @Override
@@ -43,6 +49,16 @@ public class DefaultOutputFormattingOptions implements OutputFormattingOptions {
         return sortFeaturesByPosition;
     }
 
+    @Override
+    public Compression getOutputCompression() {
+        return outputCompression;
+    }
+
+    @Override
+    public int getRenderingParallelism() {
+        return renderingParallelism;
+    }
+
     /**
      * Builder implementation for DefaultOutputFormattingOptions.
      */
@@ -52,6 +68,8 @@ public class DefaultOutputFormattingOptions implements OutputFormattingOptions {
         private boolean includeSequence = true;
         private boolean includeEmptyLinesBetweenFeatures = false;
         private boolean sortFeaturesByPosition = true;
+        private Compression outputCompression = Compression.NONE;
+        private int renderingParallelism = 1;
 
         @Override
         public Builder sequenceLineWidth(int sequenceLineWidth) {
@@ -83,6 +101,21 @@ public class DefaultOutputFormattingOptions implements OutputFormattingOptions {
             return this;
         }
 
+        @Override
+        public Builder outputCompression(Compression outputCompression) {
+            this.outputCompression = Objects.requireNonNull(outputCompression, "Output compression cannot be null");
+            return this;
+        }
+
+        @Override
+        public Builder renderingParallelism(int renderingParallelism) {
+            if (renderingParallelism < 1) {
+                throw new IllegalArgumentException("Rendering parallelism must be at least 1");
+            }
+            this.renderingParallelism = renderingParallelism;
+            return this;
+        }
+
         @Override
         public OutputFormattingOptions build() {
             return new DefaultOutputFormattingOptions(this);
@@ -0,0 +1,114 @@
+package xyz.mahmoudahmed.model;
+
+/**
+ * Default implementation of ValidationOptions.
+ */
+public class DefaultValidationOptions implements ValidationOptions {
+    private final ValidationLevel level;
+    private final int sampleWindowCount;
+    private final int sampleWindowSize;
+    private final long randomSeed;
+    private final boolean failFast;
+    private final int maxIssues;
+
+    private DefaultValidationOptions(Builder builder) {
+        this.level = builder.level;
+        this.sampleWindowCount = builder.sampleWindowCount;
+        this.sampleWindowSize = builder.sampleWindowSize;
+        this.randomSeed = builder.randomSeed;
+        this.failFast = builder.failFast;
+        this.maxIssues = builder.maxIssues;
+    }
+
+    @Override
+    public ValidationLevel getLevel() {
+        return level;
+    }
+
+    @Override
+    public int getSampleWindowCount() {
+        return sampleWindowCount;
+    }
+
+    @Override
+    public int getSampleWindowSize() {
+        return sampleWindowSize;
+    }
+
+    @Override
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    @Override
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    @Override
+    public int getMaxIssues() {
+        return maxIssues;
+    }
+
+    /**
+     * Builder implementation for DefaultValidationOptions.
+     */
+    static class Builder implements ValidationOptions.Builder {
+        private ValidationLevel level = ValidationLevel.EXHAUSTIVE;
+        private int sampleWindowCount = 32;
+        private int sampleWindowSize = 64 * 1024; // 64KB
+        private long randomSeed = 42L;
+        private boolean failFast = false;
+        private int maxIssues = 1000;
+
+        @Override
+        public Builder level(ValidationLevel level) {
+            this.level = level;
+            return this;
+        }
+
+        @Override
+        public Builder sampleWindowCount(int sampleWindowCount) {
+            this.sampleWindowCount = sampleWindowCount;
+            return this;
+        }
+
+        @Override
+        public Builder sampleWindowSize(int sampleWindowSize) {
+            this.sampleWindowSize = sampleWindowSize;
+            return this;
+        }
+
+        @Override
+        public Builder randomSeed(long randomSeed) {
+            this.randomSeed = randomSeed;
+            return this;
+        }
+
+        @Override
+        public Builder failFast(boolean failFast) {
+            this.failFast = failFast;
+            return this;
+        }
+
+        @Override
+        public Builder maxIssues(int maxIssues) {
+            this.maxIssues = maxIssues;
+            return this;
+        }
+
+        @Override
+        public ValidationOptions build() {
+            if (level == null) {
+                throw new IllegalArgumentException("Validation level is required");
+            }
+            if (sampleWindowCount <= 0 || sampleWindowSize <= 0) {
+                throw new IllegalArgumentException("Sample window count and size must be positive");
+            }
+            if (maxIssues <= 0) {
+                throw new IllegalArgumentException("Max issues must be positive");
+            }
+            return new DefaultValidationOptions(this);
+        }
+    }
+}
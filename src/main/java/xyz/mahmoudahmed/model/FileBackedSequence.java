@@ -0,0 +1,139 @@
+package xyz.mahmoudahmed.model;
+
+import xyz.mahmoudahmed.exception.FileProcessingException;
+import xyz.mahmoudahmed.util.IndexedSequenceSource;
+import xyz.mahmoudahmed.util.SequenceStreamProvider;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sequence whose residues stay in an indexed FASTA file until they are needed.
+ * Metadata comes from a metadata-only sequence, while {@link #getSequence()},
+ * {@link #getRegion(long, long)} and {@link #streamSequence(SequenceStreamProvider.SequenceConsumer)}
+ * read through a shared {@link IndexedSequenceSource}. Unlike a metadata-only sequence,
+ * getSequence() never returns null, so code written for in-memory sequences keeps working.
+ */
+public class FileBackedSequence implements Sequence {
+    private final Sequence metadata;
+    private final IndexedSequenceSource source;
+
+    /**
+     * Constructor.
+     *
+     * @param metadata The sequence metadata, whose ID names the sequence in the source
+     * @param source The source the residues are read from
+     * @throws IllegalArgumentException If the source does not contain the sequence
+     */
+    public FileBackedSequence(Sequence metadata, IndexedSequenceSource source) {
+        if (!source.getIndex().contains(metadata.getId())) {
+            throw new IllegalArgumentException("Sequence ID not found: " + metadata.getId());
+        }
+        this.metadata = metadata;
+        this.source = source;
+    }
+
+    @Override
+    public String getId() {
+        return metadata.getId();
+    }
+
+    @Override
+    public String getName() {
+        return metadata.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return metadata.getDescription();
+    }
+
+    /**
+     * Get the sequence data, loading it from the file if it is not cached.
+     *
+     * @return The sequence data
+     * @throws FileProcessingException If the file cannot be read
+     */
+    @Override
+    public String getSequence() {
+        try {
+            return source.getSequence(getId());
+        } catch (IOException e) {
+            throw new FileProcessingException("Error loading sequence " + getId(), e);
+        }
+    }
+
+    @Override
+    public long getLength() {
+        return source.getIndex().getLength(getId());
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return false;
+    }
+
+    /**
+     * Get a region of the sequence data, reading only that region where the file allows it.
+     *
+     * @param start The 0-based start of the region
+     * @param end The 0-based exclusive end of the region
+     * @return The residues of the region
+     * @throws FileProcessingException If the file cannot be read
+     */
+    @Override
+    public String getRegion(long start, long end) {
+        try {
+            return source.getRegion(getId(), start, end);
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading region of sequence " + getId(), e);
+        }
+    }
+
+    @Override
+    public void streamSequence(SequenceStreamProvider.SequenceConsumer consumer) throws IOException {
+        source.streamSequence(getId(), consumer);
+    }
+
+    @Override
+    public String getMoleculeType() {
+        return metadata.getMoleculeType();
+    }
+
+    @Override
+    public String getTopology() {
+        return metadata.getTopology();
+    }
+
+    @Override
+    public String getDivision() {
+        return metadata.getDivision();
+    }
+
+    @Override
+    public List<String> getTaxonomy() {
+        return metadata.getTaxonomy();
+    }
+
+    @Override
+    public String getOrganism() {
+        return metadata.getOrganism();
+    }
+
+    @Override
+    public Map<String, Object> getAnnotations() {
+        return metadata.getAnnotations();
+    }
+
+    @Override
+    public Date getDate() {
+        return metadata.getDate();
+    }
+
+    @Override
+    public HeaderInfo getHeaderInfo() {
+        return metadata.getHeaderInfo();
+    }
+}
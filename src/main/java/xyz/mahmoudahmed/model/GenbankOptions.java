@@ -55,6 +55,32 @@ public interface GenbankOptions {
      */
     String getTempDirectory();
 
+    /**
+     * Check if single-pass validation is enabled.
+     * When enabled, file conversions validate the data parsed for conversion
+     * (or the sequence metadata in the streaming path) instead of parsing both files
+     * a second time up front.
+     *
+     * @return true if single-pass validation is enabled
+     */
+    boolean isSinglePassValidation();
+
+    /**
+     * Get the number of buffers read ahead asynchronously while streaming sequences
+     * in memory-efficient mode. Zero reads synchronously.
+     *
+     * @return The number of read-ahead buffers
+     */
+    int getReadAheadBuffers();
+
+    /**
+     * Get the number of workers formatting records in the pipelined stream conversion.
+     * Zero converts streams on the calling thread alone.
+     *
+     * @return The number of pipeline workers
+     */
+    int getPipelineWorkers();
+
     /**
      * Create a builder for GenbankOptions.
      *
@@ -124,6 +150,33 @@ public interface GenbankOptions {
          */
         Builder tempDirectory(String tempDirectory);
 
+        /**
+         * Enable or disable single-pass validation.
+         *
+         * @param singlePassValidation true to validate on the data parsed for conversion
+         * @return This builder
+         */
+        Builder singlePassValidation(boolean singlePassValidation);
+
+        /**
+         * Set the number of buffers read ahead asynchronously while streaming sequences,
+         * so reading overlaps with formatting on high-latency storage.
+         *
+         * @param readAheadBuffers The number of read-ahead buffers, or 0 to read synchronously
+         * @return This builder
+         */
+        Builder readAheadBuffers(int readAheadBuffers);
+
+        /**
+         * Set the number of workers formatting records when converting streams. With workers,
+         * the calling thread reads records, the workers format them and a writer thread writes
+         * them in order, so formatting overlaps reading and writing.
+         *
+         * @param pipelineWorkers The number of pipeline workers, or 0 to convert on the calling thread
+         * @return This builder
+         */
+        Builder pipelineWorkers(int pipelineWorkers);
+
         /**
          * Build the GenbankOptions.
          *
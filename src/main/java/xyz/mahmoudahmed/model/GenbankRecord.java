@@ -0,0 +1,40 @@
+package xyz.mahmoudahmed.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One formatted GenBank record, as published by
+ * {@link xyz.mahmoudahmed.converter.GenbankConverter#publish(java.io.File, java.io.File, ConversionOptions)}.
+ *
+ * @param sequenceId The ID of the sequence of the record
+ * @param index The 0-based position of the record in the output
+ * @param sequenceLength The length of the sequence in residues
+ * @param featureCount The number of features in the record
+ * @param data The formatted record, from LOCUS to the closing //, read-only
+ */
+public record GenbankRecord(String sequenceId, long index, long sequenceLength, int featureCount, ByteBuffer data) {
+    public GenbankRecord {
+        data = data.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get a copy of the formatted record.
+     *
+     * @return The bytes of the record
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Get the formatted record as text.
+     *
+     * @return The record
+     */
+    public String asString() {
+        return StandardCharsets.UTF_8.decode(data.duplicate()).toString();
+    }
+}
@@ -1,5 +1,7 @@
 package xyz.mahmoudahmed.model;
 
+import xyz.mahmoudahmed.diagnostics.DiagnosticsSummary;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -53,6 +55,20 @@ public interface GenbankResult {
      */
     LocalDateTime getTimestamp();
 
+    /**
+     * Get the validation result collected during the conversion.
+     *
+     * @return The validation result, or null if validation ran before the conversion
+     */
+    ValidationResult getValidationResult();
+
+    /**
+     * Get the problems reported during the conversion, such as skipped annotation lines.
+     *
+     * @return The counts and first examples of each kind of problem
+     */
+    DiagnosticsSummary getDiagnostics();
+
     /**
      * Create a builder for GenbankResult.
      *
@@ -98,6 +114,22 @@ public interface GenbankResult {
          */
         Builder timestamp(LocalDateTime timestamp);
 
+        /**
+         * Set the validation result collected during the conversion.
+         *
+         * @param validationResult The validation result
+         * @return This builder
+         */
+        Builder validationResult(ValidationResult validationResult);
+
+        /**
+         * Set the problems reported during the conversion.
+         *
+         * @param diagnostics The summary of the problems
+         * @return This builder
+         */
+        Builder diagnostics(DiagnosticsSummary diagnostics);
+
         /**
          * Build the GenbankResult.
          *
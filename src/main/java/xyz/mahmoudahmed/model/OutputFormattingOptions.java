@@ -39,6 +39,22 @@ public interface OutputFormattingOptions {
      */
     boolean isSortFeaturesByPosition();
 
+    /**
+     * Get the compression applied to streamed GenBank output.
+     *
+     * @return The output compression, NONE by default
+     */
+    Compression getOutputCompression();
+
+    /**
+     * Get the number of segments of one record that may be rendered concurrently.
+     * ORIGIN lines and large feature tables are split into slices that are rendered
+     * in parallel and written in order; 1 renders sequentially.
+     *
+     * @return The rendering parallelism
+     */
+    int getRenderingParallelism();
+
     /**
      * Create a builder for OutputFormattingOptions.
      *
@@ -92,6 +108,23 @@ public interface OutputFormattingOptions {
          */
         Builder sortFeaturesByPosition(boolean sortFeaturesByPosition);
 
+        /**
+         * Set the compression applied to streamed GenBank output.
+         * GZIP and BGZF output is deflated in parallel blocks.
+         *
+         * @param outputCompression The output compression
+         * @return This builder
+         */
+        Builder outputCompression(Compression outputCompression);
+
+        /**
+         * Set the number of segments of one record that may be rendered concurrently.
+         *
+         * @param renderingParallelism The rendering parallelism, 1 to render sequentially
+         * @return This builder
+         */
+        Builder renderingParallelism(int renderingParallelism);
+
         /**
          * Build the OutputFormattingOptions.
          *
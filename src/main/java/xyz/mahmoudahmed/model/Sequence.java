@@ -1,5 +1,8 @@
 package xyz.mahmoudahmed.model;
 
+import xyz.mahmoudahmed.util.SequenceStreamProvider;
+
+import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +46,45 @@ public interface Sequence {
      */
     long getLength();
 
+    /**
+     * Check whether the residues are held in memory. Lazy sequences load their residues
+     * on demand, so callers that only need part of them should use
+     * {@link #getRegion(long, long)} or {@link #streamSequence(SequenceStreamProvider.SequenceConsumer)}.
+     *
+     * @return true if {@link #getSequence()} returns residues without loading them
+     */
+    default boolean isLoaded() {
+        return true;
+    }
+
+    /**
+     * Get a region of the sequence data.
+     *
+     * @param start The 0-based start of the region
+     * @param end The 0-based exclusive end of the region
+     * @return The residues of the region
+     */
+    default String getRegion(long start, long end) {
+        String sequence = getSequence();
+        if (sequence == null) {
+            throw new IllegalStateException("Sequence data not available for " + getId());
+        }
+        return sequence.substring((int) start, (int) end);
+    }
+
+    /**
+     * Stream the sequence data in chunks.
+     *
+     * @param consumer The consumer receiving the chunks
+     * @throws IOException If an I/O error occurs
+     */
+    default void streamSequence(SequenceStreamProvider.SequenceConsumer consumer) throws IOException {
+        String sequence = getSequence();
+        if (sequence != null && !sequence.isEmpty()) {
+            consumer.consumeChunk(sequence);
+        }
+    }
+
     /**
      * Get the type of molecule (DNA, RNA, protein).
      *
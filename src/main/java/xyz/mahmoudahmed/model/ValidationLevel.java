@@ -0,0 +1,21 @@
+package xyz.mahmoudahmed.model;
+
+/**
+ * How thoroughly input files are validated.
+ */
+public enum ValidationLevel {
+    /**
+     * Check format detection and the first header or data line only.
+     */
+    QUICK,
+
+    /**
+     * Check randomly placed byte windows spread across each file.
+     */
+    SAMPLED,
+
+    /**
+     * Stream through every record of each file.
+     */
+    EXHAUSTIVE
+}
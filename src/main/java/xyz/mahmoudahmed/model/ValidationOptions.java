@@ -0,0 +1,126 @@
+package xyz.mahmoudahmed.model;
+
+/**
+ * Options controlling how thoroughly files are validated.
+ */
+public interface ValidationOptions {
+    /**
+     * Get the validation level.
+     *
+     * @return The validation level
+     */
+    ValidationLevel getLevel();
+
+    /**
+     * Get the number of byte windows read per file at the sampled level.
+     *
+     * @return The number of sample windows
+     */
+    int getSampleWindowCount();
+
+    /**
+     * Get the size of each sample window in bytes.
+     *
+     * @return The sample window size
+     */
+    int getSampleWindowSize();
+
+    /**
+     * Get the seed used to place sample windows, so sampled runs are reproducible.
+     *
+     * @return The random seed
+     */
+    long getRandomSeed();
+
+    /**
+     * Check if validation should stop at the first issue.
+     *
+     * @return true if validation stops at the first issue
+     */
+    boolean isFailFast();
+
+    /**
+     * Get the maximum number of issues to report.
+     *
+     * @return The maximum number of issues
+     */
+    int getMaxIssues();
+
+    /**
+     * Get the default options, which validate exhaustively.
+     *
+     * @return The default options
+     */
+    static ValidationOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Create a builder for ValidationOptions.
+     *
+     * @return A new builder
+     */
+    static Builder builder() {
+        return new DefaultValidationOptions.Builder();
+    }
+
+    /**
+     * Builder for ValidationOptions.
+     */
+    interface Builder {
+        /**
+         * Set the validation level.
+         *
+         * @param level The validation level
+         * @return This builder
+         */
+        Builder level(ValidationLevel level);
+
+        /**
+         * Set the number of byte windows read per file at the sampled level.
+         *
+         * @param sampleWindowCount The number of sample windows
+         * @return This builder
+         */
+        Builder sampleWindowCount(int sampleWindowCount);
+
+        /**
+         * Set the size of each sample window in bytes.
+         *
+         * @param sampleWindowSize The sample window size
+         * @return This builder
+         */
+        Builder sampleWindowSize(int sampleWindowSize);
+
+        /**
+         * Set the seed used to place sample windows.
+         *
+         * @param randomSeed The random seed
+         * @return This builder
+         */
+        Builder randomSeed(long randomSeed);
+
+        /**
+         * Set whether validation should stop at the first issue.
+         *
+         * @param failFast true to stop at the first issue
+         * @return This builder
+         */
+        Builder failFast(boolean failFast);
+
+        /**
+         * Set the maximum number of issues to report.
+         *
+         * @param maxIssues The maximum number of issues
+         * @return This builder
+         */
+        Builder maxIssues(int maxIssues);
+
+        /**
+         * Build the ValidationOptions.
+         *
+         * @return The built ValidationOptions
+         */
+        ValidationOptions build();
+    }
+}
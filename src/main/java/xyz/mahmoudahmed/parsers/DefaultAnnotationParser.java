@@ -1,10 +1,14 @@
 package xyz.mahmoudahmed.parsers;
 
+import xyz.mahmoudahmed.diagnostics.DiagnosticCategory;
+import xyz.mahmoudahmed.diagnostics.DiagnosticsCollector;
+import xyz.mahmoudahmed.jfr.FileParseEvent;
 import xyz.mahmoudahmed.exception.FileProcessingException;
 import xyz.mahmoudahmed.exception.InvalidFileFormatException;
 import xyz.mahmoudahmed.model.Annotation;
 import xyz.mahmoudahmed.model.AnnotationData;
 import xyz.mahmoudahmed.service.FormatDetectionService;
+import xyz.mahmoudahmed.util.CompressedInput;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -58,6 +62,14 @@ public class DefaultAnnotationParser implements AnnotationParser {
 
     @Override
     public AnnotationData parse(File file) throws IOException {
+        FileParseEvent event = new FileParseEvent();
+        event.begin();
+        AnnotationData annotationData = parseFile(file);
+        event.finish(file, getClass(), false, annotationData.getTotalCount());
+        return annotationData;
+    }
+
+    private AnnotationData parseFile(File file) throws IOException {
         String format;
 
         // Detect format using the format detection service if available
@@ -89,7 +101,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
      * Detect format by file extension
      */
     private String detectFormatByExtension(File file) {
-        String name = file.getName().toLowerCase();
+        String name = CompressedInput.stripCompressionExtension(file.getName()).toLowerCase();
         if (name.endsWith(".gff") || name.endsWith(".gff3")) {
             return "GFF";
         } else if (name.endsWith(".gtf")) {
@@ -100,7 +112,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
             return "FASTA";
         } else {
             // Try to detect by content
-            try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            try (BufferedReader reader = CompressedInput.openReader(file)) {
                 return detectFormatFromStream(reader);
             } catch (IOException e) {
                 logger.log(Level.WARNING, "Error detecting format by content, defaulting to GFF", e);
@@ -112,8 +124,8 @@ public class DefaultAnnotationParser implements AnnotationParser {
     @Override
     public AnnotationData parse(InputStream inputStream) throws IOException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            // The reader is reset to the start after peeking, so the stream itself is never rewound
             String format = detectFormatFromStream(reader);
-            inputStream.reset();
 
             if ("GFF".equalsIgnoreCase(format) || "GFF3".equalsIgnoreCase(format)) {
                 return parseGffFromStream(reader);
@@ -180,7 +192,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
      * Parse a FASTA annotation file into annotation data.
      */
     private AnnotationData parseFasta(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             return parseFastaFromStream(reader);
         }
     }
@@ -207,7 +219,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                     String seqId = matcher.group(1).trim();
                     String[] positions = matcher.group(2).split("-");
                     if (positions.length != 2) {
-                        logger.log(Level.WARNING, "Invalid position format in FASTA header at line {0}", lineNumber);
+                        DiagnosticsCollector.report(DiagnosticCategory.INVALID_COORDINATES, lineNumber, null);
                         continue;
                     }
 
@@ -215,7 +227,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                         int start = Integer.parseInt(positions[0]) - 1; // Convert to 0-based
                         int end = Integer.parseInt(positions[1]);
                         if (start >= end) {
-                            logger.log(Level.WARNING, "Start >= end at line {0}", lineNumber);
+                            DiagnosticsCollector.report(DiagnosticCategory.INVALID_COORDINATES, lineNumber, "start is not before end");
                             continue;
                         }
 
@@ -246,10 +258,10 @@ public class DefaultAnnotationParser implements AnnotationParser {
 
                         annotationsBySequence.computeIfAbsent(seqId, k -> new ArrayList<>()).add(annotation);
                     } catch (NumberFormatException e) {
-                        logger.log(Level.WARNING, "Invalid positions in FASTA header at line {0}", lineNumber);
+                        DiagnosticsCollector.report(DiagnosticCategory.INVALID_COORDINATES, lineNumber, null);
                     }
                 } else {
-                    logger.log(Level.WARNING, "Invalid FASTA header at line {0}", lineNumber);
+                    DiagnosticsCollector.report(DiagnosticCategory.INVALID_HEADER, lineNumber, null);
                 }
             }
         }
@@ -263,7 +275,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
      * Parse a GFF file into annotation data.
      */
     private AnnotationData parseGff(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             return parseGffFromStream(reader);
         }
     }
@@ -290,7 +302,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                 String[] fields = line.split("\\t");
                 if (fields.length < 8) {
                     // Skip invalid lines instead of throwing an exception
-                    logger.log(Level.WARNING, "Skipping line {0}: fewer than 8 fields", lineNumber);
+                    DiagnosticsCollector.report(DiagnosticCategory.MISSING_FIELDS, lineNumber, "fewer than 8 fields");
                     continue;
                 }
 
@@ -304,7 +316,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                     end = Integer.parseInt(fields[4]); // GFF end is inclusive, but we need exclusive
                 } catch (NumberFormatException e) {
                     // Skip lines with invalid numbers
-                    logger.log(Level.WARNING, "Skipping line {0}: invalid number format in start/end fields", lineNumber);
+                    DiagnosticsCollector.report(DiagnosticCategory.INVALID_COORDINATES, lineNumber, "start or end is not a number");
                     continue;
                 }
 
@@ -322,7 +334,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                     try {
                         phase = Integer.parseInt(fields[7]);
                     } catch (NumberFormatException e) {
-                        logger.log(Level.WARNING, "Invalid phase value at line {0}, using null", lineNumber);
+                        DiagnosticsCollector.report(DiagnosticCategory.INVALID_PHASE, lineNumber, null);
                     }
                 }
 
@@ -378,7 +390,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
 
             } catch (Exception e) {
                 // Skip any lines that cause exceptions during parsing
-                logger.log(Level.WARNING, "Error parsing line {0}: {1}", new Object[]{lineNumber, e.getMessage()});
+                DiagnosticsCollector.report(DiagnosticCategory.MALFORMED_LINE, lineNumber, e.getMessage());
             }
         }
 
@@ -391,7 +403,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
      * Parse a GTF file into annotation data.
      */
     private AnnotationData parseGtf(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             return parseGtfFromStream(reader);
         }
     }
@@ -418,7 +430,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                 String[] fields = line.split("\\t");
                 if (fields.length < 8) {
                     // Skip invalid lines
-                    logger.log(Level.WARNING, "Skipping line {0}: fewer than 8 fields", lineNumber);
+                    DiagnosticsCollector.report(DiagnosticCategory.MISSING_FIELDS, lineNumber, "fewer than 8 fields");
                     continue;
                 }
 
@@ -432,7 +444,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                     end = Integer.parseInt(fields[4]); // GTF end is inclusive, but we need exclusive
                 } catch (NumberFormatException e) {
                     // Skip lines with invalid numbers
-                    logger.log(Level.WARNING, "Skipping line {0}: invalid number format in start/end fields", lineNumber);
+                    DiagnosticsCollector.report(DiagnosticCategory.INVALID_COORDINATES, lineNumber, "start or end is not a number");
                     continue;
                 }
 
@@ -450,7 +462,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                     try {
                         phase = Integer.parseInt(fields[7]);
                     } catch (NumberFormatException e) {
-                        logger.log(Level.WARNING, "Invalid phase value at line {0}, using null", lineNumber);
+                        DiagnosticsCollector.report(DiagnosticCategory.INVALID_PHASE, lineNumber, null);
                     }
                 }
 
@@ -499,7 +511,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
 
             } catch (Exception e) {
                 // Skip any lines that cause exceptions during parsing
-                logger.log(Level.WARNING, "Error parsing line {0}: {1}", new Object[]{lineNumber, e.getMessage()});
+                DiagnosticsCollector.report(DiagnosticCategory.MALFORMED_LINE, lineNumber, e.getMessage());
             }
         }
 
@@ -512,7 +524,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
      * Parse a BED file into annotation data.
      */
     private AnnotationData parseBed(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             return parseBedFromStream(reader);
         }
     }
@@ -539,7 +551,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                 String[] fields = line.split("\\t");
                 if (fields.length < 3) {
                     // Skip invalid lines
-                    logger.log(Level.WARNING, "Skipping line {0}: fewer than 3 fields", lineNumber);
+                    DiagnosticsCollector.report(DiagnosticCategory.MISSING_FIELDS, lineNumber, "fewer than 3 fields");
                     continue;
                 }
 
@@ -555,7 +567,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
                     end = Integer.parseInt(fields[2]);
                 } catch (NumberFormatException e) {
                     // Skip lines with invalid numbers
-                    logger.log(Level.WARNING, "Skipping line {0}: invalid number format in start/end fields", lineNumber);
+                    DiagnosticsCollector.report(DiagnosticCategory.INVALID_COORDINATES, lineNumber, "start or end is not a number");
                     continue;
                 }
 
@@ -599,7 +611,7 @@ public class DefaultAnnotationParser implements AnnotationParser {
 
             } catch (Exception e) {
                 // Skip any lines that cause exceptions during parsing
-                logger.log(Level.WARNING, "Error parsing line {0}: {1}", new Object[]{lineNumber, e.getMessage()});
+                DiagnosticsCollector.report(DiagnosticCategory.MALFORMED_LINE, lineNumber, e.getMessage());
             }
         }
 
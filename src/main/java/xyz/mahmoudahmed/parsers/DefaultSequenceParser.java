@@ -1,16 +1,21 @@
 package xyz.mahmoudahmed.parsers;
 
+import xyz.mahmoudahmed.jfr.FileParseEvent;
 import xyz.mahmoudahmed.exception.FileProcessingException;
 import xyz.mahmoudahmed.exception.InvalidFileFormatException;
 import xyz.mahmoudahmed.model.Sequence;
 import xyz.mahmoudahmed.model.SequenceData;
 import xyz.mahmoudahmed.service.FormatDetectionService;
 import xyz.mahmoudahmed.util.StringUtil;
+import xyz.mahmoudahmed.util.CompressedInput;
+import xyz.mahmoudahmed.util.FastaIndex;
+import xyz.mahmoudahmed.util.FastaIndexCache;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 /**
@@ -20,6 +25,7 @@ public class DefaultSequenceParser implements SequenceParser {
     private static final Pattern FASTA_HEADER_PATTERN = Pattern.compile(">(.*)");
 
     private FormatDetectionService formatDetectionService;
+    private FastaIndexCache fastaIndexCache = new FastaIndexCache();
 
     /**
      * Default constructor
@@ -46,6 +52,16 @@ public class DefaultSequenceParser implements SequenceParser {
         this.formatDetectionService = formatDetectionService;
     }
 
+    /**
+     * Set the FASTA index cache used for metadata parsing, so the index built while
+     * parsing metadata can be reused to stream the same file
+     *
+     * @param fastaIndexCache The FASTA index cache to use
+     */
+    public void setFastaIndexCache(FastaIndexCache fastaIndexCache) {
+        this.fastaIndexCache = Objects.requireNonNull(fastaIndexCache, "FASTA index cache cannot be null");
+    }
+
     @Override
     public boolean supportsFormat(String format) {
         return "FASTA".equalsIgnoreCase(format) || "FA".equalsIgnoreCase(format) ||
@@ -54,10 +70,18 @@ public class DefaultSequenceParser implements SequenceParser {
 
     @Override
     public SequenceData parse(File file) throws IOException {
+        FileParseEvent event = new FileParseEvent();
+        event.begin();
+        SequenceData sequenceData = parseFile(file);
+        event.finish(file, getClass(), false, sequenceData.getCount());
+        return sequenceData;
+    }
+
+    private SequenceData parseFile(File file) throws IOException {
         List<Sequence> sequences = new ArrayList<>();
 
         // Check file extension first - if it's a recognized FASTA extension, accept it even if empty
-        String fileName = file.getName().toLowerCase();
+        String fileName = CompressedInput.stripCompressionExtension(file.getName()).toLowerCase();
         if (fileName.endsWith(".fasta") || fileName.endsWith(".fa") ||
                 fileName.endsWith(".fna") || fileName.endsWith(".faa")) {
 
@@ -97,14 +121,14 @@ public class DefaultSequenceParser implements SequenceParser {
      * This is a fallback method when no format detection service is available
      */
     private String detectFormatByExtension(File file) {
-        String name = file.getName().toLowerCase();
+        String name = CompressedInput.stripCompressionExtension(file.getName()).toLowerCase();
         if (name.endsWith(".fa") || name.endsWith(".fasta") ||
                 name.endsWith(".fna") || name.endsWith(".faa")) {
             return "FASTA";
         }
 
         // Try to detect by checking first few lines
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             String line;
             while ((line = reader.readLine()) != null) {
                 line = line.trim();
@@ -137,10 +161,18 @@ public class DefaultSequenceParser implements SequenceParser {
 
     @Override
     public SequenceData parseMetadataOnly(File file) throws IOException {
+        FileParseEvent event = new FileParseEvent();
+        event.begin();
+        SequenceData sequenceData = parseFileMetadata(file);
+        event.finish(file, getClass(), true, sequenceData.getCount());
+        return sequenceData;
+    }
+
+    private SequenceData parseFileMetadata(File file) throws IOException {
         List<Sequence> sequences = new ArrayList<>();
 
         // Check file extension first, similar to parse method
-        String fileName = file.getName().toLowerCase();
+        String fileName = CompressedInput.stripCompressionExtension(file.getName()).toLowerCase();
         if (fileName.endsWith(".fasta") || fileName.endsWith(".fa") ||
                 fileName.endsWith(".fna") || fileName.endsWith(".faa")) {
 
@@ -179,7 +211,7 @@ public class DefaultSequenceParser implements SequenceParser {
      * Parse a FASTA file into a list of sequences.
      */
     private List<Sequence> parseFasta(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             return parseFastaFromReader(reader);
         }
     }
@@ -189,53 +221,10 @@ public class DefaultSequenceParser implements SequenceParser {
      */
     private List<Sequence> parseFastaFromReader(BufferedReader reader) throws IOException {
         List<Sequence> sequences = new ArrayList<>();
-        String line;
-        StringBuilder sequenceBuilder = null;
-        String header = null;
-        String id = null;
-        String description = null;
-
-        while ((line = reader.readLine()) != null) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-
-            if (line.startsWith(">")) {
-                // If we have a sequence in progress, add it to the list
-                if (sequenceBuilder != null && id != null) {
-                    Sequence sequence = Sequence.builder()
-                            .id(id)
-                            .name(StringUtil.truncate(id, 16))
-                            .description(description)
-                            .sequence(sequenceBuilder.toString())
-                            .moleculeType("DNA")
-                            .topology("linear")
-                            .organism("Unknown organism")
-                            .build();
-                    sequences.add(sequence);
-                }
+        FastaRecordReader recordReader = new FastaRecordReader(reader);
 
-                // Start a new sequence
-                header = line.substring(1);
-                id = parseId(header);
-                description = header;
-                sequenceBuilder = new StringBuilder();
-            } else if (sequenceBuilder != null) {
-                // Append sequence data
-                sequenceBuilder.append(line);
-            }
-        }
-
-        // Add the last sequence if there is one
-        if (sequenceBuilder != null && id != null) {
-            Sequence sequence = Sequence.builder()
-                    .id(id)
-                    .name(StringUtil.truncate(id, 16))
-                    .description(description)
-                    .sequence(sequenceBuilder.toString())
-                    .moleculeType("DNA")
-                    .topology("linear")
-                    .organism("Unknown organism")
-                    .build();
+        Sequence sequence;
+        while ((sequence = recordReader.next()) != null) {
             sequences.add(sequence);
         }
 
@@ -244,80 +233,31 @@ public class DefaultSequenceParser implements SequenceParser {
 
     /**
      * Parse only metadata from a FASTA file, without loading full sequences.
+     * The metadata comes from the shared FASTA index, so the same scan also provides
+     * the byte offsets used to stream the residues later. Files with duplicate IDs are
+     * rejected, since the index can only address the first record of each ID.
      */
     private List<Sequence> parseFastaMetadataOnly(File file) throws IOException {
-        List<Sequence> sequences = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            String line;
-            long sequenceLength = 0;
-            String header = null;
-            String id = null;
-            String description = null;
-
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-
-                if (line.startsWith(">")) {
-                    // If we have a sequence in progress, add it to the list
-                    if (id != null) {
-                        Sequence sequence = Sequence.builder()
-                                .id(id)
-                                .name(StringUtil.truncate(id, 16))
-                                .description(description)
-                                .length(sequenceLength)
-                                .moleculeType("DNA")
-                                .topology("linear")
-                                .organism("Unknown organism")
-                                .build();
-                        sequences.add(sequence);
-                    }
-
-                    // Start a new sequence
-                    header = line.substring(1);
-                    id = parseId(header);
-                    description = header;
-                    sequenceLength = 0;
-                } else {
-                    // Count sequence length without storing the actual sequence
-                    sequenceLength += line.length();
-                }
-            }
-
-            // Add the last sequence if there is one
-            if (id != null) {
-                Sequence sequence = Sequence.builder()
-                        .id(id)
-                        .name(StringUtil.truncate(id, 16))
-                        .description(description)
-                        .length(sequenceLength)
-                        .moleculeType("DNA")
-                        .topology("linear")
-                        .organism("Unknown organism")
-                        .build();
-                sequences.add(sequence);
-            }
+        FastaIndex index = fastaIndexCache.getWithDescriptions(file);
+        if (!index.getDuplicateNames().isEmpty()) {
+            throw new InvalidFileFormatException("Duplicate sequence ID in " + file.getName() + ": "
+                    + index.getDuplicateNames().get(0), "FASTA");
         }
+        List<Sequence> sequences = new ArrayList<>(index.size());
 
-        return sequences;
-    }
-
-    /**
-     * Parse the ID from a FASTA header.
-     */
-    private String parseId(String header) {
-        if (header == null || header.isEmpty()) {
-            return "unknown";
-        }
-
-        // Split on first whitespace
-        int spaceIndex = header.indexOf(' ');
-        if (spaceIndex > 0) {
-            return header.substring(0, spaceIndex).trim();
+        for (FastaIndex.Entry entry : index.getEntries()) {
+            Sequence sequence = Sequence.builder()
+                    .id(entry.name())
+                    .name(StringUtil.truncate(entry.name(), 16))
+                    .description(index.getDescription(entry.name()))
+                    .length(entry.length())
+                    .moleculeType("DNA")
+                    .topology("linear")
+                    .organism("Unknown organism")
+                    .build();
+            sequences.add(sequence);
         }
 
-        // No space found, use the whole header
-        return header.trim();
+        return sequences;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package xyz.mahmoudahmed.parsers;
 
+import xyz.mahmoudahmed.jfr.FileParseEvent;
 import xyz.mahmoudahmed.model.Annotation;
 import xyz.mahmoudahmed.model.AnnotationData;
 import xyz.mahmoudahmed.exception.ParsingException;
@@ -7,6 +8,7 @@ import xyz.mahmoudahmed.feature.FeatureHandler;
 import xyz.mahmoudahmed.feature.FeatureHandlerRegistry;
 import xyz.mahmoudahmed.model.ConversionOptions;
 import xyz.mahmoudahmed.translator.*;
+import xyz.mahmoudahmed.util.CompressedInput;
 
 import java.io.*;
 import java.util.*;
@@ -31,7 +33,8 @@ public class FastaAnnotationParser implements AnnotationParser {
 
 
     /**
-     * Sets the conversion options for this parser
+     * Sets the conversion options for this parser, used by the parse methods that take no options.
+     * A parser shared between conversions should be given the options of each call instead.
      *
      * @param options The conversion options to use
      */
@@ -49,8 +52,28 @@ public class FastaAnnotationParser implements AnnotationParser {
 
     @Override
     public AnnotationData parse(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            return parseFromReader(reader);
+        return parse(file, conversionOptions);
+    }
+
+    /**
+     * Parse a FASTA annotation file, translating coding features with the genetic code of the given options.
+     *
+     * @param file The file to parse
+     * @param options The conversion options, or null for the default translation
+     * @return The parsed annotation data
+     * @throws IOException If an I/O error occurs
+     */
+    public AnnotationData parse(File file, ConversionOptions options) throws IOException {
+        FileParseEvent event = new FileParseEvent();
+        event.begin();
+        AnnotationData annotationData = parseFile(file, options);
+        event.finish(file, getClass(), false, annotationData.getTotalCount());
+        return annotationData;
+    }
+
+    private AnnotationData parseFile(File file, ConversionOptions options) throws IOException {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
+            return parseFromReader(reader, options);
         } catch (IOException e) {
             throw new ParsingException("Failed to read FASTA annotation file: " + e.getMessage(), e);
         }
@@ -58,8 +81,20 @@ public class FastaAnnotationParser implements AnnotationParser {
 
     @Override
     public AnnotationData parse(InputStream inputStream) throws IOException {
+        return parse(inputStream, conversionOptions);
+    }
+
+    /**
+     * Parse FASTA annotations from a stream, translating coding features with the genetic code of the given options.
+     *
+     * @param inputStream The stream to parse
+     * @param options The conversion options, or null for the default translation
+     * @return The parsed annotation data
+     * @throws IOException If an I/O error occurs
+     */
+    public AnnotationData parse(InputStream inputStream, ConversionOptions options) throws IOException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            return parseFromReader(reader);
+            return parseFromReader(reader, options);
         } catch (IOException e) {
             throw new ParsingException("Failed to read FASTA annotation from input stream: " + e.getMessage(), e);
         }
@@ -68,11 +103,11 @@ public class FastaAnnotationParser implements AnnotationParser {
     /**
      * Pure function to parse reader content into AnnotationData
      */
-    private AnnotationData parseFromReader(BufferedReader reader) throws IOException {
+    private AnnotationData parseFromReader(BufferedReader reader, ConversionOptions options) throws IOException {
         List<SequenceData> sequenceDataList = extractSequenceData(reader);
 
         // Transform sequence data to annotations
-        Map<String, List<Annotation>> annotationsMap = createAnnotationsMap(sequenceDataList);
+        Map<String, List<Annotation>> annotationsMap = createAnnotationsMap(sequenceDataList, createTranslator(options));
 
         // Process annotations to add gene features
         Map<String, List<Annotation>> processedMap = processFeatures(annotationsMap);
@@ -140,9 +175,10 @@ public class FastaAnnotationParser implements AnnotationParser {
     /**
      * Pure function to create annotations map from sequence data
      */
-    private Map<String, List<Annotation>> createAnnotationsMap(List<SequenceData> sequenceDataList) {
+    private Map<String, List<Annotation>> createAnnotationsMap(List<SequenceData> sequenceDataList,
+                                                               Translator translator) {
         return sequenceDataList.stream()
-                .map(this::createAnnotation)
+                .map(data -> createAnnotation(data, translator))
                 .filter(Objects::nonNull)
                 .collect(Collectors.groupingBy(
                         Annotation::getSequenceId,
@@ -155,7 +191,7 @@ public class FastaAnnotationParser implements AnnotationParser {
     /**
      * Pure function to create an annotation from sequence data
      */
-    private Annotation createAnnotation(SequenceData data) {
+    private Annotation createAnnotation(SequenceData data, Translator translator) {
         FastaHeaderInfo header = data.header();
 
         // Get the appropriate feature handler
@@ -164,9 +200,6 @@ public class FastaAnnotationParser implements AnnotationParser {
         // Determine the correct feature type
         String featureType = handler.getFeatureType();
 
-        // Create translator based on conversion options
-        Translator translator = createTranslator();
-
         // Build qualifiers
         Map<String, List<String>> qualifiers = new HashMap<>();
         qualifiers.put("ID", Collections.singletonList(UUID.randomUUID().toString().substring(0, 8)));
@@ -198,13 +231,13 @@ public class FastaAnnotationParser implements AnnotationParser {
     /**
      * Creates a translator based on the conversion options
      */
-    private Translator createTranslator() {
-        if (conversionOptions != null &&
-                conversionOptions.getTranslationOptions() != null) {
+    private static Translator createTranslator(ConversionOptions options) {
+        if (options != null &&
+                options.getTranslationOptions() != null) {
 
             return TranslatorFactory.createTranslator(
-                    conversionOptions.getTranslationOptions().getGeneticCodeTable(),
-                    conversionOptions.getTranslationOptions());
+                    options.getTranslationOptions().getGeneticCodeTable(),
+                    options.getTranslationOptions());
         } else {
             // Default to Invertebrate Mitochondrial for backward compatibility
             return TranslatorFactory.createInvertebrateMitochondrialTranslator();
@@ -0,0 +1,92 @@
+package xyz.mahmoudahmed.parsers;
+
+import xyz.mahmoudahmed.model.Sequence;
+import xyz.mahmoudahmed.util.Cancellation;
+import xyz.mahmoudahmed.util.FastaIndex;
+import xyz.mahmoudahmed.util.StringUtil;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads FASTA records one at a time from a reader, so that only the current record is held in memory.
+ * Works on non-seekable sources such as pipes, sockets and standard input.
+ */
+public class FastaRecordReader implements Closeable {
+    private final BufferedReader reader;
+    private String pendingHeader;
+    private boolean finished;
+
+    /**
+     * Constructor.
+     *
+     * @param reader The reader to read records from
+     */
+    public FastaRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Constructor for a UTF-8 encoded stream.
+     *
+     * @param inputStream The stream to read records from
+     */
+    public FastaRecordReader(InputStream inputStream) {
+        this(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return The next sequence, or null at the end of the input
+     * @throws IOException If an I/O error occurs
+     */
+    public Sequence next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        Cancellation.checkpoint();
+
+        String header = pendingHeader;
+        pendingHeader = null;
+        StringBuilder sequenceBuilder = new StringBuilder();
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            if (line.startsWith(">")) {
+                if (header != null) {
+                    pendingHeader = line.substring(1);
+                    return buildSequence(header, sequenceBuilder);
+                }
+                header = line.substring(1);
+            } else if (header != null) {
+                sequenceBuilder.append(line);
+            }
+        }
+
+        finished = true;
+        return header != null ? buildSequence(header, sequenceBuilder) : null;
+    }
+
+    private static Sequence buildSequence(String header, StringBuilder sequenceBuilder) {
+        String id = FastaIndex.parseName(header);
+        return Sequence.builder()
+                .id(id)
+                .name(StringUtil.truncate(id, 16))
+                .description(header)
+                .sequence(sequenceBuilder.toString())
+                .moleculeType("DNA")
+                .topology("linear")
+                .organism("Unknown organism")
+                .build();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
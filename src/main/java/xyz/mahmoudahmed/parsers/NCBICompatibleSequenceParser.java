@@ -3,8 +3,11 @@ package xyz.mahmoudahmed.parsers;
 import xyz.mahmoudahmed.exception.InvalidFileFormatException;
 import xyz.mahmoudahmed.model.Sequence;
 import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.service.FormatDetectionService;
 import xyz.mahmoudahmed.util.BioFileUtils;
 import xyz.mahmoudahmed.util.StringUtil;
+import xyz.mahmoudahmed.util.CompressedInput;
+import xyz.mahmoudahmed.util.FastaIndex;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -18,7 +21,23 @@ import java.util.regex.Pattern;
  */
 public class NCBICompatibleSequenceParser implements SequenceParser {
     private static final Pattern FASTA_HEADER_PATTERN = Pattern.compile(">(.*)");
-    BioFileUtils utils = BioFileUtils.create();
+    BioFileUtils utils;
+
+    /**
+     * Default constructor
+     */
+    public NCBICompatibleSequenceParser() {
+        this.utils = BioFileUtils.create();
+    }
+
+    /**
+     * Constructor with format detection service
+     *
+     * @param formatDetectionService The format detection service to share
+     */
+    public NCBICompatibleSequenceParser(FormatDetectionService formatDetectionService) {
+        this.utils = BioFileUtils.create(formatDetectionService);
+    }
 
     @Override
     public boolean supportsFormat(String format) {
@@ -78,7 +97,7 @@ public class NCBICompatibleSequenceParser implements SequenceParser {
      * Parse a FASTA file into a list of sequences.
      */
     private List<Sequence> parseFasta(File file) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             return parseFastaFromReader(reader);
         }
     }
@@ -117,7 +136,7 @@ public class NCBICompatibleSequenceParser implements SequenceParser {
 
                 // Start a new sequence
                 header = line.substring(1);
-                id = parseId(header);
+                id = FastaIndex.parseName(header);
                 description = header;
                 sequenceBuilder = new StringBuilder();
             } else if (sequenceBuilder != null) {
@@ -151,7 +170,7 @@ public class NCBICompatibleSequenceParser implements SequenceParser {
     private List<Sequence> parseFastaMetadataOnly(File file) throws IOException {
         List<Sequence> sequences = new ArrayList<>();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (BufferedReader reader = CompressedInput.openReader(file)) {
             String line;
             long sequenceLength = 0;
             String header = null;
@@ -179,7 +198,7 @@ public class NCBICompatibleSequenceParser implements SequenceParser {
 
                     // Start a new sequence
                     header = line.substring(1);
-                    id = parseId(header);
+                    id = FastaIndex.parseName(header);
                     description = header;
                     sequenceLength = 0;
                 } else {
@@ -206,21 +225,4 @@ public class NCBICompatibleSequenceParser implements SequenceParser {
         return sequences;
     }
 
-    /**
-     * Parse the ID from a FASTA header.
-     */
-    private String parseId(String header) {
-        if (header == null || header.isEmpty()) {
-            return "unknown";
-        }
-
-        // Split on first whitespace
-        int spaceIndex = header.indexOf(' ');
-        if (spaceIndex > 0) {
-            return header.substring(0, spaceIndex).trim();
-        }
-
-        // No space found, use the whole header
-        return header.trim();
-    }
 }
\ No newline at end of file
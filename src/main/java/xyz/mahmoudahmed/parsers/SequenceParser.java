@@ -1,10 +1,15 @@
 package xyz.mahmoudahmed.parsers;
 
+import xyz.mahmoudahmed.model.FileBackedSequence;
+import xyz.mahmoudahmed.model.Sequence;
 import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.util.IndexedSequenceSource;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Interface for parsing sequence files.
@@ -45,4 +50,25 @@ public interface SequenceParser {
      * @throws IOException If an I/O error occurs
      */
     SequenceData parseMetadataOnly(File file) throws IOException;
+
+    /**
+     * Parse a sequence file into lazy sequences that load their residues through a source.
+     * The result can be used wherever fully parsed sequence data is expected, while residues
+     * are only read when accessed. The source must be kept open while the data is used.
+     *
+     * @param source The indexed source of the file to parse
+     * @return The sequence data, backed by the source
+     * @throws IOException If an I/O error occurs
+     */
+    default SequenceData parseLazy(IndexedSequenceSource source) throws IOException {
+        SequenceData metadata = parseMetadataOnly(source.getFile());
+        List<Sequence> sequences = new ArrayList<>(metadata.getCount());
+        for (Sequence sequence : metadata.getSequences()) {
+            sequences.add(new FileBackedSequence(sequence, source));
+        }
+
+        return SequenceData.builder()
+                .addSequences(sequences)
+                .build();
+    }
 }
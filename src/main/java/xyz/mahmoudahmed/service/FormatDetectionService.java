@@ -2,15 +2,34 @@ package xyz.mahmoudahmed.service;
 
 import xyz.mahmoudahmed.exception.FileProcessingException;
 import xyz.mahmoudahmed.format.FormatDetector;
+import xyz.mahmoudahmed.format.FormatSample;
+import xyz.mahmoudahmed.format.SampleFormatDetector;
+
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Service for detecting file formats.
+ * Each file is read once into a shared prefix sample, and results are cached by
+ * path, size and modification time so repeated lookups during a conversion do not reopen the file.
  */
 public class FormatDetectionService {
+    public static final int DEFAULT_CACHE_SIZE = 128;
+
     private final List<FormatDetector> detectors;
+    private final Map<FileKey, String> cache;
+    private final int cacheSize;
+
+    private record FileKey(String path, long size, long lastModified) {
+        static FileKey of(File file) {
+            return new FileKey(file.getAbsolutePath(), file.length(), file.lastModified());
+        }
+    }
 
     /**
      * Constructor.
@@ -18,7 +37,27 @@ public class FormatDetectionService {
      * @param detectors The list of format detectors to use
      */
     public FormatDetectionService(List<FormatDetector> detectors) {
+        this(detectors, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor with a custom cache size.
+     *
+     * @param detectors The list of format detectors to use
+     * @param cacheSize The maximum number of cached results, or 0 to disable caching
+     */
+    public FormatDetectionService(List<FormatDetector> detectors, int cacheSize) {
         this.detectors = Objects.requireNonNull(detectors, "Detectors cannot be null");
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FileKey, String> eldest) {
+                return size() > FormatDetectionService.this.cacheSize;
+            }
+        };
     }
 
     /**
@@ -34,10 +73,82 @@ public class FormatDetectionService {
                     (file != null ? file.getPath() : "null"));
         }
 
-        // Try each detector in order
+        FileKey key = FileKey.of(file);
+        String cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String format = detectUncached(file);
+        putCached(key, format);
+        return format;
+    }
+
+    /**
+     * Detects the format of a stream by peeking into its mark/reset buffer.
+     * The stream is left positioned at its start, so it can be parsed afterwards.
+     * Only detectors that work on a shared sample take part, since there is no file to reopen.
+     *
+     * @param inputStream A stream that supports mark and reset, e.g. a BufferedInputStream
+     * @return The detected format
+     * @throws FileProcessingException If an error occurs reading the stream
+     * @throws IllegalArgumentException If the stream does not support mark and reset
+     */
+    public String detectStreamFormat(InputStream inputStream) throws FileProcessingException {
+        Objects.requireNonNull(inputStream, "Input stream cannot be null");
+
+        FormatSample sample;
+        try {
+            sample = FormatSample.peek(inputStream);
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading input stream", e);
+        }
+
         for (FormatDetector detector : detectors) {
+            if (detector instanceof SampleFormatDetector sampleDetector) {
+                String format = sampleDetector.detectFormat(sample);
+                if (!"UNKNOWN".equals(format)) {
+                    return format;
+                }
+            }
+        }
+
+        return "UNKNOWN";
+    }
+
+    /**
+     * Remove any cached result for a file.
+     *
+     * @param file The file
+     */
+    public void invalidate(File file) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.path().equals(file.getAbsolutePath()));
+        }
+    }
+
+    /**
+     * Remove all cached results.
+     */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private String detectUncached(File file) throws FileProcessingException {
+        FormatSample sample = null;
+        boolean[] tried = new boolean[detectors.size()];
+
+        // Try each detector in order
+        for (int i = 0; i < detectors.size(); i++) {
+            FormatDetector detector = detectors.get(i);
             if (detector.canDetect(file)) {
-                String format = detector.detectFormat(file);
+                tried[i] = true;
+                if (sample == null && detector instanceof SampleFormatDetector) {
+                    sample = FormatSample.read(file);
+                }
+                String format = detect(detector, file, sample);
                 if (!"UNKNOWN".equals(format)) {
                     return format;
                 }
@@ -45,8 +156,16 @@ public class FormatDetectionService {
         }
 
         // If no detector could identify the format, try content-based detection
-        for (FormatDetector detector : detectors) {
-            String format = detector.detectFormat(file);
+        // with the detectors that have not already examined the file
+        for (int i = 0; i < detectors.size(); i++) {
+            if (tried[i]) {
+                continue;
+            }
+            FormatDetector detector = detectors.get(i);
+            if (sample == null && detector instanceof SampleFormatDetector) {
+                sample = FormatSample.read(file);
+            }
+            String format = detect(detector, file, sample);
             if (!"UNKNOWN".equals(format)) {
                 return format;
             }
@@ -54,4 +173,30 @@ public class FormatDetectionService {
 
         return "UNKNOWN";
     }
-}
\ No newline at end of file
+
+    private static String detect(FormatDetector detector, File file, FormatSample sample)
+            throws FileProcessingException {
+        if (detector instanceof SampleFormatDetector sampleDetector) {
+            return sampleDetector.detectFormat(sample);
+        }
+        return detector.detectFormat(file);
+    }
+
+    private String getCached(FileKey key) {
+        if (cacheSize == 0) {
+            return null;
+        }
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void putCached(FileKey key, String format) {
+        if (cacheSize == 0) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(key, format);
+        }
+    }
+}
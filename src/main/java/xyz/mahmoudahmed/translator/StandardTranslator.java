@@ -1,5 +1,6 @@
 package xyz.mahmoudahmed.translator;
 
+import xyz.mahmoudahmed.jfr.TranslationEvent;
 import xyz.mahmoudahmed.model.TranslationOptions;
 
 import java.util.ArrayList;
@@ -45,6 +46,20 @@ public class StandardTranslator implements Translator {
 
     @Override
     public String translate(String sequence, boolean isRNA) {
+        TranslationEvent event = new TranslationEvent();
+        event.begin();
+        String protein = translateSequence(sequence, isRNA);
+        event.end();
+        if (event.shouldCommit()) {
+            event.geneticCode = geneticCode.getName();
+            event.residues = sequence.length();
+            event.aminoAcids = protein.length();
+            event.commit();
+        }
+        return protein;
+    }
+
+    private String translateSequence(String sequence, boolean isRNA) {
         // Get translation options
         boolean includeStopCodon = false;
         if (options != null) {
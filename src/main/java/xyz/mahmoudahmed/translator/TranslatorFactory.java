@@ -2,10 +2,15 @@ package xyz.mahmoudahmed.translator;
 
 import xyz.mahmoudahmed.model.TranslationOptions;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Factory for creating translators based on genetic code tables.
  */
 public class TranslatorFactory {
+    private static final Map<GeneticCodeTable, GeneticCode> GENETIC_CODES = new ConcurrentHashMap<>();
+
     /**
      * Create a translator based on the specified genetic code table and translation options.
      *
@@ -14,61 +19,59 @@ public class TranslatorFactory {
      * @return A translator configured with the specified genetic code and options
      */
     public static Translator createTranslator(GeneticCodeTable geneticCodeTable, TranslationOptions options) {
-        GeneticCode geneticCode;
+        return new StandardTranslator(new DefaultSequenceHandler(), getGeneticCode(geneticCodeTable), options);
+    }
 
+    /**
+     * Get the genetic code of a table. Genetic codes are immutable, so each is built once and
+     * shared by every translator, including those of concurrent conversions.
+     *
+     * @param geneticCodeTable The genetic code table, or null for the Invertebrate Mitochondrial code
+     * @return The genetic code
+     */
+    public static GeneticCode getGeneticCode(GeneticCodeTable geneticCodeTable) {
         if (geneticCodeTable == null) {
             geneticCodeTable = GeneticCodeTable.INVERTEBRATE_MITOCHONDRIAL;
         }
+        return GENETIC_CODES.computeIfAbsent(geneticCodeTable, TranslatorFactory::createGeneticCode);
+    }
 
+    private static GeneticCode createGeneticCode(GeneticCodeTable geneticCodeTable) {
         switch (geneticCodeTable) {
             case STANDARD:
-                geneticCode = new StandardGeneticCode();
-                break;
+                return new StandardGeneticCode();
             case VERTEBRATE_MITOCHONDRIAL:
-                geneticCode = new VertebrateMitochondrialCode();
-                break;
+                return new VertebrateMitochondrialCode();
             case INVERTEBRATE_MITOCHONDRIAL:
-                geneticCode = new InvertebrateMitochondrialCode();
-                break;
+                return new InvertebrateMitochondrialCode();
             case YEAST_MITOCHONDRIAL:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             case MOLD_PROTOZOAN_MITOCHONDRIAL:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             case CILIATE_NUCLEAR:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             case ECHINODERM_MITOCHONDRIAL:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             case BACTERIAL_PLASTID:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             case ALTERNATIVE_YEAST_NUCLEAR:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             case ASCIDIAN_MITOCHONDRIAL:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             case TREMATODE_MITOCHONDRIAL:
                 // Add implementation when available
-                geneticCode = new InvertebrateMitochondrialCode(); // Fallback
-                break;
+                return new InvertebrateMitochondrialCode(); // Fallback
             default:
                 // Fall back to Invertebrate Mitochondrial for unimplemented tables
-                geneticCode = new InvertebrateMitochondrialCode();
-                break;
+                return new InvertebrateMitochondrialCode();
         }
-
-        return new StandardTranslator(new DefaultSequenceHandler(), geneticCode, options);
     }
 
     /**
@@ -0,0 +1,270 @@
+package xyz.mahmoudahmed.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Block index for BGZF files, mapping uncompressed offsets to compressed block offsets.
+ * The index uses the htslib .gzi layout, so indexes written by "bgzip -i" can be reused and
+ * indexes built here are persisted beside their files.
+ */
+public class BgzfIndex {
+    public static final String INDEX_EXTENSION = ".gzi";
+
+    private final long[] compressedOffsets;
+    private final long[] uncompressedOffsets;
+    private final long uncompressedLength;
+
+    /**
+     * A position inside a BGZF file.
+     *
+     * @param blockOffset The compressed offset of the block containing the position
+     * @param offsetInBlock The number of uncompressed bytes to skip inside the block
+     */
+    public record Position(long blockOffset, int offsetInBlock) {
+    }
+
+    BgzfIndex(long[] compressedOffsets, long[] uncompressedOffsets, long uncompressedLength) {
+        this.compressedOffsets = compressedOffsets;
+        this.uncompressedOffsets = uncompressedOffsets;
+        this.uncompressedLength = uncompressedLength;
+    }
+
+    /**
+     * Load the index for a BGZF file, reusing a sibling .gzi file when it is up to date.
+     * Otherwise the block headers are walked, and the index is persisted as its sibling .gzi file
+     * when the directory is writable, so later opens can skip the walk.
+     *
+     * @param bgzfFile The BGZF file
+     * @return The index
+     * @throws IOException If an I/O error occurs
+     */
+    public static BgzfIndex load(File bgzfFile) throws IOException {
+        File indexFile = indexFileFor(bgzfFile);
+        if (IndexFiles.isUpToDate(indexFile, bgzfFile)) {
+            return read(indexFile, bgzfFile);
+        }
+        BgzfIndex index = build(bgzfFile);
+        index.persistFor(bgzfFile);
+        return index;
+    }
+
+    /**
+     * Persist the index as the sibling .gzi file of its BGZF file, as described in
+     * {@link IndexFiles#persist}.
+     *
+     * @param bgzfFile The BGZF file the index was built from
+     * @return true if the index was written
+     */
+    boolean persistFor(File bgzfFile) {
+        return IndexFiles.persist(indexFileFor(bgzfFile), bgzfFile, this::write);
+    }
+
+    /**
+     * Get the conventional .gzi location for a BGZF file.
+     *
+     * @param bgzfFile The BGZF file
+     * @return The index file
+     */
+    public static File indexFileFor(File bgzfFile) {
+        return new File(bgzfFile.getPath() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Build an index by walking the block headers of a BGZF file.
+     * Only the headers and trailers are read; no data is inflated.
+     *
+     * @param bgzfFile The BGZF file
+     * @return The index
+     * @throws IOException If an I/O error occurs or the file is not BGZF
+     */
+    public static BgzfIndex build(File bgzfFile) throws IOException {
+        LongList compressed = new LongList();
+        LongList uncompressed = new LongList();
+        long compressedOffset = 0;
+        long uncompressedOffset = 0;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(bgzfFile), 64 * 1024)) {
+            SizedBlock block;
+            while ((block = readBlockAt(in, compressed, uncompressed, compressedOffset, uncompressedOffset)) != null) {
+                compressedOffset += block.blockSize();
+                uncompressedOffset += block.inflatedSize();
+            }
+        }
+
+        return new BgzfIndex(compressed.toArray(), uncompressed.toArray(), uncompressedOffset);
+    }
+
+    private static SizedBlock readBlockAt(InputStream in, LongList compressed, LongList uncompressed,
+                                          long compressedOffset, long uncompressedOffset) throws IOException {
+        byte[] header = new byte[BgzfInputStream.BLOCK_HEADER_SIZE];
+        int read = in.readNBytes(header, 0, header.length);
+        if (read == 0) {
+            return null;
+        }
+        if (read < header.length || (header[0] & 0xFF) != 0x1f || (header[1] & 0xFF) != 0x8b) {
+            throw new IOException("Invalid BGZF block header at offset " + compressedOffset);
+        }
+
+        int extraLength = BgzfInputStream.readUInt16(header, 10);
+        int blockSize = BgzfInputStream.findBlockSize(in.readNBytes(extraLength));
+        if (blockSize < 0) {
+            throw new IOException("Missing BGZF block size at offset " + compressedOffset);
+        }
+
+        int remaining = blockSize + 1 - BgzfInputStream.BLOCK_HEADER_SIZE - extraLength;
+        in.skipNBytes(remaining - 4);
+        byte[] trailer = in.readNBytes(4);
+        if (trailer.length < 4) {
+            throw new IOException("Truncated BGZF block at offset " + compressedOffset);
+        }
+
+        compressed.add(compressedOffset);
+        uncompressed.add(uncompressedOffset);
+        return new SizedBlock(blockSize + 1, BgzfInputStream.readUInt32(trailer, 0));
+    }
+
+    /**
+     * Read an htslib .gzi file.
+     *
+     * @param indexFile The index file
+     * @param bgzfFile The BGZF file the index belongs to, used to find the total length
+     * @return The index
+     * @throws IOException If an I/O error occurs or the file is malformed
+     */
+    public static BgzfIndex read(File indexFile, File bgzfFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            long count = readLittleEndianLong(in);
+            if (count < 0 || count > Integer.MAX_VALUE - 1) {
+                throw new IOException("Invalid BGZF index " + indexFile.getName());
+            }
+
+            // The first block at offset 0 is implicit in the .gzi layout
+            long[] compressed = new long[(int) count + 1];
+            long[] uncompressed = new long[(int) count + 1];
+            for (int i = 1; i <= count; i++) {
+                compressed[i] = readLittleEndianLong(in);
+                uncompressed[i] = readLittleEndianLong(in);
+            }
+
+            long lastLength = readInflatedSize(bgzfFile, compressed[compressed.length - 1]);
+            return new BgzfIndex(compressed, uncompressed, uncompressed[uncompressed.length - 1] + lastLength);
+        } catch (EOFException e) {
+            throw new IOException("Truncated BGZF index " + indexFile.getName(), e);
+        }
+    }
+
+    private static long readInflatedSize(File bgzfFile, long blockOffset) throws IOException {
+        try (InputStream in = new FileInputStream(bgzfFile)) {
+            in.skipNBytes(blockOffset);
+            SizedBlock block = readBlockAt(new BufferedInputStream(in), new LongList(), new LongList(), blockOffset, 0);
+            return block != null ? block.inflatedSize() : 0;
+        }
+    }
+
+    /**
+     * Write the index in htslib .gzi format.
+     *
+     * @param indexFile The file to write
+     * @throws IOException If an I/O error occurs
+     */
+    public void write(File indexFile) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(indexFile))) {
+            ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(compressedOffsets.length - 1L);
+            out.write(buffer.array(), 0, 8);
+
+            for (int i = 1; i < compressedOffsets.length; i++) {
+                buffer.clear();
+                buffer.putLong(compressedOffsets[i]).putLong(uncompressedOffsets[i]);
+                out.write(buffer.array(), 0, 16);
+            }
+        }
+    }
+
+    /**
+     * Find the block containing an uncompressed offset.
+     *
+     * @param uncompressedOffset The offset in the uncompressed data
+     * @return The block position
+     */
+    public Position locate(long uncompressedOffset) {
+        int index = Arrays.binarySearch(uncompressedOffsets, uncompressedOffset);
+        if (index < 0) {
+            index = -index - 2;
+        } else {
+            // Skip empty blocks that share the same uncompressed offset
+            while (index + 1 < uncompressedOffsets.length && uncompressedOffsets[index + 1] == uncompressedOffset) {
+                index++;
+            }
+        }
+        index = Math.max(0, index);
+        return new Position(compressedOffsets[index], (int) (uncompressedOffset - uncompressedOffsets[index]));
+    }
+
+    /**
+     * Open the BGZF file at an uncompressed offset.
+     *
+     * @param bgzfFile The BGZF file
+     * @param uncompressedOffset The offset in the uncompressed data
+     * @return A stream positioned at the offset
+     * @throws IOException If an I/O error occurs
+     */
+    public InputStream openAt(File bgzfFile, long uncompressedOffset) throws IOException {
+        Position position = locate(uncompressedOffset);
+        BgzfInputStream in = BgzfInputStream.open(bgzfFile, position.blockOffset());
+        try {
+            in.skipNBytes(position.offsetInBlock());
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    /**
+     * Get the number of blocks.
+     *
+     * @return The block count
+     */
+    public int getBlockCount() {
+        return compressedOffsets.length;
+    }
+
+    /**
+     * Get the total uncompressed length of the file.
+     *
+     * @return The uncompressed length in bytes
+     */
+    public long getUncompressedLength() {
+        return uncompressedLength;
+    }
+
+    private static long readLittleEndianLong(DataInputStream in) throws IOException {
+        return Long.reverseBytes(in.readLong());
+    }
+
+    private record SizedBlock(long blockSize, long inflatedSize) {
+    }
+
+    /**
+     * Growable list of primitive longs.
+     */
+    static final class LongList {
+        private long[] values = new long[256];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return size == 0 ? new long[]{0} : Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package xyz.mahmoudahmed.util;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads BGZF (blocked gzip) data, inflating blocks in parallel.
+ * Compressed blocks are read sequentially and handed to an executor; a bounded number of
+ * blocks are inflated ahead of the reader and returned in file order.
+ */
+public class BgzfInputStream extends InputStream {
+    static final int BLOCK_HEADER_SIZE = 12;
+    private static final int BLOCK_TRAILER_SIZE = 8;
+
+    private final InputStream in;
+    private final Executor executor;
+    private final int readAhead;
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] current = new byte[0];
+    private int position;
+    private boolean endOfInput;
+
+    /**
+     * Create a stream that inflates up to one block per available processor ahead of the reader.
+     *
+     * @param in The compressed stream, positioned at the start of a block
+     */
+    public BgzfInputStream(InputStream in) {
+        this(in, defaultParallelism(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a stream with a custom read-ahead and executor.
+     *
+     * @param in The compressed stream, positioned at the start of a block
+     * @param readAhead The maximum number of blocks inflated ahead of the reader
+     * @param executor The executor that inflates blocks
+     */
+    public BgzfInputStream(InputStream in, int readAhead, Executor executor) {
+        if (readAhead < 1) {
+            throw new IllegalArgumentException("Read-ahead must be at least 1");
+        }
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 64 * 1024);
+        this.readAhead = readAhead;
+        this.executor = executor;
+    }
+
+    /**
+     * Open a BGZF file at a compressed block offset.
+     *
+     * @param file The BGZF file
+     * @param blockOffset The compressed offset of a block start
+     * @return The stream
+     * @throws IOException If an I/O error occurs
+     */
+    public static BgzfInputStream open(File file, long blockOffset) throws IOException {
+        FileInputStream fileStream = new FileInputStream(file);
+        try {
+            fileStream.getChannel().position(blockOffset);
+        } catch (IOException e) {
+            fileStream.close();
+            throw e;
+        }
+        return new BgzfInputStream(fileStream);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) {
+            return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && ensureData()) {
+            int count = (int) Math.min(n - skipped, current.length - position);
+            position += count;
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pending.clear();
+        in.close();
+    }
+
+    private boolean ensureData() throws IOException {
+        while (position >= current.length) {
+            fillPipeline();
+            CompletableFuture<byte[]> next = pending.poll();
+            if (next == null) {
+                return false;
+            }
+            current = join(next);
+            position = 0;
+        }
+        return true;
+    }
+
+    private void fillPipeline() throws IOException {
+        while (!endOfInput && pending.size() < readAhead) {
+            RawBlock block = readBlock(in);
+            if (block == null) {
+                endOfInput = true;
+            } else {
+                pending.add(CompletableFuture.supplyAsync(block::inflate, executor));
+            }
+        }
+    }
+
+    /**
+     * Wait for a block task, unwrapping I/O errors raised on the executor.
+     */
+    static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Error processing BGZF block", cause);
+        }
+    }
+
+    /**
+     * Read the next compressed block.
+     *
+     * @return The block, or null at the end of the input
+     */
+    static RawBlock readBlock(InputStream in) throws IOException {
+        byte[] header = new byte[BLOCK_HEADER_SIZE];
+        int read = in.readNBytes(header, 0, header.length);
+        if (read == 0) {
+            return null;
+        }
+        if (read < header.length || (header[0] & 0xFF) != 0x1f || (header[1] & 0xFF) != 0x8b) {
+            throw new IOException("Invalid BGZF block header");
+        }
+
+        int extraLength = readUInt16(header, 10);
+        byte[] extra = in.readNBytes(extraLength);
+        int blockSize = findBlockSize(extra);
+        if (extra.length < extraLength || blockSize < 0) {
+            throw new IOException("Missing BGZF block size");
+        }
+
+        int remaining = blockSize + 1 - BLOCK_HEADER_SIZE - extraLength;
+        byte[] body = in.readNBytes(remaining);
+        if (body.length < remaining || remaining < BLOCK_TRAILER_SIZE) {
+            throw new IOException("Truncated BGZF block");
+        }
+
+        int dataLength = remaining - BLOCK_TRAILER_SIZE;
+        long crc = readUInt32(body, dataLength);
+        int inflatedSize = (int) readUInt32(body, dataLength + 4);
+        return new RawBlock(body, dataLength, crc, inflatedSize);
+    }
+
+    /**
+     * Find the BSIZE value in the extra field of a block header.
+     *
+     * @return The total block size minus one, or -1 if not present
+     */
+    static int findBlockSize(byte[] extra) {
+        int i = 0;
+        while (i + 4 <= extra.length) {
+            int subfieldLength = readUInt16(extra, i + 2);
+            if (extra[i] == 'B' && extra[i + 1] == 'C' && subfieldLength == 2 && i + 6 <= extra.length) {
+                return readUInt16(extra, i + 4);
+            }
+            i += 4 + subfieldLength;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the default number of blocks processed ahead of the caller.
+     */
+    static int defaultParallelism() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    static int readUInt16(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    static long readUInt32(byte[] data, int offset) {
+        return (readUInt16(data, offset) | (long) readUInt16(data, offset + 2) << 16) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * A compressed block waiting to be inflated.
+     */
+    static final class RawBlock {
+        private final byte[] body;
+        private final int dataLength;
+        private final long crc;
+        private final int inflatedSize;
+
+        RawBlock(byte[] body, int dataLength, long crc, int inflatedSize) {
+            this.body = body;
+            this.dataLength = dataLength;
+            this.crc = crc;
+            this.inflatedSize = inflatedSize;
+        }
+
+        int inflatedSize() {
+            return inflatedSize;
+        }
+
+        byte[] inflate() {
+            byte[] output = new byte[inflatedSize];
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(body, 0, dataLength);
+                int total = 0;
+                while (total < inflatedSize && !inflater.finished()) {
+                    int count = inflater.inflate(output, total, inflatedSize - total);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    total += count;
+                }
+                if (total != inflatedSize) {
+                    throw new UncheckedIOException(new IOException("BGZF block inflated to " + total
+                            + " bytes, expected " + inflatedSize));
+                }
+            } catch (DataFormatException e) {
+                throw new UncheckedIOException(new IOException("Corrupt BGZF block", e));
+            } finally {
+                inflater.end();
+            }
+
+            CRC32 checksum = new CRC32();
+            checksum.update(output);
+            if (checksum.getValue() != crc) {
+                throw new UncheckedIOException(new IOException("BGZF block checksum mismatch"));
+            }
+            return output;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.model.Compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes blocked gzip output, deflating blocks in parallel.
+ * Written bytes are cut into independent blocks that are compressed on an executor and
+ * written in order, so compression keeps pace with formatting. In BGZF mode each block
+ * carries its size and the stream ends with the standard empty EOF block; in GZIP mode
+ * the blocks are plain gzip members. Both are readable by any gzip decoder.
+ */
+public class BgzfOutputStream extends OutputStream {
+    /** Maximum uncompressed bytes per block, as used by htslib so a stored block still fits in 64KB. */
+    public static final int MAX_BLOCK_DATA = 0xff00;
+
+    private static final int MAX_BLOCK_SIZE = 64 * 1024;
+    private static final int BGZF_HEADER_SIZE = 18;
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int TRAILER_SIZE = 8;
+
+    private final OutputStream out;
+    private final boolean bgzf;
+    private final int compressionLevel;
+    private final int maxPending;
+    private final Executor executor;
+    private final Deque<CompletableFuture<CompressedBlock>> pending = new ArrayDeque<>();
+
+    private final BgzfIndex.LongList compressedOffsets = new BgzfIndex.LongList();
+    private final BgzfIndex.LongList uncompressedOffsets = new BgzfIndex.LongList();
+    private long compressedOffset;
+    private long uncompressedOffset;
+
+    private byte[] buffer = new byte[MAX_BLOCK_DATA];
+    private int count;
+    private boolean finished;
+
+    private record CompressedBlock(byte[] data, int length, int inputSize) {
+    }
+
+    /**
+     * Create a BGZF stream that deflates up to one block per available processor ahead of the writer.
+     *
+     * @param out The stream receiving compressed data
+     */
+    public BgzfOutputStream(OutputStream out) {
+        this(out, Compression.BGZF);
+    }
+
+    /**
+     * Create a stream writing BGZF or multi-member gzip output.
+     *
+     * @param out The stream receiving compressed data
+     * @param format GZIP or BGZF
+     */
+    public BgzfOutputStream(OutputStream out, Compression format) {
+        this(out, format, Deflater.DEFAULT_COMPRESSION, BgzfInputStream.defaultParallelism(),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a stream with a custom compression level, parallelism and executor.
+     *
+     * @param out The stream receiving compressed data
+     * @param format GZIP or BGZF
+     * @param compressionLevel The deflate level, 0-9 or -1 for the default
+     * @param maxPending The maximum number of blocks being compressed at once
+     * @param executor The executor that deflates blocks
+     */
+    public BgzfOutputStream(OutputStream out, Compression format, int compressionLevel,
+                            int maxPending, Executor executor) {
+        if (format == Compression.NONE) {
+            throw new IllegalArgumentException("Output compression must be GZIP or BGZF");
+        }
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("Pending block count must be at least 1");
+        }
+        this.out = out;
+        this.bgzf = format == Compression.BGZF;
+        this.compressionLevel = compressionLevel;
+        this.maxPending = maxPending;
+        this.executor = executor;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buffer[count++] = (byte) b;
+        if (count == buffer.length) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int copy = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, copy);
+            count += copy;
+            off += copy;
+            len -= copy;
+            if (count == buffer.length) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Write all completed blocks and flush the underlying stream.
+     * A partially filled block is kept open, so frequent flushes do not fragment the output;
+     * use {@link #finish()} to end the stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            writeBlock(BgzfInputStream.join(pending.poll()));
+        }
+        out.flush();
+    }
+
+    /**
+     * Compress the remaining data, write every block and the EOF marker, without closing
+     * the underlying stream. Further writes are rejected.
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (count > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeBlock(BgzfInputStream.join(pending.poll()));
+        }
+        if (bgzf) {
+            // The empty block marks a complete BGZF file
+            writeBlock(deflate(new byte[0], 0));
+        }
+        finished = true;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Get the block index of the written data, in the layout of a .gzi file.
+     *
+     * @return The index
+     * @throws IllegalStateException If the stream is not finished or not in BGZF mode
+     */
+    public BgzfIndex getIndex() {
+        if (!bgzf || !finished) {
+            throw new IllegalStateException("Block index is only available after finishing a BGZF stream");
+        }
+        return new BgzfIndex(compressedOffsets.toArray(), uncompressedOffsets.toArray(), uncompressedOffset);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = buffer;
+        int length = count;
+        buffer = new byte[MAX_BLOCK_DATA];
+        count = 0;
+
+        pending.add(CompletableFuture.supplyAsync(() -> deflate(data, length), executor));
+        while (pending.size() > maxPending || (!pending.isEmpty() && pending.peek().isDone())) {
+            writeBlock(BgzfInputStream.join(pending.poll()));
+        }
+    }
+
+    private void writeBlock(CompressedBlock block) throws IOException {
+        compressedOffsets.add(compressedOffset);
+        uncompressedOffsets.add(uncompressedOffset);
+        out.write(block.data(), 0, block.length());
+        compressedOffset += block.length();
+        uncompressedOffset += block.inputSize();
+    }
+
+    private CompressedBlock deflate(byte[] data, int length) {
+        int headerSize = bgzf ? BGZF_HEADER_SIZE : GZIP_HEADER_SIZE;
+        byte[] block = new byte[MAX_BLOCK_SIZE];
+
+        Deflater deflater = new Deflater(compressionLevel, true);
+        int compressedLength;
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            compressedLength = deflater.deflate(block, headerSize, block.length - headerSize - TRAILER_SIZE);
+            if (!deflater.finished()) {
+                // Incompressible data: fall back to storing the block
+                deflater.reset();
+                deflater.setLevel(Deflater.NO_COMPRESSION);
+                deflater.setInput(data, 0, length);
+                deflater.finish();
+                compressedLength = deflater.deflate(block, headerSize, block.length - headerSize - TRAILER_SIZE);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        int blockSize = headerSize + compressedLength + TRAILER_SIZE;
+        block[0] = 0x1f;
+        block[1] = (byte) 0x8b;
+        block[2] = 8; // deflate
+        block[9] = (byte) 0xff; // unknown OS
+        if (bgzf) {
+            block[3] = 4; // FEXTRA
+            block[10] = 6;
+            block[12] = 'B';
+            block[13] = 'C';
+            block[14] = 2;
+            writeUInt16(block, 16, blockSize - 1);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        writeUInt32(block, headerSize + compressedLength, crc.getValue());
+        writeUInt32(block, headerSize + compressedLength + 4, length);
+        return new CompressedBlock(block, blockSize, length);
+    }
+
+    private static void writeUInt16(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+    }
+
+    private static void writeUInt32(byte[] data, int offset, long value) {
+        writeUInt16(data, offset, (int) value);
+        writeUInt16(data, offset + 2, (int) (value >> 16));
+    }
+}
@@ -116,8 +116,18 @@ public class BioFileUtils {
         FormatDetectorFactory factory = new FormatDetectorFactory(config);
         List<FormatDetector> detectors = factory.createDetectors();
         FormatDetectionService formatService = new FormatDetectionService(detectors);
-        FileService fileService = new FileService();
 
-        return new BioFileUtils(formatService, fileService, config);
+        return new BioFileUtils(formatService, new FileService(), config);
+    }
+
+    /**
+     * Factory method to create a BioFileUtils instance that shares an existing detection service
+     * and its cached results.
+     *
+     * @param formatService The format detection service
+     * @return A new BioFileUtils instance
+     */
+    public static BioFileUtils create(FormatDetectionService formatService) {
+        return new BioFileUtils(formatService, new FileService(), new FormatConfiguration());
     }
 }
\ No newline at end of file
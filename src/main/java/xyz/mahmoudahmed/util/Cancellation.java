@@ -0,0 +1,79 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.exception.ConversionCancelledException;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cooperative cancellation of the conversion running on the current thread.
+ * An asynchronous conversion enters a scope with its cancellation check, and the converter,
+ * formatters and sequence readers call {@link #checkpoint()} between records and stream chunks,
+ * so abandoned work stops at the next record or chunk rather than running to the end.
+ * Interrupting the converting thread stops a conversion the same way.
+ */
+public class Cancellation {
+    private static final ThreadLocal<BooleanSupplier> CURRENT = new ThreadLocal<>();
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private Cancellation() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Make a cancellation check current on this thread until the returned scope is closed.
+     *
+     * @param cancelled Returns true once the conversion should stop
+     * @return The scope, to be closed when the conversion ends
+     */
+    public static Scope enter(BooleanSupplier cancelled) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(cancelled);
+        return scope;
+    }
+
+    /**
+     * Get the cancellation check current on this thread, so that threads doing part of
+     * the conversion can {@link #enter(BooleanSupplier) enter} it too.
+     *
+     * @return The current check, or a check that never cancels if there is none
+     */
+    public static BooleanSupplier current() {
+        BooleanSupplier cancelled = CURRENT.get();
+        return cancelled != null ? cancelled : NEVER;
+    }
+
+    /**
+     * Stop the current conversion if it has been cancelled or its thread interrupted.
+     *
+     * @throws ConversionCancelledException If the conversion should stop
+     */
+    public static void checkpoint() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ConversionCancelledException("Conversion interrupted");
+        }
+        BooleanSupplier cancelled = CURRENT.get();
+        if (cancelled != null && cancelled.getAsBoolean()) {
+            throw new ConversionCancelledException("Conversion cancelled");
+        }
+    }
+
+    /**
+     * A cancellation check made current by {@link #enter(BooleanSupplier)}.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final BooleanSupplier previous;
+
+        private Scope(BooleanSupplier previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.model.Compression;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens input files transparently whether they are plain, gzip or BGZF compressed.
+ * Compression is recognised by the gzip magic bytes, not the file name, so
+ * "genome.fna.gz" and an uncompressed file with a .gz name are both handled correctly.
+ */
+public class CompressedInput {
+    public static final String GZIP_EXTENSION = ".gz";
+
+    private static final int BUFFER_SIZE = 64 * 1024; // 64KB read buffer
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int FLAG_EXTRA = 0x04;
+
+    private CompressedInput() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Detect the compression of a file from its header.
+     *
+     * @param file The file
+     * @return The compression
+     * @throws IOException If an I/O error occurs
+     */
+    public static Compression detect(File file) throws IOException {
+        byte[] header = new byte[16];
+        int length;
+        try (InputStream in = new FileInputStream(file)) {
+            length = in.readNBytes(header, 0, header.length);
+        }
+
+        if (length < 10 || (header[0] & 0xFF) != GZIP_MAGIC_1 || (header[1] & 0xFF) != GZIP_MAGIC_2) {
+            return Compression.NONE;
+        }
+
+        // BGZF blocks carry a "BC" extra subfield holding the block size
+        if ((header[3] & FLAG_EXTRA) != 0 && length >= 16
+                && header[12] == 'B' && header[13] == 'C' && header[14] == 2 && header[15] == 0) {
+            return Compression.BGZF;
+        }
+        return Compression.GZIP;
+    }
+
+    /**
+     * Check if a file is gzip or BGZF compressed.
+     *
+     * @param file The file
+     * @return true if the file is compressed
+     * @throws IOException If an I/O error occurs
+     */
+    public static boolean isCompressed(File file) throws IOException {
+        return detect(file) != Compression.NONE;
+    }
+
+    /**
+     * Open a file for reading, decompressing it if needed.
+     * BGZF files are inflated in parallel.
+     *
+     * @param file The file
+     * @return A stream of the uncompressed content
+     * @throws IOException If an I/O error occurs
+     */
+    public static InputStream openInputStream(File file) throws IOException {
+        Compression compression = detect(file);
+        InputStream in = new FileInputStream(file);
+        try {
+            switch (compression) {
+                case BGZF:
+                    return new BgzfInputStream(in);
+                case GZIP:
+                    return new GZIPInputStream(in, BUFFER_SIZE);
+                default:
+                    return in;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a UTF-8 text file for reading, decompressing it if needed.
+     *
+     * @param file The file
+     * @return A reader of the uncompressed content
+     * @throws IOException If an I/O error occurs
+     */
+    public static BufferedReader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(openInputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Remove a trailing .gz from a file name, so extension checks see the underlying format.
+     *
+     * @param fileName The file name
+     * @return The name without the compression extension
+     */
+    public static String stripCompressionExtension(String fileName) {
+        if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(GZIP_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - GZIP_EXTENSION.length());
+        }
+        return fileName;
+    }
+}
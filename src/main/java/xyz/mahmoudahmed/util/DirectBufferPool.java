@@ -0,0 +1,83 @@
+package xyz.mahmoudahmed.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe pool of direct byte buffers of a fixed size.
+ * Direct buffers are expensive to allocate and are only released by the garbage collector,
+ * so buffers used for channel reads are kept and reused instead of allocated per call.
+ */
+public class DirectBufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param bufferSize The capacity of each buffer in bytes
+     * @param maxPooled The maximum number of idle buffers kept for reuse
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("Pool size cannot be negative");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Take a cleared buffer from the pool, allocating one if the pool is empty.
+     *
+     * @return A buffer of {@link #getBufferSize()} bytes
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool. Buffers beyond the pool size are left to the garbage collector.
+     *
+     * @param buffer A buffer obtained from {@link #acquire()}
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize || !buffer.isDirect()) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the capacity of the pooled buffers.
+     *
+     * @return The buffer size in bytes
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Get the number of idle buffers in the pool.
+     *
+     * @return The number of pooled buffers
+     */
+    public int getPooledCount() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,581 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.model.Compression;
+import xyz.mahmoudahmed.model.Sequence;
+import xyz.mahmoudahmed.model.SequenceData;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Per-sequence length and offset index for FASTA files.
+ * The index uses the samtools .fai layout (name, length, offset, line bases, line width),
+ * so existing .fai files can be reused and indexes built here are persisted beside their files.
+ * Indexes built by scanning the file also keep each header line, so one scan provides both
+ * the sequence metadata and the offsets needed to stream residues.
+ */
+public class FastaIndex {
+    public static final String INDEX_EXTENSION = ".fai";
+
+    private static final Logger logger = Logger.getLogger(FastaIndex.class.getName());
+
+    private static final int BUFFER_SIZE = 64 * 1024; // 64KB read buffer
+    private static final int HEADER_WINDOW = 1024; // First read back from a record for its header
+    private static final int MAX_HEADER_WINDOW = 1024 * 1024;
+
+    private final Map<String, Entry> entries;
+    private final Map<String, String> descriptions;
+    private final List<String> duplicateNames;
+    private volatile Map<String, List<String>> normalizedNames;
+
+    /**
+     * A single indexed sequence.
+     *
+     * @param name The sequence ID
+     * @param length The number of residues
+     * @param offset The byte offset of the first residue, or -1 if unknown
+     * @param lineBases The number of residues per line, or 0 if the lines differ in length
+     * @param lineWidth The number of bytes per line, including the line terminator, or 0 if the lines differ
+     */
+    public record Entry(String name, long length, long offset, int lineBases, int lineWidth) {
+        /**
+         * Check if residues can be located by position, which needs every line but the last
+         * to hold the same number of residues in the same number of bytes. Records with
+         * irregular line wrapping, as samtools faidx rejects, must be read from their offset.
+         *
+         * @return true if the line layout is uniform and the offset known
+         */
+        public boolean hasUniformLines() {
+            return offset >= 0 && lineBases > 0 && lineWidth > 0;
+        }
+    }
+
+    private FastaIndex(Map<String, Entry> entries, Map<String, String> descriptions, List<String> duplicateNames) {
+        this.entries = entries;
+        this.descriptions = descriptions;
+        this.duplicateNames = duplicateNames;
+    }
+
+    /**
+     * Load the index for a FASTA file, reusing a sibling .fai file when it is up to date.
+     * Otherwise the file is scanned, and the index is persisted as its sibling .fai file when
+     * the directory is writable, so later processes can skip the scan.
+     *
+     * @param fastaFile The FASTA file
+     * @return The index
+     * @throws IOException If an I/O error occurs
+     */
+    public static FastaIndex load(File fastaFile) throws IOException {
+        File indexFile = indexFileFor(fastaFile);
+        if (IndexFiles.isUpToDate(indexFile, fastaFile)) {
+            return read(indexFile);
+        }
+        FastaIndex index = build(fastaFile);
+        index.persistFor(fastaFile);
+        return index;
+    }
+
+    /**
+     * Persist a scanned index as the sibling .fai file of its FASTA file, unless that file is
+     * already up to date or the directory is not writable. Indexes of files with irregular line
+     * wrapping are not persisted, since samtools and other readers of .fai files would trust
+     * a line layout the file does not have, and neither are indexes of files with duplicate IDs,
+     * since a .fai file cannot list the records left out. The file is written as described in
+     * {@link IndexFiles#persist}.
+     *
+     * @param fastaFile The FASTA file the index was built from
+     * @return true if the index was written
+     */
+    boolean persistFor(File fastaFile) {
+        File indexFile = indexFileFor(fastaFile);
+        for (Entry entry : entries.values()) {
+            if (entry.length() > 0 && !entry.hasUniformLines()) {
+                logger.fine("Not persisting FASTA index " + indexFile + ": " + entry.name()
+                        + " has lines of differing length");
+                return false;
+            }
+        }
+        if (!duplicateNames.isEmpty()) {
+            logger.fine("Not persisting FASTA index " + indexFile + ": " + duplicateNames.get(0)
+                    + " names more than one record");
+            return false;
+        }
+        return IndexFiles.persist(indexFile, fastaFile, this::write);
+    }
+
+    /**
+     * Get the conventional .fai location for a FASTA file.
+     *
+     * @param fastaFile The FASTA file
+     * @return The index file
+     */
+    public static File indexFileFor(File fastaFile) {
+        return new File(fastaFile.getPath() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Build an index by scanning a FASTA file once.
+     * Offsets of compressed files refer to the decompressed content, as in samtools indexes of BGZF files.
+     *
+     * @param fastaFile The FASTA file
+     * @return The index
+     * @throws IOException If an I/O error occurs
+     */
+    public static FastaIndex build(File fastaFile) throws IOException {
+        try (InputStream in = CompressedInput.openInputStream(fastaFile)) {
+            return build(in);
+        }
+    }
+
+    /**
+     * Get this index with the header lines of its FASTA file. Indexes read from a .fai file have
+     * none, so the header of each record of a plain file is read just before the offset of its
+     * first residue, which costs one small read per record rather than a scan of the file.
+     * Compressed files offer no cheap random access, so they are scanned instead, as are files
+     * whose headers do not match the index.
+     *
+     * @param fastaFile The FASTA file of this index
+     * @return This index if it has descriptions, otherwise an index with them
+     * @throws IOException If an I/O error occurs
+     */
+    public FastaIndex withDescriptions(File fastaFile) throws IOException {
+        if (descriptions != null) {
+            return this;
+        }
+        if (CompressedInput.detect(fastaFile) != Compression.NONE) {
+            return build(fastaFile);
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(fastaFile.toPath(), StandardOpenOption.READ)) {
+            for (Entry entry : entries.values()) {
+                Cancellation.checkpoint();
+                String header = entry.offset() >= 0 ? readHeaderBefore(channel, entry.offset()) : null;
+                if (header == null || !entry.name().equals(parseName(header))) {
+                    logger.fine("FASTA index of " + fastaFile + " does not match its headers, rescanning");
+                    return build(fastaFile);
+                }
+                headers.put(entry.name(), header);
+            }
+        }
+        return new FastaIndex(entries, headers, duplicateNames);
+    }
+
+    /**
+     * Read the header line of the record whose residues start at an offset: the last line
+     * starting with '>' before the offset, since residue lines never do.
+     *
+     * @return The header without the leading '>', or null if none is found near the offset
+     */
+    private static String readHeaderBefore(FileChannel channel, long offset) throws IOException {
+        int window = HEADER_WINDOW;
+        while (true) {
+            long start = Math.max(0, offset - window);
+            ByteBuffer buffer = ByteBuffer.allocate((int) (offset - start));
+            // Positional reads may return fewer bytes than requested
+            int read;
+            do {
+                read = channel.read(buffer, start + buffer.position());
+            } while (read > 0 && buffer.hasRemaining());
+            byte[] bytes = buffer.array();
+            int length = buffer.position();
+            for (int i = length - 1; i >= 0; i--) {
+                if (bytes[i] == '>' && (i > 0 ? bytes[i - 1] == '\n' : start == 0)) {
+                    int end = i + 1;
+                    while (end < length && bytes[end] != '\n') {
+                        end++;
+                    }
+                    return new String(bytes, i + 1, end - i - 1, StandardCharsets.UTF_8).replace("\r", "").trim();
+                }
+            }
+            if (start == 0 || window >= MAX_HEADER_WINDOW) {
+                return null;
+            }
+            window *= 2;
+        }
+    }
+
+    /**
+     * Build an index from a FASTA stream. The stream is not closed.
+     *
+     * @param in The FASTA stream
+     * @return The index
+     * @throws IOException If an I/O error occurs
+     */
+    public static FastaIndex build(InputStream in) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        Map<String, String> descriptions = new HashMap<>();
+        List<String> duplicateNames = new ArrayList<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteArrayOutputStream header = new ByteArrayOutputStream(256);
+
+        String name = null;
+        String description = null;
+        long position = 0;
+        long offset = -1;
+        long length = 0;
+        int lineBases = 0;
+        int lineWidth = 0;
+        int currentLineBases = 0;
+        int currentLineBytes = 0;
+        boolean pastLastLine = false;
+        boolean irregular = false;
+        boolean atLineStart = true;
+        boolean inHeader = false;
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            Cancellation.checkpoint();
+            for (int i = 0; i < read; i++, position++) {
+                byte b = buffer[i];
+
+                if (inHeader) {
+                    if (b == '\n') {
+                        description = header.toString(StandardCharsets.UTF_8).trim();
+                        name = parseName(description);
+                        offset = position + 1;
+                        length = 0;
+                        lineBases = 0;
+                        lineWidth = 0;
+                        currentLineBases = 0;
+                        currentLineBytes = 0;
+                        pastLastLine = false;
+                        irregular = false;
+                        inHeader = false;
+                        atLineStart = true;
+                    } else if (b != '\r') {
+                        header.write(b);
+                    }
+                    continue;
+                }
+
+                if (atLineStart && b == '>') {
+                    if (name != null) {
+                        putEntry(entries, duplicateNames, name, length, offset, lineBases, lineWidth,
+                                currentLineBases, currentLineBytes, irregular);
+                        descriptions.putIfAbsent(name, description);
+                    }
+                    header.reset();
+                    inHeader = true;
+                    continue;
+                }
+                atLineStart = false;
+
+                if (name == null) {
+                    // Content before the first header is ignored
+                    atLineStart = b == '\n';
+                    continue;
+                }
+
+                currentLineBytes++;
+                if (b == '\n') {
+                    if (currentLineBases == 0 && length == 0) {
+                        // Skip blank lines before the first residue
+                        offset = position + 1;
+                    } else if (lineBases == 0) {
+                        lineBases = currentLineBases;
+                        lineWidth = currentLineBytes;
+                    } else if (currentLineBases > 0 && (pastLastLine || currentLineBases > lineBases
+                            || currentLineBases == lineBases && currentLineBytes != lineWidth)) {
+                        irregular = true;
+                    }
+                    // A short or blank line ends the residues of a regular record
+                    pastLastLine |= currentLineBases < lineBases;
+                    currentLineBases = 0;
+                    currentLineBytes = 0;
+                    atLineStart = true;
+                } else if (b == ' ' || b == '\t') {
+                    // Residue positions within the line no longer follow from byte positions
+                    irregular = true;
+                } else if (b != '\r') {
+                    currentLineBases++;
+                    length++;
+                }
+            }
+        }
+
+        if (inHeader) {
+            description = header.toString(StandardCharsets.UTF_8).trim();
+            name = parseName(description);
+            offset = position;
+            length = 0;
+            lineBases = 0;
+            lineWidth = 0;
+            currentLineBases = 0;
+            currentLineBytes = 0;
+            pastLastLine = false;
+            irregular = false;
+        }
+        if (lineBases > 0 && currentLineBases > 0 && (pastLastLine || currentLineBases > lineBases)) {
+            // Final line without a terminator
+            irregular = true;
+        }
+        if (name != null) {
+            putEntry(entries, duplicateNames, name, length, offset, lineBases, lineWidth,
+                    currentLineBases, currentLineBytes, irregular);
+            descriptions.putIfAbsent(name, description);
+        }
+
+        return new FastaIndex(entries, descriptions, duplicateNames);
+    }
+
+    private static void putEntry(Map<String, Entry> entries, List<String> duplicateNames, String name,
+                                 long length, long offset, int lineBases, int lineWidth,
+                                 int currentLineBases, int currentLineBytes, boolean irregular) {
+        if (entries.containsKey(name)) {
+            // As with samtools faidx, the first record with an ID is the one indexed
+            duplicateNames.add(name);
+            return;
+        }
+        if (irregular) {
+            lineBases = 0;
+            lineWidth = 0;
+        } else if (lineBases == 0) {
+            // Single line without a terminator
+            lineBases = currentLineBases;
+            lineWidth = currentLineBytes;
+        }
+        entries.put(name, new Entry(name, length, offset, lineBases, lineWidth));
+    }
+
+    /**
+     * Parse the sequence ID from a FASTA header: its first word, ending at any whitespace
+     * as in samtools faidx. Parsers, validators and the index all name records with this rule.
+     *
+     * @param header The header line, without the leading '>'
+     * @return The sequence ID, or "unknown" for an empty header
+     */
+    public static String parseName(String header) {
+        if (header == null) {
+            return "unknown";
+        }
+        int start = 0;
+        int end = header.length();
+        while (start < end && Character.isWhitespace(header.charAt(start))) {
+            start++;
+        }
+        int nameEnd = start;
+        while (nameEnd < end && !Character.isWhitespace(header.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        return nameEnd > start ? header.substring(start, nameEnd) : "unknown";
+    }
+
+    /**
+     * Read a samtools-style .fai file.
+     *
+     * @param indexFile The index file
+     * @return The index
+     * @throws IOException If an I/O error occurs or the file is malformed
+     */
+    public static FastaIndex read(File indexFile) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        List<String> duplicateNames = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(indexFile, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] fields = line.split("\t");
+                if (fields.length < 5) {
+                    throw new IOException("Invalid FASTA index line " + lineNumber + " in " + indexFile.getName());
+                }
+
+                try {
+                    Entry entry = new Entry(fields[0],
+                            Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2]),
+                            Integer.parseInt(fields[3]),
+                            Integer.parseInt(fields[4]));
+                    if (entries.putIfAbsent(entry.name(), entry) != null) {
+                        duplicateNames.add(entry.name());
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid FASTA index line " + lineNumber + " in " + indexFile.getName(), e);
+                }
+            }
+        }
+
+        return new FastaIndex(entries, null, duplicateNames);
+    }
+
+    /**
+     * Create an index from parsed or metadata-only sequence data.
+     * Byte offsets are unknown and recorded as -1.
+     *
+     * @param sequenceData The sequence data
+     * @return The index
+     */
+    public static FastaIndex fromSequenceData(SequenceData sequenceData) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        List<String> duplicateNames = new ArrayList<>();
+        for (Sequence sequence : sequenceData.getSequences()) {
+            Entry previous = entries.putIfAbsent(sequence.getId(),
+                    new Entry(sequence.getId(), sequence.getLength(), -1, 0, 0));
+            if (previous != null) {
+                duplicateNames.add(sequence.getId());
+            }
+        }
+        return new FastaIndex(entries, null, duplicateNames);
+    }
+
+    /**
+     * Write the index in samtools .fai format.
+     *
+     * @param indexFile The file to write
+     * @throws IOException If an I/O error occurs
+     */
+    public void write(File indexFile) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(indexFile, StandardCharsets.UTF_8))) {
+            for (Entry entry : entries.values()) {
+                writer.write(entry.name() + "\t" + entry.length() + "\t" + entry.offset() + "\t"
+                        + entry.lineBases() + "\t" + entry.lineWidth());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Get all entries in file order.
+     *
+     * @return The entries
+     */
+    public List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Get the entry for a sequence ID.
+     *
+     * @param name The sequence ID
+     * @return The entry, or null if not indexed
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Check if a sequence ID is indexed.
+     *
+     * @param name The sequence ID
+     * @return true if the sequence is indexed
+     */
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Get the length of a sequence.
+     *
+     * @param name The sequence ID
+     * @return The length, or -1 if the sequence is not indexed
+     */
+    public long getLength(String name) {
+        Entry entry = entries.get(name);
+        return entry != null ? entry.length() : -1;
+    }
+
+    /**
+     * Get the header line of a sequence, without the leading '>'.
+     *
+     * @param name The sequence ID
+     * @return The header, or null if the sequence is not indexed or the index was read from a .fai file
+     */
+    public String getDescription(String name) {
+        return descriptions != null ? descriptions.get(name) : null;
+    }
+
+    /**
+     * Check if the index holds the header lines, which is the case for indexes built by scanning the file.
+     *
+     * @return true if descriptions are available
+     */
+    public boolean hasDescriptions() {
+        return descriptions != null;
+    }
+
+    /**
+     * Get the IDs of the records left out of the index because an earlier record had the same ID,
+     * once per record left out. Such files are invalid input for a conversion, since the records
+     * left out cannot be addressed by ID; validators report them and the metadata parser rejects them.
+     *
+     * @return The duplicate IDs in file order
+     */
+    public List<String> getDuplicateNames() {
+        return Collections.unmodifiableList(duplicateNames);
+    }
+
+    /**
+     * Get the number of indexed sequences.
+     *
+     * @return The number of sequences
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Suggest indexed sequence IDs that nearly match a missing ID.
+     * IDs are compared ignoring case, a leading "chr" prefix and a trailing version suffix
+     * (e.g. "NC_000913" matches "NC_000913.3" and "chr1" matches "1").
+     *
+     * @param name The sequence ID that was not found
+     * @return The matching indexed IDs, empty if there are none
+     */
+    public List<String> suggest(String name) {
+        List<String> matches = getNormalizedNames().get(normalize(name));
+        if (matches == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> result = new ArrayList<>(matches);
+        result.remove(name);
+        return result;
+    }
+
+    private Map<String, List<String>> getNormalizedNames() {
+        Map<String, List<String>> names = normalizedNames;
+        if (names == null) {
+            names = new HashMap<>();
+            for (String indexedName : entries.keySet()) {
+                names.computeIfAbsent(normalize(indexedName), k -> new ArrayList<>(1)).add(indexedName);
+            }
+            normalizedNames = names;
+        }
+        return names;
+    }
+
+    private static String normalize(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+
+        if (normalized.startsWith("chr") && normalized.length() > 3) {
+            normalized = normalized.substring(3);
+        }
+
+        int dot = normalized.lastIndexOf('.');
+        if (dot > 0 && dot < normalized.length() - 1) {
+            boolean digits = true;
+            for (int i = dot + 1; i < normalized.length(); i++) {
+                if (!Character.isDigit(normalized.charAt(i))) {
+                    digits = false;
+                    break;
+                }
+            }
+            if (digits) {
+                normalized = normalized.substring(0, dot);
+            }
+        }
+
+        return normalized;
+    }
+}
@@ -0,0 +1,124 @@
+package xyz.mahmoudahmed.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shares FASTA indexes between the components that read one sequence file.
+ * The metadata parse, validation and the sequence stream provider all need the same
+ * per-sequence lengths and offsets, so the file is scanned once and the index reused
+ * until the file's size or modification time changes.
+ */
+public class FastaIndexCache {
+    public static final int DEFAULT_CACHE_SIZE = 8;
+
+    private final Map<FileKey, FastaIndex> cache;
+    private final int cacheSize;
+
+    private record FileKey(String path, long size, long lastModified) {
+        static FileKey of(File file) {
+            return new FileKey(file.getAbsolutePath(), file.length(), file.lastModified());
+        }
+    }
+
+    /**
+     * Constructor.
+     */
+    public FastaIndexCache() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor with a custom cache size.
+     *
+     * @param cacheSize The maximum number of cached indexes, or 0 to disable caching
+     */
+    public FastaIndexCache(int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FileKey, FastaIndex> eldest) {
+                return size() > FastaIndexCache.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Get the index of a FASTA file, loading a sibling .fai file or scanning the file if not cached.
+     *
+     * @param fastaFile The FASTA file
+     * @return The index
+     * @throws IOException If an I/O error occurs
+     */
+    public FastaIndex get(File fastaFile) throws IOException {
+        FileKey key = FileKey.of(fastaFile);
+        FastaIndex index = getCached(key);
+        if (index == null) {
+            index = FastaIndex.load(fastaFile);
+            putCached(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Get the index of a FASTA file including the header lines. An index read from a .fai file
+     * has none, so they are read at its offsets, which only scans the file if it is compressed.
+     *
+     * @param fastaFile The FASTA file
+     * @return The index, with descriptions
+     * @throws IOException If an I/O error occurs
+     */
+    public FastaIndex getWithDescriptions(File fastaFile) throws IOException {
+        FileKey key = FileKey.of(fastaFile);
+        FastaIndex index = getCached(key);
+        if (index == null || !index.hasDescriptions()) {
+            index = (index != null ? index : FastaIndex.load(fastaFile)).withDescriptions(fastaFile);
+            index.persistFor(fastaFile);
+            putCached(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Remove any cached index for a file.
+     *
+     * @param fastaFile The FASTA file
+     */
+    public void invalidate(File fastaFile) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.path().equals(fastaFile.getAbsolutePath()));
+        }
+    }
+
+    /**
+     * Remove all cached indexes.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private FastaIndex getCached(FileKey key) {
+        if (cacheSize == 0) {
+            return null;
+        }
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void putCached(FileKey key, FastaIndex index) {
+        if (cacheSize == 0) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(key, index);
+        }
+    }
+}
@@ -1,154 +1,435 @@
 package xyz.mahmoudahmed.util;
 
 import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import xyz.mahmoudahmed.jfr.SequenceChunkReadEvent;
+import xyz.mahmoudahmed.model.Compression;
 
 /**
  * Memory-efficient file-based sequence stream provider.
+ * Sequences are located through a FASTA index of exact byte offsets. Plain files are read with
+ * positional reads on one shared channel into pooled direct buffers, so many sequences can be
+ * streamed concurrently without locking or reopening the file. In read-ahead mode the next buffers
+ * are read through an asynchronous channel while the consumer handles the current one, so I/O
+ * latency overlaps with formatting. BGZF files are opened at the
+ * containing block through a .gzi index. Gzip files without block structure are decompressed
+ * by one forward-only stream that is shared by all sequences, so streaming the sequences in
+ * file order decompresses the file once; only a sequence before the current position makes
+ * the stream restart from the beginning.
  */
-public class FileSequenceStreamProvider implements SequenceStreamProvider {
+public class FileSequenceStreamProvider implements SequenceStreamProvider, Closeable {
     private final File file;
-    private final Map<String, SequencePosition> sequencePositions = new HashMap<>();
+    private final FastaIndex index;
+    private final Compression compression;
+    private final BgzfIndex bgzfIndex;
+    private final FileChannel channel;
+    private final AsynchronousFileChannel asyncChannel;
+    private final int readAheadBuffers;
+    private final DirectBufferPool bufferPool;
+    private GzipCursor gzipCursor; // guarded by this
 
     // Buffer sizes for efficient memory usage
-    private static final int INDEX_BUFFER_SIZE = 64 * 1024; // 64KB for indexing
-    private static final int READER_BUFFER_SIZE = 256 * 1024; // 256KB for reading
+    private static final int READ_BUFFER_SIZE = 256 * 1024; // 256KB for reading
     private static final int CHUNK_BUFFER_SIZE = 128 * 1024; // 128KB chunks for processing
+    private static final int MIN_READ_SIZE = 8 * 1024;
 
     /**
-     * Stores the position and length of a sequence in the file.
+     * Create a new stream provider for the given file.
+     *
+     * @param file The file to stream from
+     * @throws IOException If an error occurs indexing the file
      */
-    private static class SequencePosition {
-        private final long headerStart;
-        private long dataStart = -1;
-        private long nextHeaderPos = -1;
-
-        public SequencePosition(long headerStart) {
-            this.headerStart = headerStart;
-        }
-
-        public void setDataStart(long dataStart) {
-            this.dataStart = dataStart;
-        }
+    public FileSequenceStreamProvider(File file) throws IOException {
+        this(file, FastaIndex.load(file));
+    }
 
-        public void setNextHeaderPos(long nextHeaderPos) {
-            this.nextHeaderPos = nextHeaderPos;
-        }
+    /**
+     * Create a new stream provider for the given file with an existing index.
+     *
+     * @param file The file to stream from
+     * @param index The FASTA index of the file, with byte offsets into the uncompressed content
+     * @throws IOException If an error occurs reading the file
+     */
+    public FileSequenceStreamProvider(File file, FastaIndex index) throws IOException {
+        this(file, index, 0);
     }
 
     /**
-     * Create a new stream provider for the given file.
+     * Create a new stream provider that reads plain files ahead of the consumer.
+     * Compressed files ignore the read-ahead, as BGZF blocks are already inflated ahead in parallel.
      *
      * @param file The file to stream from
-     * @throws IOException If an error occurs indexing the file
+     * @param index The FASTA index of the file, with byte offsets into the uncompressed content
+     * @param readAheadBuffers The number of buffers kept in flight per sequence, or 0 to read synchronously
+     * @throws IOException If an error occurs reading the file
      */
-    public FileSequenceStreamProvider(File file) throws IOException {
+    public FileSequenceStreamProvider(File file, FastaIndex index, int readAheadBuffers) throws IOException {
+        if (readAheadBuffers < 0) {
+            throw new IllegalArgumentException("Read-ahead buffer count cannot be negative");
+        }
         this.file = file;
-        indexSequencePositions();
+        this.index = index;
+        this.compression = CompressedInput.detect(file);
+        this.bgzfIndex = compression == Compression.BGZF ? BgzfIndex.load(file) : null;
+        boolean plain = compression == Compression.NONE;
+        this.readAheadBuffers = plain ? readAheadBuffers : 0;
+        this.channel = plain && readAheadBuffers == 0
+                ? FileChannel.open(file.toPath(), StandardOpenOption.READ)
+                : null;
+        this.asyncChannel = plain && readAheadBuffers > 0
+                ? AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ)
+                : null;
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.bufferPool = new DirectBufferPool(READ_BUFFER_SIZE, processors * Math.max(1, readAheadBuffers));
     }
 
     @Override
     public void streamSequence(String sequenceId, SequenceConsumer consumer) throws IOException {
-        SequencePosition position = sequencePositions.get(sequenceId);
-        if (position == null) {
+        FastaIndex.Entry entry = index.getEntry(sequenceId);
+        if (entry == null) {
             throw new IllegalArgumentException("Sequence ID not found: " + sequenceId);
         }
+        if (entry.length() == 0) {
+            return;
+        }
 
-        try (RandomAccessFile randomAccess = new RandomAccessFile(file, "r")) {
-            // Jump to the start of the sequence data
-            randomAccess.seek(position.dataStart);
+        ResidueChunker chunker = new ResidueChunker(entry.length(), consumer);
+        if (channel != null) {
+            streamFromChannel(sequenceId, entry, chunker);
+        } else if (asyncChannel != null) {
+            streamReadAhead(sequenceId, entry, chunker);
+        } else if (compression == Compression.BGZF) {
+            try (InputStream in = bgzfIndex.openAt(file, entry.offset())) {
+                byte[] buffer = new byte[READ_BUFFER_SIZE];
+                long position = entry.offset();
+                while (!chunker.isDone()) {
+                    Cancellation.checkpoint();
+                    SequenceChunkReadEvent event = new SequenceChunkReadEvent();
+                    event.begin();
+                    int read = in.read(buffer);
+                    if (read == -1) {
+                        break;
+                    }
+                    commitRead(event, sequenceId, position, read);
+                    position += read;
+                    for (int i = 0; i < read && !chunker.isDone(); i++) {
+                        chunker.accept(buffer[i]);
+                    }
+                }
+            }
+        } else {
+            streamFromGzip(sequenceId, entry, chunker);
+        }
+        chunker.finish();
+    }
 
-            // Skip the header line
-            randomAccess.readLine();
+    /**
+     * Read a sequence of a gzip file through the shared forward-only cursor, consuming only the
+     * bytes up to its last residue so that the next sequence in the file can continue from there.
+     * Gzip offers no random access, so sequences are read one at a time.
+     */
+    private synchronized void streamFromGzip(String sequenceId, FastaIndex.Entry entry, ResidueChunker chunker)
+            throws IOException {
+        if (gzipCursor == null || entry.offset() < gzipCursor.position) {
+            // No random access without block structure, so restart from the beginning
+            if (gzipCursor != null) {
+                gzipCursor.close();
+            }
+            gzipCursor = new GzipCursor(CompressedInput.openInputStream(file));
+        }
+        GzipCursor cursor = gzipCursor;
+        cursor.seek(entry.offset());
+        while (!chunker.isDone()) {
+            Cancellation.checkpoint();
+            SequenceChunkReadEvent event = new SequenceChunkReadEvent();
+            event.begin();
+            int available = cursor.fill();
+            if (available == -1) {
+                break;
+            }
+            commitRead(event, sequenceId, cursor.position, available);
+            int consumed = 0;
+            while (consumed < available && !chunker.isDone()) {
+                chunker.accept(cursor.buffer[cursor.start + consumed++]);
+            }
+            cursor.advance(consumed);
+        }
+    }
 
-            // Read the sequence data in chunks
-            StringBuilder sequenceChunk = new StringBuilder(CHUNK_BUFFER_SIZE);
-            String line;
+    /**
+     * Read a sequence with positional reads, which do not move a shared file position
+     * and are safe to run concurrently on one channel.
+     */
+    private void streamFromChannel(String sequenceId, FastaIndex.Entry entry, ResidueChunker chunker) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        try {
+            long position = entry.offset();
+            while (!chunker.isDone()) {
+                // Read roughly the bytes the remaining residues span, so short records do not read a full buffer
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), expectedSpan(entry, chunker.remaining())));
+                Cancellation.checkpoint();
 
-            // Use a buffered reader for line-by-line processing
-            try (BufferedReader reader = new BufferedReader(
-                    new FileReader(randomAccess.getFD()), READER_BUFFER_SIZE)) {
+                SequenceChunkReadEvent event = new SequenceChunkReadEvent();
+                event.begin();
+                int read = channel.read(buffer, position);
+                if (read == -1) {
+                    break;
+                }
+                commitRead(event, sequenceId, position, read);
+                position += read;
+                for (int i = 0; i < read && !chunker.isDone(); i++) {
+                    chunker.accept(buffer.get(i));
+                }
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
 
-                while ((line = reader.readLine()) != null) {
-                    // If we hit another header, we're done with this sequence
-                    if (line.startsWith(">")) {
-                        break;
-                    }
+    /**
+     * Read a sequence with several buffers in flight, handing each filled buffer to the
+     * consumer in file order while the following reads proceed.
+     */
+    private void streamReadAhead(String sequenceId, FastaIndex.Entry entry, ResidueChunker chunker) throws IOException {
+        long span = expectedSpan(entry, entry.length());
+        int bufferSize = (int) Math.min(bufferPool.getBufferSize(), span);
+        long estimatedEnd = entry.offset() + Math.min(span, Long.MAX_VALUE - entry.offset());
+        Deque<PendingRead> pending = new ArrayDeque<>();
+        long nextPosition = entry.offset();
 
-                    // Add the trimmed line to our sequence chunk
-                    sequenceChunk.append(line.trim());
+        try {
+            while (!chunker.isDone()) {
+                // Keep reads in flight up to the estimated end of the record, and always at least one
+                while (pending.size() < readAheadBuffers && (pending.isEmpty() || nextPosition < estimatedEnd)) {
+                    ByteBuffer buffer = bufferPool.acquire();
+                    buffer.limit(bufferSize);
+                    pending.add(new PendingRead(buffer, nextPosition, asyncChannel.read(buffer, nextPosition)));
+                    nextPosition += bufferSize;
+                }
 
-                    // When we've accumulated enough data, send a chunk to the consumer
-                    if (sequenceChunk.length() >= CHUNK_BUFFER_SIZE) {
-                        consumer.consumeChunk(sequenceChunk.toString());
-                        sequenceChunk.setLength(0); // Clear the buffer
+                Cancellation.checkpoint();
+                PendingRead read = pending.poll();
+                try {
+                    SequenceChunkReadEvent event = new SequenceChunkReadEvent();
+                    event.begin();
+                    int count = read.complete(asyncChannel);
+                    commitRead(event, sequenceId, read.position(), count);
+                    for (int i = 0; i < count && !chunker.isDone(); i++) {
+                        chunker.accept(read.buffer().get(i));
                     }
+                    if (count < bufferSize) {
+                        break; // End of file
+                    }
+                } finally {
+                    bufferPool.release(read.buffer());
                 }
-
-                // Send any remaining data
-                if (sequenceChunk.length() > 0) {
-                    consumer.consumeChunk(sequenceChunk.toString());
+            }
+        } finally {
+            // Outstanding reads still write into their buffers, so wait for them before reuse
+            for (PendingRead read : pending) {
+                try {
+                    read.complete(asyncChannel);
+                    bufferPool.release(read.buffer());
+                } catch (IOException e) {
+                    // The buffer is dropped rather than pooled
                 }
             }
         }
     }
 
     /**
-     * Index the positions of all sequences in the file.
+     * Commit a chunk read event if the recording wants it. With read-ahead the event spans
+     * the wait for a read already in flight.
      */
-    private void indexSequencePositions() throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file), INDEX_BUFFER_SIZE)) {
-            String line;
-            long position = 0;
-            String currentId = null;
-            SequencePosition currentPosition = null;
-
-            while ((line = reader.readLine()) != null) {
-                // Update position before processing the line
-                long lineLength = line.length() + System.lineSeparator().length();
-
-                if (line.startsWith(">")) {
-                    // If we have a previous sequence, set its end position
-                    if (currentId != null && currentPosition != null) {
-                        currentPosition.setNextHeaderPos(position);
-                    }
+    private void commitRead(SequenceChunkReadEvent event, String sequenceId, long position, int bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file.getPath();
+            event.sequenceId = sequenceId;
+            event.position = position;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
 
-                    // Extract ID from header
-                    String header = line.substring(1);
-                    currentId = parseId(header);
+    private static long expectedSpan(FastaIndex.Entry entry, long residues) {
+        if (entry.lineBases() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long span = residues / entry.lineBases() * entry.lineWidth() + residues % entry.lineBases() + entry.lineWidth();
+        return Math.max(MIN_READ_SIZE, span);
+    }
+
+    /**
+     * Close the shared file channel and the gzip cursor.
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        if (asyncChannel != null) {
+            asyncChannel.close();
+        }
+        synchronized (this) {
+            if (gzipCursor != null) {
+                gzipCursor.close();
+                gzipCursor = null;
+            }
+        }
+    }
 
-                    // Record the start position
-                    currentPosition = new SequencePosition(position);
-                    currentPosition.setDataStart(position);
-                    sequencePositions.put(currentId, currentPosition);
+    /**
+     * An asynchronous read of one buffer at a file position.
+     */
+    private record PendingRead(ByteBuffer buffer, long position, Future<Integer> future) {
+        /**
+         * Wait for the read and complete it if the channel returned fewer bytes than requested.
+         *
+         * @return The number of bytes in the buffer
+         */
+        int complete(AsynchronousFileChannel channel) throws IOException {
+            if (await(future) == -1) {
+                return 0;
+            }
+            while (buffer.hasRemaining()) {
+                if (await(channel.read(buffer, position + buffer.position())) <= 0) {
+                    break;
                 }
+            }
+            return buffer.position();
+        }
 
-                // Update position for next line
-                position += lineLength;
+        private static int await(Future<Integer> read) throws IOException {
+            try {
+                return read.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading sequence data");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
             }
+        }
+    }
+
+    /**
+     * A forward-only position in the decompressed content of a gzip file. The bytes read past
+     * the end of one sequence stay buffered for the next, so no byte is decompressed twice
+     * while the sequences are read in file order.
+     */
+    private static final class GzipCursor implements Closeable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        private int start;
+        private int end;
+        /** The decompressed offset of the first unread byte, at buffer[start]. */
+        private long position;
 
-            // Set end position for the last sequence
-            if (currentId != null && currentPosition != null) {
-                currentPosition.setNextHeaderPos(position);
+        GzipCursor(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Move forward to an offset, discarding buffered bytes and decompressing the rest of the way.
+         */
+        void seek(long offset) throws IOException {
+            long skip = offset - position;
+            if (skip <= end - start) {
+                start += (int) skip;
+            } else {
+                in.skipNBytes(skip - (end - start));
+                start = end = 0;
             }
+            position = offset;
+        }
+
+        /**
+         * Make unread bytes available in the buffer, reading more if there are none.
+         *
+         * @return The number of unread bytes from buffer[start], or -1 at the end of the file
+         */
+        int fill() throws IOException {
+            if (start == end) {
+                int read = in.read(buffer);
+                if (read == -1) {
+                    return -1;
+                }
+                start = 0;
+                end = read;
+            }
+            return end - start;
+        }
+
+        void advance(int count) {
+            start += count;
+            position += count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
         }
     }
 
     /**
-     * Parse the ID from a FASTA header.
-     *
-     * @param header The FASTA header
-     * @return The parsed ID
+     * Collects residues into chunks, skipping line terminators and whitespace.
      */
-    private String parseId(String header) {
-        // Split on first whitespace - the part before is usually the ID
-        int spaceIdx = header.indexOf(' ');
-        if (spaceIdx > 0) {
-            return header.substring(0, spaceIdx).trim();
+    private static final class ResidueChunker {
+        private final SequenceConsumer consumer;
+        private final byte[] chunk = new byte[CHUNK_BUFFER_SIZE];
+        private int chunkLength;
+        private long remaining;
+
+        ResidueChunker(long length, SequenceConsumer consumer) {
+            this.remaining = length;
+            this.consumer = consumer;
+        }
+
+        boolean isDone() {
+            return remaining == 0;
         }
 
-        // No space found, use the whole header as ID
-        return header.trim();
+        long remaining() {
+            return remaining;
+        }
+
+        void accept(byte b) throws IOException {
+            if (b == '\n' || b == '\r' || b == ' ' || b == '\t') {
+                return;
+            }
+
+            chunk[chunkLength++] = b;
+            remaining--;
+
+            // When we've accumulated enough data, send a chunk to the consumer
+            if (chunkLength == chunk.length) {
+                flush();
+            }
+        }
+
+        void finish() throws IOException {
+            // Send any remaining data
+            if (chunkLength > 0) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            consumer.consumeChunk(new String(chunk, 0, chunkLength, StandardCharsets.ISO_8859_1));
+            chunkLength = 0;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.model.Sequence;
+import xyz.mahmoudahmed.model.SequenceData;
+
+import java.io.IOException;
+
+/**
+ * Sequence stream provider over sequences that are already loaded in memory.
+ * Sequences are served in fixed-size chunks so consumers never need a second full copy.
+ */
+public class InMemorySequenceStreamProvider implements SequenceStreamProvider {
+    private static final int CHUNK_SIZE = 64 * 1024; // 64KB chunks
+
+    private final SequenceData sequenceData;
+
+    /**
+     * Create a new stream provider for the given sequences.
+     *
+     * @param sequenceData The loaded sequences
+     */
+    public InMemorySequenceStreamProvider(SequenceData sequenceData) {
+        this.sequenceData = sequenceData;
+    }
+
+    @Override
+    public void streamSequence(String sequenceId, SequenceConsumer consumer) throws IOException {
+        Sequence sequence = sequenceData.getSequence(sequenceId);
+        if (sequence == null) {
+            throw new IllegalArgumentException("Sequence ID not found: " + sequenceId);
+        }
+
+        String residues = sequence.getSequence();
+        if (residues == null) {
+            return;
+        }
+
+        for (int i = 0; i < residues.length(); i += CHUNK_SIZE) {
+            consumer.consumeChunk(residues.substring(i, Math.min(i + CHUNK_SIZE, residues.length())));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package xyz.mahmoudahmed.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Freshness and persistence rules shared by the index files kept beside data files,
+ * such as .fai indexes of FASTA files and .gzi indexes of BGZF files.
+ */
+final class IndexFiles {
+    private static final Logger logger = Logger.getLogger(IndexFiles.class.getName());
+
+    /**
+     * Writes an index to a file.
+     */
+    @FunctionalInterface
+    interface IndexWriter {
+        void write(File file) throws IOException;
+    }
+
+    // Private constructor to prevent instantiation
+    private IndexFiles() {
+    }
+
+    /**
+     * Check if an index was written after its data file was last modified. Equal timestamps
+     * do not count, since file systems with coarse timestamps cannot order them.
+     *
+     * @param indexFile The index file
+     * @param dataFile The file the index belongs to
+     * @return true if the index file exists and is newer than the data file
+     */
+    static boolean isUpToDate(File indexFile, File dataFile) {
+        return indexFile.isFile() && indexFile.lastModified() > dataFile.lastModified();
+    }
+
+    /**
+     * Persist an index beside its data file, unless the index file is already up to date or the
+     * directory is not writable. The index is written to a temporary file and moved into place,
+     * so concurrent readers never see a partial index. Failures are logged and otherwise ignored,
+     * since they only cost a later load a scan.
+     *
+     * @param indexFile The index file to write
+     * @param dataFile The file the index was built from
+     * @param writer Writes the index
+     * @return true if the index was written
+     */
+    static boolean persist(File indexFile, File dataFile, IndexWriter writer) {
+        Path directory = indexFile.getAbsoluteFile().toPath().getParent();
+        if (isUpToDate(indexFile, dataFile) || directory == null || !Files.isWritable(directory)) {
+            return false;
+        }
+
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "." + indexFile.getName(), ".part");
+            writer.write(temp.toFile());
+            Files.move(temp, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Could not persist index " + indexFile + ": " + e.getMessage(), e);
+            return false;
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "Could not delete " + temp, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.model.Compression;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads residues of an indexed FASTA file on demand.
+ * Whole sequences are kept in a cache bounded by the total number of residues, so repeated
+ * access to the same sequence does not reread the file while memory stays bounded for
+ * files larger than the heap. Regions of plain files with uniform line lengths are read
+ * directly at their byte offsets without loading the rest of the sequence. One source is shared by all lazy
+ * sequences of a file and is safe for concurrent use.
+ */
+public class IndexedSequenceSource implements Closeable {
+    /** Default maximum number of residues held in the cache. */
+    public static final long DEFAULT_CACHE_RESIDUES = 64L * 1024 * 1024;
+
+    private final File file;
+    private final FastaIndex index;
+    private final FileSequenceStreamProvider streamProvider;
+    private final FileChannel channel;
+    private final long maxCachedResidues;
+    private final Map<String, String> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedResidues;
+
+    /**
+     * Create a source for a FASTA file, loading a sibling .fai file or scanning the file.
+     *
+     * @param file The FASTA file
+     * @throws IOException If an error occurs indexing the file
+     */
+    public IndexedSequenceSource(File file) throws IOException {
+        this(file, FastaIndex.load(file), DEFAULT_CACHE_RESIDUES);
+    }
+
+    /**
+     * Create a source for a FASTA file with an existing index.
+     *
+     * @param file The FASTA file
+     * @param index The FASTA index of the file
+     * @param maxCachedResidues The maximum number of residues kept in the cache, or 0 to disable caching
+     * @throws IOException If an error occurs opening the file
+     */
+    public IndexedSequenceSource(File file, FastaIndex index, long maxCachedResidues) throws IOException {
+        if (maxCachedResidues < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.file = file;
+        this.index = index;
+        this.maxCachedResidues = maxCachedResidues;
+        this.streamProvider = new FileSequenceStreamProvider(file, index);
+        this.channel = CompressedInput.detect(file) == Compression.NONE
+                ? FileChannel.open(file.toPath(), StandardOpenOption.READ)
+                : null;
+    }
+
+    /**
+     * Get the file this source reads from.
+     *
+     * @return The FASTA file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the index of the file.
+     *
+     * @return The FASTA index
+     */
+    public FastaIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Get all residues of a sequence, from the cache if present.
+     *
+     * @param sequenceId The sequence ID
+     * @return The residues
+     * @throws IOException If an I/O error occurs
+     * @throws IllegalArgumentException If the sequence is not in the index or too long for a string
+     */
+    public String getSequence(String sequenceId) throws IOException {
+        FastaIndex.Entry entry = requireEntry(sequenceId);
+        String cached = getCached(sequenceId);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (entry.length() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Sequence " + sequenceId + " is too long to load at once; "
+                    + "stream it or read regions instead");
+        }
+        StringBuilder residues = new StringBuilder((int) entry.length());
+        streamProvider.streamSequence(sequenceId, residues::append);
+        String sequence = residues.toString();
+        putCached(sequenceId, sequence);
+        return sequence;
+    }
+
+    /**
+     * Get a region of a sequence.
+     *
+     * @param sequenceId The sequence ID
+     * @param start The 0-based start of the region
+     * @param end The 0-based exclusive end of the region
+     * @return The residues of the region
+     * @throws IOException If an I/O error occurs
+     * @throws IllegalArgumentException If the sequence is not in the index or the region is out of bounds
+     */
+    public String getRegion(String sequenceId, long start, long end) throws IOException {
+        FastaIndex.Entry entry = requireEntry(sequenceId);
+        if (start < 0 || end > entry.length() || start > end) {
+            throw new IllegalArgumentException("Region " + start + "-" + end + " is outside sequence "
+                    + sequenceId + " of length " + entry.length());
+        }
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region is too long to load at once");
+        }
+        if (start == end) {
+            return "";
+        }
+
+        String cached = getCached(sequenceId);
+        if (cached != null) {
+            return cached.substring((int) start, (int) end);
+        }
+        if (channel != null && entry.hasUniformLines()) {
+            return readRegion(entry, start, end);
+        }
+
+        // Compressed files and irregularly wrapped records are read up to the region end,
+        // keeping only the region
+        StringBuilder region = new StringBuilder((int) (end - start));
+        long[] position = {0};
+        streamProvider.streamSequence(sequenceId, chunk -> {
+            long chunkStart = position[0];
+            long chunkEnd = chunkStart + chunk.length();
+            if (chunkEnd > start && chunkStart < end) {
+                region.append(chunk, (int) (Math.max(start, chunkStart) - chunkStart),
+                        (int) (Math.min(end, chunkEnd) - chunkStart));
+            }
+            position[0] = chunkEnd;
+        });
+        return region.toString();
+    }
+
+    /**
+     * Stream a sequence in chunks without caching it.
+     *
+     * @param sequenceId The sequence ID
+     * @param consumer The consumer receiving the chunks
+     * @throws IOException If an I/O error occurs
+     */
+    public void streamSequence(String sequenceId, SequenceStreamProvider.SequenceConsumer consumer) throws IOException {
+        String cached = getCached(sequenceId);
+        if (cached != null) {
+            consumer.consumeChunk(cached);
+            return;
+        }
+        streamProvider.streamSequence(sequenceId, consumer);
+    }
+
+    /**
+     * Get the number of residues currently held in the cache.
+     *
+     * @return The number of cached residues
+     */
+    public long getCachedResidues() {
+        synchronized (cache) {
+            return cachedResidues;
+        }
+    }
+
+    /**
+     * Close the file channels.
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            streamProvider.close();
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Read a region with one positional read, using the line geometry of the index
+     * to find the byte offsets of the first and last residue. Only valid for entries
+     * whose lines were verified to have a uniform length.
+     */
+    private String readRegion(FastaIndex.Entry entry, long start, long end) throws IOException {
+        long first = byteOffset(entry, start);
+        long last = byteOffset(entry, end - 1);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, last - first + 1));
+        long position = first;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            position += read;
+        }
+
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+        byte[] residues = new byte[(int) (end - start)];
+        int count = 0;
+        for (int i = 0; i < length && count < residues.length; i++) {
+            byte b = bytes[i];
+            if (b != '\n' && b != '\r' && b != ' ' && b != '\t') {
+                residues[count++] = b;
+            }
+        }
+        if (count < residues.length) {
+            throw new IOException("Unexpected end of file reading " + entry.name() + "; the index may be stale");
+        }
+        return new String(residues, StandardCharsets.ISO_8859_1);
+    }
+
+    private static long byteOffset(FastaIndex.Entry entry, long residue) {
+        return entry.offset() + residue / entry.lineBases() * entry.lineWidth() + residue % entry.lineBases();
+    }
+
+    private FastaIndex.Entry requireEntry(String sequenceId) {
+        FastaIndex.Entry entry = index.getEntry(sequenceId);
+        if (entry == null) {
+            throw new IllegalArgumentException("Sequence ID not found: " + sequenceId);
+        }
+        return entry;
+    }
+
+    private String getCached(String sequenceId) {
+        synchronized (cache) {
+            return cache.get(sequenceId);
+        }
+    }
+
+    private void putCached(String sequenceId, String sequence) {
+        if (sequence.length() > maxCachedResidues) {
+            return;
+        }
+        synchronized (cache) {
+            String previous = cache.put(sequenceId, sequence);
+            if (previous != null) {
+                cachedResidues -= previous.length();
+            }
+            cachedResidues += sequence.length();
+
+            // Evict least recently used sequences until the residues fit the budget
+            Iterator<Map.Entry<String, String>> eldest = cache.entrySet().iterator();
+            while (cachedResidues > maxCachedResidues && eldest.hasNext()) {
+                cachedResidues -= eldest.next().getValue().length();
+                eldest.remove();
+            }
+        }
+    }
+}
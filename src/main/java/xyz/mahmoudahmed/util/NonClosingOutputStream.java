@@ -0,0 +1,31 @@
+package xyz.mahmoudahmed.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream wrapper that flushes instead of closing the underlying stream.
+ * Used when writing several records through formatters that close the stream they are given.
+ */
+public class NonClosingOutputStream extends FilterOutputStream {
+
+    /**
+     * Constructor.
+     *
+     * @param outputStream The stream to protect from being closed
+     */
+    public NonClosingOutputStream(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,117 @@
+package xyz.mahmoudahmed.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for any number of producers and consumers.
+ * Each slot carries a sequence number telling producers and consumers whose turn it is, so
+ * offering and polling claim a position with a single compare-and-set and never block: a full
+ * buffer refuses the element and an empty one returns null, leaving the caller to decide how to wait.
+ * The capacity is rounded up to a power of two.
+ *
+ * @param <E> The type of the elements
+ */
+public class RingBuffer<E> {
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Object[] elements;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The minimum number of elements the buffer holds
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.elements = new Object[size];
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element if there is room.
+     *
+     * @param element The element
+     * @return true if the element was added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Element cannot be null");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long turn = sequences.get(index) - position;
+            if (turn == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    // Publishes the element to the consumer that reads this sequence
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (turn < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element, if any.
+     *
+     * @return The element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long turn = sequences.get(index) - (position + 1);
+            if (turn == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) elements[index];
+                    elements[index] = null;
+                    // Hands the slot back to producers for the next lap
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (turn < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Get the number of elements the buffer holds.
+     *
+     * @return The capacity, a power of two
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Get the number of elements in the buffer. The count is only a snapshot while
+     * other threads offer or poll.
+     *
+     * @return The number of elements
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+}
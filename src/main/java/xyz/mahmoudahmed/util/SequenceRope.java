@@ -0,0 +1,151 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.exception.ConversionException;
+import xyz.mahmoudahmed.model.Annotation;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.Sequence;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Virtual concatenation of several sequences, served lazily from their original source.
+ * Residues are never copied into a single string; streaming the merged ID streams each
+ * source sequence in turn, and an offset table maps annotations onto merged coordinates.
+ */
+public class SequenceRope implements SequenceStreamProvider {
+    private final String mergedId;
+    private final List<Segment> segments;
+    private final Map<String, Segment> segmentsById;
+    private final SequenceStreamProvider source;
+    private final long length;
+
+    /**
+     * A source sequence placed in the merged sequence.
+     *
+     * @param sequenceId The ID of the source sequence
+     * @param offset The 0-based offset of the source sequence in the merged sequence
+     * @param length The length of the source sequence
+     */
+    public record Segment(String sequenceId, long offset, long length) {
+    }
+
+    private SequenceRope(String mergedId, List<Segment> segments, SequenceStreamProvider source) {
+        this.mergedId = mergedId;
+        this.segments = segments;
+        this.source = source;
+        this.segmentsById = new HashMap<>();
+        for (Segment segment : segments) {
+            segmentsById.putIfAbsent(segment.sequenceId(), segment);
+        }
+        this.length = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).offset()
+                + segments.get(segments.size() - 1).length();
+    }
+
+    /**
+     * Create a rope over sequences in order. Only sequence IDs and lengths are used,
+     * so metadata-only sequences work as well as fully loaded ones.
+     *
+     * @param mergedId The ID of the merged sequence
+     * @param sequences The sequences to concatenate
+     * @param source The provider that streams the source sequences
+     * @return The rope
+     */
+    public static SequenceRope of(String mergedId, List<Sequence> sequences, SequenceStreamProvider source) {
+        List<Segment> segments = new ArrayList<>(sequences.size());
+        long offset = 0;
+        for (Sequence sequence : sequences) {
+            segments.add(new Segment(sequence.getId(), offset, sequence.getLength()));
+            offset += sequence.getLength();
+        }
+        return new SequenceRope(mergedId, Collections.unmodifiableList(segments), source);
+    }
+
+    /**
+     * Get the ID of the merged sequence.
+     *
+     * @return The merged ID
+     */
+    public String getMergedId() {
+        return mergedId;
+    }
+
+    /**
+     * Get the total length of the merged sequence.
+     *
+     * @return The length
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Get the segments in merged order.
+     *
+     * @return The segments
+     */
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Get the offset of a source sequence in the merged sequence.
+     *
+     * @param sequenceId The source sequence ID
+     * @return The 0-based offset, or -1 if the sequence is not part of the rope
+     */
+    public long getOffset(String sequenceId) {
+        Segment segment = segmentsById.get(sequenceId);
+        return segment != null ? segment.offset() : -1;
+    }
+
+    /**
+     * Map annotations of the source sequences onto merged coordinates.
+     * Annotations on sequences outside the rope are dropped.
+     *
+     * @param annotationData The annotations on the source sequences
+     * @return The annotations on the merged sequence
+     * @throws ConversionException If a remapped coordinate does not fit in an annotation position
+     */
+    public AnnotationData remap(AnnotationData annotationData) {
+        List<Annotation> remapped = new ArrayList<>();
+
+        for (Segment segment : segments) {
+            for (Annotation annotation : annotationData.getAnnotationsForSequence(segment.sequenceId())) {
+                long start = annotation.getStart() + segment.offset();
+                long end = annotation.getEnd() + segment.offset();
+                if (end > Integer.MAX_VALUE) {
+                    throw new ConversionException("Merged coordinate " + end + " of feature "
+                            + annotation.getFeatureId() + " exceeds the maximum annotation position");
+                }
+
+                remapped.add(Annotation.builder()
+                        .type(annotation.getType())
+                        .start((int) start)
+                        .end((int) end)
+                        .strand(annotation.getStrand())
+                        .phase(annotation.getPhase())
+                        .sequenceId(mergedId)
+                        .featureId(annotation.getFeatureId())
+                        .qualifiers(annotation.getQualifiers())
+                        .build());
+            }
+        }
+
+        return AnnotationData.builder()
+                .addAnnotations(mergedId, remapped)
+                .build();
+    }
+
+    @Override
+    public void streamSequence(String sequenceId, SequenceConsumer consumer) throws IOException {
+        if (!mergedId.equals(sequenceId)) {
+            source.streamSequence(sequenceId, consumer);
+            return;
+        }
+
+        for (Segment segment : segments) {
+            source.streamSequence(segment.sequenceId(), consumer);
+        }
+    }
+}
@@ -7,22 +7,29 @@ import xyz.mahmoudahmed.parsers.SequenceParser;
 import xyz.mahmoudahmed.exception.FileProcessingException;
 import xyz.mahmoudahmed.model.*;
 import xyz.mahmoudahmed.service.FormatDetectionService;
+import xyz.mahmoudahmed.util.FastaIndex;
+import xyz.mahmoudahmed.util.FastaIndexCache;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Default implementation of GenbankValidator.
- * This class handles validation of sequence and annotation files.
+ * This class handles validation of sequence and annotation files at the quick,
+ * sampled and exhaustive validation levels.
  */
 public class DefaultGenbankValidator implements GenbankValidator {
     private static final Logger logger = Logger.getLogger(DefaultGenbankValidator.class.getName());
 
+    private static final int QUICK_PREFIX_SIZE = 64 * 1024; // 64KB read for quick checks
+
     private final Map<String, SequenceParser> sequenceParsers = new HashMap<>();
     private final Map<String, AnnotationParser> annotationParsers = new HashMap<>();
     private final FormatDetectionService formatDetectionService;
+    private FastaIndexCache fastaIndexCache = new FastaIndexCache();
 
     /**
      * Create a new validator with default parsers and format detector.
@@ -60,6 +67,15 @@ public class DefaultGenbankValidator implements GenbankValidator {
         }
     }
 
+    /**
+     * Set the FASTA index cache, so sequence files indexed for validation are not scanned again for conversion.
+     *
+     * @param fastaIndexCache The FASTA index cache to use
+     */
+    public void setFastaIndexCache(FastaIndexCache fastaIndexCache) {
+        this.fastaIndexCache = Objects.requireNonNull(fastaIndexCache, "FASTA index cache cannot be null");
+    }
+
     /**
      * Register the default parsers.
      */
@@ -78,24 +94,15 @@ public class DefaultGenbankValidator implements GenbankValidator {
 
     @Override
     public ValidationResult validateSequence(File file) throws IOException {
+        return validateSequence(file, ValidationOptions.defaults());
+    }
+
+    @Override
+    public ValidationResult validateSequence(File file, ValidationOptions options) throws IOException {
         try {
             // Detect format using the FormatDetectionService
             String format = formatDetectionService.detectFormat(file);
 
-            // For tests to pass: specific handling of empty sequence case
-            if (file.getName().contains("empty")) {
-                return ValidationResult.builder()
-                        .valid(false)
-                        .detectedFormat(format)
-                        .sequenceCount(1)
-                        .issues(Collections.singletonList(ValidationIssue.builder()
-                                .type("WARNING")
-                                .message("Empty sequence found")
-                                .build()))
-                        .summary("Found 1 sequences, 1 empty")
-                        .build();
-            }
-
             // Check if we support this format
             if (!sequenceParsers.containsKey(format)) {
                 return ValidationResult.builder()
@@ -109,49 +116,18 @@ public class DefaultGenbankValidator implements GenbankValidator {
                         .build();
             }
 
-            // Parse the sequences
-            SequenceParser parser = sequenceParsers.get(format);
-            SequenceData sequenceData = parser.parse(file);
-
-            // Check for empty sequences
-            List<ValidationIssue> issues = new ArrayList<>();
-            int emptyCount = 0;
-
-            for (Sequence sequence : sequenceData.getSequences()) {
-                if (sequence.getSequence() == null || sequence.getSequence().isEmpty()) {
-                    emptyCount++;
-                    issues.add(ValidationIssue.builder()
-                            .type("WARNING")
-                            .message("Empty sequence found: " + sequence.getId())
-                            .build());
-                }
-
-                // Check for non-standard characters in DNA sequences
-                if (sequence.getSequence() != null &&
-                        (sequence.getMoleculeType() == null ||
-                                sequence.getMoleculeType().equalsIgnoreCase("DNA"))) {
-
-                    Set<Character> nonStandardChars = findNonStandardChars(sequence.getSequence());
-                    if (!nonStandardChars.isEmpty()) {
-                        issues.add(ValidationIssue.builder()
-                                .type("WARNING")
-                                .message("Non-standard characters found in sequence " + sequence.getId() +
-                                        ": " + formatNonStandardChars(nonStandardChars))
-                                .build());
-                    }
-                }
+            // Byte-level checks are only available for FASTA; other formats are parsed
+            if (!"FASTA".equals(format)) {
+                return options.getLevel() == ValidationLevel.QUICK
+                        ? formatOnlyResult(format, "sequence")
+                        : parseSequences(file, format, options);
             }
 
-            boolean valid = sequenceData.getCount() > 0 && emptyCount < sequenceData.getCount();
-
-            return ValidationResult.builder()
-                    .valid(valid)
-                    .detectedFormat(format)
-                    .sequenceCount(sequenceData.getCount())
-                    .issues(issues)
-                    .summary(String.format("Found %d sequences, %d empty",
-                            sequenceData.getCount(), emptyCount))
-                    .build();
+            return switch (options.getLevel()) {
+                case QUICK -> quickFastaCheck(file, format, options);
+                case SAMPLED -> sampleFastaSequences(file, format, options);
+                case EXHAUSTIVE -> scanFastaSequences(file, format, options);
+            };
 
         } catch (FileProcessingException e) {
             logger.log(Level.SEVERE, "Error detecting file format: " + e.getMessage(), e);
@@ -178,27 +154,17 @@ public class DefaultGenbankValidator implements GenbankValidator {
 
     @Override
     public ValidationResult validateAnnotation(File file, String format) throws IOException {
+        return validateAnnotation(file, format, ValidationOptions.defaults());
+    }
+
+    @Override
+    public ValidationResult validateAnnotation(File file, String format, ValidationOptions options) throws IOException {
         try {
             // Detect format if not specified using FormatDetectionService
             if (format == null || format.isEmpty()) {
                 format = formatDetectionService.detectFormat(file);
             }
 
-            // Handle invalid coordinates test case specially
-            if (file.getName().contains("invalid_coords")) {
-                return ValidationResult.builder()
-                        .valid(false)
-                        .detectedFormat(format)
-                        .sequenceCount(1)
-                        .featureCount(2)
-                        .issues(Collections.singletonList(ValidationIssue.builder()
-                                .type("WARNING")
-                                .message("Invalid coordinates for feature: start=-10, end=20")
-                                .build()))
-                        .summary("Found annotations for 1 sequences, 2 features total, 1 invalid")
-                        .build();
-            }
-
             // Check if the format is supported
             if (!annotationParsers.containsKey(format)) {
                 return ValidationResult.builder()
@@ -212,14 +178,25 @@ public class DefaultGenbankValidator implements GenbankValidator {
                         .build();
             }
 
+            // FASTA annotation records span several lines, so they cannot be checked line by line
+            boolean lineBased = !"FASTA".equals(format);
+
+            if (options.getLevel() == ValidationLevel.QUICK) {
+                return lineBased ? quickAnnotationCheck(file, format, options) : formatOnlyResult(format, "annotation");
+            }
+            if (options.getLevel() == ValidationLevel.SAMPLED && lineBased) {
+                return sampleAnnotations(file, format, options);
+            }
+
             // Parse the annotations
             AnnotationParser parser = annotationParsers.get(format);
             AnnotationData annotationData = parser.parse(file);
 
             // Check for invalid features
-            List<ValidationIssue> issues = new ArrayList<>();
+            IssueCollector issues = new IssueCollector(options);
             int invalidCount = 0;
 
+            outer:
             for (Map.Entry<String, List<Annotation>> entry :
                     annotationData.getAnnotationsBySequence().entrySet()) {
 
@@ -227,7 +204,7 @@ public class DefaultGenbankValidator implements GenbankValidator {
                     // Check for invalid coordinates
                     if (annotation.getStart() < 0 || annotation.getEnd() < annotation.getStart()) {
                         invalidCount++;
-                        issues.add(ValidationIssue.builder()
+                        boolean proceed = issues.add(ValidationIssue.builder()
                                 .type("WARNING")
                                 .message(String.format(
                                         "Invalid coordinates for feature %s: start=%d, end=%d",
@@ -235,6 +212,9 @@ public class DefaultGenbankValidator implements GenbankValidator {
                                         annotation.getStart(),
                                         annotation.getEnd()))
                                 .build());
+                        if (!proceed) {
+                            break outer;
+                        }
                     }
                 }
             }
@@ -247,12 +227,12 @@ public class DefaultGenbankValidator implements GenbankValidator {
                     .detectedFormat(format)
                     .sequenceCount(annotationData.getAnnotationsBySequence().size())
                     .featureCount(annotationData.getTotalCount())
-                    .issues(issues)
-                    .summary(String.format(
+                    .issues(issues.getIssues())
+                    .summary(issues.summarize(String.format(
                             "Found annotations for %d sequences, %d features total, %d invalid",
                             annotationData.getAnnotationsBySequence().size(),
                             annotationData.getTotalCount(),
-                            invalidCount))
+                            invalidCount)))
                     .build();
 
         } catch (FileProcessingException e) {
@@ -281,6 +261,12 @@ public class DefaultGenbankValidator implements GenbankValidator {
 
     @Override
     public ValidationResult validateCompatibility(File sequenceFile, File annotationFile) throws IOException {
+        return validateCompatibility(sequenceFile, annotationFile, ValidationOptions.defaults());
+    }
+
+    @Override
+    public ValidationResult validateCompatibility(File sequenceFile, File annotationFile,
+                                                  ValidationOptions options) throws IOException {
         try {
             // Detect formats using FormatDetectionService
             String sequenceFormat = formatDetectionService.detectFormat(sequenceFile);
@@ -309,118 +295,23 @@ public class DefaultGenbankValidator implements GenbankValidator {
                         .build();
             }
 
-            // For tests to pass: special cases based on file names
-            if (sequenceFile.getName().contains("unmatched") || annotationFile.getName().contains("unmatched")) {
-                return ValidationResult.builder()
-                        .valid(false)
-                        .sequenceCount(1)
-                        .featureCount(2)
-                        .addIssue(ValidationIssue.builder()
-                                .type("WARNING")
-                                .message("Annotation references sequence that doesn't exist: seq2")
-                                .build())
-                        .summary("Found 1 sequences and 2 features. 1 sequence references unmatched, 0 features out of bounds.")
-                        .build();
+            if (options.getLevel() == ValidationLevel.QUICK) {
+                return quickCompatibilityCheck(sequenceFile, sequenceFormat, annotationFile, annotationFormat, options);
             }
 
-            if (sequenceFile.getName().contains("out_of_bounds") || annotationFile.getName().contains("out_of_bounds")) {
-                return ValidationResult.builder()
-                        .valid(false)
-                        .sequenceCount(1)
-                        .featureCount(2)
-                        .addIssue(ValidationIssue.builder()
-                                .type("WARNING")
-                                .message("Feature extends beyond sequence length: end=200, seq_length=100")
-                                .build())
-                        .summary("Found 1 sequences and 2 features. 0 sequence references unmatched, 1 features out of bounds.")
-                        .build();
+            // Only sequence lengths are needed, so index the sequence file instead of loading it
+            FastaIndex sequenceIndex = "FASTA".equals(sequenceFormat)
+                    ? fastaIndexCache.get(sequenceFile)
+                    : FastaIndex.fromSequenceData(sequenceParsers.get(sequenceFormat).parseMetadataOnly(sequenceFile));
+
+            if (options.getLevel() == ValidationLevel.SAMPLED && !"FASTA".equals(annotationFormat)) {
+                return sampleCompatibility(sequenceIndex, annotationFile, annotationFormat, options);
             }
 
-            // Parse both files
-            SequenceParser sequenceParser = sequenceParsers.get(sequenceFormat);
             AnnotationParser annotationParser = annotationParsers.get(annotationFormat);
-
-            SequenceData sequenceData = sequenceParser.parse(sequenceFile);
             AnnotationData annotationData = annotationParser.parse(annotationFile);
 
-            // Check compatibility
-            List<ValidationIssue> issues = new ArrayList<>();
-
-            // Build set of sequence IDs for quick lookup
-            Set<String> sequenceIds = new HashSet<>();
-            for (Sequence sequence : sequenceData.getSequences()) {
-                sequenceIds.add(sequence.getId());
-            }
-
-            // Check for annotations that reference non-existent sequences
-            int unmatchedCount = 0;
-            for (String annotationSeqId : annotationData.getAnnotationsBySequence().keySet()) {
-                if (!sequenceIds.contains(annotationSeqId)) {
-                    unmatchedCount++;
-                    issues.add(ValidationIssue.builder()
-                            .type("WARNING")
-                            .message("Annotation references sequence that doesn't exist: " + annotationSeqId)
-                            .build());
-                }
-            }
-
-            // Check for annotations that extend beyond sequence bounds
-            int outOfBoundsCount = 0;
-            for (Sequence sequence : sequenceData.getSequences()) {
-                List<Annotation> annotations = annotationData.getAnnotationsForSequence(sequence.getId());
-                if (annotations == null) {
-                    continue;
-                }
-
-                long seqLength = sequence.getLength();
-
-                for (Annotation annotation : annotations) {
-                    if (annotation.getEnd() > seqLength) {
-                        outOfBoundsCount++;
-                        issues.add(ValidationIssue.builder()
-                                .type("WARNING")
-                                .message(String.format(
-                                        "Feature %s extends beyond sequence %s length: end=%d, seq_length=%d",
-                                        annotation.getFeatureId(),
-                                        sequence.getId(),
-                                        annotation.getEnd(),
-                                        seqLength))
-                                .build());
-                    }
-                }
-            }
-
-            // If this is a test with "valid" in the name, return valid=true
-            if (sequenceFile.getName().contains("valid") && annotationFile.getName().contains("valid")) {
-                return ValidationResult.builder()
-                        .valid(true)
-                        .sequenceCount(sequenceData.getCount())
-                        .featureCount(annotationData.getTotalCount())
-                        .issues(issues)
-                        .summary(String.format(
-                                "Found %d sequences and %d features. %d sequence references unmatched, %d features out of bounds.",
-                                sequenceData.getCount(),
-                                annotationData.getTotalCount(),
-                                unmatchedCount,
-                                outOfBoundsCount))
-                        .build();
-            }
-
-            // For a real implementation, use this logic:
-            boolean valid = unmatchedCount == 0 && outOfBoundsCount == 0;
-
-            return ValidationResult.builder()
-                    .valid(valid)
-                    .sequenceCount(sequenceData.getCount())
-                    .featureCount(annotationData.getTotalCount())
-                    .issues(issues)
-                    .summary(String.format(
-                            "Found %d sequences and %d features. %d sequence references unmatched, %d features out of bounds.",
-                            sequenceData.getCount(),
-                            annotationData.getTotalCount(),
-                            unmatchedCount,
-                            outOfBoundsCount))
-                    .build();
+            return validateCompatibility(sequenceIndex, annotationData, options);
 
         } catch (FileProcessingException e) {
             logger.log(Level.SEVERE, "Error detecting file format: " + e.getMessage(), e);
@@ -445,30 +336,705 @@ public class DefaultGenbankValidator implements GenbankValidator {
         }
     }
 
+    @Override
+    public ValidationResult validateCompatibility(SequenceData sequenceData, AnnotationData annotationData) {
+        return validateCompatibility(FastaIndex.fromSequenceData(sequenceData), annotationData);
+    }
+
     /**
-     * Find non-standard characters in a DNA sequence.
+     * Validate compatibility between a sequence length index and annotation data.
+     *
+     * @param sequenceIndex The sequence length index
+     * @param annotationData The annotation data
+     * @return The validation result
+     */
+    public ValidationResult validateCompatibility(FastaIndex sequenceIndex, AnnotationData annotationData) {
+        return validateCompatibility(sequenceIndex, annotationData, ValidationOptions.defaults());
+    }
+
+    /**
+     * Validate compatibility between a sequence length index and annotation data.
+     * Annotations are checked in parallel per sequence ID, and IDs that are not indexed
+     * are reported together with near-miss suggestions such as version suffix differences.
+     *
+     * @param sequenceIndex The sequence length index
+     * @param annotationData The annotation data
+     * @param options The validation options
+     * @return The validation result
+     */
+    public ValidationResult validateCompatibility(FastaIndex sequenceIndex, AnnotationData annotationData,
+                                                  ValidationOptions options) {
+        return checkCompatibility(sequenceIndex, annotationData, options);
+    }
+
+    /**
+     * Check annotation data against a sequence length index. This check needs no parsers, so it
+     * also serves as the default for validators that do not implement the data overloads.
+     *
+     * @param sequenceIndex The sequence length index
+     * @param annotationData The annotation data
+     * @param options The validation options
+     * @return The validation result
+     */
+    static ValidationResult checkCompatibility(FastaIndex sequenceIndex, AnnotationData annotationData,
+                                               ValidationOptions options) {
+        List<SequenceCheck> checks = annotationData.getAnnotationsBySequence().entrySet()
+                .parallelStream()
+                .map(entry -> checkSequence(sequenceIndex, entry.getKey(), entry.getValue()))
+                .toList();
+
+        IssueCollector issues = new IssueCollector(options);
+        int unmatchedCount = 0;
+        int outOfBoundsCount = 0;
+        int duplicateCount = sequenceIndex.getDuplicateNames().size();
+
+        for (String duplicateName : sequenceIndex.getDuplicateNames()) {
+            if (!issues.add(duplicateIdIssue(duplicateName))) {
+                break;
+            }
+        }
+
+        for (SequenceCheck check : checks) {
+            unmatchedCount += check.unmatched ? 1 : 0;
+            outOfBoundsCount += check.outOfBoundsCount;
+
+            for (ValidationIssue issue : check.issues) {
+                issues.add(issue);
+            }
+            if (issues.shouldStop()) {
+                break;
+            }
+        }
+
+        boolean valid = unmatchedCount == 0 && outOfBoundsCount == 0 && duplicateCount == 0;
+        String summary = String.format(
+                "Found %d sequences and %d features. %d sequence references unmatched, %d features out of bounds.",
+                sequenceIndex.size(),
+                annotationData.getTotalCount(),
+                unmatchedCount,
+                outOfBoundsCount);
+        if (duplicateCount > 0) {
+            summary += String.format(" %d duplicate sequence IDs.", duplicateCount);
+        }
+
+        return ValidationResult.builder()
+                .valid(valid)
+                .sequenceCount(sequenceIndex.size())
+                .featureCount(annotationData.getTotalCount())
+                .issues(issues.getIssues())
+                .summary(issues.summarize(summary))
+                .build();
+    }
+
+    /**
+     * A record whose ID was already used by an earlier record. The records of a file are looked
+     * up by ID when converting, so such a file cannot be converted without losing records.
+     */
+    private static ValidationIssue duplicateIdIssue(String sequenceId) {
+        return ValidationIssue.builder()
+                .type("ERROR")
+                .message("Duplicate sequence ID: " + sequenceId)
+                .build();
+    }
+
+    /**
+     * Check the annotations of a single sequence ID against the index.
+     */
+    private static SequenceCheck checkSequence(FastaIndex sequenceIndex, String sequenceId, List<Annotation> annotations) {
+        SequenceCheck check = new SequenceCheck();
+        long seqLength = sequenceIndex.getLength(sequenceId);
+
+        // Check for annotations that reference non-existent sequences
+        if (seqLength < 0) {
+            check.unmatched = true;
+            check.issues.add(unmatchedSequenceIssue(sequenceIndex, sequenceId));
+            return check;
+        }
+
+        // Check for annotations that extend beyond sequence bounds
+        for (Annotation annotation : annotations) {
+            if (annotation.getEnd() > seqLength) {
+                check.outOfBoundsCount++;
+                check.issues.add(ValidationIssue.builder()
+                        .type("WARNING")
+                        .message(String.format(
+                                "Feature %s extends beyond sequence %s length: end=%d, seq_length=%d",
+                                annotation.getFeatureId(),
+                                sequenceId,
+                                annotation.getEnd(),
+                                seqLength))
+                        .build());
+            }
+        }
+
+        return check;
+    }
+
+    private static ValidationIssue unmatchedSequenceIssue(FastaIndex sequenceIndex, String sequenceId) {
+        List<String> suggestions = sequenceIndex.suggest(sequenceId);
+        String message = "Annotation references sequence that doesn't exist: " + sequenceId;
+        if (!suggestions.isEmpty()) {
+            message += " (did you mean " + String.join(", ", suggestions) + "?)";
+        }
+        return ValidationIssue.builder()
+                .type("WARNING")
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Issues found for the annotations of one sequence ID.
+     */
+    private static class SequenceCheck {
+        private final List<ValidationIssue> issues = new ArrayList<>();
+        private boolean unmatched;
+        private int outOfBoundsCount;
+    }
+
+    /**
+     * Result for formats that only support format detection at the requested level.
+     */
+    private ValidationResult formatOnlyResult(String format, String kind) {
+        return ValidationResult.builder()
+                .valid(true)
+                .detectedFormat(format)
+                .summary("Quick check: detected " + kind + " format " + format)
+                .build();
+    }
+
+    /**
+     * Quick check: the first significant line of a FASTA file must be a header.
+     */
+    private ValidationResult quickFastaCheck(File file, String format, ValidationOptions options) throws IOException {
+        FileSampler.Window prefix = FileSampler.readPrefix(file, QUICK_PREFIX_SIZE);
+        IssueCollector issues = new IssueCollector(options);
+        int[] headerCount = {0};
+        boolean[] sawData = {false};
+
+        prefix.forEachLine((data, start, end, offset) -> {
+            int first = skipWhitespace(data, start, end);
+            if (first == end) {
+                return true;
+            }
+            if (data[first] == '>') {
+                headerCount[0]++;
+            } else if (headerCount[0] == 0 && data[first] != '#' && data[first] != ';') {
+                sawData[0] = true;
+                issues.add(ValidationIssue.builder()
+                        .type("ERROR")
+                        .message("Sequence data found before the first FASTA header")
+                        .location("offset:" + offset)
+                        .build());
+                return false;
+            }
+            return true;
+        });
+
+        if (headerCount[0] == 0 && !sawData[0]) {
+            issues.add(ValidationIssue.builder()
+                    .type("ERROR")
+                    .message("No FASTA header found in the first " + prefix.data().length + " bytes")
+                    .build());
+        }
+
+        return ValidationResult.builder()
+                .valid(headerCount[0] > 0 && !sawData[0])
+                .detectedFormat(format)
+                .sequenceCount(headerCount[0])
+                .issues(issues.getIssues())
+                .summary(issues.summarize(String.format("Quick check: %d sequence headers in the first %d bytes",
+                        headerCount[0], prefix.data().length)))
+                .build();
+    }
+
+    /**
+     * Sampled check: the quick header check plus character checks over byte windows spread across the file.
+     */
+    private ValidationResult sampleFastaSequences(File file, String format, ValidationOptions options) throws IOException {
+        ValidationResult quick = quickFastaCheck(file, format, options);
+        if (!quick.isValid()) {
+            return quick;
+        }
+
+        List<FileSampler.Window> windows = FileSampler.sample(file,
+                options.getSampleWindowCount(), options.getSampleWindowSize(), options.getRandomSeed());
+        if (windows.size() == 1 && windows.get(0).complete()) {
+            // Small files are cheaper to check completely
+            return scanFastaSequences(file, format, options);
+        }
+
+        IssueCollector issues = new IssueCollector(options);
+        long[] counts = new long[3]; // headers, empty records, residues
+        long sampledBytes = 0;
+
+        for (FileSampler.Window window : windows) {
+            sampledBytes += window.data().length;
+            long[] nonStandardMask = new long[4];
+            boolean[] previousWasHeader = {false};
+            String[] previousHeader = {null};
+
+            boolean proceed = window.forEachLine((data, start, end, offset) -> {
+                int first = skipWhitespace(data, start, end);
+                if (first < end && data[first] == '>') {
+                    if (previousWasHeader[0]) {
+                        counts[1]++;
+                        if (!issues.add(ValidationIssue.builder()
+                                .type("WARNING")
+                                .message("Empty sequence found: " + FastaIndex.parseName(previousHeader[0]))
+                                .build())) {
+                            return false;
+                        }
+                    }
+                    counts[0]++;
+                    previousWasHeader[0] = true;
+                    previousHeader[0] = new String(data, first + 1, end - first - 1, StandardCharsets.UTF_8);
+                    return true;
+                }
+
+                for (int i = first; i < end; i++) {
+                    byte cls = FastaSequenceScanner.classify(data[i]);
+                    if (cls == FastaSequenceScanner.CLASS_WHITESPACE) {
+                        continue;
+                    }
+                    counts[2]++;
+                    previousWasHeader[0] = false;
+                    if (cls == FastaSequenceScanner.CLASS_IUPAC || cls == FastaSequenceScanner.CLASS_INVALID) {
+                        int unsigned = data[i] & 0xFF;
+                        nonStandardMask[unsigned >>> 6] |= 1L << (unsigned & 63);
+                    }
+                }
+                return true;
+            });
+
+            String nonStandardChars = maskToString(nonStandardMask);
+            if (proceed && !nonStandardChars.isEmpty()) {
+                proceed = issues.add(ValidationIssue.builder()
+                        .type("WARNING")
+                        .message("Non-standard characters found near byte offset " + window.offset() + ": "
+                                + nonStandardChars)
+                        .location("offset:" + window.offset())
+                        .build());
+            }
+            if (!proceed) {
+                break;
+            }
+        }
+
+        return ValidationResult.builder()
+                .valid(counts[2] > 0)
+                .detectedFormat(format)
+                .sequenceCount((int) counts[0])
+                .issues(issues.getIssues())
+                .summary(issues.summarize(String.format(
+                        "Sampled %d windows (%d of %d bytes): %d sequence headers, %d empty",
+                        windows.size(), sampledBytes, file.length(), counts[0], counts[1])))
+                .build();
+    }
+
+    /**
+     * Validate a FASTA file by streaming its bytes through a FastaSequenceScanner.
+     * Only per-record counters are kept, so memory use is independent of the sequence sizes.
+     */
+    private ValidationResult scanFastaSequences(File file, String format, ValidationOptions options) throws IOException {
+        IssueCollector issues = new IssueCollector(options);
+        int[] emptyCount = {0};
+        Set<String> sequenceIds = new HashSet<>();
+        int[] duplicateCount = {0};
+
+        long count = new FastaSequenceScanner().scan(file, stats -> {
+            if (!sequenceIds.add(stats.getId())) {
+                duplicateCount[0]++;
+                if (!issues.add(duplicateIdIssue(stats.getId()))) {
+                    return false;
+                }
+            }
+
+            if (stats.isEmpty()) {
+                emptyCount[0]++;
+                if (!issues.add(ValidationIssue.builder()
+                        .type("WARNING")
+                        .message("Empty sequence found: " + stats.getId())
+                        .build())) {
+                    return false;
+                }
+            }
+
+            if (stats.hasNonStandardCharacters()) {
+                long[] positions = stats.getInvalidPositions();
+                return issues.add(ValidationIssue.builder()
+                        .type("WARNING")
+                        .message("Non-standard characters found in sequence " + stats.getId() +
+                                ": " + stats.getNonStandardCharacters())
+                        .location(positions.length > 0 ? formatPositions(stats.getId(), positions) : null)
+                        .build());
+            }
+            return true;
+        });
+
+        boolean valid = count > 0 && emptyCount[0] < count && duplicateCount[0] == 0;
+
+        return ValidationResult.builder()
+                .valid(valid)
+                .detectedFormat(format)
+                .sequenceCount((int) count)
+                .issues(issues.getIssues())
+                .summary(issues.summarize(duplicateSummary(
+                        String.format("Found %d sequences, %d empty", count, emptyCount[0]), duplicateCount[0])))
+                .build();
+    }
+
+    /**
+     * Validate a non-FASTA sequence file with its registered parser.
+     */
+    private ValidationResult parseSequences(File file, String format, ValidationOptions options) throws IOException {
+        SequenceParser parser = sequenceParsers.get(format);
+        SequenceData sequenceData = parser.parse(file);
+
+        // Check for empty sequences
+        IssueCollector issues = new IssueCollector(options);
+        int emptyCount = 0;
+        Set<String> sequenceIds = new HashSet<>();
+        int duplicateCount = 0;
+
+        for (Sequence sequence : sequenceData.getSequences()) {
+            if (!sequenceIds.add(sequence.getId())) {
+                duplicateCount++;
+                issues.add(duplicateIdIssue(sequence.getId()));
+            }
+
+            if (sequence.getSequence() == null || sequence.getSequence().isEmpty()) {
+                emptyCount++;
+                issues.add(ValidationIssue.builder()
+                        .type("WARNING")
+                        .message("Empty sequence found: " + sequence.getId())
+                        .build());
+            }
+
+            // Check for non-standard characters in DNA sequences
+            if (sequence.getSequence() != null &&
+                    (sequence.getMoleculeType() == null ||
+                            sequence.getMoleculeType().equalsIgnoreCase("DNA"))) {
+
+                String nonStandardChars = findNonStandardChars(sequence.getSequence());
+                if (!nonStandardChars.isEmpty()) {
+                    issues.add(ValidationIssue.builder()
+                            .type("WARNING")
+                            .message("Non-standard characters found in sequence " + sequence.getId() +
+                                    ": " + nonStandardChars)
+                            .build());
+                }
+            }
+
+            if (issues.shouldStop()) {
+                break;
+            }
+        }
+
+        boolean valid = sequenceData.getCount() > 0 && emptyCount < sequenceData.getCount() && duplicateCount == 0;
+
+        return ValidationResult.builder()
+                .valid(valid)
+                .detectedFormat(format)
+                .sequenceCount(sequenceData.getCount())
+                .issues(issues.getIssues())
+                .summary(issues.summarize(duplicateSummary(String.format("Found %d sequences, %d empty",
+                        sequenceData.getCount(), emptyCount), duplicateCount)))
+                .build();
+    }
+
+    private static String duplicateSummary(String summary, int duplicateCount) {
+        return duplicateCount > 0 ? summary + String.format(", %d duplicate IDs", duplicateCount) : summary;
+    }
+
+    /**
+     * Quick check: the first data line of a line-based annotation file must be well formed.
+     */
+    private ValidationResult quickAnnotationCheck(File file, String format, ValidationOptions options) throws IOException {
+        FileSampler.Window prefix = FileSampler.readPrefix(file, QUICK_PREFIX_SIZE);
+        IssueCollector issues = new IssueCollector(options);
+        AnnotationLine[] firstRecord = {null};
+
+        prefix.forEachLine((data, start, end, offset) -> {
+            String line = new String(data, start, end - start, StandardCharsets.UTF_8);
+            try {
+                firstRecord[0] = AnnotationLine.parse(format, line);
+            } catch (IllegalArgumentException e) {
+                issues.add(ValidationIssue.builder()
+                        .type("ERROR")
+                        .message(e.getMessage())
+                        .location("offset:" + offset)
+                        .build());
+                return false;
+            }
+            return firstRecord[0] == null;
+        });
+
+        if (firstRecord[0] == null && issues.getIssues().isEmpty()) {
+            issues.add(ValidationIssue.builder()
+                    .type("ERROR")
+                    .message("No " + format + " records found in the first " + prefix.data().length + " bytes")
+                    .build());
+        }
+
+        boolean valid = firstRecord[0] != null && firstRecord[0].isValid();
+        if (firstRecord[0] != null && !valid) {
+            issues.add(firstRecord[0].invalidCoordinatesIssue(0));
+        }
+
+        return ValidationResult.builder()
+                .valid(valid)
+                .detectedFormat(format)
+                .issues(issues.getIssues())
+                .summary(issues.summarize("Quick check: " + (valid
+                        ? "first " + format + " record is well formed"
+                        : "first " + format + " record is missing or malformed")))
+                .build();
+    }
+
+    /**
+     * Sampled check: parse and check every annotation line inside byte windows spread across the file.
+     */
+    private ValidationResult sampleAnnotations(File file, String format, ValidationOptions options) throws IOException {
+        List<FileSampler.Window> windows = FileSampler.sample(file,
+                options.getSampleWindowCount(), options.getSampleWindowSize(), options.getRandomSeed());
+        IssueCollector issues = new IssueCollector(options);
+        Set<String> sequenceIds = new HashSet<>();
+        int[] counts = new int[2]; // features, invalid
+
+        for (FileSampler.Window window : windows) {
+            boolean proceed = window.forEachLine((data, start, end, offset) -> {
+                AnnotationLine record;
+                try {
+                    record = AnnotationLine.parse(format, new String(data, start, end - start, StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {
+                    counts[1]++;
+                    return issues.add(ValidationIssue.builder()
+                            .type("WARNING")
+                            .message(e.getMessage())
+                            .location("offset:" + offset)
+                            .build());
+                }
+                if (record == null) {
+                    return true;
+                }
+
+                counts[0]++;
+                sequenceIds.add(record.sequenceId());
+                if (!record.isValid()) {
+                    counts[1]++;
+                    return issues.add(record.invalidCoordinatesIssue(offset));
+                }
+                return true;
+            });
+            if (!proceed) {
+                break;
+            }
+        }
+
+        boolean valid = counts[0] > 0 && counts[1] < counts[0];
+
+        return ValidationResult.builder()
+                .valid(valid)
+                .detectedFormat(format)
+                .sequenceCount(sequenceIds.size())
+                .featureCount(counts[0])
+                .issues(issues.getIssues())
+                .summary(issues.summarize(String.format(
+                        "Sampled %d windows: annotations for %d sequences, %d features sampled, %d invalid",
+                        windows.size(), sequenceIds.size(), counts[0], counts[1])))
+                .build();
+    }
+
+    /**
+     * Quick check of both files without reading past the first records.
+     */
+    private ValidationResult quickCompatibilityCheck(File sequenceFile, String sequenceFormat,
+                                                     File annotationFile, String annotationFormat,
+                                                     ValidationOptions options) throws IOException {
+        ValidationResult sequenceResult = "FASTA".equals(sequenceFormat)
+                ? quickFastaCheck(sequenceFile, sequenceFormat, options)
+                : formatOnlyResult(sequenceFormat, "sequence");
+        ValidationResult annotationResult = "FASTA".equals(annotationFormat)
+                ? formatOnlyResult(annotationFormat, "annotation")
+                : quickAnnotationCheck(annotationFile, annotationFormat, options);
+
+        IssueCollector issues = new IssueCollector(options);
+        for (ValidationIssue issue : sequenceResult.getIssues()) {
+            issues.add(issue);
+        }
+        for (ValidationIssue issue : annotationResult.getIssues()) {
+            issues.add(issue);
+        }
+
+        return ValidationResult.builder()
+                .valid(sequenceResult.isValid() && annotationResult.isValid())
+                .sequenceCount(sequenceResult.getSequenceCount())
+                .issues(issues.getIssues())
+                .summary(issues.summarize(sequenceResult.getSummary() + "; " + annotationResult.getSummary()))
+                .build();
+    }
+
+    /**
+     * Sampled check of annotation lines inside byte windows against the sequence length index.
+     */
+    private ValidationResult sampleCompatibility(FastaIndex sequenceIndex, File annotationFile, String annotationFormat,
+                                                 ValidationOptions options) throws IOException {
+        List<FileSampler.Window> windows = FileSampler.sample(annotationFile,
+                options.getSampleWindowCount(), options.getSampleWindowSize(), options.getRandomSeed());
+        IssueCollector issues = new IssueCollector(options);
+        Set<String> unmatchedIds = new HashSet<>();
+        int[] counts = new int[2]; // features, out of bounds
+
+        for (FileSampler.Window window : windows) {
+            boolean proceed = window.forEachLine((data, start, end, offset) -> {
+                AnnotationLine record;
+                try {
+                    record = AnnotationLine.parse(annotationFormat,
+                            new String(data, start, end - start, StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {
+                    return true; // Malformed lines are reported by annotation validation
+                }
+                if (record == null) {
+                    return true;
+                }
+
+                counts[0]++;
+                long seqLength = sequenceIndex.getLength(record.sequenceId());
+                if (seqLength < 0) {
+                    return !unmatchedIds.add(record.sequenceId())
+                            || issues.add(unmatchedSequenceIssue(sequenceIndex, record.sequenceId()));
+                }
+                if (record.end() > seqLength) {
+                    counts[1]++;
+                    return issues.add(ValidationIssue.builder()
+                            .type("WARNING")
+                            .message(String.format(
+                                    "Feature at byte offset %d extends beyond sequence %s length: end=%d, seq_length=%d",
+                                    offset, record.sequenceId(), record.end(), seqLength))
+                            .location("offset:" + offset)
+                            .build());
+                }
+                return true;
+            });
+            if (!proceed) {
+                break;
+            }
+        }
+
+        boolean valid = unmatchedIds.isEmpty() && counts[1] == 0;
+
+        return ValidationResult.builder()
+                .valid(valid)
+                .sequenceCount(sequenceIndex.size())
+                .featureCount(counts[0])
+                .issues(issues.getIssues())
+                .summary(issues.summarize(String.format(
+                        "Sampled %d windows: found %d sequences and %d features. %d sequence references unmatched, %d features out of bounds.",
+                        windows.size(), sequenceIndex.size(), counts[0], unmatchedIds.size(), counts[1])))
+                .build();
+    }
+
+    /**
+     * A single record of a line-based annotation format, with 0-based half-open coordinates
+     * matching those produced by the annotation parsers.
      */
-    private Set<Character> findNonStandardChars(String sequence) {
-        Set<Character> nonStandard = new HashSet<>();
-        String standardChars = "ACGTN-";
+    private record AnnotationLine(String sequenceId, long start, long end) {
+        /**
+         * Parse a GFF, GTF or BED line.
+         *
+         * @return The record, or null for blank, comment and track lines
+         * @throws IllegalArgumentException If the line is malformed
+         */
+        static AnnotationLine parse(String format, String line) {
+            if (line.isBlank() || line.startsWith("#")) {
+                return null;
+            }
 
-        for (char c : sequence.toUpperCase().toCharArray()) {
-            if (standardChars.indexOf(c) == -1) {
-                nonStandard.add(c);
+            String[] fields = line.split("\t");
+            try {
+                if ("BED".equals(format)) {
+                    if (line.startsWith("track") || line.startsWith("browser")) {
+                        return null;
+                    }
+                    if (fields.length < 3) {
+                        throw new IllegalArgumentException("Malformed BED line: expected at least 3 columns");
+                    }
+                    return new AnnotationLine(fields[0], Long.parseLong(fields[1].trim()), Long.parseLong(fields[2].trim()));
+                }
+
+                if (fields.length < 9) {
+                    throw new IllegalArgumentException("Malformed " + format + " line: expected 9 columns");
+                }
+                return new AnnotationLine(fields[0], Long.parseLong(fields[3].trim()) - 1, Long.parseLong(fields[4].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed " + format + " line: non-numeric coordinates");
             }
         }
 
-        return nonStandard;
+        boolean isValid() {
+            return start >= 0 && end >= start;
+        }
+
+        ValidationIssue invalidCoordinatesIssue(long offset) {
+            return ValidationIssue.builder()
+                    .type("WARNING")
+                    .message(String.format("Invalid coordinates for feature on %s: start=%d, end=%d",
+                            sequenceId, start, end))
+                    .location("offset:" + offset)
+                    .build();
+        }
+    }
+
+    private static int skipWhitespace(byte[] data, int start, int end) {
+        while (start < end && (data[start] == ' ' || data[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private static String maskToString(long[] mask) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < 256; i++) {
+            if ((mask[i >>> 6] & (1L << (i & 63))) != 0) {
+                result.append((char) i);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Format the positions of invalid characters as an issue location.
+     */
+    private String formatPositions(String sequenceId, long[] positions) {
+        StringBuilder result = new StringBuilder(sequenceId).append(':');
+        for (int i = 0; i < positions.length; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append(positions[i]);
+        }
+        return result.toString();
     }
 
     /**
-     * Format a set of non-standard characters for display.
+     * Find non-standard characters in a DNA sequence.
      */
-    private String formatNonStandardChars(Set<Character> chars) {
+    private String findNonStandardChars(String sequence) {
+        boolean[] seen = new boolean[256];
         StringBuilder result = new StringBuilder();
-        for (Character c : chars) {
-            result.append(c);
+
+        for (int i = 0; i < sequence.length(); i++) {
+            char c = sequence.charAt(i);
+            byte cls = c < 256 ? FastaSequenceScanner.classify((byte) c) : FastaSequenceScanner.CLASS_INVALID;
+            if ((cls == FastaSequenceScanner.CLASS_IUPAC || cls == FastaSequenceScanner.CLASS_INVALID)
+                    && (c >= 256 || !seen[c])) {
+                if (c < 256) {
+                    seen[c] = true;
+                }
+                result.append(c);
+            }
         }
+
         return result.toString();
     }
-}
\ No newline at end of file
+}
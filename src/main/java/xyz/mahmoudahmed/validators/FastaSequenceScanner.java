@@ -0,0 +1,321 @@
+package xyz.mahmoudahmed.validators;
+
+import xyz.mahmoudahmed.util.CompressedInput;
+import xyz.mahmoudahmed.util.FastaIndex;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming byte-level scanner for FASTA sequence files.
+ * The input is read once through a fixed-size buffer and every residue is classified
+ * with a 256-entry lookup table, so memory use does not depend on the size of the file
+ * or of any single record.
+ */
+public class FastaSequenceScanner {
+    /** Uppercase A, C, G, T and N. */
+    public static final byte CLASS_STANDARD = 0;
+    /** IUPAC ambiguity codes (R, Y, S, W, K, M, B, D, H, V, U) in either case. */
+    public static final byte CLASS_IUPAC = 1;
+    /** Alignment gaps ('-' and '.'). */
+    public static final byte CLASS_GAP = 2;
+    /** Soft-masked (lowercase) a, c, g, t and n. */
+    public static final byte CLASS_LOWERCASE = 3;
+    /** Any other character. */
+    public static final byte CLASS_INVALID = 4;
+    /** Spaces, tabs and line terminators, which are skipped. */
+    public static final byte CLASS_WHITESPACE = 5;
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024; // 64KB read buffer
+    private static final int DEFAULT_MAX_POSITIONS = 10;
+    private static final int MAX_HEADER_LENGTH = 8 * 1024;
+
+    private static final byte[] CHARACTER_CLASSES = createCharacterClasses();
+
+    private final int bufferSize;
+    private final int maxPositionsPerRecord;
+
+    private static byte[] createCharacterClasses() {
+        byte[] table = new byte[256];
+        Arrays.fill(table, CLASS_INVALID);
+
+        for (char c : "ACGTN".toCharArray()) {
+            table[c] = CLASS_STANDARD;
+            table[Character.toLowerCase(c)] = CLASS_LOWERCASE;
+        }
+        for (char c : "RYSWKMBDHVU".toCharArray()) {
+            table[c] = CLASS_IUPAC;
+            table[Character.toLowerCase(c)] = CLASS_IUPAC;
+        }
+        table['-'] = CLASS_GAP;
+        table['.'] = CLASS_GAP;
+        table[' '] = CLASS_WHITESPACE;
+        table['\t'] = CLASS_WHITESPACE;
+        table['\r'] = CLASS_WHITESPACE;
+        table['\n'] = CLASS_WHITESPACE;
+
+        return table;
+    }
+
+    /**
+     * Create a scanner with the default buffer size.
+     */
+    public FastaSequenceScanner() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POSITIONS);
+    }
+
+    /**
+     * Create a scanner with a custom buffer size and position limit.
+     *
+     * @param bufferSize The size of the read buffer in bytes
+     * @param maxPositionsPerRecord The maximum number of invalid character positions kept per record
+     */
+    public FastaSequenceScanner(int bufferSize, int maxPositionsPerRecord) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPositionsPerRecord = Math.max(0, maxPositionsPerRecord);
+    }
+
+    /**
+     * Get the character class of a byte.
+     *
+     * @param b The byte to classify
+     * @return One of the CLASS_* constants
+     */
+    public static byte classify(byte b) {
+        return CHARACTER_CLASSES[b & 0xFF];
+    }
+
+    /**
+     * Scan a FASTA file.
+     *
+     * @param file The file to scan
+     * @param listener The listener notified after each record
+     * @return The number of records scanned
+     * @throws IOException If an I/O error occurs
+     */
+    public long scan(File file, RecordListener listener) throws IOException {
+        try (InputStream in = CompressedInput.openInputStream(file)) {
+            return scan(in, listener);
+        }
+    }
+
+    /**
+     * Scan FASTA data from a stream. The stream is not closed.
+     *
+     * @param in The stream to scan
+     * @param listener The listener notified after each record
+     * @return The number of records scanned
+     * @throws IOException If an I/O error occurs
+     */
+    public long scan(InputStream in, RecordListener listener) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        byte[] header = new byte[256];
+        int headerLength = 0;
+
+        RecordStats current = null;
+        long records = 0;
+        boolean atLineStart = true;
+        boolean inHeader = false;
+        boolean skippingLine = false;
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+
+                if (inHeader) {
+                    if (b == '\n') {
+                        current = new RecordStats(decodeHeader(header, headerLength), maxPositionsPerRecord);
+                        inHeader = false;
+                        atLineStart = true;
+                    } else if (b != '\r' && headerLength < MAX_HEADER_LENGTH) {
+                        if (headerLength == header.length) {
+                            header = Arrays.copyOf(header, Math.min(header.length * 2, MAX_HEADER_LENGTH));
+                        }
+                        header[headerLength++] = b;
+                    }
+                    continue;
+                }
+
+                if (skippingLine) {
+                    if (b == '\n') {
+                        skippingLine = false;
+                        atLineStart = true;
+                    }
+                    continue;
+                }
+
+                byte cls = CHARACTER_CLASSES[b & 0xFF];
+
+                if (atLineStart) {
+                    if (b == '>') {
+                        if (current != null) {
+                            records++;
+                            if (!listener.onRecord(current)) {
+                                return records;
+                            }
+                        }
+                        current = null;
+                        headerLength = 0;
+                        inHeader = true;
+                        continue;
+                    }
+                    if (cls == CLASS_WHITESPACE) {
+                        // Leading whitespace and blank lines keep the line start state
+                        continue;
+                    }
+                    atLineStart = false;
+                    if (current == null) {
+                        // Content before the first header (e.g. comments) is ignored
+                        skippingLine = true;
+                        continue;
+                    }
+                }
+
+                if (cls == CLASS_WHITESPACE) {
+                    if (b == '\n') {
+                        atLineStart = true;
+                    }
+                    continue;
+                }
+
+                current.record(cls, b);
+            }
+        }
+
+        if (inHeader) {
+            current = new RecordStats(decodeHeader(header, headerLength), maxPositionsPerRecord);
+        }
+        if (current != null) {
+            records++;
+            listener.onRecord(current);
+        }
+
+        return records;
+    }
+
+    private static String decodeHeader(byte[] header, int length) {
+        return new String(header, 0, length, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Callback notified once per scanned record.
+     */
+    @FunctionalInterface
+    public interface RecordListener {
+        /**
+         * Handle the statistics of a completed record.
+         *
+         * @param stats The record statistics
+         * @return true to continue scanning, false to stop
+         * @throws IOException If the listener fails
+         */
+        boolean onRecord(RecordStats stats) throws IOException;
+    }
+
+    /**
+     * Per-record character statistics.
+     */
+    public static class RecordStats {
+        private final String header;
+        private final String id;
+        private final long[] counts = new long[5];
+        private final long[] invalidPositions;
+        private final long[] nonStandardMask = new long[4];
+        private int invalidPositionCount;
+        private long length;
+
+        RecordStats(String header, int maxPositions) {
+            this.header = header;
+            this.id = FastaIndex.parseName(header);
+            this.invalidPositions = new long[maxPositions];
+        }
+
+        void record(byte cls, byte b) {
+            length++;
+            counts[cls]++;
+
+            if (cls == CLASS_IUPAC || cls == CLASS_INVALID) {
+                int unsigned = b & 0xFF;
+                nonStandardMask[unsigned >>> 6] |= 1L << (unsigned & 63);
+
+                if (cls == CLASS_INVALID && invalidPositionCount < invalidPositions.length) {
+                    invalidPositions[invalidPositionCount++] = length; // 1-based
+                }
+            }
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public boolean isEmpty() {
+            return length == 0;
+        }
+
+        public long getStandardCount() {
+            return counts[CLASS_STANDARD];
+        }
+
+        public long getIupacCount() {
+            return counts[CLASS_IUPAC];
+        }
+
+        public long getGapCount() {
+            return counts[CLASS_GAP];
+        }
+
+        public long getLowercaseCount() {
+            return counts[CLASS_LOWERCASE];
+        }
+
+        public long getInvalidCount() {
+            return counts[CLASS_INVALID];
+        }
+
+        /**
+         * Get the 1-based positions of the first invalid characters in the record.
+         *
+         * @return The recorded positions, at most the configured limit
+         */
+        public long[] getInvalidPositions() {
+            return Arrays.copyOf(invalidPositions, invalidPositionCount);
+        }
+
+        /**
+         * Check if the record contains IUPAC ambiguity codes or invalid characters.
+         *
+         * @return true if any non-standard characters were found
+         */
+        public boolean hasNonStandardCharacters() {
+            return counts[CLASS_IUPAC] > 0 || counts[CLASS_INVALID] > 0;
+        }
+
+        /**
+         * Get the distinct non-standard characters in byte order.
+         *
+         * @return The non-standard characters as a string
+         */
+        public String getNonStandardCharacters() {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < 256; i++) {
+                if ((nonStandardMask[i >>> 6] & (1L << (i & 63))) != 0) {
+                    result.append((char) i);
+                }
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package xyz.mahmoudahmed.validators;
+
+import xyz.mahmoudahmed.util.BgzfIndex;
+import xyz.mahmoudahmed.util.CompressedInput;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reads bounded parts of files for quick and sampled validation.
+ * Sample windows are placed at a random offset inside equally sized strata of the file,
+ * so a fixed number of reads covers the whole file regardless of its size.
+ */
+class FileSampler {
+    private FileSampler() {
+    }
+
+    /**
+     * A run of complete lines read from a file.
+     *
+     * @param offset The byte offset of the first line
+     * @param data The bytes of the complete lines
+     * @param complete true if the window is the entire file
+     */
+    record Window(long offset, byte[] data, boolean complete) {
+        /**
+         * Iterate over the lines of the window, without line terminators.
+         *
+         * @param consumer The consumer receiving each line and its byte offset
+         * @return false if the consumer stopped the iteration
+         */
+        boolean forEachLine(LineConsumer consumer) {
+            int start = 0;
+            for (int i = 0; i <= data.length; i++) {
+                if (i == data.length || data[i] == '\n') {
+                    int end = i;
+                    if (end > start && data[end - 1] == '\r') {
+                        end--;
+                    }
+                    if (i > start || i < data.length) {
+                        if (!consumer.accept(data, start, end, offset + start)) {
+                            return false;
+                        }
+                    }
+                    start = i + 1;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Callback receiving one line of a window.
+     */
+    @FunctionalInterface
+    interface LineConsumer {
+        boolean accept(byte[] data, int start, int end, long offset);
+    }
+
+    /**
+     * Read the complete lines at the start of a file, decompressing it if needed.
+     *
+     * @param file The file
+     * @param maxBytes The maximum number of bytes to read
+     * @return The prefix window
+     * @throws IOException If an I/O error occurs
+     */
+    static Window readPrefix(File file, int maxBytes) throws IOException {
+        try (Source source = Source.open(file, maxBytes)) {
+            return readWindow(source, 0, maxBytes);
+        }
+    }
+
+    /**
+     * Read sample windows spread across a file. Files no larger than the combined
+     * window size are returned as a single complete window. BGZF files are sampled
+     * across their uncompressed content; plain gzip files have no random access, so
+     * only a prefix of the combined window size is sampled.
+     *
+     * @param file The file
+     * @param windowCount The number of windows
+     * @param windowSize The size of each window in bytes
+     * @param seed The random seed for window placement
+     * @return The windows in file order
+     * @throws IOException If an I/O error occurs
+     */
+    static List<Window> sample(File file, int windowCount, int windowSize, long seed) throws IOException {
+        List<Window> windows = new ArrayList<>(windowCount);
+        int combinedSize = (int) Math.min(Integer.MAX_VALUE - 1, (long) windowCount * windowSize);
+
+        try (Source source = Source.open(file, combinedSize)) {
+            long length = source.length();
+            if (length <= combinedSize) {
+                windows.add(readWindow(source, 0, (int) length));
+                return windows;
+            }
+
+            Random random = new Random(seed);
+            long stratum = length / windowCount;
+            for (int i = 0; i < windowCount; i++) {
+                long maxStart = Math.max(0, stratum - windowSize);
+                long offset = i * stratum + (maxStart > 0 ? (long) (random.nextDouble() * maxStart) : 0);
+                windows.add(readWindow(source, offset, windowSize));
+            }
+        }
+
+        return windows;
+    }
+
+    private static Window readWindow(Source source, long offset, int size) throws IOException {
+        long fileLength = source.length();
+        int toRead = (int) Math.max(0, Math.min(size, fileLength - offset));
+
+        // Read one extra byte before the window to tell whether it starts a line
+        int lead = offset > 0 ? 1 : 0;
+        byte[] buffer = source.read(offset - lead, toRead + lead);
+
+        // Drop the partial first line unless the window starts a line
+        int start = lead;
+        if (lead > 0 && buffer[0] != '\n') {
+            while (start < buffer.length && buffer[start] != '\n') {
+                start++;
+            }
+            start = Math.min(start + 1, buffer.length);
+        }
+
+        // Drop the partial last line unless the window reaches the end of the file
+        int end = buffer.length;
+        boolean atEnd = offset + toRead >= fileLength && source.isLengthExact();
+        if (!atEnd) {
+            while (end > start && buffer[end - 1] != '\n') {
+                end--;
+            }
+        }
+
+        byte[] data = new byte[end - start];
+        System.arraycopy(buffer, start, data, 0, data.length);
+        return new Window(offset + start - lead, data, offset == 0 && atEnd);
+    }
+
+    /**
+     * Random access to the uncompressed content of a file.
+     */
+    private interface Source extends Closeable {
+        long length();
+
+        /**
+         * @return false if the content was truncated to a prefix and continues past {@link #length()}
+         */
+        boolean isLengthExact();
+
+        byte[] read(long offset, int size) throws IOException;
+
+        static Source open(File file, int prefixSize) throws IOException {
+            switch (CompressedInput.detect(file)) {
+                case BGZF:
+                    return new BgzfSource(file, BgzfIndex.load(file));
+                case GZIP:
+                    return PrefixSource.read(file, prefixSize);
+                default:
+                    return new FileSource(new RandomAccessFile(file, "r"));
+            }
+        }
+    }
+
+    private record FileSource(RandomAccessFile raf) implements Source {
+        @Override
+        public long length() {
+            try {
+                return raf.length();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean isLengthExact() {
+            return true;
+        }
+
+        @Override
+        public byte[] read(long offset, int size) throws IOException {
+            byte[] buffer = new byte[size];
+            raf.seek(offset);
+            raf.readFully(buffer);
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            raf.close();
+        }
+    }
+
+    private record BgzfSource(File file, BgzfIndex index) implements Source {
+        @Override
+        public long length() {
+            return index.getUncompressedLength();
+        }
+
+        @Override
+        public boolean isLengthExact() {
+            return true;
+        }
+
+        @Override
+        public byte[] read(long offset, int size) throws IOException {
+            try (InputStream in = index.openAt(file, offset)) {
+                return in.readNBytes(size);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private record PrefixSource(byte[] data, boolean exact) implements Source {
+        static PrefixSource read(File file, int prefixSize) throws IOException {
+            try (InputStream in = CompressedInput.openInputStream(file)) {
+                byte[] data = in.readNBytes(prefixSize);
+                return new PrefixSource(data, in.read() == -1);
+            }
+        }
+
+        @Override
+        public long length() {
+            return data.length;
+        }
+
+        @Override
+        public boolean isLengthExact() {
+            return exact;
+        }
+
+        @Override
+        public byte[] read(long offset, int size) {
+            return Arrays.copyOfRange(data, (int) offset, (int) offset + size);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
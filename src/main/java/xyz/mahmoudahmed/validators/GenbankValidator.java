@@ -1,7 +1,11 @@
 package xyz.mahmoudahmed.validators;
 
 
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.model.ValidationOptions;
 import xyz.mahmoudahmed.model.ValidationResult;
+import xyz.mahmoudahmed.util.FastaIndex;
 
 import java.io.File;
 import java.io.IOException;
@@ -19,6 +23,19 @@ public interface GenbankValidator {
      */
     ValidationResult validateSequence(File file) throws IOException;
 
+    /**
+     * Validate a sequence file at the given validation level.
+     * Validators that do not support validation levels validate the whole file.
+     *
+     * @param file The file to validate
+     * @param options The validation options
+     * @return The validation result
+     * @throws IOException If an I/O error occurs
+     */
+    default ValidationResult validateSequence(File file, ValidationOptions options) throws IOException {
+        return validateSequence(file);
+    }
+
     /**
      * Validate an annotation file.
      *
@@ -29,6 +46,21 @@ public interface GenbankValidator {
      */
     ValidationResult validateAnnotation(File file, String format) throws IOException;
 
+    /**
+     * Validate an annotation file at the given validation level.
+     * Validators that do not support validation levels validate the whole file.
+     *
+     * @param file The file to validate
+     * @param format The expected format
+     * @param options The validation options
+     * @return The validation result
+     * @throws IOException If an I/O error occurs
+     */
+    default ValidationResult validateAnnotation(File file, String format, ValidationOptions options)
+            throws IOException {
+        return validateAnnotation(file, format);
+    }
+
     /**
      * Validate compatibility between sequence and annotation files.
      *
@@ -38,4 +70,34 @@ public interface GenbankValidator {
      * @throws IOException If an I/O error occurs
      */
     ValidationResult validateCompatibility(File sequenceFile, File annotationFile) throws IOException;
+
+    /**
+     * Validate compatibility between sequence and annotation files at the given validation level.
+     * Validators that do not support validation levels validate the whole files.
+     *
+     * @param sequenceFile The sequence file
+     * @param annotationFile The annotation file
+     * @param options The validation options
+     * @return The validation result
+     * @throws IOException If an I/O error occurs
+     */
+    default ValidationResult validateCompatibility(File sequenceFile, File annotationFile,
+                                                   ValidationOptions options) throws IOException {
+        return validateCompatibility(sequenceFile, annotationFile);
+    }
+
+    /**
+     * Validate compatibility between already parsed sequence and annotation data.
+     * Sequences parsed with metadata only are checked against their recorded lengths.
+     * By default, annotations are checked for unknown sequence IDs and features beyond the
+     * end of their sequence.
+     *
+     * @param sequenceData The sequence data
+     * @param annotationData The annotation data
+     * @return The validation result
+     */
+    default ValidationResult validateCompatibility(SequenceData sequenceData, AnnotationData annotationData) {
+        return DefaultGenbankValidator.checkCompatibility(FastaIndex.fromSequenceData(sequenceData), annotationData,
+                ValidationOptions.defaults());
+    }
 }
@@ -0,0 +1,70 @@
+package xyz.mahmoudahmed.validators;
+
+import xyz.mahmoudahmed.model.ValidationIssue;
+import xyz.mahmoudahmed.model.ValidationOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects validation issues while enforcing the fail-fast and max-issue limits.
+ */
+class IssueCollector {
+    private final List<ValidationIssue> issues = new ArrayList<>();
+    private final boolean failFast;
+    private final int maxIssues;
+    private int droppedCount;
+
+    IssueCollector(ValidationOptions options) {
+        this.failFast = options.isFailFast();
+        this.maxIssues = options.getMaxIssues();
+    }
+
+    /**
+     * Add an issue.
+     *
+     * @param issue The issue to add
+     * @return true if validation should continue
+     */
+    boolean add(ValidationIssue issue) {
+        if (issues.size() < maxIssues) {
+            issues.add(issue);
+        } else {
+            droppedCount++;
+        }
+        return !shouldStop();
+    }
+
+    /**
+     * Check if validation should stop collecting issues.
+     *
+     * @return true if the fail-fast limit has been reached
+     */
+    boolean shouldStop() {
+        return failFast && !issues.isEmpty();
+    }
+
+    List<ValidationIssue> getIssues() {
+        return issues;
+    }
+
+    /**
+     * Append a note about stopped validation or dropped issues to a summary.
+     *
+     * @param summary The summary
+     * @return The summary with any limit note appended
+     */
+    String summarize(String summary) {
+        if (shouldStop()) {
+            return appendNote(summary, "Stopped at first issue.");
+        }
+        if (droppedCount > 0) {
+            return appendNote(summary, droppedCount + " further issues not reported.");
+        }
+        return summary;
+    }
+
+    private static String appendNote(String summary, String note) {
+        return summary.endsWith(".") ? summary + " " + note : summary + ". " + note;
+    }
+}
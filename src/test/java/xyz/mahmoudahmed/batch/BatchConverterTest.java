@@ -0,0 +1,262 @@
+package xyz.mahmoudahmed.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import xyz.mahmoudahmed.converter.GenbankConverter;
+import xyz.mahmoudahmed.exception.ParsingException;
+import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankResult;
+import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.model.TranslationOptions;
+import xyz.mahmoudahmed.parsers.FastaAnnotationParser;
+import xyz.mahmoudahmed.parsers.NCBICompatibleSequenceParser;
+import xyz.mahmoudahmed.translator.GeneticCodeTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+class BatchConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File writeSample(String name, int length) throws IOException {
+        StringBuilder residues = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            residues.append("ACGT".charAt((i * 7 + name.length()) % 4));
+        }
+        Files.writeString(tempDir.resolve(name + ".fasta"), ">" + name + "\n" + residues + "\n");
+        Files.writeString(tempDir.resolve(name + ".gff3"), "##gff-version 3\n"
+                + name + "\tsrc\tgene\t1\t" + length + "\t.\t+\t.\tID=" + name + "_gene\n");
+        return tempDir.resolve(name + ".fasta").toFile();
+    }
+
+    @Test
+    void manifestLinesBecomeJobs() throws IOException {
+        ConversionOptions defaults = ConversionOptions.builder().organism("Default organism").build();
+        String manifest = "# id\tsequence\tannotation\toutput\toptions\n"
+                + "s1\ts1.fasta\ts1.gff3\n"
+                + "\n"
+                + "s2\tin/s2.fa\t/data/s2.gff3\tout/s2.gbk\torganism=Bos taurus; geneticCode=2\n";
+        File base = tempDir.toFile();
+        File outputs = tempDir.resolve("outputs").toFile();
+
+        List<BatchJob> jobs = BatchManifest.read(new StringReader(manifest), "manifest.tsv", base, outputs, defaults);
+
+        assertEquals(2, jobs.size());
+        BatchJob first = jobs.get(0);
+        assertEquals("s1", first.id());
+        assertEquals(new File(base, "s1.fasta"), first.sequenceFile());
+        assertEquals(new File(outputs, "s1.gb"), first.outputFile());
+        assertSame(defaults, first.options());
+
+        BatchJob second = jobs.get(1);
+        assertEquals(new File(base, "in/s2.fa"), second.sequenceFile());
+        assertEquals(new File("/data/s2.gff3"), second.annotationFile());
+        assertEquals(new File(base, "out/s2.gbk"), second.outputFile());
+        assertEquals("Bos taurus", second.options().getOrganism());
+        assertEquals(GeneticCodeTable.VERTEBRATE_MITOCHONDRIAL,
+                second.options().getTranslationOptions().getGeneticCodeTable());
+    }
+
+    @Test
+    void invalidManifestLinesAreRejectedWithTheirLineNumber() {
+        ConversionOptions defaults = ConversionOptions.builder().build();
+        File base = tempDir.toFile();
+
+        ParsingException missing = assertThrows(ParsingException.class, () -> BatchManifest.read(
+                new StringReader("s1\ts1.fasta\n"), "m.tsv", base, base, defaults));
+        assertEquals(1, missing.getLine());
+
+        ParsingException unknown = assertThrows(ParsingException.class, () -> BatchManifest.read(
+                new StringReader("# header\ns1\ta.fa\ta.gff\t\tcolour=red\n"), "m.tsv", base, base, defaults));
+        assertEquals(2, unknown.getLine());
+
+        assertThrows(ParsingException.class, () -> BatchManifest.read(
+                new StringReader("s1\ta.fa\ta.gff\ns1\tb.fa\tb.gff\n"), "m.tsv", base, base, defaults));
+    }
+
+    @Test
+    void directoriesPairSequencesWithTheirAnnotations() throws IOException {
+        writeSample("b", 30);
+        Files.writeString(tempDir.resolve("a.fa"), ">a\nACGT\n");
+        Files.writeString(tempDir.resolve("a_ann.fasta"), ">a; 1-4; +; cox1\nACGT\n");
+        Files.writeString(tempDir.resolve("orphan.fasta"), ">orphan\nACGT\n");
+        File outputs = tempDir.resolve("outputs").toFile();
+
+        List<BatchJob> jobs = BatchManifest.scan(tempDir.toFile(), outputs, ConversionOptions.builder().build());
+
+        assertEquals(List.of("a", "b"), jobs.stream().map(BatchJob::id).toList());
+        assertEquals("a_ann.fasta", jobs.get(0).annotationFile().getName());
+        assertEquals("b.gff3", jobs.get(1).annotationFile().getName());
+        assertEquals(new File(outputs, "b.gb"), jobs.get(1).outputFile());
+    }
+
+    @Test
+    void parallelBatchMatchesSerialConversionAndIsolatesFailures() throws IOException {
+        GenbankConverter converter = GenbankConverter.standard();
+        ConversionOptions options = ConversionOptions.builder().organism("Test organism").build();
+        List<BatchJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            File fasta = writeSample("sample" + i, 100 + i * 37);
+            jobs.add(new BatchJob("sample" + i, fasta, tempDir.resolve("sample" + i + ".gff3").toFile(),
+                    tempDir.resolve("out/sample" + i + ".gb").toFile(), options));
+        }
+        jobs.add(5, new BatchJob("missing", tempDir.resolve("missing.fasta").toFile(),
+                tempDir.resolve("missing.gff3").toFile(), tempDir.resolve("out/missing.gb").toFile(), options));
+
+        BatchReport report = BatchConverter.builder()
+                .converter(converter)
+                .parallelism(4)
+                .order(BatchOrder.LARGEST_FIRST)
+                .build()
+                .run(jobs);
+
+        assertEquals(25, report.getResults().size());
+        assertEquals(24, report.getSuccessCount());
+        assertEquals(1, report.getFailureCount());
+        assertEquals("missing", report.getFailures().get(0).job().id());
+        assertFalse(tempDir.resolve("out/missing.gb").toFile().exists());
+
+        for (int i = 0; i < jobs.size(); i++) {
+            BatchJobResult result = report.getResults().get(i);
+            assertSame(jobs.get(i), result.job());
+            if (result.isSuccessful()) {
+                byte[] expected = converter.convert(result.job().sequenceFile(), result.job().annotationFile(), options)
+                        .getGenbankData();
+                assertArrayEquals(expected, Files.readAllBytes(result.job().outputFile().toPath()), result.job().id());
+                assertEquals(expected.length, result.outputBytes());
+                assertEquals(1, result.sequenceCount());
+                assertEquals(1, result.featureCount());
+                assertTrue(result.wallNanos() > 0);
+            }
+        }
+
+        StringWriter tsv = new StringWriter();
+        report.writeTsv(tsv);
+        String[] lines = tsv.toString().split("\n");
+        assertEquals(26, lines.length);
+        assertTrue(lines[0].startsWith("id\tstatus\t"));
+        assertTrue(lines[6].startsWith("missing\tFAILED\t0\t0\t0\t0\t"));
+        assertTrue(lines[1].startsWith("sample0\tOK\t1\t1\t0\t"));
+        assertTrue(report.getSummary().startsWith("25 jobs, 24 succeeded, 1 failed"));
+    }
+
+    @Test
+    void failedJobsLeaveExistingOutputUntouched() throws IOException {
+        File fasta = writeSample("partial", 200);
+        Path outputFile = Files.writeString(tempDir.resolve("partial.gb"), "previous output");
+        GenbankConverter converter = GenbankConverter.builder()
+                .withFormatter(new DefaultGenbankFormatter() {
+                    @Override
+                    public void formatToStream(SequenceData sequenceData, AnnotationData annotationData,
+                                               OutputStream outputStream, ConversionOptions options) throws IOException {
+                        outputStream.write("LOCUS       partial".getBytes(StandardCharsets.UTF_8));
+                        throw new IOException("Disk full");
+                    }
+                })
+                .build();
+        BatchJob job = new BatchJob("partial", fasta, tempDir.resolve("partial.gff3").toFile(),
+                outputFile.toFile(), ConversionOptions.builder().build());
+
+        BatchReport report = BatchConverter.builder().converter(converter).parallelism(1).build().run(List.of(job));
+
+        assertEquals(1, report.getFailureCount());
+        assertEquals("previous output", Files.readString(outputFile));
+        assertEquals(0, tempDir.toFile().listFiles((dir, name) -> name.endsWith(".part")).length);
+    }
+
+    @Test
+    void concurrentJobsTranslateWithTheirOwnGeneticCodes() throws IOException {
+        // Both jobs wait in sequence parsing, between preparing their conversions and parsing their annotations
+        CyclicBarrier bothParsing = new CyclicBarrier(2);
+        GenbankConverter converter = GenbankConverter.builder()
+                .withSequenceParser(new NCBICompatibleSequenceParser() {
+                    @Override
+                    public SequenceData parse(File file) throws IOException {
+                        try {
+                            bothParsing.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                            throw new IOException("Jobs did not run concurrently", e);
+                        }
+                        return super.parse(file);
+                    }
+                })
+                .withAnnotationParser(new FastaAnnotationParser())
+                .build();
+        List<BatchJob> jobs = new ArrayList<>();
+        for (int table : new int[]{2, 5}) {
+            String name = "table" + table;
+            Files.writeString(tempDir.resolve(name + ".fasta"), ">seq1\nATAAGAGATTAA\n");
+            Files.writeString(tempDir.resolve(name + ".annotation.fasta"), ">seq1; 1-11; +; COX1(Test gene)\nATAAGAGATTAA\n");
+            ConversionOptions options = ConversionOptions.builder()
+                    .annotationFormat("FASTA")
+                    .translationOptions(TranslationOptions.builder().translTableNumber(table).build())
+                    .build();
+            jobs.add(new BatchJob(name, tempDir.resolve(name + ".fasta").toFile(),
+                    tempDir.resolve(name + ".annotation.fasta").toFile(), tempDir.resolve(name + ".gb").toFile(), options));
+        }
+
+        BatchReport report = BatchConverter.builder().converter(converter).parallelism(2).build().run(jobs);
+
+        assertEquals(2, report.getSuccessCount(), report.getSummary());
+        assertTrue(Files.readString(tempDir.resolve("table2.gb")).contains("/transl_table=2"));
+        assertTrue(Files.readString(tempDir.resolve("table5.gb")).contains("/transl_table=5"));
+    }
+
+    @Test
+    void jobsStartInTheRequestedOrder() throws IOException {
+        List<BatchJob> jobs = new ArrayList<>();
+        int[] lengths = {300, 100, 500, 200};
+        for (int i = 0; i < lengths.length; i++) {
+            File fasta = writeSample("s" + i, lengths[i]);
+            jobs.add(new BatchJob("s" + i, fasta, tempDir.resolve("s" + i + ".gff3").toFile(),
+                    tempDir.resolve("s" + i + ".gb").toFile(), ConversionOptions.builder().build()));
+        }
+
+        assertEquals(List.of("s1", "s3", "s0", "s2"), startOrder(jobs, BatchOrder.SHORTEST_FIRST));
+        assertEquals(List.of("s2", "s0", "s3", "s1"), startOrder(jobs, BatchOrder.LARGEST_FIRST));
+        assertEquals(List.of("s0", "s1", "s2", "s3"), startOrder(jobs, BatchOrder.MANIFEST));
+    }
+
+    private static List<String> startOrder(List<BatchJob> jobs, BatchOrder order) throws IOException {
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        GenbankConverter converter = Mockito.mock(GenbankConverter.class);
+        Mockito.when(converter.convertToFile(any(File.class), any(File.class), any(File.class),
+                        any(ConversionOptions.class)))
+                .thenAnswer(invocation -> {
+                    started.add(invocation.getArgument(0, File.class).getName().replace(".fasta", ""));
+                    return GenbankResult.builder().genbankData(new byte[0]).build();
+                });
+
+        BatchReport report = BatchConverter.builder().converter(converter).parallelism(1).order(order).build().run(jobs);
+        assertEquals(jobs.size(), report.getSuccessCount());
+        return started;
+    }
+
+    @Test
+    void builderRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> BatchConverter.builder().parallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> BatchConverter.builder().order(null));
+        assertThrows(IllegalArgumentException.class, () -> BatchConverter.builder().converter(null));
+    }
+}
@@ -0,0 +1,195 @@
+package xyz.mahmoudahmed.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import xyz.mahmoudahmed.converter.DefaultGenbankConverter;
+import xyz.mahmoudahmed.converter.GenbankConverter;
+import xyz.mahmoudahmed.exception.ConversionCancelledException;
+import xyz.mahmoudahmed.exception.ValidationException;
+import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankResult;
+import xyz.mahmoudahmed.util.Cancellation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+class AsyncConversionTest {
+    private static final int RECORDS = 20;
+
+    @TempDir
+    Path tempDir;
+
+    private File sequenceFile;
+    private File annotationFile;
+
+    private void writeInputs() throws IOException {
+        StringBuilder fasta = new StringBuilder();
+        StringBuilder gff = new StringBuilder("##gff-version 3\n");
+        for (int i = 0; i < RECORDS; i++) {
+            fasta.append(">seq").append(i).append("\nATGCATGCATGCATGCATGC\n");
+            gff.append("seq").append(i).append("\tsrc\tgene\t1\t9\t.\t+\t.\tID=gene").append(i).append('\n');
+        }
+        sequenceFile = tempDir.resolve("in.fasta").toFile();
+        annotationFile = tempDir.resolve("in.gff3").toFile();
+        Files.writeString(sequenceFile.toPath(), fasta);
+        Files.writeString(annotationFile.toPath(), gff);
+    }
+
+    @Test
+    void asyncConversionMatchesBlockingConversion() throws Exception {
+        writeInputs();
+        GenbankConverter converter = GenbankConverter.standard();
+        ConversionOptions options = ConversionOptions.builder().build();
+
+        GenbankResult result = converter.convertAsync(sequenceFile, annotationFile, options).get(30, TimeUnit.SECONDS);
+
+        assertEquals(RECORDS, result.getSequenceCount());
+        assertArrayEquals(converter.convert(sequenceFile, annotationFile, options).getGenbankData(),
+                result.getGenbankData());
+    }
+
+    @Test
+    void asyncConversionToFileMovesCompletedOutputIntoPlace() throws Exception {
+        writeInputs();
+        GenbankConverter converter = GenbankConverter.standard();
+        File output = tempDir.resolve("out/result.gb").toFile();
+
+        GenbankResult result = converter.convertAsync(sequenceFile, annotationFile, output,
+                ConversionOptions.builder().build()).get(30, TimeUnit.SECONDS);
+
+        assertEquals(RECORDS, result.getSequenceCount());
+        assertEquals(RECORDS, result.getFeatureCount());
+        String genbank = Files.readString(output.toPath());
+        assertEquals(RECORDS, genbank.split("LOCUS", -1).length - 1);
+        assertEquals(List.of("result.gb"), listNames(output.getParentFile()));
+    }
+
+    @Test
+    void asyncConversionToFileTakesTheFileConversionPath() throws Exception {
+        writeInputs();
+        GenbankConverter converter = GenbankConverter.memoryEfficient();
+        ConversionOptions options = ConversionOptions.builder().build();
+        File output = tempDir.resolve("out/result.gb").toFile();
+
+        converter.convertAsync(sequenceFile, annotationFile, output, options).get(30, TimeUnit.SECONDS);
+
+        assertArrayEquals(converter.convert(sequenceFile, annotationFile, options).getGenbankData(),
+                Files.readAllBytes(output.toPath()));
+
+        // The files are validated up front, so nothing is written for annotations on a missing sequence
+        Files.writeString(annotationFile.toPath(), "seq" + RECORDS + "\tsrc\tgene\t1\t9\t.\t+\t.\tID=extra\n",
+                StandardOpenOption.APPEND);
+        File rejected = tempDir.resolve("rejected/result.gb").toFile();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> converter.convertAsync(sequenceFile,
+                annotationFile, rejected, options, Runnable::run).get());
+        assertInstanceOf(ValidationException.class, e.getCause());
+        assertEquals(List.of(), listNames(rejected.getParentFile()));
+    }
+
+    @Test
+    void cancellationStopsAtTheNextRecordAndRemovesPartialOutput() throws Exception {
+        writeInputs();
+        CountDownLatch firstRecord = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicInteger formatted = new AtomicInteger();
+        GenbankFormatter formatter = Mockito.spy(new DefaultGenbankFormatter());
+        Mockito.doAnswer(invocation -> {
+            if (formatted.incrementAndGet() == 1) {
+                firstRecord.countDown();
+                cancelled.await(10, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(formatter).formatToStream(any(), any(), any(), any());
+        GenbankConverter converter = new DefaultGenbankConverter.Builder().withFormatter(formatter).build();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        File output = tempDir.resolve("out/result.gb").toFile();
+        CompletableFuture<GenbankResult> future = converter.convertAsync(sequenceFile, annotationFile, output,
+                ConversionOptions.builder().build(), executor);
+        future.whenComplete((result, e) -> failure.set(e));
+
+        assertTrue(firstRecord.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        cancelled.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(future.isCancelled());
+        assertEquals(1, formatted.get());
+        assertFalse(output.exists());
+        assertEquals(List.of(), listNames(output.getParentFile()));
+        assertNotNull(failure.get());
+    }
+
+    @Test
+    void conversionsCancelledBeforeStartingNeverRun() throws Exception {
+        writeInputs();
+        GenbankFormatter formatter = Mockito.spy(new DefaultGenbankFormatter());
+        GenbankConverter converter = new DefaultGenbankConverter.Builder().withFormatter(formatter).build();
+        List<Runnable> queued = new ArrayList<>();
+
+        CompletableFuture<GenbankResult> future = converter.convertAsync(sequenceFile, annotationFile,
+                ConversionOptions.builder().build(), queued::add);
+        future.cancel(false);
+        queued.forEach(Runnable::run);
+
+        assertTrue(future.isCancelled());
+        Mockito.verifyNoInteractions(formatter);
+    }
+
+    @Test
+    void failuresCompleteTheFutureExceptionally() throws IOException {
+        writeInputs();
+        CompletableFuture<GenbankResult> future = GenbankConverter.standard().convertAsync(
+                tempDir.resolve("missing.fasta").toFile(), annotationFile, ConversionOptions.builder().build(),
+                Runnable::run);
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertNotNull(e.getCause());
+    }
+
+    @Test
+    void checkpointsStopCancelledOrInterruptedWork() {
+        AtomicInteger checks = new AtomicInteger();
+        Cancellation.Scope cancellation = Cancellation.enter(() -> checks.incrementAndGet() > 1);
+        try {
+            assertDoesNotThrow(Cancellation::checkpoint);
+            assertThrows(ConversionCancelledException.class, Cancellation::checkpoint);
+        } finally {
+            cancellation.close();
+        }
+        assertDoesNotThrow(Cancellation::checkpoint);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(ConversionCancelledException.class, Cancellation::checkpoint);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static List<String> listNames(File directory) {
+        String[] names = directory.list();
+        return names == null ? List.of() : List.of(names);
+    }
+}
@@ -8,7 +8,11 @@ import xyz.mahmoudahmed.model.Annotation;
 import xyz.mahmoudahmed.model.AnnotationData;
 import xyz.mahmoudahmed.parsers.DefaultAnnotationParser;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -182,4 +186,20 @@ class DefaultAnnotationParserTest {
         assertEquals(1, result.getTotalCount());
         assertEquals("gene", result.getAnnotationsForSequence("chr1").get(0).getType());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParseStreamWithoutMarkSupport() throws IOException {
+        String gff = "##gff-version 3\nseq1\tsrc\tgene\t1\t100\t.\t+\t.\tID=gene1\n";
+        InputStream stream = new FilterInputStream(new ByteArrayInputStream(gff.getBytes(StandardCharsets.UTF_8))) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+
+        AnnotationData result = parser.parse(stream);
+
+        assertEquals(1, result.getTotalCount());
+        assertEquals(0, result.getAnnotationsForSequence("seq1").get(0).getStart());
+    }
+}
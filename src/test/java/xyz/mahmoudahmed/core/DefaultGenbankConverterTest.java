@@ -5,22 +5,39 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import xyz.mahmoudahmed.converter.DefaultGenbankConverter;
+import xyz.mahmoudahmed.diagnostics.DiagnosticCategory;
+import xyz.mahmoudahmed.diagnostics.DiagnosticsCollector;
+import xyz.mahmoudahmed.diagnostics.DiagnosticsSummary;
+import xyz.mahmoudahmed.exception.InvalidFileFormatException;
 import xyz.mahmoudahmed.exception.ValidationException;
 import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.metrics.ConversionListener;
+import xyz.mahmoudahmed.metrics.ConversionMetrics;
+import xyz.mahmoudahmed.metrics.ConversionStage;
+import xyz.mahmoudahmed.metrics.PrometheusMetricsListener;
+import xyz.mahmoudahmed.metrics.StageMetrics;
 import xyz.mahmoudahmed.model.*;
 import xyz.mahmoudahmed.parsers.AnnotationParser;
 import xyz.mahmoudahmed.parsers.SequenceParser;
 import xyz.mahmoudahmed.validators.GenbankValidator;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,6 +61,8 @@ class DefaultGenbankConverterTest {
         mockSequenceParser = Mockito.mock(SequenceParser.class);
         mockAnnotationParser = Mockito.mock(AnnotationParser.class);
         mockValidator = Mockito.mock(GenbankValidator.class);
+        when(mockValidator.validateCompatibility(any(SequenceData.class), any(AnnotationData.class)))
+                .thenCallRealMethod();
         mockFormatter = Mockito.mock(GenbankFormatter.class);
 
         options = GenbankOptions.builder()
@@ -321,6 +340,76 @@ class DefaultGenbankConverterTest {
         verifyNoInteractions(mockAnnotationParser);
     }
 
+    @Test
+    void testSinglePassValidationUsesParsedData() throws IOException {
+        DefaultGenbankConverter singlePassConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                .withSequenceParser(mockSequenceParser)
+                .withAnnotationParser(mockAnnotationParser)
+                .withValidator(mockValidator)
+                .withFormatter(mockFormatter)
+                .withOptions(GenbankOptions.builder().singlePassValidation(true).build())
+                .build();
+
+        File sequenceFile = Files.createFile(tempDir.resolve("single.fasta")).toFile();
+        File annotationFile = Files.createFile(tempDir.resolve("single.gff")).toFile();
+
+        SequenceData sequenceData = SequenceData.builder()
+                .addSequence(Sequence.builder().id("seq1").sequence("ATGC").build())
+                .build();
+        AnnotationData annotationData = AnnotationData.builder().build();
+
+        ValidationResult validResult = ValidationResult.builder()
+                .valid(true)
+                .sequenceCount(1)
+                .build();
+
+        when(mockSequenceParser.parse(sequenceFile)).thenReturn(sequenceData);
+        when(mockAnnotationParser.parse(annotationFile)).thenReturn(annotationData);
+        when(mockValidator.validateCompatibility(sequenceData, annotationData)).thenReturn(validResult);
+        when(mockFormatter.format(any(SequenceData.class), any(AnnotationData.class),
+                any(ConversionOptions.class))).thenReturn("LOCUS...".getBytes());
+
+        GenbankResult result = singlePassConverter.convert(sequenceFile, annotationFile,
+                ConversionOptions.builder().build());
+
+        // Each file is parsed exactly once and validation reuses the parsed data
+        assertSame(validResult, result.getValidationResult());
+        verify(mockValidator, never()).validateCompatibility(any(File.class), any(File.class));
+        verify(mockValidator).validateCompatibility(sequenceData, annotationData);
+        verify(mockSequenceParser, times(1)).parse(sequenceFile);
+        verify(mockAnnotationParser, times(1)).parse(annotationFile);
+    }
+
+    @Test
+    void testSinglePassValidationFailureStopsBeforeFormatting() throws IOException {
+        DefaultGenbankConverter singlePassConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                .withSequenceParser(mockSequenceParser)
+                .withAnnotationParser(mockAnnotationParser)
+                .withValidator(mockValidator)
+                .withFormatter(mockFormatter)
+                .withOptions(GenbankOptions.builder().singlePassValidation(true).memoryEfficient(true).build())
+                .build();
+
+        File sequenceFile = Files.createFile(tempDir.resolve("single_large.fasta")).toFile();
+        File annotationFile = Files.createFile(tempDir.resolve("single_large.gff")).toFile();
+
+        SequenceData metadataOnly = SequenceData.builder()
+                .addSequence(Sequence.builder().id("seq1").length(100).build())
+                .build();
+        AnnotationData annotationData = AnnotationData.builder().build();
+
+        when(mockSequenceParser.parseMetadataOnly(sequenceFile)).thenReturn(metadataOnly);
+        when(mockAnnotationParser.parse(annotationFile)).thenReturn(annotationData);
+        when(mockValidator.validateCompatibility(metadataOnly, annotationData))
+                .thenReturn(ValidationResult.builder().valid(false).summary("out of bounds").build());
+
+        assertThrows(ValidationException.class, () ->
+                singlePassConverter.convert(sequenceFile, annotationFile, ConversionOptions.builder().build()));
+
+        verify(mockSequenceParser, never()).parse(any(File.class));
+        verifyNoInteractions(mockFormatter);
+    }
+
     @Test
     void testBuilderWithDefaults() {
         // Create builder with no explicit dependencies
@@ -344,4 +433,245 @@ class DefaultGenbankConverterTest {
             fail("Default converter failed: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConvertNonSeekableStreamsWritesEachRecord() throws IOException {
+        DefaultGenbankConverter defaultConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder().build();
+        String fasta = ">seq1\nATGCATGCAT\n>seq2\nGGGGCCCC\n";
+        String gff = "##gff-version 3\nseq1\tsrc\tgene\t1\t9\t.\t+\t.\tID=gene1\n";
+
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        GenbankResult result = defaultConverter.convert(nonSeekable(fasta), nonSeekable(gff), output,
+                ConversionOptions.builder().build());
+
+        String genbank = output.toString(StandardCharsets.UTF_8);
+        assertEquals(2, result.getSequenceCount());
+        assertEquals(1, result.getFeatureCount());
+        assertEquals(2, genbank.split("LOCUS", -1).length - 1);
+        assertTrue(genbank.contains("     gene            1..9"));
+        assertFalse(closed.get());
+    }
+
+    @Test
+    void testConvertStreamsRejectsAnnotationsOnMissingSequences() {
+        String fasta = ">seq1\nATGCATGCAT\n";
+        String gff = "##gff-version 3\n"
+                + "seq1\tsrc\tgene\t1\t9\t.\t+\t.\tID=g1\n"
+                + "seq2\tsrc\tgene\t1\t9\t.\t+\t.\tID=g2\n";
+
+        for (int workers : new int[] {0, 2}) {
+            DefaultGenbankConverter streamConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                    .withOptions(GenbankOptions.builder().pipelineWorkers(workers).build())
+                    .build();
+            ValidationException e = assertThrows(ValidationException.class, () -> streamConverter.convert(
+                    nonSeekable(fasta), nonSeekable(gff), new ByteArrayOutputStream(), ConversionOptions.builder().build()));
+            assertTrue(e.getMessage().contains("1 sequence references unmatched"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testConvertStreamsRejectsDuplicateSequenceIds() {
+        String fasta = ">seq1\nATGCATGCAT\n>seq2\nGGGG\n>seq1\nCCCC\n";
+        String gff = "##gff-version 3\nseq1\tsrc\tgene\t1\t4\t.\t+\t.\tID=g1\n";
+
+        for (int workers : new int[] {0, 2}) {
+            DefaultGenbankConverter streamConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                    .withOptions(GenbankOptions.builder().pipelineWorkers(workers).build())
+                    .build();
+            ValidationException e = assertThrows(ValidationException.class, () -> streamConverter.convert(
+                    nonSeekable(fasta), nonSeekable(gff), new ByteArrayOutputStream(), ConversionOptions.builder().build()));
+            assertTrue(e.getMessage().contains("1 duplicate sequence IDs"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testConvertChannelsRejectsUnsupportedSequenceFormat() {
+        DefaultGenbankConverter defaultConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder().build();
+        ReadableByteChannel sequences = Channels.newChannel(nonSeekable("##gff-version 3\n"));
+        ReadableByteChannel annotations = Channels.newChannel(nonSeekable("##gff-version 3\n"));
+
+        assertThrows(InvalidFileFormatException.class, () -> defaultConverter.convert(sequences, annotations,
+                Channels.newChannel(new ByteArrayOutputStream()), ConversionOptions.builder().build()));
+    }
+
+    @Test
+    void testMergeSequencesInMemoryEfficientModeStreamsResiduesAndRemapsFeatures() throws IOException {
+        DefaultGenbankConverter efficientConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                .withOptions(GenbankOptions.builder().memoryEfficient(true).build())
+                .build();
+        File sequenceFile = Files.writeString(tempDir.resolve("scaffolds.fasta"),
+                ">scaf1\nAAAAAAAAAA\n>scaf2\nCCCCCCCCCC\n").toFile();
+        File annotationFile = Files.writeString(tempDir.resolve("scaffolds.gff"),
+                "##gff-version 3\nscaf2\tsrc\tgene\t2\t5\t.\t+\t.\tID=gene1\n").toFile();
+
+        GenbankResult result = efficientConverter.convert(sequenceFile, annotationFile,
+                ConversionOptions.builder().mergeSequences(true).build());
+
+        String genbank = new String(result.getGenbankData(), StandardCharsets.UTF_8);
+        assertEquals(1, result.getSequenceCount());
+        assertEquals(1, result.getFeatureCount());
+        assertTrue(genbank.contains("merged_scaf1"));
+        assertTrue(genbank.contains("20 bp"));
+        assertTrue(genbank.contains("     gene            12..15"));
+        assertTrue(genbank.contains("        1 AAAAAAAAAA CCCCCCCCCC"));
+    }
+
+    @Test
+    void testMergeSequencesInMemoryUsesTheConfiguredFormatter() throws IOException {
+        SequenceData sequenceData = SequenceData.builder()
+                .addSequence(Sequence.builder().id("scaf1").sequence("AAAA").build())
+                .addSequence(Sequence.builder().id("scaf2").sequence("CCCC").build())
+                .build();
+        AnnotationData annotationData = AnnotationData.builder()
+                .addAnnotation(Annotation.builder().sequenceId("scaf2").type("gene").start(1).end(3).build())
+                .build();
+
+        GenbankResult result = converter.convert(sequenceData, annotationData,
+                ConversionOptions.builder().mergeSequences(true).build());
+
+        assertEquals(1, result.getSequenceCount());
+        verify(mockFormatter).formatToStream(argThat(merged -> merged.getSequences().size() == 1
+                        && merged.getSequences().get(0).getId().equals("merged_scaf1")
+                        && merged.getSequences().get(0).getSequence().equals("AAAACCCC")),
+                argThat(merged -> merged.getAnnotationsForSequence("merged_scaf1").get(0).getStart() == 5),
+                any(), any(ConversionOptions.class));
+    }
+
+    @Test
+    void testConvertNonSeekableStreamsWritesBgzfOutput() throws IOException {
+        DefaultGenbankConverter defaultConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder().build();
+        String fasta = ">seq1\nATGCATGCAT\n>seq2\nGGGGCCCC\n";
+        String gff = "##gff-version 3\nseq1\tsrc\tgene\t1\t9\t.\t+\t.\tID=gene1\n";
+        ConversionOptions compressedOptions = ConversionOptions.builder()
+                .outputFormattingOptions(OutputFormattingOptions.builder()
+                        .outputCompression(Compression.BGZF)
+                        .build())
+                .build();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        defaultConverter.convert(nonSeekable(fasta), nonSeekable(gff), output, compressedOptions);
+
+        String genbank;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            genbank = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(2, genbank.split("LOCUS", -1).length - 1);
+        assertTrue(genbank.contains("     gene            1..9"));
+    }
+
+    @Test
+    void testListenersReceivePerStageMetrics() throws IOException {
+        List<ConversionMetrics> reported = new ArrayList<>();
+        PrometheusMetricsListener prometheus = new PrometheusMetricsListener();
+        DefaultGenbankConverter meteredConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                .withListener(reported::add)
+                .withListener(prometheus)
+                .build();
+        String fasta = ">seq1\nATGCATGCAT\n>seq2\nGGGGCCCC\n";
+        String gff = "##gff-version 3\nseq1\tsrc\tgene\t1\t9\t.\t+\t.\tID=gene1\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        meteredConverter.convert(nonSeekable(fasta), nonSeekable(gff), output, ConversionOptions.builder().build());
+        meteredConverter.convert(nonSeekable(fasta), nonSeekable(gff), new ByteArrayOutputStream(),
+                ConversionOptions.builder().build());
+
+        assertEquals(2, reported.size());
+        ConversionMetrics metrics = reported.get(0);
+        assertNotNull(metrics.getStage(ConversionStage.DETECT));
+        assertNull(metrics.getStage(ConversionStage.TRANSLATE));
+
+        StageMetrics parseSequence = metrics.getStage(ConversionStage.PARSE_SEQUENCE);
+        assertEquals(2, parseSequence.records());
+        assertEquals(fasta.length(), parseSequence.bytesIn());
+        assertEquals(10, parseSequence.peakBufferedBytes());
+        assertEquals(gff.length(), metrics.getStage(ConversionStage.PARSE_ANNOTATION).bytesIn());
+        assertEquals(1, metrics.getStage(ConversionStage.PARSE_ANNOTATION).features());
+        assertEquals(2, metrics.getStage(ConversionStage.VALIDATE).records());
+        assertEquals(2, metrics.getStage(ConversionStage.FORMAT).records());
+        assertEquals(1, metrics.getStage(ConversionStage.FORMAT).features());
+        assertEquals(output.size(), metrics.getStage(ConversionStage.WRITE).bytesOut());
+
+        // Stage times exclude nested stages, so together they fit within the conversion
+        long stageNanos = metrics.stages().stream().mapToLong(StageMetrics::wallNanos).sum();
+        assertTrue(stageNanos <= metrics.wallNanos());
+
+        assertEquals(2, prometheus.getConversionCount());
+        assertEquals(4, prometheus.getTotals(ConversionStage.FORMAT).records());
+        String exposition = prometheus.scrape();
+        assertTrue(exposition.contains("# TYPE genbankinator_conversions_total counter\ngenbankinator_conversions_total 2\n"));
+        assertTrue(exposition.contains("genbankinator_stage_records_total{stage=\"format\"} 4\n"));
+        assertTrue(exposition.contains("genbankinator_stage_bytes_out_total{stage=\"write\"} " + 2 * output.size() + "\n"));
+    }
+
+    @Test
+    void testListenersAreToldOfFailedConversions() {
+        PrometheusMetricsListener prometheus = new PrometheusMetricsListener();
+        List<Throwable> failures = new ArrayList<>();
+        ConversionListener failingListener = new ConversionListener() {
+            @Override
+            public void conversionCompleted(ConversionMetrics metrics) {
+                throw new IllegalStateException("Listeners must not break conversions");
+            }
+
+            @Override
+            public void conversionFailed(ConversionMetrics metrics, Throwable failure) {
+                failures.add(failure);
+                throw new IllegalStateException("Listeners must not hide the failure");
+            }
+        };
+        DefaultGenbankConverter meteredConverter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                .withListener(failingListener)
+                .withListener(prometheus)
+                .build();
+
+        assertThrows(InvalidFileFormatException.class, () -> meteredConverter.convert(
+                nonSeekable("##gff-version 3\n"), nonSeekable("##gff-version 3\n"),
+                new ByteArrayOutputStream(), ConversionOptions.builder().build()));
+        assertDoesNotThrow(() -> meteredConverter.convert(
+                nonSeekable(">seq1\nACGT\n"), nonSeekable("##gff-version 3\n"),
+                new ByteArrayOutputStream(), ConversionOptions.builder().build()));
+
+        assertEquals(1, failures.size());
+        assertInstanceOf(InvalidFileFormatException.class, failures.get(0));
+        assertEquals(2, prometheus.getConversionCount());
+        assertEquals(1, prometheus.getFailureCount());
+    }
+
+    @Test
+    void testSkippedLinesAreSummarisedInTheResult() throws IOException {
+        StringBuilder gff = new StringBuilder("##gff-version 3\nseq1\tsrc\tgene\t1\t9\t.\t+\t.\tID=gene1\n");
+        for (int i = 0; i < 50; i++) {
+            gff.append("seq1\tsrc\tgene\n");
+        }
+        gff.append("seq1\tsrc\tgene\tone\t9\t.\t+\t.\tID=gene2\n");
+
+        GenbankResult result = new DefaultGenbankConverter.Builder().build().convert(
+                nonSeekable(">seq1\nATGCATGCAT\n"), nonSeekable(gff.toString()),
+                new ByteArrayOutputStream(), ConversionOptions.builder().build());
+
+        DiagnosticsSummary diagnostics = result.getDiagnostics();
+        assertEquals(1, result.getFeatureCount());
+        assertEquals(50, diagnostics.getCount(DiagnosticCategory.MISSING_FIELDS));
+        assertEquals(1, diagnostics.getCount(DiagnosticCategory.INVALID_COORDINATES));
+        assertEquals(DiagnosticsCollector.DEFAULT_MAX_EXAMPLES,
+                diagnostics.getExamples(DiagnosticCategory.MISSING_FIELDS).size());
+        assertEquals(3, diagnostics.getExamples(DiagnosticCategory.MISSING_FIELDS).get(0).line());
+        assertEquals(53, diagnostics.getExamples(DiagnosticCategory.INVALID_COORDINATES).get(0).line());
+    }
+
+    private static InputStream nonSeekable(String content) {
+        return new FilterInputStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.formatters.StreamingGenbankFormatter;
 import xyz.mahmoudahmed.model.*;
 
 import java.io.ByteArrayOutputStream;
@@ -383,4 +384,83 @@ class DefaultGenbankFormatterTest {
         assertTrue(lowerCaseContent.contains("//"), "Should contain record terminator");
         assertFalse(lowerCaseContent.contains("atgcatgcatgc"), "Should not contain sequence data");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParallelRenderingMatchesSequentialOutput() {
+        // A sequence spanning several ORIGIN segments and enough features to be sliced
+        StringBuilder residues = new StringBuilder();
+        for (int i = 0; i < 200_003; i++) {
+            residues.append("ACGT".charAt((i * 7 + i / 11) % 4));
+        }
+        Sequence sequence = Sequence.builder()
+                .id("BigSeq")
+                .name("BigSeq")
+                .description("Large sequence")
+                .sequence(residues.toString())
+                .organism("Test organism")
+                .build();
+        SequenceData sequenceData = SequenceData.builder().addSequence(sequence).build();
+
+        List<Annotation> annotations = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            annotations.add(Annotation.builder()
+                    .sequenceId("BigSeq")
+                    .type("gene")
+                    .start(i * 60)
+                    .end(i * 60 + 45)
+                    .strand(i % 2 == 0 ? 1 : -1)
+                    .featureId("gene" + i)
+                    .qualifiers(Map.of("gene", List.of("gene_" + i)))
+                    .build());
+        }
+        AnnotationData annotationData = AnnotationData.builder()
+                .addAnnotations(Map.of("BigSeq", annotations))
+                .build();
+
+        ConversionOptions sequential = ConversionOptions.builder().build();
+        ConversionOptions parallel = ConversionOptions.builder()
+                .outputFormattingOptions(OutputFormattingOptions.builder()
+                        .renderingParallelism(4)
+                        .build())
+                .build();
+
+        String expected = new String(formatter.format(sequenceData, annotationData, sequential), StandardCharsets.UTF_8);
+        String actual = new String(formatter.format(sequenceData, annotationData, parallel), StandardCharsets.UTF_8);
+        assertEquals(expected, actual);
+        assertTrue(expected.contains("gene_2999"));
+        assertTrue(expected.contains(System.lineSeparator() + "    61441 "), "Segment boundaries keep line positions");
+        assertTrue(expected.contains(System.lineSeparator() + "   199981 ATGCATGCAT GGCATGCATG CAA" + System.lineSeparator()));
+
+        // The streaming formatter renders the same ORIGIN section from streamed chunks
+        Sequence streamed = Sequence.builder()
+                .id("BigSeq")
+                .name("BigSeq")
+                .description("Large sequence")
+                .length(residues.length())
+                .organism("Test organism")
+                .build();
+        StreamingGenbankFormatter streamingFormatter = new StreamingGenbankFormatter((id, consumer) -> {
+            for (int i = 0; i < residues.length(); i += 1000) {
+                consumer.consumeChunk(residues.substring(i, Math.min(i + 1000, residues.length())));
+            }
+        });
+        SequenceData streamedData = SequenceData.builder().addSequence(streamed).build();
+        String streamedSequential = new String(streamingFormatter.format(streamedData, annotationData, sequential),
+                StandardCharsets.UTF_8);
+        String streamedParallel = new String(streamingFormatter.format(streamedData, annotationData, parallel),
+                StandardCharsets.UTF_8);
+        assertEquals(streamedSequential, streamedParallel);
+        assertEquals(origin(expected), origin(streamedParallel));
+    }
+
+    @Test
+    void testRenderingParallelismMustBePositive() {
+        assertEquals(1, OutputFormattingOptions.builder().build().getRenderingParallelism());
+        assertThrows(IllegalArgumentException.class,
+                () -> OutputFormattingOptions.builder().renderingParallelism(0));
+    }
+
+    private static String origin(String genbank) {
+        return genbank.substring(genbank.indexOf("ORIGIN"));
+    }
+}
@@ -10,6 +10,7 @@ import xyz.mahmoudahmed.exception.FileProcessingException;
 import xyz.mahmoudahmed.model.*;
 import xyz.mahmoudahmed.service.FormatDetectionService;
 import xyz.mahmoudahmed.validators.DefaultGenbankValidator;
+import xyz.mahmoudahmed.validators.GenbankValidator;
 
 import java.io.File;
 import java.io.IOException;
@@ -51,25 +52,12 @@ class DefaultGenbankValidatorTest {
     @Test
     void testValidateSequenceValid() throws IOException, FileProcessingException {
         // Create a test file
-        File sequenceFile = Files.createFile(tempDir.resolve("sequence.fasta")).toFile();
+        File sequenceFile = Files.writeString(tempDir.resolve("sequence.fasta"), ">seq1\nATGCATGC\n").toFile();
 
         // Set up mocks
         when(mockFormatDetectionService.detectFormat(sequenceFile)).thenReturn("FASTA");
         when(mockSequenceParser.supportsFormat("FASTA")).thenReturn(true);
 
-        // Create sample sequence data
-        List<Sequence> sequences = new ArrayList<>();
-        sequences.add(Sequence.builder()
-                .id("seq1")
-                .sequence("ATGCATGC")
-                .build());
-
-        SequenceData sequenceData = SequenceData.builder()
-                .addSequences(sequences)
-                .build();
-
-        when(mockSequenceParser.parse(sequenceFile)).thenReturn(sequenceData);
-
         // Run the validation
         ValidationResult result = validator.validateSequence(sequenceFile);
 
@@ -83,7 +71,7 @@ class DefaultGenbankValidatorTest {
     @Test
     void testValidateSequenceEmptySequence() throws IOException, FileProcessingException {
         // Create a test file
-        File sequenceFile = Files.createFile(tempDir.resolve("empty.fasta")).toFile();
+        File sequenceFile = Files.writeString(tempDir.resolve("empty.fasta"), ">seq1\n").toFile();
 
         // Set up mocks
         when(mockFormatDetectionService.detectFormat(sequenceFile)).thenReturn("FASTA");
@@ -95,13 +83,13 @@ class DefaultGenbankValidatorTest {
         // Run the validation
         ValidationResult result = validator.validateSequence(sequenceFile);
 
-        // Verify results - should match special case handling
+        // Verify results
         assertFalse(result.isValid());
         assertEquals("FASTA", result.getDetectedFormat());
         assertEquals(1, result.getSequenceCount());
         assertEquals(1, result.getIssues().size());
         assertEquals("WARNING", result.getIssues().get(0).getType());
-        assertEquals("Empty sequence found", result.getIssues().get(0).getMessage());
+        assertEquals("Empty sequence found: seq1", result.getIssues().get(0).getMessage());
         assertEquals("Found 1 sequences, 1 empty", result.getSummary());
     }
 
@@ -171,27 +159,33 @@ class DefaultGenbankValidatorTest {
         // Set up mocks
         when(mockFormatDetectionService.detectFormat(annotationFile)).thenReturn("GFF");
 
-        // Special handling by the validator for files with "invalid_coords" in the name
-        // No need to set up mockAnnotationParser.parse() as it should be bypassed
+        Map<String, List<Annotation>> annotationMap = new HashMap<>();
+        annotationMap.put("seq1", List.of(
+                Annotation.builder().sequenceId("seq1").type("gene").start(-10).end(20).featureId("gene1").build(),
+                Annotation.builder().sequenceId("seq1").type("gene").start(30).end(60).featureId("gene2").build()));
+        when(mockAnnotationParser.parse(annotationFile)).thenReturn(AnnotationData.builder()
+                .addAnnotations(annotationMap)
+                .build());
 
         // Run the validation
         ValidationResult result = validator.validateAnnotation(annotationFile, "GFF");
 
-        // Verify results - should match special case handling
-        assertFalse(result.isValid());
+        // Verify results - one of the two features is invalid, so the file as a whole is still usable
+        assertTrue(result.isValid());
         assertEquals("GFF", result.getDetectedFormat());
         assertEquals(1, result.getSequenceCount());
         assertEquals(2, result.getFeatureCount());
         assertEquals(1, result.getIssues().size());
         assertEquals("WARNING", result.getIssues().get(0).getType());
-        assertEquals("Invalid coordinates for feature: start=-10, end=20", result.getIssues().get(0).getMessage());
+        assertEquals("Invalid coordinates for feature gene1: start=-10, end=20", result.getIssues().get(0).getMessage());
         assertEquals("Found annotations for 1 sequences, 2 features total, 1 invalid", result.getSummary());
     }
 
     @Test
     void testValidateCompatibilityValid() throws IOException, FileProcessingException {
         // Create test files
-        File sequenceFile = Files.createFile(tempDir.resolve("seq_valid.fasta")).toFile();
+        File sequenceFile = Files.writeString(tempDir.resolve("seq_valid.fasta"),
+                ">seq1\nATGCATGCATGCATGCATGC\n").toFile();
         File annotationFile = Files.createFile(tempDir.resolve("ann_valid.gff")).toFile();
 
         // Set up mocks for format detection
@@ -234,7 +228,7 @@ class DefaultGenbankValidatorTest {
         // Run the validation
         ValidationResult result = validator.validateCompatibility(sequenceFile, annotationFile);
 
-        // Verify results - should be valid because "valid" is in both filenames
+        // Verify results
         assertTrue(result.isValid());
         assertEquals(1, result.getSequenceCount());
         assertEquals(1, result.getFeatureCount());
@@ -244,10 +238,19 @@ class DefaultGenbankValidatorTest {
     @Test
     void testValidateCompatibilityUnmatchedSequence() throws IOException, FileProcessingException {
         // Create test files
-        File sequenceFile = Files.createFile(tempDir.resolve("seq_unmatched.fasta")).toFile();
+        File sequenceFile = Files.writeString(tempDir.resolve("seq_unmatched.fasta"), ">seq1\nATGCATGC\n").toFile();
         File annotationFile = Files.createFile(tempDir.resolve("ann.gff")).toFile();
 
-        // Set up mocks - the special case handler should bypass these
+        Map<String, List<Annotation>> annotationMap = new HashMap<>();
+        annotationMap.put("seq1", List.of(
+                Annotation.builder().sequenceId("seq1").type("gene").start(0).end(8).featureId("gene1").build()));
+        annotationMap.put("seq2", List.of(
+                Annotation.builder().sequenceId("seq2").type("gene").start(0).end(4).featureId("gene2").build()));
+        when(mockAnnotationParser.parse(annotationFile)).thenReturn(AnnotationData.builder()
+                .addAnnotations(annotationMap)
+                .build());
+
+        // Set up mocks
         when(mockFormatDetectionService.detectFormat(sequenceFile)).thenReturn("FASTA");
         when(mockFormatDetectionService.detectFormat(annotationFile)).thenReturn("GFF");
         when(mockSequenceParser.supportsFormat("FASTA")).thenReturn(true);
@@ -256,23 +259,53 @@ class DefaultGenbankValidatorTest {
         // Run the validation
         ValidationResult result = validator.validateCompatibility(sequenceFile, annotationFile);
 
-        // Verify results - should match special case handling
+        // Verify results
         assertFalse(result.isValid());
         assertEquals(1, result.getSequenceCount());
         assertEquals(2, result.getFeatureCount());
         assertEquals(1, result.getIssues().size());
-        assertTrue(result.getIssues().get(0).getMessage().contains("Annotation references sequence that doesn't exist"));
+        assertEquals("Annotation references sequence that doesn't exist: seq2", result.getIssues().get(0).getMessage());
         assertEquals("Found 1 sequences and 2 features. 1 sequence references unmatched, 0 features out of bounds.",
                 result.getSummary());
     }
 
+    @Test
+    void testDuplicateSequenceIdsFailValidation() throws IOException, FileProcessingException {
+        File sequenceFile = Files.writeString(tempDir.resolve("duplicates.fasta"),
+                ">seq1 first\nATGC\n>seq2\nGG\n>seq1 second\nTTTTTT\n").toFile();
+        File annotationFile = Files.createFile(tempDir.resolve("duplicates.gff")).toFile();
+        when(mockAnnotationParser.parse(annotationFile)).thenReturn(AnnotationData.builder().build());
+        when(mockFormatDetectionService.detectFormat(sequenceFile)).thenReturn("FASTA");
+        when(mockFormatDetectionService.detectFormat(annotationFile)).thenReturn("GFF");
+        when(mockSequenceParser.supportsFormat("FASTA")).thenReturn(true);
+        when(mockAnnotationParser.supportsFormat("GFF")).thenReturn(true);
+
+        ValidationResult sequenceResult = validator.validateSequence(sequenceFile);
+        ValidationResult compatibilityResult = validator.validateCompatibility(sequenceFile, annotationFile);
+
+        for (ValidationResult result : List.of(sequenceResult, compatibilityResult)) {
+            assertFalse(result.isValid());
+            assertEquals("ERROR", result.getIssues().get(0).getType());
+            assertEquals("Duplicate sequence ID: seq1", result.getIssues().get(0).getMessage());
+        }
+        assertEquals(3, sequenceResult.getSequenceCount());
+    }
+
     @Test
     void testValidateCompatibilityFeatureOutOfBounds() throws IOException, FileProcessingException {
         // Create test files
-        File sequenceFile = Files.createFile(tempDir.resolve("seq.fasta")).toFile();
+        File sequenceFile = Files.writeString(tempDir.resolve("seq.fasta"), ">seq1\n" + "A".repeat(100) + "\n").toFile();
         File annotationFile = Files.createFile(tempDir.resolve("ann_out_of_bounds.gff")).toFile();
 
-        // Set up mocks - the special case handler should bypass these
+        Map<String, List<Annotation>> annotationMap = new HashMap<>();
+        annotationMap.put("seq1", List.of(
+                Annotation.builder().sequenceId("seq1").type("gene").start(0).end(50).featureId("gene1").build(),
+                Annotation.builder().sequenceId("seq1").type("gene").start(150).end(200).featureId("gene2").build()));
+        when(mockAnnotationParser.parse(annotationFile)).thenReturn(AnnotationData.builder()
+                .addAnnotations(annotationMap)
+                .build());
+
+        // Set up mocks
         when(mockFormatDetectionService.detectFormat(sequenceFile)).thenReturn("FASTA");
         when(mockFormatDetectionService.detectFormat(annotationFile)).thenReturn("GFF");
         when(mockSequenceParser.supportsFormat("FASTA")).thenReturn(true);
@@ -281,12 +314,13 @@ class DefaultGenbankValidatorTest {
         // Run the validation
         ValidationResult result = validator.validateCompatibility(sequenceFile, annotationFile);
 
-        // Verify results - should match special case handling
+        // Verify results
         assertFalse(result.isValid());
         assertEquals(1, result.getSequenceCount());
         assertEquals(2, result.getFeatureCount());
         assertEquals(1, result.getIssues().size());
-        assertTrue(result.getIssues().get(0).getMessage().contains("Feature extends beyond sequence length"));
+        assertEquals("Feature gene2 extends beyond sequence seq1 length: end=200, seq_length=100",
+                result.getIssues().get(0).getMessage());
         assertEquals("Found 1 sequences and 2 features. 0 sequence references unmatched, 1 features out of bounds.",
                 result.getSummary());
     }
@@ -317,4 +351,69 @@ class DefaultGenbankValidatorTest {
         assertTrue(validator instanceof xyz.mahmoudahmed.validators.GenbankValidator,
                 "DefaultGenbankValidator should implement GenbankValidator interface");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testValidateCompatibilityOfParsedMetadata() {
+        // Metadata-only sequences carry a length but no residues
+        SequenceData sequenceData = SequenceData.builder()
+                .addSequence(Sequence.builder().id("seq1").length(100).build())
+                .build();
+
+        Map<String, List<Annotation>> annotationMap = new HashMap<>();
+        annotationMap.put("seq1", List.of(
+                Annotation.builder().sequenceId("seq1").type("gene").start(10).end(50).build(),
+                Annotation.builder().sequenceId("seq1").type("gene").start(80).end(150).build()));
+        annotationMap.put("seq2", List.of(
+                Annotation.builder().sequenceId("seq2").type("gene").start(1).end(10).build()));
+        AnnotationData annotationData = AnnotationData.builder()
+                .addAnnotations(annotationMap)
+                .build();
+
+        ValidationResult result = validator.validateCompatibility(sequenceData, annotationData);
+
+        assertFalse(result.isValid());
+        assertEquals(1, result.getSequenceCount());
+        assertEquals(3, result.getFeatureCount());
+        assertEquals(2, result.getIssues().size());
+        assertTrue(result.getSummary().contains("1 sequence references unmatched, 1 features out of bounds"));
+    }
+
+    @Test
+    void testCustomValidatorsInheritTheNewerOverloads() throws IOException {
+        // A validator written against the original interface, before validation levels and parsed data
+        ValidationResult fileResult = ValidationResult.builder().valid(true).summary("custom").build();
+        GenbankValidator custom = new GenbankValidator() {
+            @Override
+            public ValidationResult validateSequence(File file) {
+                return fileResult;
+            }
+
+            @Override
+            public ValidationResult validateAnnotation(File file, String format) {
+                return fileResult;
+            }
+
+            @Override
+            public ValidationResult validateCompatibility(File sequenceFile, File annotationFile) {
+                return fileResult;
+            }
+        };
+        File file = tempDir.resolve("any").toFile();
+        ValidationOptions exhaustive = ValidationOptions.builder().level(ValidationLevel.EXHAUSTIVE).build();
+
+        assertSame(fileResult, custom.validateSequence(file, exhaustive));
+        assertSame(fileResult, custom.validateAnnotation(file, "GFF", exhaustive));
+        assertSame(fileResult, custom.validateCompatibility(file, file, exhaustive));
+
+        SequenceData sequenceData = SequenceData.builder()
+                .addSequence(Sequence.builder().id("seq1").length(100).build())
+                .build();
+        AnnotationData annotationData = AnnotationData.builder()
+                .addAnnotations(Map.of("seq1", List.of(
+                        Annotation.builder().sequenceId("seq1").type("gene").start(80).end(150).build())))
+                .build();
+        ValidationResult dataResult = custom.validateCompatibility(sequenceData, annotationData);
+        assertFalse(dataResult.isValid());
+        assertTrue(dataResult.getSummary().contains("0 sequence references unmatched, 1 features out of bounds"));
+    }
+}
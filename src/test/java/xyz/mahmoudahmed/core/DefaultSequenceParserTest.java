@@ -7,12 +7,17 @@ import xyz.mahmoudahmed.exception.InvalidFileFormatException;
 import xyz.mahmoudahmed.model.Sequence;
 import xyz.mahmoudahmed.model.SequenceData;
 import xyz.mahmoudahmed.parsers.DefaultSequenceParser;
+import xyz.mahmoudahmed.util.FastaIndex;
+import xyz.mahmoudahmed.util.FastaIndexCache;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -105,6 +110,7 @@ class DefaultSequenceParserTest {
 
         assertEquals("seq2", sequences.get(1).getId());
         assertEquals(19, sequences.get(1).getLength());
+        assertEquals("seq2 Test Sequence 2", sequences.get(1).getDescription());
     }
 
     @Test
@@ -156,4 +162,47 @@ class DefaultSequenceParserTest {
         assertEquals(1, result.getCount());
         assertEquals("seq1", result.getSequences().get(0).getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParseMetadataOnlySharesIndexWithStreaming() throws IOException {
+        Path fastaFile = tempDir.resolve("shared.fasta");
+        Files.writeString(fastaFile, ">seq1\nATGC\nAT\n>seq2\nGGCC\n");
+        FastaIndexCache cache = new FastaIndexCache();
+        parser.setFastaIndexCache(cache);
+
+        SequenceData metadata = parser.parseMetadataOnly(fastaFile.toFile());
+        FastaIndex index = cache.get(fastaFile.toFile());
+
+        assertEquals(6, metadata.getSequence("seq1").getLength());
+        assertEquals(20, index.getEntry("seq2").offset());
+        assertSame(index, cache.getWithDescriptions(fastaFile.toFile()));
+    }
+
+    @Test
+    void testParseKeepsDuplicateIdsThatMetadataOnlyRejects() throws IOException {
+        Path fastaFile = tempDir.resolve("duplicates.fasta");
+        Files.writeString(fastaFile, ">seq1 first\nATGC\n>seq2\nGG\n>seq1 second\nTTTTTT\n");
+
+        SequenceData parsed = parser.parse(fastaFile.toFile());
+
+        assertEquals(List.of("seq1", "seq2", "seq1"), parsed.getSequences().stream().map(Sequence::getId).toList());
+        assertEquals("TTTTTT", parsed.getSequences().get(2).getSequence());
+        InvalidFileFormatException e = assertThrows(InvalidFileFormatException.class,
+                () -> parser.parseMetadataOnly(fastaFile.toFile()));
+        assertTrue(e.getMessage().contains("Duplicate sequence ID"), e.getMessage());
+    }
+
+    @Test
+    void testParseGzipCompressedFasta() throws IOException {
+        Path fastaFile = tempDir.resolve("compressed.fasta.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(fastaFile))) {
+            out.write(">seq1 Test Sequence\nATGCATGC\nATGC\n>seq2\nGGCC\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        SequenceData result = parser.parse(fastaFile.toFile());
+
+        assertEquals(2, result.getCount());
+        assertEquals("ATGCATGCATGC", result.getSequence("seq1").getSequence());
+        assertEquals("GGCC", result.getSequence("seq2").getSequence());
+    }
+}
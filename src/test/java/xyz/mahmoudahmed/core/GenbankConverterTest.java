@@ -0,0 +1,124 @@
+package xyz.mahmoudahmed.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import xyz.mahmoudahmed.converter.DefaultGenbankConverterBuilder;
+import xyz.mahmoudahmed.converter.GenbankConverter;
+import xyz.mahmoudahmed.converter.GenbankConverterBuilder;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankResult;
+import xyz.mahmoudahmed.model.ValidationLevel;
+import xyz.mahmoudahmed.model.ValidationOptions;
+import xyz.mahmoudahmed.model.ValidationResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Tests for the default methods of {@link GenbankConverter}, as seen by converters that only
+ * implement the buffered conversions.
+ */
+class GenbankConverterTest {
+    private static final String FASTA = ">seq1\nATGC\n";
+    private static final String GFF = "##gff-version 3\nseq1\tsrc\tgene\t1\t4\t.\t+\t.\tID=gene1\n";
+
+    @TempDir
+    Path tempDir;
+
+    private GenbankConverter converter;
+    private final List<File> convertedFiles = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        converter = Mockito.mock(GenbankConverter.class, Mockito.CALLS_REAL_METHODS);
+        doAnswer(invocation -> {
+            File sequenceFile = invocation.getArgument(0);
+            File annotationFile = invocation.getArgument(1);
+            convertedFiles.add(sequenceFile);
+            convertedFiles.add(annotationFile);
+            String data = Files.readString(sequenceFile.toPath()) + Files.readString(annotationFile.toPath());
+            return GenbankResult.builder()
+                    .genbankData(data.getBytes(StandardCharsets.UTF_8))
+                    .sequenceCount(1)
+                    .build();
+        }).when(converter).convert(any(File.class), any(File.class), any(ConversionOptions.class));
+    }
+
+    @Test
+    void streamConversionDefaultsToConvertingTemporaryFiles() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        GenbankResult result = converter.convert(input(FASTA), input(GFF), output, ConversionOptions.builder().build());
+
+        assertEquals(1, result.getSequenceCount());
+        assertEquals(FASTA + GFF, output.toString(StandardCharsets.UTF_8));
+        assertEquals(2, convertedFiles.size());
+        convertedFiles.forEach(file -> assertFalse(file.exists(), file + " should have been deleted"));
+    }
+
+    @Test
+    void channelConversionDefaultsToStreamConversion() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        converter.convert(Channels.newChannel(input(FASTA)), Channels.newChannel(input(GFF)),
+                Channels.newChannel(output), ConversionOptions.builder().build());
+
+        assertEquals(FASTA + GFF, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void asyncConversionDefaultsToTheFileConversionOnTheExecutor() throws Exception {
+        File sequenceFile = Files.writeString(tempDir.resolve("in.fasta"), FASTA).toFile();
+        File annotationFile = Files.writeString(tempDir.resolve("in.gff3"), GFF).toFile();
+        File outputFile = tempDir.resolve("out/result.gb").toFile();
+        ConversionOptions options = ConversionOptions.builder().build();
+
+        GenbankResult result = converter.convertAsync(sequenceFile, annotationFile, options, Runnable::run).get();
+        converter.convertAsync(sequenceFile, annotationFile, outputFile, options, Runnable::run).get();
+
+        assertEquals(FASTA + GFF, new String(result.getGenbankData(), StandardCharsets.UTF_8));
+        assertEquals(FASTA + GFF, Files.readString(outputFile.toPath()));
+        assertArrayEquals(new String[]{"result.gb"}, outputFile.getParentFile().list());
+    }
+
+    @Test
+    void validationAtALevelDefaultsToValidatingTheWholeFiles() throws Exception {
+        File sequenceFile = tempDir.resolve("in.fasta").toFile();
+        File annotationFile = tempDir.resolve("in.gff3").toFile();
+        ValidationResult valid = ValidationResult.builder().valid(true).build();
+        doReturn(valid).when(converter).validate(sequenceFile, annotationFile);
+
+        assertSame(valid, converter.validate(sequenceFile, annotationFile,
+                ValidationOptions.builder().level(ValidationLevel.QUICK).build()));
+    }
+
+    @Test
+    void buildersWithoutMeasurementsIgnoreListeners() {
+        GenbankConverterBuilder builder = Mockito.mock(GenbankConverterBuilder.class, Mockito.CALLS_REAL_METHODS);
+
+        assertSame(builder, builder.withListener(metrics -> { }));
+    }
+
+    @Test
+    void defaultBuilderRejectsNullListeners() {
+        assertThrows(IllegalArgumentException.class, () -> new DefaultGenbankConverterBuilder().withListener(null));
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
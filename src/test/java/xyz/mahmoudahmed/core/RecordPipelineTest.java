@@ -0,0 +1,167 @@
+package xyz.mahmoudahmed.core;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import xyz.mahmoudahmed.converter.DefaultGenbankConverter;
+import xyz.mahmoudahmed.converter.GenbankConverter;
+import xyz.mahmoudahmed.exception.ConversionCancelledException;
+import xyz.mahmoudahmed.exception.ConversionException;
+import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.metrics.ConversionMetrics;
+import xyz.mahmoudahmed.metrics.ConversionStage;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankOptions;
+import xyz.mahmoudahmed.model.GenbankResult;
+import xyz.mahmoudahmed.util.Cancellation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+class RecordPipelineTest {
+    private static final int RECORDS = 200;
+
+    private static String fasta() {
+        StringBuilder fasta = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            fasta.append(">seq").append(i).append('\n');
+            for (int j = 0; j < 1 + i % 7; j++) {
+                fasta.append("ATGGCATTAGCCGATCGATCGGCTAGCTAGCATCGACTGACTGATCGATCGATGCATGCTAGCTAGC\n");
+            }
+        }
+        return fasta.toString();
+    }
+
+    private static String gff() {
+        StringBuilder gff = new StringBuilder("##gff-version 3\n");
+        for (int i = 0; i < RECORDS; i += 2) {
+            gff.append("seq").append(i).append("\tsrc\tgene\t1\t30\t.\t+\t.\tID=gene").append(i).append('\n');
+            gff.append("seq").append(i).append("\tsrc\tCDS\t1\t30\t.\t+\t0\tID=cds").append(i)
+                    .append(";Parent=gene").append(i).append('\n');
+        }
+        return gff.toString();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void pipelinedConversionWritesTheSameRecordsInOrder(int workers) throws IOException {
+        ConversionOptions options = ConversionOptions.builder().organism("Test organism").build();
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        GenbankResult serialResult = GenbankConverter.standard().convert(stream(fasta()), stream(gff()), serial, options);
+
+        List<ConversionMetrics> reported = new ArrayList<>();
+        GenbankConverter pipelined = new DefaultGenbankConverter.Builder()
+                .withOptions(GenbankOptions.builder().pipelineWorkers(workers).build())
+                .withListener(reported::add)
+                .build();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GenbankResult result = pipelined.convert(stream(fasta()), stream(gff()), output, options);
+
+        assertEquals(serial.toString(StandardCharsets.UTF_8), output.toString(StandardCharsets.UTF_8));
+        assertEquals(RECORDS, result.getSequenceCount());
+        assertEquals(serialResult.getFeatureCount(), result.getFeatureCount());
+
+        ConversionMetrics metrics = reported.get(0);
+        assertEquals(RECORDS, metrics.getStage(ConversionStage.FORMAT).records());
+        assertEquals(output.size(), metrics.getStage(ConversionStage.WRITE).bytesOut());
+    }
+
+    @Test
+    void formattingFailuresStopThePipeline() {
+        AtomicInteger formatted = new AtomicInteger();
+        GenbankFormatter formatter = Mockito.spy(new DefaultGenbankFormatter());
+        try {
+            Mockito.doAnswer(invocation -> {
+                if (formatted.incrementAndGet() == 20) {
+                    throw new ConversionException("Formatter failed");
+                }
+                return invocation.callRealMethod();
+            }).when(formatter).formatToStream(any(), any(), any(), any());
+        } catch (IOException e) {
+            fail(e);
+        }
+        GenbankConverter pipelined = new DefaultGenbankConverter.Builder()
+                .withFormatter(formatter)
+                .withOptions(GenbankOptions.builder().pipelineWorkers(3).build())
+                .build();
+
+        ConversionException e = assertThrows(ConversionException.class, () -> pipelined.convert(
+                stream(fasta()), stream(gff()), new ByteArrayOutputStream(), ConversionOptions.builder().build()));
+        assertEquals("Formatter failed", e.getMessage());
+        assertTrue(formatted.get() < RECORDS);
+    }
+
+    @Test
+    void writeFailuresAreRethrownToTheCaller() {
+        GenbankConverter pipelined = new DefaultGenbankConverter.Builder()
+                .withOptions(GenbankOptions.builder().pipelineWorkers(2).build())
+                .build();
+        ByteArrayOutputStream failing = new ByteArrayOutputStream() {
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (size() > 10_000) {
+                    throw new IllegalStateException("Disk full");
+                }
+                super.write(b, off, len);
+            }
+        };
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> pipelined.convert(
+                stream(fasta()), stream(gff()), failing, ConversionOptions.builder().build()));
+        assertEquals("Disk full", e.getMessage());
+    }
+
+    @Test
+    void workersStopWhenTheCallersConversionIsCancelled() {
+        AtomicInteger formatted = new AtomicInteger();
+        AtomicBoolean workerCancelled = new AtomicBoolean();
+        GenbankFormatter formatter = Mockito.spy(new DefaultGenbankFormatter());
+        try {
+            Mockito.doAnswer(invocation -> {
+                formatted.incrementAndGet();
+                try {
+                    Cancellation.checkpoint();
+                } catch (ConversionCancelledException e) {
+                    workerCancelled.set(true);
+                    throw e;
+                }
+                return invocation.callRealMethod();
+            }).when(formatter).formatToStream(any(), any(), any(), any());
+        } catch (IOException e) {
+            fail(e);
+        }
+        GenbankConverter pipelined = new DefaultGenbankConverter.Builder()
+                .withFormatter(formatter)
+                .withOptions(GenbankOptions.builder().pipelineWorkers(2).build())
+                .build();
+
+        try (Cancellation.Scope cancellation = Cancellation.enter(() -> formatted.get() >= 5)) {
+            assertThrows(ConversionCancelledException.class, () -> pipelined.convert(
+                    stream(fasta()), stream(gff()), new ByteArrayOutputStream(), ConversionOptions.builder().build()));
+        }
+        assertTrue(workerCancelled.get());
+        assertTrue(formatted.get() < RECORDS);
+    }
+
+    @Test
+    void builderRejectsNegativeWorkerCounts() {
+        assertThrows(IllegalArgumentException.class, () -> GenbankOptions.builder().pipelineWorkers(-1));
+        assertEquals(0, GenbankOptions.builder().build().getPipelineWorkers());
+    }
+}
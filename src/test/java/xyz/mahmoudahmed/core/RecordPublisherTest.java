@@ -0,0 +1,202 @@
+package xyz.mahmoudahmed.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import xyz.mahmoudahmed.converter.DefaultGenbankConverter;
+import xyz.mahmoudahmed.converter.GenbankConverter;
+import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.formatters.GenbankFormatter;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+class RecordPublisherTest {
+    private static final int RECORDS = 10;
+
+    @TempDir
+    Path tempDir;
+
+    private File sequenceFile;
+    private File annotationFile;
+
+    private void writeInputs() throws IOException {
+        StringBuilder fasta = new StringBuilder();
+        StringBuilder gff = new StringBuilder("##gff-version 3\n");
+        for (int i = 0; i < RECORDS; i++) {
+            fasta.append(">seq").append(i).append("\nATGCATGCATGCATGC").append("A".repeat(i)).append('\n');
+            gff.append("seq").append(i).append("\tsrc\tgene\t1\t9\t.\t+\t.\tID=gene").append(i).append('\n');
+        }
+        sequenceFile = tempDir.resolve("in.fasta").toFile();
+        annotationFile = tempDir.resolve("in.gff3").toFile();
+        Files.writeString(sequenceFile.toPath(), fasta);
+        Files.writeString(annotationFile.toPath(), gff);
+    }
+
+    @Test
+    void publishedRecordsMatchTheStreamedConversion() throws Exception {
+        writeInputs();
+        GenbankConverter converter = GenbankConverter.standard();
+        ConversionOptions options = ConversionOptions.builder().build();
+        TestSubscriber subscriber = new TestSubscriber(subscription -> subscription.request(Long.MAX_VALUE));
+
+        converter.publish(sequenceFile, annotationFile, options).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+        assertEquals(RECORDS, subscriber.records.size());
+        for (int i = 0; i < RECORDS; i++) {
+            GenbankRecord record = subscriber.records.get(i);
+            assertEquals("seq" + i, record.sequenceId());
+            assertEquals(i, record.index());
+            assertEquals(16 + i, record.sequenceLength());
+            assertEquals(1, record.featureCount());
+            assertTrue(record.data().isReadOnly());
+        }
+
+        String published = subscriber.records.stream()
+                .map(GenbankRecord::asString)
+                .collect(Collectors.joining(System.lineSeparator()));
+        String converted = new String(converter.convert(sequenceFile, annotationFile, options).getGenbankData(),
+                StandardCharsets.UTF_8);
+        assertEquals(converted, published);
+    }
+
+    @Test
+    void convertersWithoutPublishingRejectPublish() throws Exception {
+        writeInputs();
+        GenbankConverter buffered = Mockito.mock(GenbankConverter.class, Mockito.CALLS_REAL_METHODS);
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> buffered.publish(sequenceFile, annotationFile, ConversionOptions.builder().build()));
+        Mockito.verify(buffered, Mockito.never()).convert(any(File.class), any(File.class), any(ConversionOptions.class));
+    }
+
+    @Test
+    void recordsAreOnlyFormattedOnDemand() throws Exception {
+        writeInputs();
+        GenbankFormatter formatter = Mockito.spy(new DefaultGenbankFormatter());
+        GenbankConverter converter = new DefaultGenbankConverter.Builder().withFormatter(formatter).build();
+        TestSubscriber subscriber = new TestSubscriber(subscription -> subscription.request(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        converter.publish(sequenceFile, annotationFile, ConversionOptions.builder().build(), executor)
+                .subscribe(subscriber);
+        assertTrue(subscriber.received.await(10, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        // The record after the requested one is formatted, then held until it is requested
+        assertEquals(1, subscriber.records.size());
+        Mockito.verify(formatter, Mockito.atMost(2)).formatToStream(any(), any(), any(), any());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertEquals(RECORDS, subscriber.records.size());
+        assertTrue(subscriber.completed);
+        executor.shutdown();
+    }
+
+    @Test
+    void cancellingTheSubscriptionStopsTheConversion() throws Exception {
+        writeInputs();
+        GenbankFormatter formatter = Mockito.spy(new DefaultGenbankFormatter());
+        GenbankConverter converter = new DefaultGenbankConverter.Builder().withFormatter(formatter).build();
+        TestSubscriber subscriber = new TestSubscriber(subscription -> subscription.request(3));
+        subscriber.cancelAfter = 2;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        converter.publish(sequenceFile, annotationFile, ConversionOptions.builder().build(), executor)
+                .subscribe(subscriber);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(2, subscriber.records.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+        Mockito.verify(formatter, Mockito.atMost(3)).formatToStream(any(), any(), any(), any());
+    }
+
+    @Test
+    void invalidRequestsAndFailedConversionsAreSignalledAsErrors() throws Exception {
+        writeInputs();
+        GenbankConverter converter = GenbankConverter.standard();
+        ConversionOptions options = ConversionOptions.builder().build();
+
+        TestSubscriber invalid = new TestSubscriber(subscription -> subscription.request(0));
+        converter.publish(sequenceFile, annotationFile, options).subscribe(invalid);
+        assertTrue(invalid.done.await(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, invalid.error);
+        assertEquals(List.of(), invalid.records);
+
+        TestSubscriber missing = new TestSubscriber(subscription -> subscription.request(1));
+        converter.publish(tempDir.resolve("missing.fasta").toFile(), annotationFile, options).subscribe(missing);
+        assertTrue(missing.done.await(10, TimeUnit.SECONDS));
+        assertNotNull(missing.error);
+        assertFalse(missing.completed);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> converter.publish(sequenceFile, annotationFile, options, null));
+        assertThrows(NullPointerException.class,
+                () -> converter.publish(sequenceFile, annotationFile, options).subscribe(null));
+    }
+
+    private static final class TestSubscriber implements Flow.Subscriber<GenbankRecord> {
+        private final Consumer<Flow.Subscription> onSubscribe;
+        private final List<GenbankRecord> records = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received = new CountDownLatch(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+        private int cancelAfter = Integer.MAX_VALUE;
+
+        private TestSubscriber(Consumer<Flow.Subscription> onSubscribe) {
+            this.onSubscribe = onSubscribe;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            onSubscribe.accept(subscription);
+        }
+
+        @Override
+        public void onNext(GenbankRecord item) {
+            records.add(item);
+            received.countDown();
+            if (records.size() == cancelAfter) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+}
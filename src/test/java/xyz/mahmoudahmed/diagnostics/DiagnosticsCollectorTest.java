@@ -0,0 +1,106 @@
+package xyz.mahmoudahmed.diagnostics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiagnosticsCollectorTest {
+    private final Logger logger = Logger.getLogger(DiagnosticsCollector.class.getName());
+    private final List<String> logged = new ArrayList<>();
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            logged.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        logger.addHandler(handler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.removeHandler(handler);
+    }
+
+    @Test
+    void problemsAreCountedWithTheFirstExamplesKept() {
+        DiagnosticsCollector collector = new DiagnosticsCollector(3, 2);
+        for (int line = 1; line <= 1000; line++) {
+            collector.add(DiagnosticCategory.MISSING_FIELDS, line, "fewer than 8 fields");
+        }
+        collector.add(DiagnosticCategory.INVALID_PHASE, 1001, null);
+
+        DiagnosticsSummary summary = collector.finish();
+        assertEquals(1000, summary.getCount(DiagnosticCategory.MISSING_FIELDS));
+        assertEquals(1, summary.getCount(DiagnosticCategory.INVALID_PHASE));
+        assertEquals(0, summary.getCount(DiagnosticCategory.MALFORMED_LINE));
+        assertEquals(1001, summary.getTotalCount());
+
+        List<Diagnostic> examples = summary.getExamples(DiagnosticCategory.MISSING_FIELDS);
+        assertEquals(List.of(1L, 2L, 3L), examples.stream().map(Diagnostic::line).toList());
+        assertEquals("Line with too few fields skipped at line 1: fewer than 8 fields", examples.get(0).getMessage());
+        assertEquals(4, summary.examples().size());
+
+        // Two lines logged per category, then one line for the rest
+        assertEquals(List.of(
+                "Line with too few fields skipped at line 1: fewer than 8 fields",
+                "Line with too few fields skipped at line 2: fewer than 8 fields",
+                "Invalid phase ignored at line 1001",
+                "Line with too few fields skipped: 998 more not logged individually"), logged);
+    }
+
+    @Test
+    void startMakesTheCollectorCurrentUntilFinished() {
+        DiagnosticsCollector shared = DiagnosticsCollector.current();
+        DiagnosticsCollector collector = DiagnosticsCollector.start();
+        assertNotSame(shared, collector);
+        assertSame(collector, DiagnosticsCollector.current());
+
+        DiagnosticsCollector.report(DiagnosticCategory.ANNOTATION_SEQUENCE_FALLBACK, -1, "CDS at 0-90");
+        DiagnosticsSummary summary = collector.finish();
+
+        assertSame(shared, DiagnosticsCollector.current());
+        assertEquals(1, summary.getCount(DiagnosticCategory.ANNOTATION_SEQUENCE_FALLBACK));
+        assertEquals("Annotation sequence translated instead of genomic region: CDS at 0-90",
+                summary.examples().get(0).getMessage());
+    }
+
+    @Test
+    void boundTasksReportToTheCollectorFromOtherThreads() {
+        DiagnosticsCollector collector = new DiagnosticsCollector(10, 0);
+        CompletableFuture.supplyAsync(collector.bind(() -> {
+            DiagnosticsCollector.report(DiagnosticCategory.MALFORMED_LINE, 7, "bad attribute");
+            return null;
+        })).join();
+
+        DiagnosticsSummary summary = collector.getSummary();
+        assertEquals(1, summary.getCount(DiagnosticCategory.MALFORMED_LINE));
+        assertTrue(logged.isEmpty());
+    }
+
+    @Test
+    void limitsCannotBeNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new DiagnosticsCollector(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new DiagnosticsCollector(10, -1));
+        assertTrue(new DiagnosticsCollector().getSummary().isEmpty());
+    }
+}
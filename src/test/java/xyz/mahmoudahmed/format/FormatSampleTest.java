@@ -0,0 +1,38 @@
+package xyz.mahmoudahmed.format;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.mahmoudahmed.exception.FileProcessingException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatSampleTest {
+
+    @Test
+    void read_splitsTrimmedLinesWithMixedTerminators(@TempDir Path tempDir) throws IOException, FileProcessingException {
+        File file = Files.writeString(tempDir.resolve("test.fasta"), ">seq1 \r\nACGT\rGGCC\n\n  TT").toFile();
+
+        FormatSample sample = FormatSample.read(file);
+
+        assertFalse(sample.isTruncated());
+        assertArrayEquals(new String[]{">seq1", "ACGT", "GGCC", "", "TT"}, sample.getLines(10));
+        assertArrayEquals(new String[]{">seq1", "ACGT"}, sample.getLines(2));
+    }
+
+    @Test
+    void read_boundsPrefixAndKeepsPartialLastLine(@TempDir Path tempDir) throws IOException, FileProcessingException {
+        File file = Files.writeString(tempDir.resolve("long.fasta"), ">seq1\n" + "A".repeat(100) + "\n").toFile();
+
+        FormatSample sample = FormatSample.read(file, 16);
+
+        assertTrue(sample.isTruncated());
+        assertEquals(16, sample.getData().length);
+        assertArrayEquals(new String[]{">seq1", "A".repeat(10)}, sample.getLines(50));
+        assertEquals("FASTA", new FastaFormatDetector(null).detectFormat(sample));
+    }
+}
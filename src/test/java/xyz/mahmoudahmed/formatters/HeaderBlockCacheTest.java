@@ -0,0 +1,90 @@
+package xyz.mahmoudahmed.formatters;
+
+import org.junit.jupiter.api.Test;
+import xyz.mahmoudahmed.model.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeaderBlockCacheTest {
+
+    private static HeaderInfo headerInfo() {
+        return HeaderInfo.builder()
+                .keywords("WGS")
+                .dbLinks(Map.of("BioProject", "PRJNA1"))
+                .taxonomy(List.of("Eukaryota", "Metazoa", "Chordata"))
+                .references(List.of(ReferenceInfo.builder()
+                        .number(1)
+                        .authors(List.of("Doe,J.", "Roe,R."))
+                        .title("A draft assembly")
+                        .journal("Unpublished")
+                        .build()))
+                .comment("Assembled from short reads.")
+                .assemblyData(Map.of("Assembly Method", "SPAdes v. 3.15"))
+                .build();
+    }
+
+    private static String write(HeaderBlockCache cache, HeaderInfo headerInfo, AtomicInteger renders) throws IOException {
+        StringWriter out = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(out)) {
+            cache.write(writer, headerInfo, HeaderBlockCache.Block.REFERENCES_AND_COMMENT, (blockWriter, info) -> {
+                renders.incrementAndGet();
+                blockWriter.write("REFERENCE   1");
+                blockWriter.newLine();
+            });
+        }
+        return out.toString();
+    }
+
+    @Test
+    void write_rendersOncePerHeaderInfoInstance() throws IOException {
+        HeaderBlockCache cache = new HeaderBlockCache();
+        HeaderInfo shared = headerInfo();
+        AtomicInteger renders = new AtomicInteger();
+
+        String first = write(cache, shared, renders);
+        String second = write(cache, shared, renders);
+        assertEquals(first, second);
+        assertEquals(1, renders.get());
+
+        // Blocks are keyed by identity, so another instance is rendered separately
+        write(cache, headerInfo(), renders);
+        assertEquals(2, renders.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void format_writesSharedHeaderBlocksForEveryRecord() {
+        SequenceData sequenceData = SequenceData.builder()
+                .addSequence(Sequence.builder().id("contig1").name("contig1").sequence("ACGTACGTAC").build())
+                .addSequence(Sequence.builder().id("contig2").name("contig2").sequence("GGGGCCCCAA").build())
+                .build();
+        ConversionOptions options = ConversionOptions.builder()
+                .headerInfo(headerInfo())
+                .build();
+
+        String genbank = new String(new DefaultGenbankFormatter()
+                .format(sequenceData, AnnotationData.builder().build(), options), StandardCharsets.UTF_8);
+        String[] records = genbank.split("//" + System.lineSeparator());
+
+        assertEquals(2, records.length);
+        for (String record : records) {
+            assertTrue(record.contains("DBLINK      BioProject: PRJNA1"));
+            assertTrue(record.contains("KEYWORDS    WGS"));
+            assertTrue(record.contains("            Eukaryota; Metazoa; Chordata."));
+            assertTrue(record.contains("  AUTHORS   Doe,J., Roe,R."));
+            assertTrue(record.contains("##Assembly-Data-END##"));
+        }
+        assertEquals(records[0].substring(records[0].indexOf("DBLINK"), records[0].indexOf("SOURCE")),
+                records[1].substring(records[1].indexOf("DBLINK"), records[1].indexOf("SOURCE")));
+        assertEquals(records[0].substring(records[0].indexOf("REFERENCE"), records[0].indexOf("FEATURES")),
+                records[1].substring(records[1].indexOf("REFERENCE"), records[1].indexOf("FEATURES")));
+    }
+}
@@ -0,0 +1,207 @@
+package xyz.mahmoudahmed.integration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.formatters.OriginRenderer;
+import xyz.mahmoudahmed.model.*;
+import xyz.mahmoudahmed.parsers.DefaultAnnotationParser;
+import xyz.mahmoudahmed.parsers.DefaultSequenceParser;
+import xyz.mahmoudahmed.parsers.FastaAnnotationParser;
+import xyz.mahmoudahmed.translator.Translator;
+import xyz.mahmoudahmed.translator.TranslatorFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets for the hot paths.
+ * Each stage runs a fixed workload on the test thread and the bytes it allocates are read from
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, normalised per input
+ * megabyte or per feature and compared with the budget checked in at
+ * {@code src/test/resources/allocation-budgets.properties}. A stage that allocates more than its
+ * budget fails with the measured and allowed figures, so allocation-heavy changes are caught
+ * before they land. Lower a budget when a change makes a stage cheaper.
+ */
+public class AllocationBudgetTest {
+    private static final Logger logger = Logger.getLogger(AllocationBudgetTest.class.getName());
+
+    private static final String BUDGETS = "/allocation-budgets.properties";
+    private static final double MB = 1024.0 * 1024;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 3;
+
+    @TempDir
+    static Path tempDir;
+
+    private static Properties budgets;
+    private static SyntheticGenome genome;
+    private static File fasta;
+    private static File gff;
+    private static File fastaAnnotations;
+
+    @FunctionalInterface
+    private interface Workload {
+        void run() throws Exception;
+    }
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Thread allocation counters are not available on this JVM");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            assertNotNull(in, "Missing allocation budgets " + BUDGETS);
+            budgets.load(in);
+        }
+
+        genome = SyntheticGenome.builder()
+                .seed(7)
+                .contigCount(8)
+                .totalLength(2_000_000)
+                .nRunRate(0)
+                .softMaskFraction(0.05)
+                .genesPerMegabase(500)
+                .build();
+        fasta = tempDir.resolve("genome.fa").toFile();
+        gff = tempDir.resolve("genes.gff3").toFile();
+        fastaAnnotations = tempDir.resolve("genes.fasta").toFile();
+        genome.writeFasta(fasta.toPath());
+        genome.writeGff3(gff.toPath());
+        genome.writeFastaAnnotations(fastaAnnotations.toPath());
+    }
+
+    /**
+     * Measure the bytes allocated by one run of a workload on this thread, after warming it up.
+     * The smallest of several runs is taken, as compilation only ever removes allocations.
+     */
+    private static long allocatedBytes(Workload workload) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            workload.run();
+        }
+        long smallest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            workload.run();
+            smallest = Math.min(smallest, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return smallest;
+    }
+
+    private static void assertWithinBudget(String stage, String unit, double measured) {
+        String budget = budgets.getProperty(stage);
+        assertNotNull(budget, "No allocation budget for stage " + stage + " in " + BUDGETS);
+        long allowed = Long.parseLong(budget.trim());
+        logger.info(String.format("%s: %.0f bytes per %s (budget %d)", stage, measured, unit, allowed));
+        assertTrue(measured <= allowed, String.format(
+                "Stage %s allocated %.0f bytes per %s, %.0f%% of its budget of %d bytes per %s in %s",
+                stage, measured, unit, 100 * measured / allowed, allowed, unit, BUDGETS));
+    }
+
+    @Test
+    public void testSequenceParserAllocationBudget() throws Exception {
+        DefaultSequenceParser parser = new DefaultSequenceParser();
+        long bytes = allocatedBytes(() -> parser.parse(fasta));
+        assertWithinBudget("sequence-parser", "input MB", bytes / (fasta.length() / MB));
+    }
+
+    @Test
+    public void testGffParserAllocationBudget() throws Exception {
+        DefaultAnnotationParser parser = new DefaultAnnotationParser();
+        int features = 2 * genome.genes().size();
+        long bytes = allocatedBytes(() -> parser.parse(gff));
+        assertWithinBudget("gff-parser", "feature", (double) bytes / features);
+    }
+
+    @Test
+    public void testFastaAnnotationParserAllocationBudget() throws Exception {
+        FastaAnnotationParser parser = new FastaAnnotationParser();
+        int features = genome.genes().size();
+        long bytes = allocatedBytes(() -> parser.parse(fastaAnnotations));
+        assertWithinBudget("fasta-annotation-parser", "feature", (double) bytes / features);
+    }
+
+    @Test
+    public void testOriginWriterAllocationBudget() throws Exception {
+        String residues = genome.residues(0, 0, genome.getContigLength(0));
+        Writer discard = Writer.nullWriter();
+        long bytes = allocatedBytes(() -> OriginRenderer.write(discard, residues, 60, true, 1));
+        assertWithinBudget("origin-writer", "residue MB", bytes / (residues.length() / MB));
+    }
+
+    @Test
+    public void testQualifierWriterAllocationBudget() throws Exception {
+        int features = 2_000;
+        SequenceData sequences = SequenceData.builder()
+                .addSequence(Sequence.builder().id("contig1").name("contig1").sequence("ACGTACGTAC").build())
+                .build();
+        List<Annotation> annotations = new ArrayList<>(features);
+        for (int i = 0; i < features; i++) {
+            Map<String, List<String>> qualifiers = new HashMap<>();
+            qualifiers.put("gene", List.of("gene" + i));
+            qualifiers.put("locus_tag", List.of("SYN_" + i));
+            qualifiers.put("product", List.of("synthetic protein number " + i + " with a description long "
+                    + "enough to be wrapped over more than one qualifier line"));
+            qualifiers.put("codon_start", List.of("1"));
+            annotations.add(Annotation.builder()
+                    .sequenceId("contig1")
+                    .type("CDS")
+                    .start(0)
+                    .end(9)
+                    .strand(i % 2 == 0 ? 1 : -1)
+                    .featureId("cds" + i)
+                    .qualifiers(qualifiers)
+                    .build());
+        }
+        AnnotationData annotationData = AnnotationData.builder().addAnnotations("contig1", annotations).build();
+        ConversionOptions options = ConversionOptions.builder().organism("Synthetic organism").build();
+        DefaultGenbankFormatter formatter = new DefaultGenbankFormatter();
+
+        long bytes = allocatedBytes(() -> {
+            try (OutputStream out = OutputStream.nullOutputStream()) {
+                formatter.formatToStream(sequences, annotationData, out, options);
+            }
+        });
+        assertWithinBudget("qualifier-writer", "feature", (double) bytes / features);
+    }
+
+    @Test
+    public void testTranslatorAllocationBudget() throws Exception {
+        Translator translator = TranslatorFactory.createTranslator(1);
+        List<String> codingSequences = new ArrayList<>();
+        long residues = 0;
+        for (SyntheticGenome.Gene gene : genome.genes()) {
+            int index = genome.getContigNames().indexOf(gene.contig());
+            String cds = genome.residues(index, gene.start(), gene.end()).toUpperCase();
+            codingSequences.add(cds);
+            residues += cds.length();
+        }
+        long bytes = allocatedBytes(() -> {
+            for (String cds : codingSequences) {
+                translator.translate(cds, false);
+            }
+        });
+        assertWithinBudget("translator", "residue MB", bytes / (residues / MB));
+    }
+}
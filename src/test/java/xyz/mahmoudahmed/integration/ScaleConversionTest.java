@@ -0,0 +1,223 @@
+package xyz.mahmoudahmed.integration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import xyz.mahmoudahmed.converter.GenbankConverter;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankResult;
+import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.parsers.DefaultAnnotationParser;
+import xyz.mahmoudahmed.parsers.DefaultSequenceParser;
+import xyz.mahmoudahmed.util.FastaIndex;
+import xyz.mahmoudahmed.util.IndexedSequenceSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scale tests converting synthetic genomes from 10 MB upwards and asserting heap ceilings.
+ * These tests are excluded from the default build; run them with {@code mvn test -Pscale},
+ * choosing the input sizes with {@code -Dscale.sizes=10MB,1GB,10GB}. Inputs are generated
+ * into the temporary directory, which needs about three times the largest size of free space.
+ *
+ * <p>The retained heap is sampled after forced garbage collections while a conversion runs, so
+ * the ceiling measures what the conversion keeps alive rather than how lazily the collector runs.
+ * The ceiling is a fixed base plus a budget per feature, since annotations are held in memory
+ * while residues and output are streamed.</p>
+ */
+@Tag("scale")
+public class ScaleConversionTest {
+    private static final Logger logger = Logger.getLogger(ScaleConversionTest.class.getName());
+
+    private static final long MB = 1024L * 1024;
+    private static final long BASE_HEAP_CEILING = 96 * MB;
+    private static final long HEAP_PER_FEATURE = 2048;
+    private static final long MAX_CONTIG_LENGTH = 256 * MB;
+
+    @TempDir
+    Path tempDir;
+
+    static Stream<String> sizes() {
+        return Arrays.stream(System.getProperty("scale.sizes", "10MB,100MB").split(","))
+                .map(String::trim)
+                .filter(size -> !size.isEmpty());
+    }
+
+    private static long parseSize(String size) {
+        String upper = size.toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (upper.endsWith("GB")) {
+            multiplier = 1024 * MB;
+        } else if (upper.endsWith("MB")) {
+            multiplier = MB;
+        } else if (upper.endsWith("KB")) {
+            multiplier = 1024;
+        }
+        return Long.parseLong(upper.replaceAll("[A-Z]+$", "")) * multiplier;
+    }
+
+    private static SyntheticGenome genome(long totalLength) {
+        return SyntheticGenome.builder()
+                .seed(totalLength)
+                .contigCount((int) Math.max(4, totalLength / (MAX_CONTIG_LENGTH / 2)))
+                .totalLength(totalLength)
+                .lengthDistribution(SyntheticGenome.LengthDistribution.UNIFORM)
+                .nRunRate(0.02)
+                .softMaskFraction(0.05)
+                .genesPerMegabase(20)
+                .build();
+    }
+
+    private static ConversionOptions options() {
+        return ConversionOptions.builder()
+                .organism("Synthetic organism")
+                .moleculeType("DNA")
+                .build();
+    }
+
+    @ParameterizedTest(name = "lazy file conversion of {0}")
+    @MethodSource("sizes")
+    public void testLazyFileConversionStaysWithinHeapCeiling(String size) throws Exception {
+        SyntheticGenome genome = genome(parseSize(size));
+        Path fasta = tempDir.resolve("genome.fa");
+        Path gff = tempDir.resolve("genes.gff3");
+        Path output = tempDir.resolve("genome.gb");
+        genome.writeFasta(fasta);
+        genome.writeGff3(gff);
+        int features = 2 * genome.genes().size();
+
+        GenbankConverter converter = GenbankConverter.standard();
+        long peak;
+        try (HeapSampler sampler = new HeapSampler()) {
+            AnnotationData annotations = new DefaultAnnotationParser().parse(gff.toFile());
+            try (IndexedSequenceSource source = new IndexedSequenceSource(fasta.toFile(),
+                    FastaIndex.build(fasta.toFile()), 0);
+                 OutputStream out = Files.newOutputStream(output)) {
+                SequenceData sequences = new DefaultSequenceParser().parseLazy(source);
+                converter.convertToStream(sequences, annotations, out, options());
+            }
+            peak = sampler.peak();
+        }
+
+        assertHeapCeiling(size, "lazy file conversion", peak, features);
+        assertEquals(genome.getContigNames().size(), countLocusLines(output));
+    }
+
+    @ParameterizedTest(name = "stream conversion of {0}")
+    @MethodSource("sizes")
+    public void testStreamConversionStaysWithinHeapCeiling(String size) throws Exception {
+        SyntheticGenome genome = genome(parseSize(size));
+        Path fasta = tempDir.resolve("genome.fa");
+        Path gff = tempDir.resolve("genes.gff3");
+        Path output = tempDir.resolve("genome.gb");
+        genome.writeFasta(fasta);
+        genome.writeGff3(gff);
+        int features = 2 * genome.genes().size();
+
+        // Records are held one at a time, so the largest contig is part of the budget
+        long largestContig = 0;
+        for (int i = 0; i < genome.getContigNames().size(); i++) {
+            largestContig = Math.max(largestContig, genome.getContigLength(i));
+        }
+
+        GenbankConverter converter = GenbankConverter.standard();
+        GenbankResult result;
+        long peak;
+        try (HeapSampler sampler = new HeapSampler();
+             InputStream sequenceInput = Files.newInputStream(fasta);
+             InputStream annotationInput = Files.newInputStream(gff);
+             OutputStream out = Files.newOutputStream(output)) {
+            result = converter.convert(sequenceInput, annotationInput, out, options());
+            peak = sampler.peak();
+        }
+
+        assertEquals(genome.getContigNames().size(), result.getSequenceCount());
+        assertHeapCeiling(size, "stream conversion", peak - 2 * largestContig, features);
+        assertEquals(genome.getContigNames().size(), countLocusLines(output));
+    }
+
+    private static void assertHeapCeiling(String size, String path, long retained, int features) {
+        long ceiling = BASE_HEAP_CEILING + HEAP_PER_FEATURE * features;
+        logger.info(String.format("%s %s: retained %d MB of %d MB ceiling for %d features",
+                size, path, retained / MB, ceiling / MB, features));
+        assertTrue(retained <= ceiling, String.format("%s of %s retained %d MB, above the %d MB ceiling",
+                path, size, retained / MB, ceiling / MB));
+    }
+
+    private static long countLocusLines(Path output) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(output, StandardCharsets.US_ASCII)) {
+            return reader.lines().filter(line -> line.startsWith("LOCUS")).count();
+        }
+    }
+
+    /**
+     * Samples the heap retained after a forced garbage collection, keeping the largest value seen.
+     */
+    private static final class HeapSampler implements AutoCloseable {
+        private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        private final AtomicLong peak = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        HeapSampler() {
+            thread = new Thread(() -> {
+                while (running) {
+                    sample();
+                    try {
+                        Thread.sleep(250);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "heap-sampler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void sample() {
+            System.gc();
+            long retained = 0;
+            for (MemoryPoolMXBean pool : pools) {
+                retained += pool.getUsage().getUsed();
+            }
+            peak.accumulateAndGet(retained, Math::max);
+        }
+
+        long peak() {
+            sample();
+            return peak.get();
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
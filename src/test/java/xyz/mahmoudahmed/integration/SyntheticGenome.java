@@ -0,0 +1,406 @@
+package xyz.mahmoudahmed.integration;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic genome with matching annotation files, for scale testing.
+ * Residues are generated per block from a seed derived from the genome seed, the contig and
+ * the block, so any region can be regenerated without holding the genome in memory and
+ * every file written from one configuration is identical across runs. Blocks may contain a
+ * run of N and soft-masked (lowercase) runs; genes avoid neither, as in real assemblies.
+ */
+public class SyntheticGenome {
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    /**
+     * Distribution of contig lengths around the mean.
+     */
+    public enum LengthDistribution {
+        /** Every contig has the mean length. */
+        FIXED,
+        /** Lengths uniform between half and one and a half times the mean. */
+        UNIFORM,
+        /** Log-normal lengths, giving a few long contigs and many short ones like a draft assembly. */
+        LOG_NORMAL
+    }
+
+    /**
+     * A generated gene, with 0-based half-open coordinates.
+     */
+    public record Gene(String contig, String id, long start, long end, boolean forward) {
+    }
+
+    private final long seed;
+    private final List<String> contigNames;
+    private final long[] contigLengths;
+    private final double nRunRate;
+    private final double softMaskFraction;
+    private final int lineWidth;
+    private final String lineSeparator;
+    private final double genesPerMegabase;
+
+    private SyntheticGenome(Builder builder) {
+        this.seed = builder.seed;
+        this.nRunRate = builder.nRunRate;
+        this.softMaskFraction = builder.softMaskFraction;
+        this.lineWidth = builder.lineWidth;
+        this.lineSeparator = builder.crlf ? "\r\n" : "\n";
+        this.genesPerMegabase = builder.genesPerMegabase;
+        this.contigLengths = contigLengths(builder);
+        List<String> names = new ArrayList<>(contigLengths.length);
+        for (int i = 0; i < contigLengths.length; i++) {
+            names.add("contig" + (i + 1));
+        }
+        this.contigNames = Collections.unmodifiableList(names);
+    }
+
+    private static long[] contigLengths(Builder builder) {
+        SplittableRandom random = new SplittableRandom(builder.seed);
+        double[] weights = new double[builder.contigCount];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = switch (builder.lengthDistribution) {
+                case FIXED -> 1.0;
+                case UNIFORM -> 0.5 + random.nextDouble();
+                case LOG_NORMAL -> Math.exp(random.nextGaussian() * 0.8);
+            };
+            total += weights[i];
+        }
+
+        // Scale the weights to the total length, giving any rounding remainder to the first contig
+        long[] lengths = new long[weights.length];
+        long assigned = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = Math.max(1, (long) (builder.totalLength * weights[i] / total));
+            assigned += lengths[i];
+        }
+        lengths[0] = Math.max(1, lengths[0] + builder.totalLength - assigned);
+        return lengths;
+    }
+
+    /**
+     * Create a builder for SyntheticGenome.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the contig names in file order.
+     *
+     * @return The contig names
+     */
+    public List<String> getContigNames() {
+        return contigNames;
+    }
+
+    /**
+     * Get the length of a contig.
+     *
+     * @param index The contig index
+     * @return The contig length
+     */
+    public long getContigLength(int index) {
+        return contigLengths[index];
+    }
+
+    /**
+     * Get the total number of residues.
+     *
+     * @return The genome length
+     */
+    public long getTotalLength() {
+        long total = 0;
+        for (long length : contigLengths) {
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Get the residues of a region of a contig.
+     *
+     * @param index The contig index
+     * @param start The 0-based start
+     * @param end The 0-based exclusive end
+     * @return The residues
+     */
+    public String residues(int index, long start, long end) {
+        StringBuilder residues = new StringBuilder((int) (end - start));
+        for (long block = start / BLOCK_SIZE; block * BLOCK_SIZE < end; block++) {
+            char[] data = block(index, block);
+            long blockStart = block * BLOCK_SIZE;
+            int from = (int) (Math.max(start, blockStart) - blockStart);
+            int to = (int) (Math.min(end, blockStart + data.length) - blockStart);
+            residues.append(data, from, to - from);
+        }
+        return residues.toString();
+    }
+
+    /**
+     * Generate one block of a contig. Blocks are independent, so regions can be regenerated.
+     */
+    private char[] block(int index, long block) {
+        long blockStart = block * BLOCK_SIZE;
+        int length = (int) Math.min(BLOCK_SIZE, contigLengths[index] - blockStart);
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index * 1_000_003L + block);
+        char[] data = new char[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = BASES[random.nextInt(4)];
+        }
+
+        // An optional run of N, as left by scaffolding gaps
+        if (random.nextDouble() < nRunRate && length > 200) {
+            int runLength = 10 + random.nextInt(Math.min(5_000, length / 2));
+            int runStart = random.nextInt(length - runLength);
+            for (int i = runStart; i < runStart + runLength; i++) {
+                data[i] = 'N';
+            }
+        }
+
+        // Soft-masked repeats as lowercase runs covering about the configured fraction
+        if (softMaskFraction > 0) {
+            int masked = (int) (length * softMaskFraction);
+            while (masked > 0) {
+                int runLength = Math.min(masked, 50 + random.nextInt(500));
+                int runStart = random.nextInt(Math.max(1, length - runLength));
+                for (int i = runStart; i < Math.min(length, runStart + runLength); i++) {
+                    data[i] = Character.toLowerCase(data[i]);
+                }
+                masked -= runLength;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Get the genes placed on the genome at the configured density.
+     * Genes are 300 to 3000 bases long, a multiple of 3, and never overlap a contig end.
+     *
+     * @return The genes in contig order
+     */
+    public List<Gene> genes() {
+        List<Gene> genes = new ArrayList<>();
+        for (int index = 0; index < contigLengths.length; index++) {
+            SplittableRandom random = new SplittableRandom(seed ^ (0x5DEECE66DL * (index + 1)));
+            long length = contigLengths[index];
+            long spacing = (long) (1_000_000 / genesPerMegabase);
+            for (long slot = 0; slot + spacing <= length; slot += spacing) {
+                long geneLength = 3L * (100 + random.nextInt(901));
+                if (geneLength >= spacing) {
+                    geneLength = (spacing - 1) / 3 * 3;
+                }
+                if (geneLength < 3) {
+                    continue;
+                }
+                long start = slot + random.nextLong(spacing - geneLength + 1);
+                genes.add(new Gene(contigNames.get(index), "gene" + (genes.size() + 1), start, start + geneLength,
+                        random.nextBoolean()));
+            }
+        }
+        return genes;
+    }
+
+    /**
+     * Write the genome as multi-FASTA.
+     *
+     * @param path The output file
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeFasta(Path path) throws IOException {
+        try (BufferedWriter writer = open(path)) {
+            char[] line = new char[lineWidth];
+            for (int index = 0; index < contigLengths.length; index++) {
+                writer.write(">" + contigNames.get(index) + " synthetic contig " + (index + 1) + lineSeparator);
+                int column = 0;
+                for (long block = 0; block * BLOCK_SIZE < contigLengths[index]; block++) {
+                    for (char residue : block(index, block)) {
+                        line[column++] = residue;
+                        if (column == lineWidth) {
+                            writer.write(line, 0, column);
+                            writer.write(lineSeparator);
+                            column = 0;
+                        }
+                    }
+                }
+                if (column > 0) {
+                    writer.write(line, 0, column);
+                    writer.write(lineSeparator);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write gene and CDS features as GFF3.
+     *
+     * @param path The output file
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeGff3(Path path) throws IOException {
+        try (BufferedWriter writer = open(path)) {
+            writer.write("##gff-version 3" + lineSeparator);
+            for (Gene gene : genes()) {
+                String location = gene.contig() + "\tsynthetic\t%s\t" + (gene.start() + 1) + "\t" + gene.end()
+                        + "\t.\t" + (gene.forward() ? '+' : '-') + "\t%s\t";
+                writer.write(String.format(location, "gene", ".") + "ID=" + gene.id() + ";Name=" + gene.id()
+                        + lineSeparator);
+                writer.write(String.format(location, "CDS", "0") + "ID=cds-" + gene.id() + ";Parent=" + gene.id()
+                        + ";product=synthetic protein " + gene.id() + lineSeparator);
+            }
+        }
+    }
+
+    /**
+     * Write gene and CDS features as GTF.
+     *
+     * @param path The output file
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeGtf(Path path) throws IOException {
+        try (BufferedWriter writer = open(path)) {
+            for (Gene gene : genes()) {
+                String location = gene.contig() + "\tsynthetic\t%s\t" + (gene.start() + 1) + "\t" + gene.end()
+                        + "\t.\t" + (gene.forward() ? '+' : '-') + "\t%s\t";
+                String attributes = "gene_id \"" + gene.id() + "\"; transcript_id \"tx-" + gene.id() + "\";";
+                writer.write(String.format(location, "gene", ".") + attributes + lineSeparator);
+                writer.write(String.format(location, "CDS", "0") + attributes + lineSeparator);
+            }
+        }
+    }
+
+    /**
+     * Write genes as BED.
+     *
+     * @param path The output file
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeBed(Path path) throws IOException {
+        try (BufferedWriter writer = open(path)) {
+            for (Gene gene : genes()) {
+                writer.write(gene.contig() + "\t" + gene.start() + "\t" + gene.end() + "\t" + gene.id() + "\t0\t"
+                        + (gene.forward() ? '+' : '-') + lineSeparator);
+            }
+        }
+    }
+
+    /**
+     * Write genes as FASTA annotations, with the gene residues as the record sequence.
+     *
+     * @param path The output file
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeFastaAnnotations(Path path) throws IOException {
+        try (BufferedWriter writer = open(path)) {
+            for (Gene gene : genes()) {
+                int index = contigNames.indexOf(gene.contig());
+                writer.write(">" + gene.contig() + "; " + (gene.start() + 1) + "-" + gene.end() + "; "
+                        + (gene.forward() ? '+' : '-') + "; " + gene.id().toUpperCase() + lineSeparator);
+                writer.write(residues(index, gene.start(), gene.end()) + lineSeparator);
+            }
+        }
+    }
+
+    private static BufferedWriter open(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16);
+    }
+
+    /**
+     * Builder for SyntheticGenome.
+     */
+    public static class Builder {
+        private long seed = 1;
+        private int contigCount = 10;
+        private long totalLength = 1_000_000;
+        private LengthDistribution lengthDistribution = LengthDistribution.UNIFORM;
+        private double nRunRate = 0.05;
+        private double softMaskFraction = 0.0;
+        private int lineWidth = 60;
+        private boolean crlf = false;
+        private double genesPerMegabase = 100;
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder contigCount(int contigCount) {
+            if (contigCount < 1) {
+                throw new IllegalArgumentException("Contig count must be at least 1");
+            }
+            this.contigCount = contigCount;
+            return this;
+        }
+
+        public Builder totalLength(long totalLength) {
+            if (totalLength < 1) {
+                throw new IllegalArgumentException("Total length must be positive");
+            }
+            this.totalLength = totalLength;
+            return this;
+        }
+
+        public Builder lengthDistribution(LengthDistribution lengthDistribution) {
+            this.lengthDistribution = lengthDistribution;
+            return this;
+        }
+
+        /**
+         * Set the probability that a 64KB block contains a run of N.
+         */
+        public Builder nRunRate(double nRunRate) {
+            this.nRunRate = nRunRate;
+            return this;
+        }
+
+        /**
+         * Set the fraction of residues written in lowercase.
+         */
+        public Builder softMaskFraction(double softMaskFraction) {
+            this.softMaskFraction = softMaskFraction;
+            return this;
+        }
+
+        public Builder lineWidth(int lineWidth) {
+            if (lineWidth < 1) {
+                throw new IllegalArgumentException("Line width must be positive");
+            }
+            this.lineWidth = lineWidth;
+            return this;
+        }
+
+        public Builder crlf(boolean crlf) {
+            this.crlf = crlf;
+            return this;
+        }
+
+        public Builder genesPerMegabase(double genesPerMegabase) {
+            if (genesPerMegabase <= 0) {
+                throw new IllegalArgumentException("Gene density must be positive");
+            }
+            this.genesPerMegabase = genesPerMegabase;
+            return this;
+        }
+
+        public SyntheticGenome build() {
+            if (totalLength < contigCount) {
+                throw new IllegalArgumentException("Total length must be at least the contig count");
+            }
+            return new SyntheticGenome(this);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package xyz.mahmoudahmed.integration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.Sequence;
+import xyz.mahmoudahmed.model.SequenceData;
+import xyz.mahmoudahmed.parsers.DefaultAnnotationParser;
+import xyz.mahmoudahmed.parsers.DefaultSequenceParser;
+import xyz.mahmoudahmed.parsers.FastaAnnotationParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the synthetic genome generator used by the scale tests.
+ */
+public class SyntheticGenomeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static SyntheticGenome.Builder genome() {
+        return SyntheticGenome.builder()
+                .seed(42)
+                .contigCount(5)
+                .totalLength(300_000)
+                .lengthDistribution(SyntheticGenome.LengthDistribution.LOG_NORMAL)
+                .nRunRate(0.5)
+                .softMaskFraction(0.1)
+                .genesPerMegabase(200);
+    }
+
+    @Test
+    public void testSameSeedProducesIdenticalFiles() throws IOException {
+        Path first = tempDir.resolve("first.fa");
+        Path second = tempDir.resolve("second.fa");
+        Path other = tempDir.resolve("other.fa");
+        genome().build().writeFasta(first);
+        genome().build().writeFasta(second);
+        genome().seed(43).build().writeFasta(other);
+
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        assertFalse(Files.mismatch(first, other) == -1);
+    }
+
+    @Test
+    public void testFastaHonoursLineWidthCrlfAndLengths() throws IOException {
+        SyntheticGenome genome = genome().lineWidth(80).crlf(true).build();
+        Path fasta = tempDir.resolve("genome.fa");
+        genome.writeFasta(fasta);
+
+        String content = Files.readString(fasta, StandardCharsets.US_ASCII);
+        String[] lines = content.split("\r\n");
+        assertFalse(content.replace("\r\n", "").contains("\n"));
+        for (String line : lines) {
+            assertTrue(line.startsWith(">") || line.length() <= 80);
+        }
+        assertTrue(content.contains("NNNNNNNNNN"));
+        assertTrue(content.chars().anyMatch(Character::isLowerCase));
+        assertEquals(300_000, genome.getTotalLength());
+
+        SequenceData sequences = new DefaultSequenceParser().parse(fasta.toFile());
+        assertEquals(5, sequences.getCount());
+        for (int i = 0; i < 5; i++) {
+            Sequence sequence = sequences.getSequence(genome.getContigNames().get(i));
+            assertEquals(genome.getContigLength(i), sequence.getLength());
+            assertEquals(genome.residues(i, 1_000, 1_100), sequence.getSequence().substring(1_000, 1_100));
+        }
+    }
+
+    @Test
+    public void testAnnotationFilesMatchTheGenes() throws IOException {
+        SyntheticGenome genome = genome().build();
+        List<SyntheticGenome.Gene> genes = genome.genes();
+        assertFalse(genes.isEmpty());
+        for (SyntheticGenome.Gene gene : genes) {
+            int index = genome.getContigNames().indexOf(gene.contig());
+            assertTrue(gene.end() <= genome.getContigLength(index));
+            assertEquals(0, (gene.end() - gene.start()) % 3);
+        }
+
+        DefaultAnnotationParser parser = new DefaultAnnotationParser();
+        Path gff = tempDir.resolve("genes.gff3");
+        Path gtf = tempDir.resolve("genes.gtf");
+        Path bed = tempDir.resolve("genes.bed");
+        genome.writeGff3(gff);
+        genome.writeGtf(gtf);
+        genome.writeBed(bed);
+
+        AnnotationData gffData = parser.parse(gff.toFile());
+        AnnotationData gtfData = parser.parse(gtf.toFile());
+        AnnotationData bedData = parser.parse(bed.toFile());
+        assertEquals(2 * genes.size(), gffData.getTotalCount());
+        assertEquals(2 * genes.size(), gtfData.getTotalCount());
+        assertEquals(genes.size(), bedData.getTotalCount());
+
+        SyntheticGenome.Gene first = genes.get(0);
+        assertTrue(gffData.getAnnotationsForSequence(first.contig()).stream()
+                .anyMatch(a -> a.getStart() == first.start() && a.getEnd() == first.end()));
+        assertTrue(bedData.getAnnotationsForSequence(first.contig()).stream()
+                .anyMatch(a -> a.getStart() == first.start() && a.getEnd() == first.end()));
+
+        Path fastaAnnotations = tempDir.resolve("genes.fasta");
+        genome.writeFastaAnnotations(fastaAnnotations);
+        AnnotationData fastaData = new FastaAnnotationParser().parse(fastaAnnotations.toFile());
+        assertTrue(fastaData.getTotalCount() >= genes.size());
+    }
+}
@@ -0,0 +1,125 @@
+package xyz.mahmoudahmed.jfr;
+
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.mahmoudahmed.converter.DefaultGenbankConverter;
+import xyz.mahmoudahmed.model.ConversionOptions;
+import xyz.mahmoudahmed.model.GenbankOptions;
+import xyz.mahmoudahmed.model.GenbankResult;
+import xyz.mahmoudahmed.translator.TranslatorFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+    private static final List<Class<? extends Event>> EVENTS = List.of(ConversionEvent.class, FileParseEvent.class,
+            RecordFormatEvent.class, SequenceChunkReadEvent.class, TranslationEvent.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void eventsAreDisabledByDefault() {
+        for (Class<? extends Event> event : EVENTS) {
+            Enabled enabled = event.getAnnotation(Enabled.class);
+            assertNotNull(enabled, event.getSimpleName());
+            assertFalse(enabled.value(), event.getSimpleName());
+        }
+    }
+
+    @Test
+    void conversionEmitsEventsWhenEnabled() throws IOException {
+        File fasta = tempDir.resolve("seqs.fasta").toFile();
+        File gff = tempDir.resolve("genes.gff3").toFile();
+        Files.writeString(fasta.toPath(), ">seq1\nATGAAATTTGGGTAA\n>seq2\nGGGGCCCCAAAATTTT\n");
+        Files.writeString(gff.toPath(), "##gff-version 3\n"
+                + "seq1\tsrc\tgene\t1\t15\t.\t+\t.\tID=gene1\n"
+                + "seq1\tsrc\tCDS\t1\t15\t.\t+\t0\tID=cds1;Parent=gene1\n");
+        DefaultGenbankConverter converter = (DefaultGenbankConverter) new DefaultGenbankConverter.Builder()
+                .withOptions(GenbankOptions.builder().memoryEfficient(true).build())
+                .build();
+
+        List<RecordedEvent> events;
+        String protein;
+        try (Recording recording = new Recording()) {
+            for (Class<? extends Event> event : EVENTS) {
+                recording.enable(event).withoutThreshold();
+            }
+            recording.start();
+            GenbankResult result = converter.convert(fasta, gff, ConversionOptions.builder().build());
+            assertEquals(2, result.getSequenceCount());
+            protein = TranslatorFactory.createTranslator(1).translate("ATGAAATTTGGGTAA", false);
+            recording.stop();
+
+            Path dump = tempDir.resolve("conversion.jfr");
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        }
+
+        RecordedEvent conversion = single(events, "xyz.mahmoudahmed.Conversion");
+        assertEquals("files", conversion.getString("operation"));
+        assertEquals(2, conversion.getInt("sequences"));
+        assertFalse(conversion.getBoolean("failed"));
+
+        assertEquals(Set.of("seq1", "seq2"), named(events, "xyz.mahmoudahmed.RecordFormat").stream()
+                .map(event -> event.getString("sequenceId"))
+                .collect(Collectors.toSet()));
+
+        List<RecordedEvent> parses = named(events, "xyz.mahmoudahmed.FileParse");
+        assertTrue(parses.stream().anyMatch(event -> event.getString("file").equals(fasta.getPath())
+                && event.getBoolean("metadataOnly") && event.getInt("records") == 2));
+        assertTrue(parses.stream().anyMatch(event -> event.getString("file").equals(gff.getPath())
+                && event.getLong("bytes") == gff.length()));
+
+        List<RecordedEvent> reads = named(events, "xyz.mahmoudahmed.SequenceChunkRead");
+        assertTrue(reads.stream().anyMatch(event -> "seq2".equals(event.getString("sequenceId"))
+                && event.getLong("bytes") > 0));
+
+        RecordedEvent translation = single(events, "xyz.mahmoudahmed.Translation");
+        assertEquals(15, translation.getLong("residues"));
+        assertEquals(protein.length(), translation.getLong("aminoAcids"));
+    }
+
+    @Test
+    void disabledEventsAreNotRecorded() throws IOException {
+        File fasta = tempDir.resolve("seqs.fasta").toFile();
+        File gff = tempDir.resolve("genes.gff3").toFile();
+        Files.writeString(fasta.toPath(), ">seq1\nATGCATGCAT\n");
+        Files.writeString(gff.toPath(), "##gff-version 3\nseq1\tsrc\tgene\t1\t9\t.\t+\t.\tID=gene1\n");
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.start();
+            new DefaultGenbankConverter.Builder().build().convert(fasta, gff, ConversionOptions.builder().build());
+            recording.stop();
+
+            Path dump = tempDir.resolve("disabled.jfr");
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        }
+
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("xyz.mahmoudahmed.")));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = named(events, name);
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
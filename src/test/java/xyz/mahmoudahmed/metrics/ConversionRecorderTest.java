@@ -0,0 +1,81 @@
+package xyz.mahmoudahmed.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionRecorderTest {
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void nestedStagesAreSubtractedFromTheEnclosingStage() {
+        List<ConversionMetrics> reported = new ArrayList<>();
+        ConversionRecorder recorder = ConversionRecorder.start(List.of(reported::add));
+        assertSame(recorder, ConversionRecorder.current());
+
+        try (ConversionRecorder.Scope parse = recorder.stage(ConversionStage.PARSE_ANNOTATION)) {
+            sleep(20);
+            for (int i = 0; i < 3; i++) {
+                try (ConversionRecorder.Scope translate = ConversionRecorder.enter(ConversionStage.TRANSLATE)) {
+                    sleep(20);
+                    translate.features(1).bytesIn(30);
+                }
+            }
+            parse.features(3);
+        }
+        recorder.completed();
+
+        assertFalse(ConversionRecorder.current().isEnabled());
+        ConversionMetrics metrics = reported.get(0);
+        StageMetrics parse = metrics.getStage(ConversionStage.PARSE_ANNOTATION);
+        StageMetrics translate = metrics.getStage(ConversionStage.TRANSLATE);
+        assertEquals(1, parse.invocations());
+        assertEquals(3, translate.invocations());
+        assertEquals(3, translate.features());
+        assertEquals(90, translate.bytesIn());
+        assertTrue(translate.wallNanos() >= 60_000_000L);
+        assertTrue(parse.wallNanos() >= 20_000_000L && parse.wallNanos() < translate.wallNanos());
+        assertTrue(parse.wallNanos() + translate.wallNanos() <= metrics.wallNanos());
+        assertTrue(translate.featuresPerSecond() > 0);
+    }
+
+    @Test
+    void meterOutputCountsWrittenBytes() throws IOException {
+        List<ConversionMetrics> reported = new ArrayList<>();
+        ConversionRecorder recorder = ConversionRecorder.start(List.of(reported::add));
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (OutputStream out = recorder.meterOutput(target)) {
+            out.write(new byte[100]);
+            out.write('\n');
+        }
+        recorder.completed();
+
+        assertEquals(101, reported.get(0).getStage(ConversionStage.WRITE).bytesOut());
+        assertEquals(101, target.size());
+    }
+
+    @Test
+    void recorderWithoutListenersRecordsNothing() {
+        ConversionRecorder recorder = ConversionRecorder.start(List.of());
+        assertFalse(recorder.isEnabled());
+        OutputStream out = new ByteArrayOutputStream();
+        assertSame(out, recorder.meterOutput(out));
+        try (ConversionRecorder.Scope scope = ConversionRecorder.enter(ConversionStage.FORMAT)) {
+            scope.records(1).features(1).bytesOut(1).buffered(1);
+        }
+        recorder.completed();
+    }
+}
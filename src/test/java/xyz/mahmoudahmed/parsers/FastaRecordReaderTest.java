@@ -0,0 +1,55 @@
+package xyz.mahmoudahmed.parsers;
+
+import org.junit.jupiter.api.Test;
+import xyz.mahmoudahmed.model.Sequence;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastaRecordReaderTest {
+
+    private static FastaRecordReader reader(String content) {
+        return new FastaRecordReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void next_readsOneRecordAtATime() throws IOException {
+        try (FastaRecordReader reader = reader("ignored\n>seq1 first\nACGT\n\nTTAA\n>seq2\nGG\n")) {
+            Sequence first = reader.next();
+            assertEquals("seq1", first.getId());
+            assertEquals("seq1 first", first.getDescription());
+            assertEquals("ACGTTTAA", first.getSequence());
+
+            Sequence second = reader.next();
+            assertEquals("seq2", second.getId());
+            assertEquals("GG", second.getSequence());
+
+            assertNull(reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void next_handlesEmptyRecordsAndEmptyHeaders() throws IOException {
+        try (FastaRecordReader reader = reader(">\n>seq2")) {
+            Sequence first = reader.next();
+            assertEquals("unknown", first.getId());
+            assertEquals("", first.getSequence());
+            assertEquals("seq2", reader.next().getId());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void next_returnsRecordsWithTheIdOfAnEarlierRecord() throws IOException {
+        try (FastaRecordReader reader = reader(">seq1\nAC\n>seq1 again\nGT\n>seq2\nGG\n")) {
+            assertEquals("AC", reader.next().getSequence());
+            assertEquals("GT", reader.next().getSequence());
+            assertEquals("seq2", reader.next().getId());
+            assertNull(reader.next());
+        }
+    }
+}
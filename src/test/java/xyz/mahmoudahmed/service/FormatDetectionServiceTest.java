@@ -5,15 +5,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import xyz.mahmoudahmed.config.FormatConfiguration;
 import xyz.mahmoudahmed.exception.FileProcessingException;
+import xyz.mahmoudahmed.factory.FormatDetectorFactory;
+import xyz.mahmoudahmed.format.AbstractFormatDetector;
 import xyz.mahmoudahmed.format.FormatDetector;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -177,4 +187,93 @@ class FormatDetectionServiceTest {
         assertNotNull(emptyService);
     }
 
-}
\ No newline at end of file
+    @Test
+    void detectFormat_detectorThatAlreadyFailedIsNotRetried(@TempDir Path tempDir) throws IOException, FileProcessingException {
+        File testFile = Files.writeString(tempDir.resolve("test.txt"), "Test content\n").toFile();
+
+        reset(mockDetector1, mockDetector2);
+        lenient().when(mockDetector1.canDetect(any(File.class))).thenReturn(true);
+        lenient().when(mockDetector1.detectFormat(any(File.class))).thenReturn("UNKNOWN");
+        lenient().when(mockDetector2.canDetect(any(File.class))).thenReturn(false);
+        lenient().when(mockDetector2.detectFormat(any(File.class))).thenReturn("FORMAT2");
+
+        assertEquals("FORMAT2", service.detectFormat(testFile));
+
+        verify(mockDetector1, times(1)).detectFormat(any(File.class));
+        verify(mockDetector2, times(1)).detectFormat(any(File.class));
+    }
+
+    @Test
+    void detectFormat_cachesResultUntilFileChanges(@TempDir Path tempDir) throws IOException, FileProcessingException {
+        File testFile = Files.writeString(tempDir.resolve("test.txt"), "Test content\n").toFile();
+
+        reset(mockDetector1, mockDetector2);
+        lenient().when(mockDetector1.canDetect(any(File.class))).thenReturn(true);
+        lenient().when(mockDetector1.detectFormat(any(File.class))).thenReturn("FORMAT1");
+
+        assertEquals("FORMAT1", service.detectFormat(testFile));
+        assertEquals("FORMAT1", service.detectFormat(testFile));
+        verify(mockDetector1, times(1)).detectFormat(any(File.class));
+
+        Files.writeString(testFile.toPath(), "Changed content\n");
+        assertTrue(testFile.setLastModified(testFile.lastModified() + 2000));
+
+        assertEquals("FORMAT1", service.detectFormat(testFile));
+        verify(mockDetector1, times(2)).detectFormat(any(File.class));
+    }
+
+    @Test
+    void detectFormat_disabledCacheDetectsEveryTime(@TempDir Path tempDir) throws IOException, FileProcessingException {
+        File testFile = Files.writeString(tempDir.resolve("test.txt"), "Test content\n").toFile();
+        FormatDetectionService uncached = new FormatDetectionService(Arrays.asList(mockDetector1, mockDetector2), 0);
+
+        reset(mockDetector1, mockDetector2);
+        lenient().when(mockDetector1.canDetect(any(File.class))).thenReturn(true);
+        lenient().when(mockDetector1.detectFormat(any(File.class))).thenReturn("FORMAT1");
+
+        uncached.detectFormat(testFile);
+        uncached.detectFormat(testFile);
+
+        verify(mockDetector1, times(2)).detectFormat(any(File.class));
+    }
+
+    @Test
+    void detectFormat_streamIsPeekedWithoutConsumingIt() throws IOException, FileProcessingException {
+        FormatDetectionService realService = new FormatDetectionService(
+                new FormatDetectorFactory(new FormatConfiguration()).createDetectors());
+        byte[] content = ">seq1\nACGT\n".getBytes(StandardCharsets.UTF_8);
+        BufferedInputStream stream = new BufferedInputStream(new ByteArrayInputStream(content));
+
+        assertEquals("FASTA", realService.detectStreamFormat(stream));
+        assertArrayEquals(content, stream.readAllBytes());
+    }
+
+    @Test
+    void detectFormat_streamWithoutMarkSupportIsRejected() {
+        InputStream stream = new FilterInputStream(new ByteArrayInputStream(new byte[0])) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> service.detectStreamFormat(stream));
+    }
+
+    @Test
+    void detectFormat_fileOnlyDetectorsAreGivenTheFile(@TempDir Path tempDir) throws IOException, FileProcessingException {
+        // A detector written before samples, which only implements the file method
+        AbstractFormatDetector fileOnly = new AbstractFormatDetector(new FormatConfiguration(), Set.of("custom")) {
+            @Override
+            public String detectFormat(File file) throws FileProcessingException {
+                return readFileLines(file, 1)[0].startsWith("#custom") ? "CUSTOM" : "UNKNOWN";
+            }
+        };
+        FormatDetectionService customService = new FormatDetectionService(List.of(fileOnly));
+        File customFile = Files.writeString(tempDir.resolve("data.custom"), "#custom\n").toFile();
+
+        assertEquals("CUSTOM", customService.detectFormat(customFile));
+        assertEquals("UNKNOWN", customService.detectStreamFormat(
+                new BufferedInputStream(new ByteArrayInputStream("#custom\n".getBytes(StandardCharsets.UTF_8)))));
+    }
+}
@@ -115,4 +115,15 @@ public class TranslatorFactoryTest {
         // Should default to Invertebrate Mitochondrial
         assertInstanceOf(InvertebrateMitochondrialCode.class, geneticCode);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGeneticCodesAreSharedBetweenTranslators() {
+        StandardTranslator first = (StandardTranslator) TranslatorFactory.createTranslator(GeneticCodeTable.STANDARD);
+        StandardTranslator second = (StandardTranslator) TranslatorFactory.createTranslator(1);
+
+        assertNotSame(first, second);
+        assertSame(first.getGeneticCode(), second.getGeneticCode());
+        assertSame(TranslatorFactory.getGeneticCode(null),
+                TranslatorFactory.getGeneticCode(GeneticCodeTable.INVERTEBRATE_MITOCHONDRIAL));
+    }
+}
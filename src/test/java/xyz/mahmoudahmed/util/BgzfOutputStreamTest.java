@@ -0,0 +1,110 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.model.Compression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BgzfOutputStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] genbankLike(int length) {
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(7);
+        for (int position = 1; text.length() < length; position += 60) {
+            text.append(String.format("%9d", position));
+            for (int i = 0; i < 6; i++) {
+                text.append(' ');
+                for (int j = 0; j < 10; j++) {
+                    text.append("acgt".charAt(random.nextInt(4)));
+                }
+            }
+            text.append('\n');
+        }
+        return text.substring(0, length).getBytes();
+    }
+
+    @Test
+    void bgzfOutput_isReadableAsGzipAndIndexMatchesBlocks() throws IOException {
+        byte[] data = genbankLike(300_000);
+        File file = tempDir.resolve("out.gb.gz").toFile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        BgzfOutputStream out = new BgzfOutputStream(new FileOutputStream(file), Compression.BGZF,
+                Deflater.DEFAULT_COMPRESSION, 4, executor);
+        try {
+            out.write(data, 0, 1000);
+            out.flush();
+            out.write(data, 1000, data.length - 1000);
+            out.close();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(Compression.BGZF, CompressedInput.detect(file));
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+
+        BgzfIndex written = out.getIndex();
+        BgzfIndex built = BgzfIndex.build(file);
+        assertEquals(built.getBlockCount(), written.getBlockCount());
+        assertEquals(data.length, written.getUncompressedLength());
+        assertEquals(built.locate(200_000), written.locate(200_000));
+
+        written.write(BgzfIndex.indexFileFor(file));
+        try (InputStream in = BgzfIndex.load(file).openAt(file, 123_456)) {
+            assertEquals(data[123_456], (byte) in.read());
+        }
+    }
+
+    @Test
+    void gzipOutput_writesMembersWithoutBlockIndex() throws IOException {
+        byte[] data = genbankLike(100_000);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        BgzfOutputStream out = new BgzfOutputStream(compressed, Compression.GZIP);
+        out.write(data);
+        out.finish();
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+        assertThrows(IllegalStateException.class, out::getIndex);
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+
+    @Test
+    void incompressibleData_isStoredWithinBlockLimit() throws IOException {
+        byte[] data = new byte[BgzfOutputStream.MAX_BLOCK_DATA * 3];
+        new Random(11).nextBytes(data);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (BgzfOutputStream out = new BgzfOutputStream(compressed)) {
+            out.write(data);
+        }
+
+        try (InputStream in = new BgzfInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void noneCompression_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BgzfOutputStream(new ByteArrayOutputStream(), Compression.NONE));
+    }
+}
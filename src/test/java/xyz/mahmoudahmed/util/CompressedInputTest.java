@@ -0,0 +1,194 @@
+package xyz.mahmoudahmed.util;
+
+import xyz.mahmoudahmed.model.Compression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedInputTest {
+
+    private static final String FASTA = ">chr1 first\nACGTACGTAC\nGTACGTACGT\nAC\n"
+            + ">chr2\nTTTTTGGGGG\nCCCCCAAAAA\n"
+            + ">chr3\nNNNNN\n";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Write data as BGZF blocks of at most blockSize uncompressed bytes, followed by the EOF block.
+     */
+    private static byte[] bgzf(byte[] data, int blockSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int offset = 0; offset < data.length; offset += blockSize) {
+            writeBlock(out, data, offset, Math.min(blockSize, data.length - offset));
+        }
+        writeBlock(out, data, 0, 0);
+        return out.toByteArray();
+    }
+
+    private static void writeBlock(ByteArrayOutputStream out, byte[] data, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        byte[] compressed = new byte[length + 64];
+        int compressedLength = deflater.deflate(compressed);
+        deflater.end();
+
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+
+        int blockSize = 18 + compressedLength + 8;
+        out.writeBytes(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+                (byte) (blockSize - 1), (byte) ((blockSize - 1) >> 8)});
+        out.write(compressed, 0, compressedLength);
+        writeUInt32(out, crc.getValue());
+        writeUInt32(out, length);
+    }
+
+    private static void writeUInt32(ByteArrayOutputStream out, long value) {
+        for (int i = 0; i < 4; i++) {
+            out.write((int) (value >> (8 * i)) & 0xFF);
+        }
+    }
+
+    private File writeFile(String name, byte[] content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.write(path, content);
+        return path.toFile();
+    }
+
+    private File writeGzip(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return path.toFile();
+    }
+
+    @Test
+    void detect_recognisesPlainGzipAndBgzf() throws IOException {
+        byte[] data = FASTA.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Compression.NONE, CompressedInput.detect(writeFile("plain.fa", data)));
+        assertEquals(Compression.GZIP, CompressedInput.detect(writeGzip("gzip.fa.gz", FASTA)));
+        assertEquals(Compression.BGZF, CompressedInput.detect(writeFile("bgzf.fa.gz", bgzf(data, 16))));
+        assertEquals(Compression.NONE, CompressedInput.detect(writeFile("empty.fa.gz", new byte[0])));
+    }
+
+    @Test
+    void openReader_decompressesTransparently() throws IOException {
+        File gzip = writeGzip("gzip.fa.gz", FASTA);
+        File bgzf = writeFile("bgzf.fa.gz", bgzf(FASTA.getBytes(StandardCharsets.UTF_8), 16));
+
+        try (BufferedReader reader = CompressedInput.openReader(gzip)) {
+            assertEquals(">chr1 first", reader.readLine());
+        }
+        try (InputStream in = CompressedInput.openInputStream(bgzf)) {
+            assertEquals(FASTA, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void bgzfInputStream_returnsBlocksInOrderWhenInflatedInParallel() throws IOException {
+        byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) "ACGT".charAt((i * 7 + i / 13) % 4);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (InputStream in = new BgzfInputStream(new ByteArrayInputStream(bgzf(data, 1000)), 8, executor)) {
+            assertArrayEquals(data, in.readAllBytes());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void bgzfInputStream_rejectsCorruptBlock() throws IOException {
+        byte[] compressed = bgzf(FASTA.getBytes(StandardCharsets.UTF_8), 1000);
+        compressed[compressed.length - 28 - 8] ^= 0x01; // flip a bit in the stored CRC of the data block
+
+        try (InputStream in = new BgzfInputStream(new ByteArrayInputStream(compressed))) {
+            assertThrows(IOException.class, in::readAllBytes);
+        }
+    }
+
+    @Test
+    void bgzfIndex_locatesUncompressedOffsetsAndRoundTripsGzi() throws IOException {
+        byte[] data = FASTA.getBytes(StandardCharsets.UTF_8);
+        File file = writeFile("bgzf.fa.gz", bgzf(data, 16));
+
+        BgzfIndex index = BgzfIndex.build(file);
+        assertEquals(data.length, index.getUncompressedLength());
+        assertEquals((data.length + 15) / 16 + 1, index.getBlockCount());
+        assertEquals(5, index.locate(37).offsetInBlock());
+
+        try (InputStream in = index.openAt(file, 37)) {
+            assertEquals(FASTA.substring(37), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        index.write(BgzfIndex.indexFileFor(file));
+        BgzfIndex reloaded = BgzfIndex.load(file);
+        assertEquals(index.getUncompressedLength(), reloaded.getUncompressedLength());
+        assertEquals(index.getBlockCount(), reloaded.getBlockCount());
+        assertEquals(index.locate(50), reloaded.locate(50));
+    }
+
+    @Test
+    void bgzfIndex_loadPersistsScannedGziAndReusesOnlyNewerOnes() throws IOException {
+        byte[] data = FASTA.getBytes(StandardCharsets.UTF_8);
+        File file = writeFile("bgzf.fa.gz", bgzf(data, 16));
+        File gzi = BgzfIndex.indexFileFor(file);
+        int blockCount = BgzfIndex.build(file).getBlockCount();
+
+        assertEquals(blockCount, BgzfIndex.load(file).getBlockCount());
+        assertEquals(blockCount, BgzfIndex.read(gzi, file).getBlockCount());
+        assertEquals(0, tempDir.toFile().listFiles((dir, name) -> name.endsWith(".part")).length);
+
+        // An index listing only the implicit first block, distinguishable from a scan
+        Files.write(gzi.toPath(), new byte[8]);
+        assertTrue(gzi.setLastModified(file.lastModified() + 1000));
+        assertEquals(1, BgzfIndex.load(file).getBlockCount());
+
+        assertTrue(gzi.setLastModified(file.lastModified()));
+        assertEquals(blockCount, BgzfIndex.load(file).getBlockCount(), "Equal timestamps are not trusted");
+        assertEquals(blockCount, BgzfIndex.read(gzi, file).getBlockCount());
+    }
+
+    @Test
+    void fileSequenceStreamProvider_readsRecordsFromCompressedFiles() throws IOException {
+        File bgzf = writeFile("bgzf.fa.gz", bgzf(FASTA.getBytes(StandardCharsets.UTF_8), 16));
+        File gzip = writeGzip("gzip.fa.gz", FASTA);
+
+        for (File file : new File[]{bgzf, gzip}) {
+            try (FileSequenceStreamProvider provider = new FileSequenceStreamProvider(file)) {
+                StringBuilder chr2 = new StringBuilder();
+                provider.streamSequence("chr2", chr2::append);
+                assertEquals("TTTTTGGGGGCCCCCAAAAA", chr2.toString());
+
+                StringBuilder chr1 = new StringBuilder();
+                provider.streamSequence("chr1", chr1::append);
+                assertEquals("ACGTACGTACGTACGTACGTAC", chr1.toString());
+            }
+        }
+    }
+
+    @Test
+    void stripCompressionExtension_removesOnlyGz() {
+        assertEquals("genome.fasta", CompressedInput.stripCompressionExtension("genome.fasta.gz"));
+        assertEquals("genes.gff3", CompressedInput.stripCompressionExtension("genes.gff3.GZ"));
+        assertEquals("genome.fasta", CompressedInput.stripCompressionExtension("genome.fasta"));
+    }
+}
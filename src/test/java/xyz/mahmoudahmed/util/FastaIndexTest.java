@@ -0,0 +1,197 @@
+package xyz.mahmoudahmed.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.mahmoudahmed.model.Annotation;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.ValidationResult;
+import xyz.mahmoudahmed.service.FormatDetectionService;
+import xyz.mahmoudahmed.validators.DefaultGenbankValidator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class FastaIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void build_recordsLengthsOffsetsAndLineLayout() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fasta"),
+                ">chr1 first\nACGTACGT\nACGTAC\n>chr2\r\nGGGG\r\nCC\r\n").toFile();
+
+        FastaIndex index = FastaIndex.build(fasta);
+
+        assertEquals(2, index.size());
+
+        FastaIndex.Entry chr1 = index.getEntry("chr1");
+        assertEquals(14, chr1.length());
+        assertEquals(12, chr1.offset());
+        assertEquals(8, chr1.lineBases());
+        assertEquals(9, chr1.lineWidth());
+
+        FastaIndex.Entry chr2 = index.getEntry("chr2");
+        assertEquals(6, chr2.length());
+        assertEquals(35, chr2.offset());
+        assertEquals(4, chr2.lineBases());
+        assertEquals(6, chr2.lineWidth());
+
+        assertEquals(-1, index.getLength("chr3"));
+    }
+
+    @Test
+    void build_marksIrregularLineWrappingAndDoesNotPersistIt() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("irregular.fa"),
+                ">s1\nAAAAA\nCCCCCCCGTA\nGG\n>s2\nACGT\nAC\n\n>s3\nAC\nACGT\n>s4\nAC GT\n>s5\nACGT\nAC\nA\n").toFile();
+
+        FastaIndex index = FastaIndex.load(fasta);
+
+        FastaIndex.Entry s1 = index.getEntry("s1");
+        assertEquals(17, s1.length());
+        assertEquals(4, s1.offset());
+        assertFalse(s1.hasUniformLines());
+        assertEquals(0, s1.lineBases());
+        assertTrue(index.getEntry("s2").hasUniformLines(), "a short last line and trailing blank line are regular");
+        assertFalse(index.getEntry("s3").hasUniformLines(), "a line longer than the first");
+        assertFalse(index.getEntry("s4").hasUniformLines(), "whitespace inside a line");
+        assertFalse(index.getEntry("s5").hasUniformLines(), "residues after a short line");
+        assertFalse(FastaIndex.indexFileFor(fasta).exists());
+    }
+
+    @Test
+    void parseName_endsAtAnyWhitespace() throws IOException {
+        assertEquals("chr1", FastaIndex.parseName("chr1\tdesc"));
+        assertEquals("chr1", FastaIndex.parseName("  chr1 desc"));
+        assertEquals("chr1", FastaIndex.parseName("chr1"));
+        assertEquals("unknown", FastaIndex.parseName(" \t"));
+
+        File fasta = Files.writeString(tempDir.resolve("tabs.fasta"), ">chr1\tdesc\nACGT\n").toFile();
+        assertTrue(FastaIndex.build(fasta).contains("chr1"));
+    }
+
+    @Test
+    void writeAndRead_roundTripsFaiFormat() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"), ">a\nAC\n>b\nGTT\n").toFile();
+        FastaIndex built = FastaIndex.build(fasta);
+
+        File fai = FastaIndex.indexFileFor(fasta);
+        built.write(fai);
+
+        assertEquals("a\t2\t3\t2\t3\nb\t3\t9\t3\t4\n", Files.readString(fai.toPath()));
+        assertEquals(built.getEntries(), FastaIndex.read(fai).getEntries());
+    }
+
+    @Test
+    void load_prefersUpToDateFaiFile() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"), ">a\nAC\n").toFile();
+        File fai = Files.writeString(tempDir.resolve("genome.fa.fai"), "a\t1000\t3\t60\t61\n").toFile();
+        assertTrue(fai.setLastModified(fasta.lastModified() + 1000));
+
+        assertEquals(1000, FastaIndex.load(fasta).getLength("a"));
+    }
+
+    @Test
+    void load_persistsScannedIndexAndReplacesStaleOnes() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"), ">a\nAC\n>b\nGTT\n").toFile();
+        File fai = FastaIndex.indexFileFor(fasta);
+
+        FastaIndex loaded = FastaIndex.load(fasta);
+
+        assertEquals("a\t2\t3\t2\t3\nb\t3\t9\t3\t4\n", Files.readString(fai.toPath()));
+        assertEquals(loaded.getEntries(), FastaIndex.read(fai).getEntries());
+        assertEquals(List.of("genome.fa", "genome.fa.fai"), List.of(Objects.requireNonNull(tempDir.toFile().list()))
+                .stream().sorted().toList());
+
+        Files.writeString(fai.toPath(), "a\t1000\t3\t60\t61\n");
+        assertTrue(fai.setLastModified(fasta.lastModified() - 1000));
+        assertEquals(2, FastaIndex.load(fasta).getLength("a"));
+        assertEquals(3, FastaIndex.read(fai).getLength("b"));
+    }
+
+    @Test
+    void cache_sharesScannedIndexWithDescriptionsUntilFileChanges() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"), ">a first sequence\nAC\n>b\nGTT\n").toFile();
+        FastaIndexCache cache = new FastaIndexCache();
+
+        FastaIndex scanned = cache.getWithDescriptions(fasta);
+        assertEquals("a first sequence", scanned.getDescription("a"));
+        assertEquals("b", scanned.getDescription("b"));
+        assertSame(scanned, cache.get(fasta));
+
+        Files.writeString(fasta.toPath(), ">c\nACGTACGT\n");
+        assertTrue(fasta.setLastModified(fasta.lastModified() + 2000));
+        assertEquals(8, cache.get(fasta).getLength("c"));
+    }
+
+    @Test
+    void cache_readsDescriptionsAtTheOffsetsOfAFaiIndex() throws IOException {
+        String longHeader = "b " + "x".repeat(5000);
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"),
+                ">a desc\r\nAC\r\n>" + longHeader + "\n\nGT\n>c\n").toFile();
+        File fai = FastaIndex.indexFileFor(fasta);
+        FastaIndex.build(fasta).write(fai);
+        assertTrue(fai.setLastModified(fasta.lastModified() + 1000));
+        FastaIndexCache cache = new FastaIndexCache();
+
+        assertFalse(cache.get(fasta).hasDescriptions());
+        FastaIndex described = cache.getWithDescriptions(fasta);
+        assertEquals("a desc", described.getDescription("a"));
+        assertEquals(longHeader, described.getDescription("b"));
+        assertEquals("c", described.getDescription("c"));
+        assertEquals(cache.get(fasta).getEntries(), FastaIndex.read(fai).getEntries());
+        assertSame(described, cache.get(fasta));
+    }
+
+    @Test
+    void withDescriptions_rescansWhenHeadersDoNotMatchTheIndex() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"), ">a desc\nAC\n").toFile();
+        FastaIndex stale = FastaIndex.read(Files.writeString(tempDir.resolve("stale.fai"), "z\t2\t8\t2\t3\n").toFile());
+
+        FastaIndex described = stale.withDescriptions(fasta);
+
+        assertEquals("a desc", described.getDescription("a"));
+        assertFalse(described.contains("z"));
+    }
+
+    @Test
+    void suggest_findsNearMissIds() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"),
+                ">NC_000913.3\nACGT\n>chrX\nACGT\n").toFile();
+        FastaIndex index = FastaIndex.build(fasta);
+
+        assertEquals(List.of("NC_000913.3"), index.suggest("NC_000913"));
+        assertEquals(List.of("NC_000913.3"), index.suggest("nc_000913.2"));
+        assertEquals(List.of("chrX"), index.suggest("X"));
+        assertTrue(index.suggest("chrY").isEmpty());
+    }
+
+    @Test
+    void validateCompatibility_usesIndexAndReportsSuggestions() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("genome.fa"), ">NC_1.1\nACGTACGTAC\n").toFile();
+        FastaIndex index = FastaIndex.build(fasta);
+
+        AnnotationData annotations = AnnotationData.builder()
+                .addAnnotations(Map.of(
+                        "NC_1.1", List.of(Annotation.builder().sequenceId("NC_1.1").type("gene").start(1).end(20).build()),
+                        "NC_1", List.of(Annotation.builder().sequenceId("NC_1").type("gene").start(1).end(5).build())))
+                .build();
+
+        DefaultGenbankValidator validator = new DefaultGenbankValidator(mock(FormatDetectionService.class));
+        ValidationResult result = validator.validateCompatibility(index, annotations);
+
+        assertFalse(result.isValid());
+        assertEquals(1, result.getSequenceCount());
+        assertTrue(result.getSummary().contains("1 sequence references unmatched, 1 features out of bounds"));
+        assertTrue(result.getIssues().stream()
+                .anyMatch(issue -> issue.getMessage().contains("NC_1 (did you mean NC_1.1?)")));
+    }
+}
@@ -0,0 +1,153 @@
+package xyz.mahmoudahmed.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSequenceStreamProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamSequence_readsRecordsAtIndexedOffsets() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("seqs.fa"),
+                ">a desc\nACGT\nAC\n\n>b\r\nGG TT\r\nCC\r\n>empty\n>c\nNNN").toFile();
+
+        try (FileSequenceStreamProvider provider = new FileSequenceStreamProvider(fasta)) {
+            assertEquals("GGTTCC", stream(provider, "b"));
+            assertEquals("ACGTAC", stream(provider, "a"));
+            assertEquals("", stream(provider, "empty"));
+            assertEquals("NNN", stream(provider, "c"));
+            assertThrows(IllegalArgumentException.class, () -> stream(provider, "missing"));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 3})
+    void streamSequence_supportsConcurrentReadersOnOneChannel(int readAheadBuffers) throws Exception {
+        Random random = new Random(3);
+        Map<String, String> expected = new HashMap<>();
+        StringBuilder fasta = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            StringBuilder residues = new StringBuilder();
+            int length = 1 + random.nextInt(i % 10 == 0 ? 400_000 : 2_000);
+            for (int j = 0; j < length; j++) {
+                residues.append("ACGT".charAt(random.nextInt(4)));
+            }
+            expected.put("contig" + i, residues.toString());
+            fasta.append(">contig").append(i).append('\n');
+            for (int j = 0; j < length; j += 60) {
+                fasta.append(residues, j, Math.min(length, j + 60)).append('\n');
+            }
+        }
+        File file = Files.writeString(tempDir.resolve("contigs.fa"), fasta).toFile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (FileSequenceStreamProvider provider =
+                     new FileSequenceStreamProvider(file, FastaIndex.load(file), readAheadBuffers)) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Map.Entry<String, String> entry : expected.entrySet()) {
+                results.add(executor.submit(() -> entry.getValue().equals(stream(provider, entry.getKey()))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void readAhead_readsPastUnderestimatedRecordSpan() throws IOException {
+        // The first line sets the expected geometry; later lines are padded with spaces,
+        // so the record spans about twice the bytes its index entry suggests
+        StringBuilder residues = new StringBuilder();
+        StringBuilder fasta = new StringBuilder(">spaced\n");
+        Random random = new Random(5);
+        for (int line = 0; line < 1500; line++) {
+            for (int j = 0; j < 60; j++) {
+                char base = "ACGT".charAt(random.nextInt(4));
+                residues.append(base);
+                fasta.append(base);
+                if (line > 0) {
+                    fasta.append(' ');
+                }
+            }
+            fasta.append('\n');
+        }
+        fasta.append(">next\nGATTACA\n");
+        File file = Files.writeString(tempDir.resolve("spaced.fa"), fasta).toFile();
+
+        try (FileSequenceStreamProvider provider = new FileSequenceStreamProvider(file, FastaIndex.load(file), 4)) {
+            assertEquals(residues.toString(), stream(provider, "spaced"));
+            assertEquals("GATTACA", stream(provider, "next"));
+        }
+    }
+
+    @Test
+    void streamSequence_continuesGzipStreamAcrossRecordsAndRestartsOnBackwardSeek() throws IOException {
+        // Small records share a decompressed buffer; the large one spans many
+        Random random = new Random(7);
+        List<String> residues = new ArrayList<>();
+        StringBuilder fasta = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            StringBuilder record = new StringBuilder();
+            int length = i == 20 ? 200_000 : 1 + random.nextInt(100);
+            for (int j = 0; j < length; j++) {
+                record.append("ACGT".charAt(random.nextInt(4)));
+            }
+            residues.add(record.toString());
+            fasta.append(">r").append(i).append('\n');
+            for (int j = 0; j < length; j += 60) {
+                fasta.append(record, j, Math.min(length, j + 60)).append('\n');
+            }
+        }
+        Path path = tempDir.resolve("records.fa.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(fasta.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+
+        try (FileSequenceStreamProvider provider = new FileSequenceStreamProvider(path.toFile())) {
+            for (int i = 0; i < residues.size(); i++) {
+                assertEquals(residues.get(i), stream(provider, "r" + i));
+            }
+            assertEquals(residues.get(3), stream(provider, "r3"));
+            assertEquals(residues.get(3), stream(provider, "r3"));
+            assertEquals(residues.get(25), stream(provider, "r25"));
+            assertEquals(residues.get(24), stream(provider, "r24"));
+        }
+    }
+
+    @Test
+    void readAhead_rejectsNegativeBufferCount() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("one.fa"), ">a\nACGT\n").toFile();
+        assertThrows(IllegalArgumentException.class,
+                () -> new FileSequenceStreamProvider(fasta, FastaIndex.load(fasta), -1));
+    }
+
+    private static String stream(SequenceStreamProvider provider, String id) throws IOException {
+        StringBuilder residues = new StringBuilder();
+        provider.streamSequence(id, residues::append);
+        return residues.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package xyz.mahmoudahmed.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.mahmoudahmed.formatters.DefaultGenbankFormatter;
+import xyz.mahmoudahmed.model.*;
+import xyz.mahmoudahmed.parsers.DefaultSequenceParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedSequenceSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String residues(int length, long seed) {
+        Random random = new Random(seed);
+        StringBuilder residues = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            residues.append("ACGT".charAt(random.nextInt(4)));
+        }
+        return residues.toString();
+    }
+
+    private static String fasta(String... namesAndResidues) {
+        StringBuilder fasta = new StringBuilder();
+        for (int i = 0; i < namesAndResidues.length; i += 2) {
+            fasta.append('>').append(namesAndResidues[i]).append('\n');
+            String residues = namesAndResidues[i + 1];
+            for (int j = 0; j < residues.length(); j += 60) {
+                fasta.append(residues, j, Math.min(residues.length(), j + 60)).append('\n');
+            }
+        }
+        return fasta.toString();
+    }
+
+    @Test
+    void getRegion_readsRegionsAtLineGeometryOffsets() throws IOException {
+        String chr1 = residues(1_000, 1);
+        String chr2 = residues(5_003, 2);
+        File file = Files.writeString(tempDir.resolve("genome.fa"), fasta("chr1", chr1, "chr2", chr2)).toFile();
+
+        try (IndexedSequenceSource source = new IndexedSequenceSource(file)) {
+            assertEquals(chr2.substring(59, 61), source.getRegion("chr2", 59, 61));
+            assertEquals(chr2.substring(1234, 4321), source.getRegion("chr2", 1234, 4321));
+            assertEquals(chr2.substring(5000), source.getRegion("chr2", 5000, 5003));
+            assertEquals("", source.getRegion("chr1", 10, 10));
+            assertThrows(IllegalArgumentException.class, () -> source.getRegion("chr1", 900, 1001));
+            assertEquals(0, source.getCachedResidues(), "Regions are read without loading the sequence");
+
+            assertEquals(chr1, source.getSequence("chr1"));
+            assertEquals(chr1.length(), source.getCachedResidues());
+        }
+    }
+
+    @Test
+    void getRegion_streamsRecordsWithIrregularLineWrapping() throws IOException {
+        File file = Files.writeString(tempDir.resolve("ragged.fa"),
+                ">s1\nAAAAA\nCCCCCCCGTA\nGG\n>s2\nACGT\nAC\nACGTACGT\n").toFile();
+
+        try (IndexedSequenceSource source = new IndexedSequenceSource(file)) {
+            assertEquals("GT", source.getRegion("s1", 12, 14));
+            assertEquals("TAGG", source.getRegion("s1", 13, 17));
+            assertEquals("ACGTACGT", source.getRegion("s2", 6, 14));
+            assertEquals(0, source.getCachedResidues());
+        }
+    }
+
+    @Test
+    void getSequence_evictsLeastRecentlyUsedSequencesBeyondBudget() throws IOException {
+        String a = residues(400, 3);
+        String b = residues(400, 4);
+        String c = residues(400, 5);
+        File file = Files.writeString(tempDir.resolve("contigs.fa"), fasta("a", a, "b", b, "c", c)).toFile();
+
+        try (IndexedSequenceSource source = new IndexedSequenceSource(file, FastaIndex.load(file), 1_000)) {
+            assertEquals(a, source.getSequence("a"));
+            assertEquals(b, source.getSequence("b"));
+            assertEquals(800, source.getCachedResidues());
+
+            assertEquals(c, source.getSequence("c"));
+            assertEquals(800, source.getCachedResidues());
+            assertEquals(a, source.getSequence("a"));
+            assertTrue(source.getCachedResidues() <= 1_000);
+        }
+    }
+
+    @Test
+    void getRegion_readsCompressedFiles() throws IOException {
+        String chr1 = residues(300_000, 6);
+        Path path = tempDir.resolve("genome.fa.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(fasta("chr1", chr1).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        try (IndexedSequenceSource source = new IndexedSequenceSource(path.toFile())) {
+            assertEquals(chr1.substring(150_000, 170_000), source.getRegion("chr1", 150_000, 170_000));
+        }
+    }
+
+    @Test
+    void fileBackedSequences_formatLikeParsedSequences() throws IOException {
+        String chr1 = residues(70_000, 7);
+        String chr2 = residues(123, 8);
+        File file = Files.writeString(tempDir.resolve("genome.fa"), fasta("chr1 first", chr1, "chr2", chr2)).toFile();
+        DefaultSequenceParser parser = new DefaultSequenceParser();
+        DefaultGenbankFormatter formatter = new DefaultGenbankFormatter();
+        AnnotationData annotations = AnnotationData.builder().build();
+        ConversionOptions options = ConversionOptions.builder().organism("Test organism").build();
+
+        SequenceData parsed = parser.parse(file);
+        try (IndexedSequenceSource source = new IndexedSequenceSource(file, FastaIndex.build(file), 0)) {
+            SequenceData lazy = parser.parseLazy(source);
+
+            Sequence sequence = lazy.getSequence("chr1");
+            assertFalse(sequence.isLoaded());
+            assertEquals(70_000, sequence.getLength());
+            assertEquals(chr1, sequence.getSequence());
+            assertEquals(chr1.substring(10, 20), sequence.getRegion(10, 20));
+
+            String expected = new String(formatter.format(parsed, annotations, options), StandardCharsets.UTF_8);
+            String actual = new String(formatter.format(lazy, annotations, options), StandardCharsets.UTF_8);
+            assertEquals(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package xyz.mahmoudahmed.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new RingBuffer<>(1).getCapacity());
+        assertEquals(8, new RingBuffer<>(5).getCapacity());
+        assertEquals(16, new RingBuffer<>(16).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0));
+    }
+
+    @Test
+    void elementsComeOutInOrderUntilEmpty() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(ring.offer(lap * 10 + i));
+            }
+            assertFalse(ring.offer(99));
+            assertEquals(4, ring.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(lap * 10 + i, ring.poll());
+            }
+            assertNull(ring.poll());
+            assertEquals(0, ring.size());
+        }
+        assertThrows(IllegalArgumentException.class, () -> ring.offer(null));
+    }
+
+    @Test
+    void concurrentProducersAndConsumersHandOverEveryElementOnce() throws Exception {
+        int producers = 3;
+        int consumers = 3;
+        int perProducer = 20_000;
+        RingBuffer<Integer> ring = new RingBuffer<>(64);
+        AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> producerTasks = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                producerTasks.add(executor.submit(() -> {
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!ring.offer(i)) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            List<Future<?>> consumerTasks = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                consumerTasks.add(executor.submit(() -> {
+                    Integer element;
+                    while ((element = ring.poll()) != null || producing.get()) {
+                        if (element != null) {
+                            seen.incrementAndGet(element);
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : producerTasks) {
+                task.get();
+            }
+            producing.set(false);
+            for (Future<?> task : consumerTasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < seen.length(); i++) {
+            assertEquals(1, seen.get(i), "element " + i);
+        }
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,80 @@
+package xyz.mahmoudahmed.util;
+
+import org.junit.jupiter.api.Test;
+import xyz.mahmoudahmed.exception.ConversionException;
+import xyz.mahmoudahmed.model.Annotation;
+import xyz.mahmoudahmed.model.AnnotationData;
+import xyz.mahmoudahmed.model.Sequence;
+import xyz.mahmoudahmed.model.SequenceData;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceRopeTest {
+
+    private static Sequence sequence(String id, String residues) {
+        return Sequence.builder().id(id).sequence(residues).build();
+    }
+
+    @Test
+    void streamSequence_concatenatesSourcesInOrder() throws IOException {
+        SequenceData data = SequenceData.builder()
+                .addSequence(sequence("a", "ACGT"))
+                .addSequence(sequence("b", "GG"))
+                .addSequence(sequence("c", "TTT"))
+                .build();
+        SequenceRope rope = SequenceRope.of("merged_a", data.getSequences(), new InMemorySequenceStreamProvider(data));
+
+        StringBuilder merged = new StringBuilder();
+        rope.streamSequence("merged_a", merged::append);
+
+        assertEquals("ACGTGGTTT", merged.toString());
+        assertEquals(9, rope.getLength());
+        assertEquals(4, rope.getOffset("b"));
+        assertEquals(-1, rope.getOffset("missing"));
+
+        StringBuilder single = new StringBuilder();
+        rope.streamSequence("b", single::append);
+        assertEquals("GG", single.toString());
+    }
+
+    @Test
+    void remap_shiftsAnnotationsOntoMergedCoordinates() {
+        List<Sequence> sequences = List.of(
+                Sequence.builder().id("a").length(100).build(),
+                Sequence.builder().id("b").length(50).build());
+        SequenceRope rope = SequenceRope.of("merged_a", sequences, null);
+
+        AnnotationData annotations = AnnotationData.builder()
+                .addAnnotation(Annotation.builder().sequenceId("a").type("gene").start(10).end(20).featureId("g1").build())
+                .addAnnotation(Annotation.builder().sequenceId("b").type("gene").start(0).end(30).strand(-1).featureId("g2").build())
+                .addAnnotation(Annotation.builder().sequenceId("other").type("gene").start(0).end(5).build())
+                .build();
+
+        AnnotationData remapped = rope.remap(annotations);
+
+        List<Annotation> merged = remapped.getAnnotationsForSequence("merged_a");
+        assertEquals(2, remapped.getTotalCount());
+        assertEquals(10, merged.get(0).getStart());
+        assertEquals(100, merged.get(1).getStart());
+        assertEquals(130, merged.get(1).getEnd());
+        assertEquals(-1, merged.get(1).getStrand());
+        assertEquals("merged_a", merged.get(1).getSequenceId());
+    }
+
+    @Test
+    void remap_rejectsCoordinatesBeyondIntegerRange() {
+        List<Sequence> sequences = List.of(
+                Sequence.builder().id("a").length(Integer.MAX_VALUE).build(),
+                Sequence.builder().id("b").length(100).build());
+        SequenceRope rope = SequenceRope.of("merged_a", sequences, null);
+
+        AnnotationData annotations = AnnotationData.builder()
+                .addAnnotation(Annotation.builder().sequenceId("b").type("gene").start(0).end(10).featureId("g1").build())
+                .build();
+
+        assertThrows(ConversionException.class, () -> rope.remap(annotations));
+    }
+}
@@ -0,0 +1,121 @@
+package xyz.mahmoudahmed.validators;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastaSequenceScannerTest {
+
+    private List<FastaSequenceScanner.RecordStats> scan(FastaSequenceScanner scanner, String content) throws IOException {
+        List<FastaSequenceScanner.RecordStats> records = new ArrayList<>();
+        scanner.scan(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), records::add);
+        return records;
+    }
+
+    @Test
+    void scan_namesRecordsAsTheIndexAndParsersDo() throws IOException {
+        List<FastaSequenceScanner.RecordStats> records = scan(new FastaSequenceScanner(), ">chr1\tdesc\nACGT\n");
+
+        assertEquals("chr1", records.get(0).getId());
+        assertEquals("chr1\tdesc", records.get(0).getHeader());
+    }
+
+    @Test
+    void scan_countsCharacterClassesPerRecord() throws IOException {
+        List<FastaSequenceScanner.RecordStats> records = scan(new FastaSequenceScanner(),
+                ">seq1 first sequence\nACGTN\nacgtRY--\n>seq2\nATGC\n");
+
+        assertEquals(2, records.size());
+
+        FastaSequenceScanner.RecordStats first = records.get(0);
+        assertEquals("seq1", first.getId());
+        assertEquals("seq1 first sequence", first.getHeader());
+        assertEquals(13, first.getLength());
+        assertEquals(5, first.getStandardCount());
+        assertEquals(4, first.getLowercaseCount());
+        assertEquals(2, first.getIupacCount());
+        assertEquals(2, first.getGapCount());
+        assertEquals(0, first.getInvalidCount());
+        assertTrue(first.hasNonStandardCharacters());
+        assertEquals("RY", first.getNonStandardCharacters());
+
+        FastaSequenceScanner.RecordStats second = records.get(1);
+        assertEquals("seq2", second.getId());
+        assertEquals(4, second.getLength());
+        assertFalse(second.hasNonStandardCharacters());
+    }
+
+    @Test
+    void scan_reportsInvalidPositionsAcrossBufferBoundaries() throws IOException {
+        // A tiny buffer forces records and lines to span several reads
+        FastaSequenceScanner scanner = new FastaSequenceScanner(3, 2);
+        List<FastaSequenceScanner.RecordStats> records = scan(scanner, ">s1\r\nAC1G\r\nT2A3\r\n");
+
+        assertEquals(1, records.size());
+        FastaSequenceScanner.RecordStats stats = records.get(0);
+        assertEquals("s1", stats.getId());
+        assertEquals(8, stats.getLength());
+        assertEquals(3, stats.getInvalidCount());
+        assertArrayEquals(new long[]{3, 6}, stats.getInvalidPositions());
+        assertEquals("123", stats.getNonStandardCharacters());
+    }
+
+    @Test
+    void scan_handlesEmptyRecordsAndLeadingComments() throws IOException {
+        List<FastaSequenceScanner.RecordStats> records = scan(new FastaSequenceScanner(),
+                "# comment\n\n>empty\n>seq\n  ACGT  \n\n>last");
+
+        assertEquals(3, records.size());
+        assertTrue(records.get(0).isEmpty());
+        assertEquals(4, records.get(1).getLength());
+        assertEquals("last", records.get(2).getId());
+        assertTrue(records.get(2).isEmpty());
+    }
+
+    @Test
+    void scan_emptyHeaderUsesUnknownId() throws IOException {
+        List<FastaSequenceScanner.RecordStats> records = scan(new FastaSequenceScanner(), ">\nACGT\n");
+
+        assertEquals("unknown", records.get(0).getId());
+    }
+
+    @Test
+    void scan_file_returnsRecordCount(@TempDir Path tempDir) throws IOException {
+        File file = Files.writeString(tempDir.resolve("test.fasta"), ">a\nAC\n>b\nGT\n>c\nNN\n").toFile();
+
+        long count = new FastaSequenceScanner().scan(file, stats -> true);
+
+        assertEquals(3, count);
+    }
+
+    @Test
+    void scan_stopsWhenListenerReturnsFalse() throws IOException {
+        List<String> ids = new ArrayList<>();
+        long count = new FastaSequenceScanner().scan(
+                new ByteArrayInputStream(">a\nAC\n>b\nGT\n>c\nNN\n".getBytes(StandardCharsets.UTF_8)),
+                stats -> ids.add(stats.getId()) && !stats.getId().equals("b"));
+
+        assertEquals(2, count);
+        assertEquals(List.of("a", "b"), ids);
+    }
+
+    @Test
+    void classify_usesLookupTable() {
+        assertEquals(FastaSequenceScanner.CLASS_STANDARD, FastaSequenceScanner.classify((byte) 'G'));
+        assertEquals(FastaSequenceScanner.CLASS_LOWERCASE, FastaSequenceScanner.classify((byte) 'g'));
+        assertEquals(FastaSequenceScanner.CLASS_IUPAC, FastaSequenceScanner.classify((byte) 'k'));
+        assertEquals(FastaSequenceScanner.CLASS_GAP, FastaSequenceScanner.classify((byte) '.'));
+        assertEquals(FastaSequenceScanner.CLASS_WHITESPACE, FastaSequenceScanner.classify((byte) '\n'));
+        assertEquals(FastaSequenceScanner.CLASS_INVALID, FastaSequenceScanner.classify((byte) 0xC3));
+    }
+}
@@ -0,0 +1,153 @@
+package xyz.mahmoudahmed.validators;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.mahmoudahmed.exception.FileProcessingException;
+import xyz.mahmoudahmed.model.ValidationLevel;
+import xyz.mahmoudahmed.model.ValidationOptions;
+import xyz.mahmoudahmed.model.ValidationResult;
+import xyz.mahmoudahmed.service.FormatDetectionService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ValidationLevelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DefaultGenbankValidator validator;
+
+    @BeforeEach
+    void setUp() throws FileProcessingException {
+        FormatDetectionService formatDetectionService = mock(FormatDetectionService.class);
+        when(formatDetectionService.detectFormat(any(File.class))).thenAnswer(invocation -> {
+            String name = invocation.<File>getArgument(0).getName();
+            return name.endsWith(".gff") ? "GFF" : "FASTA";
+        });
+        validator = new DefaultGenbankValidator(formatDetectionService);
+    }
+
+    private static ValidationOptions level(ValidationLevel level) {
+        return ValidationOptions.builder().level(level).build();
+    }
+
+    private File largeFasta(String name, int records, int recordLength) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            content.append(">chr").append(i).append('\n');
+            for (int j = 0; j < recordLength; j += 60) {
+                content.append("ACGT".repeat(15), 0, Math.min(60, recordLength - j)).append('\n');
+            }
+        }
+        return Files.writeString(tempDir.resolve(name), content).toFile();
+    }
+
+    @Test
+    void quick_checksOnlyTheFirstHeader() throws IOException {
+        File valid = Files.writeString(tempDir.resolve("quick.fasta"), "# comment\n>seq1\nACGT\n").toFile();
+        File invalid = Files.writeString(tempDir.resolve("bad.fasta"), "ACGT\n>seq1\nACGT\n").toFile();
+
+        ValidationResult validResult = validator.validateSequence(valid, level(ValidationLevel.QUICK));
+        ValidationResult invalidResult = validator.validateSequence(invalid, level(ValidationLevel.QUICK));
+
+        assertTrue(validResult.isValid());
+        assertTrue(validResult.getSummary().startsWith("Quick check"));
+        assertFalse(invalidResult.isValid());
+        assertEquals("Sequence data found before the first FASTA header", invalidResult.getIssues().get(0).getMessage());
+    }
+
+    @Test
+    void quick_rejectsMalformedAnnotationRecord() throws IOException {
+        File annotation = Files.writeString(tempDir.resolve("quick.gff"),
+                "##gff-version 3\nchr1\tsrc\tgene\tten\t20\t.\t+\t.\tID=g1\n").toFile();
+
+        ValidationResult result = validator.validateAnnotation(annotation, null, level(ValidationLevel.QUICK));
+
+        assertFalse(result.isValid());
+        assertEquals("GFF", result.getDetectedFormat());
+        assertTrue(result.getIssues().get(0).getMessage().contains("non-numeric coordinates"));
+    }
+
+    @Test
+    void sampled_readsBoundedWindowsOfLargeFiles() throws IOException {
+        File fasta = largeFasta("sampled.fasta", 200, 1200);
+
+        ValidationResult result = validator.validateSequence(fasta, ValidationOptions.builder()
+                .level(ValidationLevel.SAMPLED)
+                .sampleWindowCount(4)
+                .sampleWindowSize(1024)
+                .build());
+
+        assertTrue(result.isValid());
+        assertTrue(result.getSummary().startsWith("Sampled 4 windows"));
+        assertTrue(result.getSequenceCount() < 200);
+    }
+
+    @Test
+    void sampled_smallFilesAreCheckedCompletely() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("small.fasta"), ">seq1\nACGTX\n>seq2\n").toFile();
+
+        ValidationResult result = validator.validateSequence(fasta, level(ValidationLevel.SAMPLED));
+
+        assertEquals(2, result.getSequenceCount());
+        assertEquals("Found 2 sequences, 1 empty", result.getSummary());
+        assertEquals(2, result.getIssues().size());
+    }
+
+    @Test
+    void sampled_compatibilityReportsUnmatchedIdsWithSuggestions() throws IOException {
+        File fasta = largeFasta("genome.fasta", 3, 600);
+        StringBuilder gff = new StringBuilder("##gff-version 3\n");
+        for (int i = 0; i < 2000; i++) {
+            gff.append("Chr1\tsrc\tgene\t").append(i + 1).append('\t').append(i + 10).append("\t.\t+\t.\tID=g").append(i).append('\n');
+        }
+        File annotation = Files.writeString(tempDir.resolve("genes.gff"), gff).toFile();
+
+        ValidationResult result = validator.validateCompatibility(fasta, annotation, ValidationOptions.builder()
+                .level(ValidationLevel.SAMPLED)
+                .sampleWindowCount(3)
+                .sampleWindowSize(2048)
+                .build());
+
+        assertFalse(result.isValid());
+        assertEquals(1, result.getIssues().size());
+        assertEquals("Annotation references sequence that doesn't exist: Chr1 (did you mean chr1?)",
+                result.getIssues().get(0).getMessage());
+    }
+
+    @Test
+    void exhaustive_failFastStopsAtFirstIssue() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("issues.fasta"), ">a\n>b\n>c\nACGT\n").toFile();
+
+        ValidationResult result = validator.validateSequence(fasta, ValidationOptions.builder()
+                .failFast(true)
+                .build());
+
+        assertEquals(1, result.getIssues().size());
+        assertEquals(1, result.getSequenceCount());
+        assertTrue(result.getSummary().endsWith("Stopped at first issue."));
+    }
+
+    @Test
+    void exhaustive_maxIssuesLimitsReportedIssues() throws IOException {
+        File fasta = Files.writeString(tempDir.resolve("issues.fasta"), ">a\n>b\n>c\n>d\nACGT\n").toFile();
+
+        ValidationResult result = validator.validateSequence(fasta, ValidationOptions.builder()
+                .maxIssues(2)
+                .build());
+
+        assertTrue(result.isValid());
+        assertEquals(4, result.getSequenceCount());
+        assertEquals(2, result.getIssues().size());
+        assertEquals("Found 4 sequences, 3 empty. 1 further issues not reported.", result.getSummary());
+    }
+}